@@ -0,0 +1,64 @@
+package org.company.benchmark;
+
+import org.company.analyzer.EmployeeAnalyzerImpl;
+import org.company.model.Employee;
+import org.company.model.EmployeeStore;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.company.report.CountingFindingSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analysis of an already loaded org chart. Findings are only counted, so formatting and
+ * console output stay out of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class AnalyzerBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"FLAT", "DEEP_CHAIN", "BALANCED", "SKEWED"})
+    public OrgChartShape shape;
+
+    private Map<Integer, Employee> employees;
+    private EmployeeStore store;
+
+    @Setup
+    public void load() {
+        String csvFile = shape.csvFile(size);
+        employees = new EmployeeCSVReaderImpl().readEmployeesDataFromFile(csvFile);
+        store = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile(csvFile);
+    }
+
+    @Benchmark
+    public CountingFindingSink analyzeEmployees() {
+        CountingFindingSink sink = new CountingFindingSink();
+        new EmployeeAnalyzerImpl(sink, 1).analyzeEmployees(employees);
+        return sink;
+    }
+
+    @Benchmark
+    public CountingFindingSink analyzeEmployeeStore() {
+        CountingFindingSink sink = new CountingFindingSink();
+        new EmployeeAnalyzerImpl(sink, 1).analyzeEmployees(store);
+        return sink;
+    }
+}
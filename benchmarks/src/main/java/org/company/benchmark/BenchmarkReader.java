@@ -0,0 +1,25 @@
+package org.company.benchmark;
+
+import org.company.model.Employee;
+import org.company.reader.EmployeeCSVReaderImpl;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Exposes the stages of {@link EmployeeCSVReaderImpl#readEmployeesDataFromFile(String)} so they can be measured one by one.
+ */
+final class BenchmarkReader extends EmployeeCSVReaderImpl {
+
+    Map<Integer, Employee> readUnlinked(String csvFile) throws IOException {
+        return readLines(csvFile);
+    }
+
+    void link(Map<Integer, Employee> employees) {
+        establishEmployeeManagementHierarchy(employees);
+    }
+
+    Map<Integer, Employee> immutable(Map<Integer, Employee> employees) {
+        return makeImmutable(employees);
+    }
+}
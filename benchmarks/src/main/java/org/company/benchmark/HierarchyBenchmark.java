@@ -0,0 +1,80 @@
+package org.company.benchmark;
+
+import org.company.model.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The two stages after parsing: linking managers to their subordinates and replacing employees
+ * by immutable copies. Both stages mutate their input, so every invocation gets a freshly parsed map
+ * and the parsing is left out of the measurement.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class HierarchyBenchmark {
+
+    @State(Scope.Thread)
+    public abstract static class ParsedEmployees {
+
+        @Param({"1000", "100000", "1000000", "10000000"})
+        public int size;
+
+        @Param({"FLAT", "DEEP_CHAIN", "BALANCED", "SKEWED"})
+        public OrgChartShape shape;
+
+        final BenchmarkReader reader = new BenchmarkReader();
+        Map<Integer, Employee> employees;
+
+        void parse() throws IOException {
+            employees = null;
+            employees = reader.readUnlinked(shape.csvFile(size));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Unlinked extends ParsedEmployees {
+
+        @Setup(Level.Invocation)
+        public void prepare() throws IOException {
+            parse();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Linked extends ParsedEmployees {
+
+        @Setup(Level.Invocation)
+        public void prepare() throws IOException {
+            parse();
+            reader.link(employees);
+        }
+    }
+
+    @Benchmark
+    public Map<Integer, Employee> establishEmployeeManagementHierarchy(Unlinked state) {
+        state.reader.link(state.employees);
+        return state.employees;
+    }
+
+    @Benchmark
+    public Map<Integer, Employee> makeImmutable(Linked state) {
+        return state.reader.immutable(state.employees);
+    }
+}
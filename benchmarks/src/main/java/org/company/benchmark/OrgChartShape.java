@@ -0,0 +1,84 @@
+package org.company.benchmark;
+
+import org.company.generator.OrgChartGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+
+/**
+ * Tree shapes of the org charts the benchmarks read, written by {@link OrgChartGenerator}. The CEO is always the
+ * first row and every employee is reachable from it. Files are deterministic for a shape and size and are cached
+ * under {@code target/benchmark-data}, so only the first trial of a parameter combination pays for them.
+ */
+public enum OrgChartShape {
+
+    /**
+     * Everyone reports to the CEO.
+     */
+    FLAT {
+        @Override
+        OrgChartGenerator.Builder configure(OrgChartGenerator.Builder builder, int size) {
+            return builder.maxDepth(1);
+        }
+    },
+    /**
+     * A single reporting line, every employee manages the next one. Salaries shrink with every level, so all but
+     * the first few dozen levels settle at a salary of 1.
+     */
+    DEEP_CHAIN {
+        @Override
+        OrgChartGenerator.Builder configure(OrgChartGenerator.Builder builder, int size) {
+            return builder.fanOut(1, 1).maxDepth(size).longReportingLineRate(1);
+        }
+    },
+    /**
+     * Every manager has {@value #BALANCED_FAN_OUT} direct reports, with subtrees of about equal size.
+     */
+    BALANCED {
+        @Override
+        OrgChartGenerator.Builder configure(OrgChartGenerator.Builder builder, int size) {
+            return builder.fanOut(BALANCED_FAN_OUT, BALANCED_FAN_OUT).maxDepth(MAX_DEPTH).longReportingLineRate(1);
+        }
+    },
+    /**
+     * Pareto distributed team sizes: mostly single reports forming long reporting lines, and a few huge teams.
+     */
+    SKEWED {
+        @Override
+        OrgChartGenerator.Builder configure(OrgChartGenerator.Builder builder, int size) {
+            return builder.fanOut(1, Math.max(1, size / SKEWED_LARGE_TEAMS))
+                    .fanOutDistribution(OrgChartGenerator.FanOutDistribution.PARETO)
+                    .maxDepth(MAX_DEPTH).longReportingLineRate(0.5);
+        }
+    };
+
+    private static final Path DATA_DIRECTORY = Path.of(System.getProperty("benchmark.data", "target/benchmark-data"));
+    private static final long SEED = 20240501L;
+    private static final int BALANCED_FAN_OUT = 8;
+    private static final int SKEWED_LARGE_TEAMS = 16;
+    private static final int MAX_DEPTH = 64;
+
+    abstract OrgChartGenerator.Builder configure(OrgChartGenerator.Builder builder, int size);
+
+    /**
+     * @return path of the CSV file of this shape with {@code size} employees, generated on first use
+     */
+    String csvFile(int size) {
+        Path file = DATA_DIRECTORY.resolve(name().toLowerCase(Locale.ROOT) + "-" + size + ".csv");
+        if (!Files.exists(file)) {
+            try {
+                Files.createDirectories(DATA_DIRECTORY);
+                Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+                configure(OrgChartGenerator.builder().seed(SEED).headcount(size), size).build().generate(tempFile);
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return file.toString();
+    }
+}
@@ -0,0 +1,54 @@
+package org.company.benchmark;
+
+import org.company.model.Employee;
+import org.company.model.EmployeeStore;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end CSV ingestion: tokenizing, validating, linking and copying into immutable employees.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class ReaderBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"FLAT", "DEEP_CHAIN", "BALANCED", "SKEWED"})
+    public OrgChartShape shape;
+
+    private String csvFile;
+
+    @Setup
+    public void createFile() {
+        csvFile = shape.csvFile(size);
+    }
+
+    @Benchmark
+    public Map<Integer, Employee> readEmployeesDataFromFile() {
+        return new EmployeeCSVReaderImpl().readEmployeesDataFromFile(csvFile);
+    }
+
+    @Benchmark
+    public EmployeeStore readEmployeeStoreFromFile() {
+        return new EmployeeCSVReaderImpl().readEmployeeStoreFromFile(csvFile);
+    }
+}
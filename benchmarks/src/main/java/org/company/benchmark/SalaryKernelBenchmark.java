@@ -0,0 +1,86 @@
+package org.company.benchmark;
+
+import org.company.analyzer.ManagerStatistics;
+import org.company.analyzer.SalaryBands;
+import org.company.analyzer.SalaryKernel;
+import org.company.analyzer.ThresholdPolicy;
+import org.company.model.EmployeeStore;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Salary kernels on the columns of an already loaded org chart. The vector kernel only exists when the
+ * company jar was built with {@code -Pvector}; otherwise both kernels are the scalar one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx12g", "--add-modules=jdk.incubator.vector"})
+public class SalaryKernelBenchmark {
+
+    public enum Kernel {
+        SCALAR, PREFERRED
+    }
+
+    @Param({"100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"FLAT", "BALANCED", "SKEWED"})
+    public OrgChartShape shape;
+
+    @Param({"SCALAR", "PREFERRED"})
+    public Kernel kernel;
+
+    private SalaryKernel salaryKernel;
+    private EmployeeStore store;
+    private int[] salaries;
+    private int[] counts;
+    private long[] sums;
+    private long[] underpaid;
+    private long[] overpaid;
+
+    @Setup
+    public void load() {
+        salaryKernel = kernel == Kernel.SCALAR ? SalaryKernel.scalar() : SalaryKernel.preferred();
+        store = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile(shape.csvFile(size));
+        ManagerStatistics statistics = ManagerStatistics.of(store);
+        salaries = new int[size];
+        counts = new int[size];
+        sums = new long[size];
+        for (int index = 0; index < size; index++) {
+            salaries[index] = store.salary(index);
+            counts[index] = statistics.directReports(index);
+            sums[index] = statistics.directSalarySum(index);
+        }
+        underpaid = new long[(size + 63) >>> 6];
+        overpaid = new long[underpaid.length];
+    }
+
+    @Benchmark
+    public long[] checkBands() {
+        Arrays.fill(underpaid, 0);
+        Arrays.fill(overpaid, 0);
+        salaryKernel.checkBands(salaries, sums, counts, 1.2, 1.5, underpaid, overpaid);
+        return underpaid;
+    }
+
+    @Benchmark
+    public SalaryBands salaryBands() {
+        return SalaryBands.of(store, ThresholdPolicy.DEFAULT, salaryKernel);
+    }
+}
@@ -2,16 +2,66 @@ package org.company;
 
 import org.company.analyzer.EmployeeAnalyzer;
 import org.company.analyzer.EmployeeAnalyzerImpl;
+import org.company.analyzer.IncrementalAnalyzer;
+import org.company.analyzer.RankedAnalysis;
+import org.company.analyzer.RankedAnalyzer;
+import org.company.analyzer.SalaryRatioHistogram;
+import org.company.analyzer.ScenarioAnalyzer;
+import org.company.analyzer.ScenarioSummary;
+import org.company.analyzer.ThresholdPolicy;
+import org.company.batch.BatchAnalyzer;
+import org.company.batch.BatchSummary;
+import org.company.batch.DirectoryWatcher;
+import org.company.diff.OrgChartDiff;
+import org.company.diff.OrgChartDiffer;
 import org.company.exception.CsvIOException;
 import org.company.exception.InvalidCsvDataException;
 import org.company.exception.InvalidCsvStructureException;
+import org.company.external.ExternalAnalysis;
+import org.company.external.ExternalAnalyzer;
+import org.company.metrics.PipelineMetrics;
 import org.company.model.Employee;
+import org.company.model.EmployeeStore;
+import org.company.query.OrgIndex;
+import org.company.query.OrgQueryServer;
+import org.company.query.OrgQueryService;
+import org.company.reader.CsvErrorReport;
+import org.company.reader.CsvReadResult;
 import org.company.reader.EmployeeCSVReader;
 import org.company.reader.EmployeeCSVReaderImpl;
+import org.company.reader.EmployeeDeltaCSVReader;
+import org.company.reader.ParallelEmployeeCSVReaderImpl;
+import org.company.reader.SnapshotEmployeeCSVReader;
+import org.company.shard.ShardCoordinator;
+import org.company.shard.ShardLauncher;
+import org.company.shard.ShardWorker;
+import org.company.shard.ShardedAnalysis;
+import org.company.report.CountingFindingSink;
+import org.company.report.CsvFindingSink;
+import org.company.report.FindingChangeWriter;
+import org.company.report.FindingSink;
+import org.company.report.JsonLinesFindingSink;
+import org.company.report.LoggingFindingSink;
+import org.company.report.OrgChartDiffWriter;
+import org.company.report.TextFindingSink;
+import org.company.validation.HierarchyValidationMode;
+import org.company.validation.HierarchyValidator;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -19,11 +69,33 @@ import java.util.logging.Logger;
 public class Application {
     private final EmployeeCSVReader csvReader;
     private final EmployeeAnalyzer employeeAnalyzer;
+    private final HierarchyValidator hierarchyValidator;
+    private final boolean skipInvalidRows;
 
     private static final Logger logger = Logger.getLogger(Application.class.getName());
+    private static final Duration WATCH_QUIET_PERIOD = Duration.ofMillis(500);
     public Application(EmployeeCSVReader csvReader, EmployeeAnalyzer employeeAnalyzer) {
+        this(csvReader, employeeAnalyzer, new HierarchyValidator(HierarchyValidationMode.OFF));
+    }
+
+    /**
+     * @param hierarchyValidator validation of the management hierarchy; unless it is off the file is analyzed
+     *                           as a column store, so findings follow file order
+     */
+    public Application(EmployeeCSVReader csvReader, EmployeeAnalyzer employeeAnalyzer, HierarchyValidator hierarchyValidator) {
+        this(csvReader, employeeAnalyzer, hierarchyValidator, false);
+    }
+
+    /**
+     * @param skipInvalidRows whether invalid rows are logged and left out instead of failing the run;
+     *                        the file is then analyzed as a column store as well
+     */
+    public Application(EmployeeCSVReader csvReader, EmployeeAnalyzer employeeAnalyzer, HierarchyValidator hierarchyValidator,
+                       boolean skipInvalidRows) {
         this.csvReader = csvReader;
         this.employeeAnalyzer = employeeAnalyzer;
+        this.hierarchyValidator = hierarchyValidator;
+        this.skipInvalidRows = skipInvalidRows;
     }
 
     public void run(String fileName) {
@@ -33,6 +105,12 @@ public class Application {
         }
 
         try {
+            if (skipInvalidRows || hierarchyValidator.mode() != HierarchyValidationMode.OFF) {
+                EmployeeStore employees = readEmployeeStore(fileName);
+                logger.info("Analyzing employee data.");
+                employeeAnalyzer.analyzeEmployees(employees);
+                return;
+            }
 
             Map<Integer, Employee> integerEmployeeMap = csvReader.readEmployeesDataFromFile(fileName);
             if (!integerEmployeeMap.isEmpty()) {
@@ -46,18 +124,654 @@ public class Application {
         }
     }
 
+    /**
+     * Loads the file once and applies the delta files to it in order, reporting after every delta
+     * only the findings it changed.
+     */
+    public void runIncremental(String fileName, List<String> deltaFiles, ThresholdPolicy policy,
+                               FindingChangeWriter changeWriter) {
+        if (Objects.isNull(fileName) || fileName.isBlank()) {
+            logger.warning("File name is empty or null.");
+            return;
+        }
+
+        try {
+            IncrementalAnalyzer incrementalAnalyzer = IncrementalAnalyzer.of(readEmployeeStore(fileName), policy);
+            EmployeeDeltaCSVReader deltaReader = new EmployeeDeltaCSVReader();
+            for (String deltaFile : deltaFiles) {
+                logger.info("Applying employee changes from " + deltaFile);
+                changeWriter.write(incrementalAnalyzer.apply(deltaReader.readDeltasFromFile(deltaFile)));
+            }
+        } catch (InvalidCsvDataException | InvalidCsvStructureException  | CsvIOException e) {
+            logger.log(Level.SEVERE, String.format( "An error occurred while processing the CSV file: %s , %s" , e.getMessage(), e.getCause()));
+        }
+    }
+
+    /**
+     * Reads the file and keeps only the worst findings of every kind.
+     *
+     * @return the ranked findings and salary ratio distribution, or null if the file could not be loaded
+     */
+    public RankedAnalysis runRanked(String fileName, RankedAnalyzer rankedAnalyzer) {
+        if (Objects.isNull(fileName) || fileName.isBlank()) {
+            logger.warning("File name is empty or null.");
+            return null;
+        }
+
+        try {
+            EmployeeStore employees = readEmployeeStore(fileName);
+            logger.info("Ranking employee data.");
+            return rankedAnalyzer.analyze(employees);
+        } catch (InvalidCsvDataException | InvalidCsvStructureException  | CsvIOException e) {
+            logger.log(Level.SEVERE, String.format( "An error occurred while processing the CSV file: %s , %s" , e.getMessage(), e.getCause()));
+            return null;
+        }
+    }
+
+    /**
+     * Reads the file once and counts the findings of every policy.
+     *
+     * @return one summary per policy, or null if the file could not be loaded
+     */
+    public List<ScenarioSummary> runScenarios(String fileName, ScenarioAnalyzer scenarioAnalyzer,
+                                              List<ThresholdPolicy> policies) {
+        if (Objects.isNull(fileName) || fileName.isBlank()) {
+            logger.warning("File name is empty or null.");
+            return null;
+        }
+
+        try {
+            EmployeeStore employees = readEmployeeStore(fileName);
+            logger.info("Evaluating " + policies.size() + " policies.");
+            return scenarioAnalyzer.analyze(employees, policies);
+        } catch (InvalidCsvDataException | InvalidCsvStructureException  | CsvIOException e) {
+            logger.log(Level.SEVERE, String.format( "An error occurred while processing the CSV file: %s , %s" , e.getMessage(), e.getCause()));
+            return null;
+        }
+    }
+
+    /**
+     * Reads the hierarchy of the file without its names and has its analysis split across shard workers, whose
+     * findings are merged into the output of a single run. The rows are streamed a second time to write the
+     * shards, so the names of all employees are never held at once.
+     *
+     * @param rowReader reads the hierarchy and streams the rows
+     * @return the counts of the sharded analysis, or null if the file could not be analyzed
+     */
+    public ShardedAnalysis runSharded(String fileName, EmployeeCSVReaderImpl rowReader, ShardCoordinator coordinator,
+                                      FindingSink sink) {
+        if (Objects.isNull(fileName) || fileName.isBlank()) {
+            logger.warning("File name is empty or null.");
+            return null;
+        }
+
+        try {
+            EmployeeStore structure = hierarchyValidator.validate(rowReader.readEmployeeStructure(fileName));
+            logger.info("Analyzing employee data in shards.");
+            return coordinator.analyze(structure, handler -> rowReader.readRows(fileName, handler), sink);
+        } catch (InvalidCsvDataException | InvalidCsvStructureException  | CsvIOException e) {
+            logger.log(Level.SEVERE, String.format( "An error occurred while processing the CSV file: %s , %s" , e.getMessage(), e.getCause()));
+            return null;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Sharded analysis failed: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads an older and a newer export of the org chart and compares them. The newer one reuses the names
+     * of the older one, which keeps names that did not change in memory once.
+     *
+     * @return the changes between the exports, or null if either file could not be loaded
+     */
+    public OrgChartDiff runDiff(String olderFileName, String fileName, OrgChartDiffer differ) {
+        if (Objects.isNull(fileName) || fileName.isBlank() || Objects.isNull(olderFileName) || olderFileName.isBlank()) {
+            logger.warning("File name is empty or null.");
+            return null;
+        }
+
+        try {
+            EmployeeStore before = readEmployeeStore(olderFileName, null);
+            EmployeeStore after = readEmployeeStore(fileName, before);
+            logger.info("Comparing " + olderFileName + " with " + fileName + ".");
+            return differ.diff(before, after);
+        } catch (InvalidCsvDataException | InvalidCsvStructureException  | CsvIOException e) {
+            logger.log(Level.SEVERE, String.format( "An error occurred while processing the CSV file: %s , %s" , e.getMessage(), e.getCause()));
+            return null;
+        }
+    }
+
+    /**
+     * Analyzes the file out of core, without ever loading it; findings arrive ordered by employee ID.
+     *
+     * @return the counts of the analysis, or null if the file could not be analyzed
+     */
+    public ExternalAnalysis runExternal(String fileName, ExternalAnalyzer externalAnalyzer, FindingSink sink) {
+        if (Objects.isNull(fileName) || fileName.isBlank()) {
+            logger.warning("File name is empty or null.");
+            return null;
+        }
+
+        try {
+            logger.info("Analyzing employee data out of core.");
+            return externalAnalyzer.analyze(fileName, sink);
+        } catch (InvalidCsvDataException | InvalidCsvStructureException  | CsvIOException e) {
+            logger.log(Level.SEVERE, String.format( "An error occurred while processing the CSV file: %s , %s" , e.getMessage(), e.getCause()));
+            return null;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Out of core analysis failed: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Loads the file once and indexes it for repeated queries.
+     *
+     * @return the query service, or null if the file could not be loaded
+     */
+    public OrgQueryService loadQueryService(String fileName, int cacheSize) {
+        if (Objects.isNull(fileName) || fileName.isBlank()) {
+            logger.warning("File name is empty or null.");
+            return null;
+        }
+
+        try {
+            EmployeeStore employees = readEmployeeStore(fileName);
+            logger.info("Indexing employee data.");
+            return new OrgQueryService(OrgIndex.of(employees), cacheSize);
+        } catch (InvalidCsvDataException | InvalidCsvStructureException  | CsvIOException e) {
+            logger.log(Level.SEVERE, String.format( "An error occurred while processing the CSV file: %s , %s" , e.getMessage(), e.getCause()));
+            return null;
+        }
+    }
+
+    private EmployeeStore readEmployeeStore(String fileName) {
+        return readEmployeeStore(fileName, null);
+    }
+
+    /**
+     * @param previous store whose names a strict read reuses, or null
+     */
+    private EmployeeStore readEmployeeStore(String fileName, EmployeeStore previous) {
+        if (!skipInvalidRows) {
+            return hierarchyValidator.validate(previous == null ? csvReader.readEmployeeStoreFromFile(fileName)
+                    : csvReader.readEmployeeStoreFromFile(fileName, previous));
+        }
+        CsvReadResult result = csvReader.readEmployeeStoreLeniently(fileName);
+        logSkippedRows(result.errors());
+        return hierarchyValidator.validate(result.employees());
+    }
+
+    private static void logSkippedRows(CsvErrorReport errors) {
+        errors.errorsByCategory().forEach((category, rowErrors) -> {
+            logger.warning(String.format("Skipped %d rows with invalid %s:", errors.errorCount(category),
+                    category == CsvErrorReport.Category.DATA ? "data" : "structure"));
+            for (CsvErrorReport.RowError error : rowErrors) {
+                logger.warning(String.format("  line %d: %s", error.lineNumber(), error.message()));
+            }
+        });
+        if (errors.isTruncated()) {
+            logger.warning(String.format("Only the first %d of %d skipped rows are listed.",
+                    errors.errors().size(), errors.errorCount()));
+        }
+    }
+
     public static void main(String[] args) {
-        if (args.length == 0) {
+        String fileName = null;
+        String format = "text";
+        boolean logFindings = false;
+        boolean snapshot = false;
+        boolean lenient = false;
+        String serve = null;
+        String metricsFile = null;
+        String batch = null;
+        String watch = null;
+        String diff = null;
+        String worker = null;
+        int shards = 0;
+        int workers = Runtime.getRuntime().availableProcessors();
+        int top = 0;
+        int parallelism = 1;
+        long memoryBudget = 0;
+        List<ThresholdPolicy> scenarios = new ArrayList<>();
+        String outputDirectory = "reports";
+        int maxConcurrentParses = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        List<String> deltaFiles = new ArrayList<>();
+        List<String> workerOptions = new ArrayList<>();
+        HierarchyValidationMode validationMode = HierarchyValidationMode.OFF;
+        for (String arg : args) {
+            if (arg.startsWith("--format=")) {
+                format = arg.substring("--format=".length());
+            } else if (arg.equals("--log-findings")) {
+                logFindings = true;
+            } else if (arg.startsWith("--validate=")) {
+                validationMode = parseValidationMode(arg.substring("--validate=".length()));
+                if (validationMode == null) {
+                    return;
+                }
+            } else if (arg.startsWith("--delta=")) {
+                deltaFiles.add(arg.substring("--delta=".length()));
+            } else if (arg.equals("--snapshot")) {
+                snapshot = true;
+            } else if (arg.equals("--lenient")) {
+                lenient = true;
+            } else if (arg.startsWith("--batch=")) {
+                batch = arg.substring("--batch=".length());
+            } else if (arg.startsWith("--scenario=")) {
+                String scenario = arg.substring("--scenario=".length());
+                try {
+                    scenarios.add(ThresholdPolicy.parse(scenario));
+                } catch (IllegalArgumentException e) {
+                    logger.warning("Invalid scenario " + scenario + ": " + e.getMessage());
+                    return;
+                }
+            } else if (arg.startsWith("--parallelism=")) {
+                parallelism = parsePositiveInt("--parallelism", arg.substring("--parallelism=".length()));
+                if (parallelism < 0) {
+                    return;
+                }
+            } else if (arg.startsWith("--top=")) {
+                top = parsePositiveInt("--top", arg.substring("--top=".length()));
+                if (top < 0) {
+                    return;
+                }
+            } else if (arg.startsWith("--memory-budget=")) {
+                memoryBudget = parseMemoryBudget(arg.substring("--memory-budget=".length()));
+                if (memoryBudget < 0) {
+                    return;
+                }
+            } else if (arg.startsWith("--shards=")) {
+                shards = parsePositiveInt("--shards", arg.substring("--shards=".length()));
+                if (shards < 0) {
+                    return;
+                }
+            } else if (arg.startsWith("--workers=")) {
+                workers = parsePositiveInt("--workers", arg.substring("--workers=".length()));
+                if (workers < 0) {
+                    return;
+                }
+            } else if (arg.startsWith("--worker-option=")) {
+                workerOptions.add(arg.substring("--worker-option=".length()));
+            } else if (arg.startsWith("--worker=")) {
+                worker = arg.substring("--worker=".length());
+            } else if (arg.startsWith("--diff=")) {
+                diff = arg.substring("--diff=".length());
+            } else if (arg.startsWith("--watch=")) {
+                watch = arg.substring("--watch=".length());
+            } else if (arg.startsWith("--output=")) {
+                outputDirectory = arg.substring("--output=".length());
+            } else if (arg.startsWith("--max-parses=")) {
+                maxConcurrentParses = parsePositiveInt("--max-parses", arg.substring("--max-parses=".length()));
+                if (maxConcurrentParses < 0) {
+                    return;
+                }
+            } else if (arg.equals("--metrics")) {
+                metricsFile = "";
+            } else if (arg.startsWith("--metrics=")) {
+                metricsFile = arg.substring("--metrics=".length());
+            } else if (arg.equals("--serve")) {
+                serve = "";
+            } else if (arg.startsWith("--serve=")) {
+                serve = arg.substring("--serve=".length());
+                if (!isPort(serve)) {
+                    logger.warning("Invalid port for --serve: " + serve + ", expected a number from 0 to 65535");
+                    return;
+                }
+            } else {
+                fileName = arg;
+            }
+        }
+        if (worker != null) {
+            runWorker(worker);
+            return;
+        }
+        if (batch != null) {
+            runBatch(batch, format, outputDirectory, maxConcurrentParses, snapshot, lenient, validationMode, logFindings,
+                    metricsFile);
+            return;
+        }
+        if (watch != null) {
+            if (metricsFile != null) {
+                logger.warning("--metrics is not written in watch mode, which only ends when it is stopped");
+            }
+            runWatch(watch, format, outputDirectory, snapshot, lenient, validationMode, logFindings);
+            return;
+        }
+        if (fileName == null) {
             logger.warning("Please provide employee information csv");
             return;
         }
+        List<String> modes = new ArrayList<>();
+        if (serve != null) {
+            modes.add("--serve");
+        }
+        if (!scenarios.isEmpty()) {
+            modes.add("--scenario");
+        }
+        if (shards > 0) {
+            modes.add("--shards");
+        }
+        if (diff != null) {
+            modes.add("--diff");
+        }
+        if (memoryBudget > 0) {
+            modes.add("--memory-budget");
+        }
+        if (top > 0) {
+            modes.add("--top");
+        }
+        if (!deltaFiles.isEmpty()) {
+            modes.add("--delta");
+        }
+        if (modes.size() > 1) {
+            logger.warning("Options " + String.join(", ", modes) + " select different analyses and cannot be combined");
+            return;
+        }
+        if (memoryBudget > 0 && (validationMode != HierarchyValidationMode.OFF || lenient || snapshot || parallelism > 1)) {
+            logger.warning("--memory-budget streams the file and cannot be combined with --validate, --lenient, "
+                    + "--snapshot or --parallelism");
+            return;
+        }
+        if (shards > 0 && (lenient || snapshot || parallelism > 1)) {
+            logger.warning("--shards streams the file and cannot be combined with --lenient, --snapshot or "
+                    + "--parallelism");
+            return;
+        }
 
         PrintWriter printWriter = new PrintWriter(System.out);
-        EmployeeCSVReader csvReader = new EmployeeCSVReaderImpl();
-        EmployeeAnalyzer employeeAnalyzer = new EmployeeAnalyzerImpl(printWriter);
+        FindingSink findingSink = createFindingSink(format, printWriter);
+        if (findingSink == null) {
+            logger.warning("Unknown output format: " + format);
+            return;
+        }
+        if (logFindings) {
+            findingSink = new LoggingFindingSink(findingSink);
+        }
+        PipelineMetrics metrics = metricsFile == null ? PipelineMetrics.disabled() : PipelineMetrics.enabled();
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        EmployeeCSVReader csvReader = pool == null ? new EmployeeCSVReaderImpl(metrics)
+                : new ParallelEmployeeCSVReaderImpl(pool, metrics);
+        if (snapshot) {
+            csvReader = new SnapshotEmployeeCSVReader(csvReader);
+        }
+        EmployeeAnalyzer employeeAnalyzer = new EmployeeAnalyzerImpl(findingSink, pool, metrics, ThresholdPolicy.DEFAULT);
+
+        Application application = new Application(csvReader, employeeAnalyzer,
+                new HierarchyValidator(validationMode, metrics), lenient);
+        if (serve != null) {
+            serve(application.loadQueryService(fileName, OrgQueryService.DEFAULT_CACHE_SIZE), serve);
+        } else if (!scenarios.isEmpty()) {
+            List<ScenarioSummary> summaries = application.runScenarios(fileName, new ScenarioAnalyzer(metrics), scenarios);
+            if (summaries != null) {
+                ScenarioSummary.write(summaries, printWriter);
+            }
+        } else if (shards > 0) {
+            application.runSharded(fileName, new EmployeeCSVReaderImpl(metrics), new ShardCoordinator(shards,
+                    ShardLauncher.processes(workers, workerOptions), Path.of(System.getProperty("java.io.tmpdir")),
+                    ThresholdPolicy.DEFAULT), findingSink);
+        } else if (diff != null) {
+            OrgChartDiff changes = application.runDiff(diff, fileName, new OrgChartDiffer(ThresholdPolicy.DEFAULT, metrics));
+            if (changes != null) {
+                new OrgChartDiffWriter(printWriter).write(changes);
+            }
+        } else if (memoryBudget > 0) {
+            application.runExternal(fileName, new ExternalAnalyzer(memoryBudget,
+                    Path.of(System.getProperty("java.io.tmpdir")), ThresholdPolicy.DEFAULT, metrics), findingSink);
+        } else if (top > 0) {
+            RankedAnalysis ranked = application.runRanked(fileName, new RankedAnalyzer(top, ThresholdPolicy.DEFAULT, metrics));
+            if (ranked != null) {
+                ranked.writeTo(metrics.measure(findingSink));
+                writePercentiles(ranked.salaryRatios(), format, printWriter);
+            }
+        } else if (deltaFiles.isEmpty()) {
+            application.run(fileName);
+        } else {
+            application.runIncremental(fileName, deltaFiles, ThresholdPolicy.DEFAULT, new FindingChangeWriter(printWriter));
+        }
+        if (metricsFile != null) {
+            writeMetrics(metrics, metricsFile);
+        }
+    }
+
+    /**
+     * Analyzes every file of a directory or glob, writing one report per file and a combined summary.
+     *
+     * @param metricsFile file the metrics of all files are written to, empty for standard error, or null
+     */
+    private static void runBatch(String directoryOrGlob, String format, String outputDirectory, int maxConcurrentParses,
+                                 boolean snapshot, boolean lenient, HierarchyValidationMode validationMode,
+                                 boolean logFindings, String metricsFile) {
+        if (createFindingSink(format, new PrintWriter(System.out)) == null) {
+            logger.warning("Unknown output format: " + format);
+            return;
+        }
+        try {
+            List<Path> files = BatchAnalyzer.resolveInputs(directoryOrGlob);
+            if (files.isEmpty()) {
+                logger.warning("No CSV files found: " + directoryOrGlob);
+                return;
+            }
+            PipelineMetrics metrics = metricsFile == null ? PipelineMetrics.disabled() : PipelineMetrics.enabled();
+            BatchSummary summary = BatchAnalyzer.builder()
+                    .readerFactory(() -> snapshot ? new SnapshotEmployeeCSVReader(new EmployeeCSVReaderImpl(metrics))
+                            : new EmployeeCSVReaderImpl(metrics))
+                    .validatorFactory(() -> new HierarchyValidator(validationMode, metrics))
+                    .reports(writer -> logFindings ? new LoggingFindingSink(createFindingSink(format, writer))
+                            : createFindingSink(format, writer), reportExtension(format))
+                    .outputDirectory(Path.of(outputDirectory))
+                    .maxConcurrentParses(maxConcurrentParses)
+                    .skipInvalidRows(lenient)
+                    .metrics(metrics)
+                    .build()
+                    .analyze(files);
+            if (metricsFile != null) {
+                writeMetrics(metrics, metricsFile);
+            }
+            if (summary.failed() > 0) {
+                logger.warning(summary.failed() + " of " + files.size() + " files failed, see "
+                        + Path.of(outputDirectory, "summary.csv"));
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Batch failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Analyzes one shard for a coordinator in another process; a failure ends the process with a non-zero code,
+     * which fails the whole sharded analysis.
+     */
+    private static void runWorker(String shard) {
+        try {
+            ShardWorker.run(Path.of(shard));
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.SEVERE, "Worker of shard " + shard + " failed: " + e.getMessage(), e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Keeps the reports of the CSV files of a directory up to date until the process is stopped.
+     */
+    private static void runWatch(String directory, String format, String outputDirectory, boolean snapshot,
+                                 boolean lenient, HierarchyValidationMode validationMode, boolean logFindings) {
+        if (createFindingSink(format, new PrintWriter(System.out)) == null) {
+            logger.warning("Unknown output format: " + format);
+            return;
+        }
+        BatchAnalyzer analyzer = BatchAnalyzer.builder()
+                .readerFactory(() -> snapshot ? new SnapshotEmployeeCSVReader(new EmployeeCSVReaderImpl())
+                        : new EmployeeCSVReaderImpl())
+                .validatorFactory(() -> new HierarchyValidator(validationMode))
+                .reports(writer -> logFindings ? new LoggingFindingSink(createFindingSink(format, writer))
+                        : createFindingSink(format, writer), reportExtension(format))
+                .outputDirectory(Path.of(outputDirectory))
+                .skipInvalidRows(lenient)
+                .build();
+        try (DirectoryWatcher watcher = new DirectoryWatcher(Path.of(directory), analyzer, WATCH_QUIET_PERIOD,
+                report -> {
+                })) {
+            logger.info("Watching " + directory + ", reports are written to " + outputDirectory);
+            watcher.run();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Watching failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Prints the salary ratio percentiles after the text findings; other formats stay machine readable, so
+     * the percentiles are logged instead.
+     */
+    private static void writePercentiles(SalaryRatioHistogram ratios, String format, PrintWriter printWriter) {
+        String line = String.format(Locale.ROOT,
+                "Salary to team average ratio of %d managers: min %.2f, p50 %.2f, p90 %.2f, p99 %.2f, max %.2f",
+                ratios.count(), ratios.min(), ratios.percentile(50), ratios.percentile(90), ratios.percentile(99),
+                ratios.max());
+        if (format.equals("text")) {
+            printWriter.println(line);
+            printWriter.flush();
+        } else {
+            logger.info(line);
+        }
+    }
+
+    /**
+     * @return whether the value is a port number, 0 letting the system pick a free port
+     */
+    private static boolean isPort(String value) {
+        try {
+            int port = Integer.parseInt(value);
+            return port >= 0 && port <= 65535;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return the validation mode, or null after logging the allowed modes
+     */
+    private static HierarchyValidationMode parseValidationMode(String value) {
+        for (HierarchyValidationMode mode : HierarchyValidationMode.values()) {
+            if (mode.name().equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        List<String> modes = Arrays.stream(HierarchyValidationMode.values())
+                .map(mode -> mode.name().toLowerCase(Locale.ROOT))
+                .toList();
+        logger.warning("Unknown validation mode: " + value + ", expected one of " + modes);
+        return null;
+    }
+
+    /**
+     * @return the value of the option, or -1 after logging that it is not a positive integer
+     */
+    private static int parsePositiveInt(String option, String value) {
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        logger.warning("Invalid value for " + option + ": " + value + ", expected a positive integer");
+        return -1;
+    }
+
+    /**
+     * @return the memory budget in bytes, or -1 after logging why the value is malformed or too small
+     */
+    private static long parseMemoryBudget(String value) {
+        long bytes;
+        try {
+            bytes = parseByteSize(value);
+        } catch (NumberFormatException | ArithmeticException e) {
+            logger.warning("Invalid memory budget: " + value);
+            return -1;
+        }
+        if (bytes < ExternalAnalyzer.MIN_MEMORY_BUDGET) {
+            logger.warning("Memory budget " + value + " is below the minimum of " + ExternalAnalyzer.MIN_MEMORY_BUDGET
+                    + " bytes");
+            return -1;
+        }
+        return bytes;
+    }
+
+    /**
+     * @param size number of bytes, optionally followed by k, m or g for binary multiples
+     * @throws NumberFormatException if the number is malformed
+     * @throws ArithmeticException   if the size does not fit in a long
+     */
+    static long parseByteSize(String size) {
+        String digits = size.trim().toLowerCase(Locale.ROOT);
+        int shift = switch (digits.isEmpty() ? ' ' : digits.charAt(digits.length() - 1)) {
+            case 'k' -> 10;
+            case 'm' -> 20;
+            case 'g' -> 30;
+            default -> 0;
+        };
+        if (shift > 0) {
+            digits = digits.substring(0, digits.length() - 1);
+        }
+        return Math.multiplyExact(Long.parseLong(digits), 1L << shift);
+    }
+
+    static String reportExtension(String format) {
+        return switch (format) {
+            case "csv" -> "csv";
+            case "jsonl" -> "jsonl";
+            default -> "txt";
+        };
+    }
+
+    /**
+     * Writes the metrics summary as one JSON line to standard error, or to the file if one is given.
+     */
+    private static void writeMetrics(PipelineMetrics metrics, String metricsFile) {
+        if (metricsFile.isEmpty()) {
+            System.err.println(metrics.toJson());
+            return;
+        }
+        try {
+            Files.writeString(Path.of(metricsFile), metrics.toJson() + System.lineSeparator(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Could not write metrics to " + metricsFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Answers queries on standard input, or on HTTP when a port is given, until the process is stopped.
+     */
+    private static void serve(OrgQueryService queryService, String port) {
+        if (queryService == null) {
+            return;
+        }
+        OrgQueryServer server = new OrgQueryServer(queryService);
+        try {
+            if (port.isEmpty()) {
+                server.serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+                        new PrintWriter(System.out));
+            } else {
+                try (OrgQueryServer.Http http = server.startHttp(Integer.parseInt(port),
+                        Runtime.getRuntime().availableProcessors())) {
+                    Thread.currentThread().join();
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Query server failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-        Application application = new Application(csvReader, employeeAnalyzer);
-        application.run(args[0]);
+    static FindingSink createFindingSink(String format, PrintWriter printWriter) {
+        return switch (format) {
+            case "text" -> new TextFindingSink(printWriter);
+            case "csv" -> new CsvFindingSink(printWriter);
+            case "jsonl" -> new JsonLinesFindingSink(printWriter);
+            case "count" -> new CountingFindingSink(printWriter);
+            default -> null;
+        };
     }
 }
 
@@ -1,6 +1,8 @@
 package org.company.analyzer;
 
 import org.company.model.Employee;
+import org.company.model.EmployeeStore;
+import org.company.report.FindingSink;
 
 import java.util.Map;
 
@@ -15,4 +17,40 @@ public interface EmployeeAnalyzer {
      */
 
     void analyzeEmployees(Map<Integer, Employee> employees);
+
+    /**
+     * Analyzes employees of a compact {@link EmployeeStore} starting from the CEO down to their subordinates.
+     * Findings are the same as for the map based overload, subordinates are visited in file order.
+     * If the CEO does not exist, the function simply returns.
+     *
+     * @param employees store with all employees in the company
+     */
+    void analyzeEmployees(EmployeeStore employees);
+
+    /**
+     * Analyzes employees like {@link #analyzeEmployees(Map)} but passes typed findings to the given sink
+     * instead of the analyzer's default output.
+     *
+     * @param employees map of employee ID to Employee objects representing all employees in the company
+     * @param sink      destination of the findings, flushed when the analysis is complete
+     */
+    void analyzeEmployees(Map<Integer, Employee> employees, FindingSink sink);
+
+    /**
+     * Analyzes employees like {@link #analyzeEmployees(EmployeeStore)} but passes typed findings to the given sink
+     * instead of the analyzer's default output.
+     *
+     * @param employees store with all employees in the company
+     * @param sink      destination of the findings, flushed when the analysis is complete
+     */
+    void analyzeEmployees(EmployeeStore employees, FindingSink sink);
+
+    /**
+     * Computes per employee salary and headcount aggregates of the whole store in one bottom-up pass.
+     * The salary checks of {@link #analyzeEmployees(EmployeeStore)} read the same aggregates.
+     *
+     * @param employees store with all employees in the company
+     * @return statistics that can be queried by employee index
+     */
+    ManagerStatistics calculateStatistics(EmployeeStore employees);
 }
\ No newline at end of file
@@ -1,81 +1,269 @@
 package org.company.analyzer;
 
+import org.company.finding.Finding;
+import org.company.finding.OverpaidFinding;
+import org.company.finding.ReportingLineTooLongFinding;
+import org.company.finding.UnderpaidFinding;
+import org.company.metrics.PipelineMetrics;
+import org.company.metrics.PipelineStage;
 import org.company.model.Employee;
+import org.company.model.EmployeeStore;
+import org.company.report.FindingSink;
+import org.company.report.TextFindingSink;
 
 import java.io.PrintStream;
 import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
 import java.util.Optional;
-import java.util.logging.Logger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntConsumer;
 
 public class EmployeeAnalyzerImpl implements EmployeeAnalyzer {
 
-    private static final double MIN_EXPECTED_COEFFICIENT = 1.2;
-    private static final double MAX_EXPECTED_COEFFICIENT = 1.5;
-    private static final int REPORTING_LINE_MAX_DEPTH = 4;
+    private static final int MAX_SURPLUS_QUEUED_TASKS = 2;
 
-    private final PrintWriter printWriter;
+    private final FindingSink findingSink;
 
-    private final Logger logger;
+    /** Pool analyzing subtrees, or null to analyze on the calling thread. */
+    private final ForkJoinPool pool;
+
+    private final PipelineMetrics metrics;
+
+    private final ThresholdPolicy policy;
+
+    private final SalaryKernel kernel = SalaryKernel.preferred();
 
     public EmployeeAnalyzerImpl(PrintWriter printWriter) {
-        this.printWriter = printWriter;
-        this.logger = Logger.getLogger(EmployeeAnalyzerImpl.class.getName());
+        this(printWriter, 1);
+    }
+
+    /**
+     * @param parallelism number of fork-join threads analyzing subtrees; 1 analyzes on the calling thread
+     */
+    public EmployeeAnalyzerImpl(PrintWriter printWriter, int parallelism) {
+        this(new TextFindingSink(printWriter), parallelism);
+    }
+
+    /**
+     * @param findingSink default destination of findings
+     * @param parallelism number of fork-join threads analyzing subtrees; 1 analyzes on the calling thread
+     */
+    public EmployeeAnalyzerImpl(FindingSink findingSink, int parallelism) {
+        this(findingSink, parallelism, PipelineMetrics.disabled());
+    }
+
+    /**
+     * @param findingSink default destination of findings
+     * @param parallelism number of fork-join threads analyzing subtrees; 1 analyzes on the calling thread
+     * @param metrics     receives the timing of every analysis, the time spent in the sink and the finding counts
+     */
+    public EmployeeAnalyzerImpl(FindingSink findingSink, int parallelism, PipelineMetrics metrics) {
+        this(findingSink, parallelism, metrics, ThresholdPolicy.DEFAULT);
+    }
+
+    /**
+     * @param findingSink default destination of findings
+     * @param parallelism number of fork-join threads analyzing subtrees, in a pool the analyzer creates once and
+     *                    whose idle threads end by themselves; 1 analyzes on the calling thread
+     * @param metrics     receives the timing of every analysis, the time spent in the sink and the finding counts
+     * @param policy      salary band and reporting line limit checked instead of the company policy
+     */
+    public EmployeeAnalyzerImpl(FindingSink findingSink, int parallelism, PipelineMetrics metrics,
+                                ThresholdPolicy policy) {
+        this(findingSink, newPool(parallelism), metrics, policy);
+    }
+
+    /**
+     * @param findingSink default destination of findings
+     * @param pool        pool analyzing subtrees, shared with its other users and never shut down by the analyzer;
+     *                    null analyzes on the calling thread
+     * @param metrics     receives the timing of every analysis, the time spent in the sink and the finding counts
+     * @param policy      salary band and reporting line limit checked instead of the company policy
+     */
+    public EmployeeAnalyzerImpl(FindingSink findingSink, ForkJoinPool pool, PipelineMetrics metrics,
+                                ThresholdPolicy policy) {
+        this.findingSink = findingSink;
+        this.pool = pool;
+        this.metrics = metrics;
+        this.policy = policy;
+    }
+
+    private static ForkJoinPool newPool(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        return parallelism == 1 ? null : new ForkJoinPool(parallelism);
     }
 
     public void analyzeEmployees(Map<Integer, Employee> employees) {
-        Optional<Employee> ceo = getCeo(employees);
-        ceo.ifPresent(manager -> analyzeEmployeeHierarchy(manager, 0));
-        printWriter.flush();
+        analyzeEmployees(employees, findingSink);
     }
 
-    private void analyzeEmployeeHierarchy(Employee manager, int reportingLineDepth) {
-        if (manager.hasSubordinates()) {
-            analyzeSalary(manager);
+    public void analyzeEmployees(EmployeeStore employees) {
+        analyzeEmployees(employees, findingSink);
+    }
+
+    public void analyzeEmployees(Map<Integer, Employee> employees, FindingSink sink) {
+        try (PipelineMetrics.Timer timer = metrics.start(PipelineStage.ANALYZE)) {
+            FindingSink measuredSink = metrics.measure(sink);
+            Optional<Employee> ceo = getCeo(employees);
+            ceo.map(EmployeeStore::fromHierarchy).ifPresent(store -> analyzeHierarchy(store, measuredSink));
+            measuredSink.flush();
+            timer.rows(employees.size());
+        }
+    }
 
-            if (reportingLineDepth > REPORTING_LINE_MAX_DEPTH) {
-                printSubordinates(manager, reportingLineDepth);
+    public void analyzeEmployees(EmployeeStore employees, FindingSink sink) {
+        try (PipelineMetrics.Timer timer = metrics.start(PipelineStage.ANALYZE)) {
+            FindingSink measuredSink = metrics.measure(sink);
+            if (employees.ceo() >= 0) {
+                analyzeHierarchy(employees, measuredSink);
             }
+            measuredSink.flush();
+            timer.rows(employees.size());
+        }
+    }
 
-            for (Employee subordinate : manager.subordinates()) {
-                analyzeEmployeeHierarchy(subordinate, reportingLineDepth + 1);
+    /**
+     * Analyzes the subtrees of the given roots one after the other, each as the analysis of the whole hierarchy
+     * analyzes it once it reaches the root. The roots are only checked as managers; whether their own reporting
+     * line is too long is up to the analysis of their manager.
+     *
+     * @param rootReportingLineDepths depth of every root below the CEO, which decides the reporting line findings
+     * @param subtreeDone             called with every root once all findings of its subtree were passed to the sink
+     */
+    public void analyzeSubtrees(EmployeeStore employees, int[] roots, int[] rootReportingLineDepths, FindingSink sink,
+                                IntConsumer subtreeDone) {
+        try (PipelineMetrics.Timer timer = metrics.start(PipelineStage.ANALYZE)) {
+            FindingSink measuredSink = metrics.measure(sink);
+            SalaryBands bands = SalaryBands.of(employees, policy, kernel);
+            for (int i = 0; i < roots.length; i++) {
+                analyzeHierarchy(bands, roots[i], rootReportingLineDepths[i], measuredSink);
+                subtreeDone.accept(roots[i]);
             }
+            measuredSink.flush();
+            timer.rows(employees.size());
         }
     }
 
-    private void analyzeSalary(Employee currentEmployee) {
-        double averageSalary = calculateAvgSalary(currentEmployee.subordinates());
-        double minExpectedSalary = MIN_EXPECTED_COEFFICIENT * averageSalary;
-        double maxExpectedSalary = MAX_EXPECTED_COEFFICIENT * averageSalary;
+    public ManagerStatistics calculateStatistics(EmployeeStore employees) {
+        return ManagerStatistics.of(employees);
+    }
+
+    /**
+     * Checks the salary bands of all employees in bulk, then walks the hierarchy to report the findings
+     * in pre-order.
+     */
+    private void analyzeHierarchy(EmployeeStore employees, FindingSink sink) {
+        analyzeHierarchy(SalaryBands.of(employees, policy, kernel), employees.ceo(), 0, sink);
+    }
+
+    private void analyzeHierarchy(SalaryBands bands, int root, int rootReportingLineDepth, FindingSink sink) {
+        if (pool != null) {
+            analyzeInParallel(new SubtreeTask(bands, root, rootReportingLineDepth), sink);
+        } else {
+            analyzeEmployeeHierarchy(bands, root, rootReportingLineDepth, new AnalysisOutput(sink));
+        }
+    }
 
-        if (currentEmployee.salary() < minExpectedSalary) {
-            logAndPrintWarning(String.format("Employee id=%s, %s earns less than expected by %s.",
-                    currentEmployee.id(),
-                    currentEmployee.fullName(),
-                    minExpectedSalary - currentEmployee.salary()));
+    /**
+     * Runs the root task on the pool and passes the buffered findings of all subtree tasks
+     * to the sink in the order the sequential walk would have produced them.
+     */
+    private void analyzeInParallel(ForkJoinTask<List<Object>> rootTask, FindingSink sink) {
+        Deque<Object> pending = new ArrayDeque<>(pool.invoke(rootTask));
+        while (!pending.isEmpty()) {
+            Object segment = pending.pollFirst();
+            if (segment instanceof FindingBuffer buffer) {
+                buffer.findings().forEach(sink::accept);
+            } else {
+                List<Object> nested = ((SubtreeTask) segment).join();
+                for (ListIterator<Object> iterator = nested.listIterator(nested.size()); iterator.hasPrevious(); ) {
+                    pending.addFirst(iterator.previous());
+                }
+            }
         }
+    }
+
+    /**
+     * Walks the hierarchy in pre-order with explicit index and depth stacks, so arbitrarily long
+     * reporting lines only cost heap and never thread stack.
+     */
+    private void analyzeEmployeeHierarchy(SalaryBands bands, int root, int rootReportingLineDepth,
+                                          AnalysisOutput output) {
+        EmployeeStore employees = bands.employees();
+        int[] stack = new int[16];
+        int[] depths = new int[16];
+        int size = 0;
+        stack[size] = root;
+        depths[size++] = rootReportingLineDepth;
+        while (size > 0) {
+            int manager = stack[--size];
+            int reportingLineDepth = depths[size];
+            if (!employees.hasSubordinates(manager)) {
+                continue;
+            }
+            analyzeSalary(bands, manager, output.sink());
 
-        if (currentEmployee.salary() > maxExpectedSalary) {
-            logAndPrintWarning(String.format("Employee id=%s, %s earns more than expected by %s.",
-                    currentEmployee.id(),
-                    currentEmployee.fullName(),
-                    currentEmployee.salary() - maxExpectedSalary));
+            if (reportingLineDepth > policy.maxReportingLineDepth()) {
+                reportSubordinates(employees, manager, reportingLineDepth, output.sink());
+            }
+
+            int first = employees.firstSubordinate(manager);
+            int last = employees.lastSubordinate(manager);
+            if (output.shouldFork(last - first)) {
+                for (int position = first; position < last; position++) {
+                    int subordinate = employees.subordinate(position);
+                    if (employees.hasSubordinates(subordinate)) {
+                        output.fork(new SubtreeTask(bands, subordinate, reportingLineDepth + 1));
+                    }
+                }
+                continue;
+            }
+            if (size + last - first > stack.length) {
+                int capacity = Math.max(stack.length * 2, size + last - first);
+                stack = Arrays.copyOf(stack, capacity);
+                depths = Arrays.copyOf(depths, capacity);
+            }
+            for (int position = last - 1; position >= first; position--) {
+                stack[size] = employees.subordinate(position);
+                depths[size++] = reportingLineDepth + 1;
+            }
         }
     }
 
-    private void printSubordinates(Employee employee, int reportingLineDepth) {
-        printWriter.printf("Find below Employees with reporting line more by %d", reportingLineDepth - REPORTING_LINE_MAX_DEPTH);
-        printWriter.println();
-        employee.subordinates().stream()
-                .map(Employee::identityInfo)
-                .forEach(printWriter::println);
+    private void analyzeSalary(SalaryBands bands, int manager, FindingSink sink) {
+        EmployeeStore employees = bands.employees();
+        double averageSalary = bands.averageDirectSalary(manager);
+        int salary = employees.salary(manager);
+
+        if (bands.isUnderpaid(manager)) {
+            sink.accept(new UnderpaidFinding(employees.id(manager), employees.firstName(manager),
+                    employees.lastName(manager), salary, policy.minCoefficient() * averageSalary));
+        }
+
+        if (bands.isOverpaid(manager)) {
+            sink.accept(new OverpaidFinding(employees.id(manager), employees.firstName(manager),
+                    employees.lastName(manager), salary, policy.maxCoefficient() * averageSalary));
+        }
     }
 
-    private double calculateAvgSalary(List<Employee> employees) {
-        return employees.stream()
-                .mapToInt(Employee::salary).average()
-                .orElse(0);
+    private void reportSubordinates(EmployeeStore employees, int manager, int reportingLineDepth, FindingSink sink) {
+        int managerId = employees.id(manager);
+        int excess = reportingLineDepth - policy.maxReportingLineDepth();
+        for (int position = employees.firstSubordinate(manager); position < employees.lastSubordinate(manager); position++) {
+            int subordinate = employees.subordinate(position);
+            sink.accept(new ReportingLineTooLongFinding(employees.id(subordinate), employees.firstName(subordinate),
+                    employees.lastName(subordinate), managerId, reportingLineDepth, excess));
+        }
     }
 
     private Optional<Employee> getCeo(Map<Integer, Employee> employees) {
@@ -84,8 +272,74 @@ public class EmployeeAnalyzerImpl implements EmployeeAnalyzer {
                 .findFirst();
     }
 
-    private void logAndPrintWarning(String message) {
-        logger.warning(message);
-        printWriter.println(message);
+    /**
+     * Destination of a walk. On the calling thread it passes findings straight to the sink; inside a
+     * subtree task it buffers the findings and records forked subtasks between the buffers, so the segments
+     * can later be delivered in the sequential pre-order.
+     */
+    private static final class AnalysisOutput {
+        private final List<Object> segments = new ArrayList<>();
+        private final boolean forking;
+        private FindingSink sink;
+
+        private AnalysisOutput(FindingSink sink) {
+            this.sink = sink;
+            this.forking = false;
+        }
+
+        private AnalysisOutput() {
+            this.forking = true;
+        }
+
+        private FindingSink sink() {
+            if (sink == null) {
+                FindingBuffer buffer = new FindingBuffer(new ArrayList<>());
+                segments.add(buffer);
+                sink = buffer;
+            }
+            return sink;
+        }
+
+        private boolean shouldFork(int subordinateCount) {
+            return forking && subordinateCount > 1
+                    && ForkJoinTask.getSurplusQueuedTaskCount() <= MAX_SURPLUS_QUEUED_TASKS;
+        }
+
+        private void fork(SubtreeTask task) {
+            sink = null;
+            task.fork();
+            segments.add(task);
+        }
+
+        private List<Object> segments() {
+            return segments;
+        }
+    }
+
+    private record FindingBuffer(List<Finding> findings) implements FindingSink {
+        @Override
+        public void accept(Finding finding) {
+            findings.add(finding);
+        }
+    }
+
+    @SuppressWarnings("serial") // tasks are never serialized
+    private final class SubtreeTask extends RecursiveTask<List<Object>> {
+        private final SalaryBands bands;
+        private final int root;
+        private final int reportingLineDepth;
+
+        private SubtreeTask(SalaryBands bands, int root, int reportingLineDepth) {
+            this.bands = bands;
+            this.root = root;
+            this.reportingLineDepth = reportingLineDepth;
+        }
+
+        @Override
+        protected List<Object> compute() {
+            AnalysisOutput output = new AnalysisOutput();
+            analyzeEmployeeHierarchy(bands, root, reportingLineDepth, output);
+            return output.segments();
+        }
     }
-}
\ No newline at end of file
+}
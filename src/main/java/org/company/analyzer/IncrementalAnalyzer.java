@@ -0,0 +1,350 @@
+package org.company.analyzer;
+
+import org.company.finding.Finding;
+import org.company.finding.FindingChanges;
+import org.company.finding.OverpaidFinding;
+import org.company.finding.ReportingLineTooLongFinding;
+import org.company.finding.UnderpaidFinding;
+import org.company.model.EmployeeDelta;
+import org.company.model.EmployeeStore;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Keeps a loaded org chart and its findings up to date while deltas are applied to it.
+ * Every employee keeps its team salary sum and its reporting line depth, so a delta only re-evaluates the
+ * employees it touches, their managers and the subtrees whose position in the hierarchy changed.
+ * The cost of a delta therefore depends on its size and on the size of moved subtrees, not on the company.
+ * <p>
+ * Findings always equal those of {@link EmployeeAnalyzerImpl} run on the changed file, where updated employees
+ * keep their row and new employees are appended at the end. Instances are not thread safe.
+ */
+public final class IncrementalAnalyzer {
+
+    private static final Comparator<Finding> FINDING_ORDER = Comparator.comparingInt(Finding::employeeId)
+            .thenComparing(finding -> finding.getClass().getSimpleName());
+
+    private final ThresholdPolicy policy;
+    private final Map<Integer, Node> employees = new HashMap<>();
+    private final Map<Integer, Set<Node>> waitingForManager = new HashMap<>();
+    private final TreeSet<Node> withoutManager = new TreeSet<>(Comparator.comparingLong(node -> node.sequence));
+    private final Map<Integer, Finding> salaryFindings = new HashMap<>();
+    private final Map<Integer, ReportingLineTooLongFinding> reportingLineFindings = new HashMap<>();
+    private Node ceo;
+    private long nextSequence;
+
+    private IncrementalAnalyzer(ThresholdPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Loads all employees of the store and evaluates every finding once against the default policy.
+     */
+    public static IncrementalAnalyzer of(EmployeeStore store) {
+        return of(store, ThresholdPolicy.DEFAULT);
+    }
+
+    /**
+     * Loads all employees of the store and evaluates every finding once.
+     *
+     * @param policy salary band and reporting line limit of every evaluation
+     */
+    public static IncrementalAnalyzer of(EmployeeStore store, ThresholdPolicy policy) {
+        IncrementalAnalyzer analyzer = new IncrementalAnalyzer(policy);
+        Set<Integer> changed = new HashSet<>();
+        for (int index = 0; index < store.size(); index++) {
+            analyzer.upsert(EmployeeDelta.upsert(store.id(index), store.firstName(index), store.lastName(index),
+                    store.salary(index), store.managerId(index)), changed, new LinkedHashSet<>());
+        }
+        analyzer.updateCeo(new LinkedHashSet<>());
+        if (analyzer.ceo != null) {
+            analyzer.placeSubtree(analyzer.ceo, changed);
+        }
+        analyzer.evaluate(changed);
+        return analyzer;
+    }
+
+    /**
+     * Applies the deltas in order and returns the findings that changed.
+     */
+    public FindingChanges apply(List<EmployeeDelta> deltas) {
+        Set<Integer> changed = new HashSet<>();
+        Set<Node> moved = new LinkedHashSet<>();
+        for (EmployeeDelta delta : deltas) {
+            if (delta.operation() == EmployeeDelta.Operation.DELETE) {
+                delete(delta.id(), changed, moved);
+            } else {
+                upsert(delta, changed, moved);
+            }
+        }
+        updateCeo(moved);
+        for (Node node : moved) {
+            detachSubtree(node, changed);
+        }
+        for (Node node : moved) {
+            if (employees.get(node.id) == node) {
+                placeSubtree(node, changed);
+            }
+        }
+        return evaluate(changed);
+    }
+
+    /**
+     * @return all current findings, ordered by employee id
+     */
+    public List<Finding> findings() {
+        List<Finding> findings = new ArrayList<>(salaryFindings.values());
+        findings.addAll(reportingLineFindings.values());
+        findings.sort(FINDING_ORDER);
+        return findings;
+    }
+
+    public int size() {
+        return employees.size();
+    }
+
+    private void upsert(EmployeeDelta delta, Set<Integer> changed, Set<Node> moved) {
+        Node node = employees.get(delta.id());
+        boolean created = node == null;
+        if (created) {
+            node = new Node(delta.id(), nextSequence++);
+            employees.put(node.id, node);
+            Set<Node> waiting = waitingForManager.remove(node.id);
+            if (waiting != null) {
+                for (Node subordinate : waiting) {
+                    attach(subordinate, node);
+                    moved.add(subordinate);
+                }
+            }
+        } else if (node.manager != null && node.salary != delta.salary()) {
+            node.manager.teamSalarySum += delta.salary() - node.salary;
+            changed.add(node.manager.id);
+        }
+        node.firstName = delta.firstName();
+        node.lastName = delta.lastName();
+        node.salary = delta.salary();
+        changed.add(node.id);
+        if (created || !Objects.equals(node.managerId, delta.managerId())) {
+            if (!created) {
+                unlink(node, changed);
+            }
+            node.managerId = delta.managerId();
+            link(node, changed);
+            moved.add(node);
+        }
+    }
+
+    private void delete(int id, Set<Integer> changed, Set<Node> moved) {
+        Node node = employees.remove(id);
+        if (node == null) {
+            return;
+        }
+        changed.add(id);
+        unlink(node, changed);
+        for (Node subordinate : node.subordinates) {
+            subordinate.manager = null;
+            waitingForManager.computeIfAbsent(id, managerId -> new LinkedHashSet<>()).add(subordinate);
+            moved.add(subordinate);
+        }
+        node.subordinates.clear();
+        node.teamSalarySum = 0;
+        moved.add(node);
+    }
+
+    private void link(Node node, Set<Integer> changed) {
+        if (node.managerId == null) {
+            withoutManager.add(node);
+            return;
+        }
+        Node manager = employees.get(node.managerId);
+        if (manager == null) {
+            waitingForManager.computeIfAbsent(node.managerId, managerId -> new LinkedHashSet<>()).add(node);
+        } else {
+            attach(node, manager);
+            changed.add(manager.id);
+        }
+    }
+
+    private void unlink(Node node, Set<Integer> changed) {
+        if (node.managerId == null) {
+            withoutManager.remove(node);
+        } else if (node.manager != null) {
+            Node manager = node.manager;
+            Node last = manager.subordinates.remove(manager.subordinates.size() - 1);
+            if (last != node) {
+                manager.subordinates.set(node.positionInTeam, last);
+                last.positionInTeam = node.positionInTeam;
+            }
+            manager.teamSalarySum -= node.salary;
+            node.manager = null;
+            changed.add(manager.id);
+        } else {
+            Set<Node> waiting = waitingForManager.get(node.managerId);
+            if (waiting != null && waiting.remove(node) && waiting.isEmpty()) {
+                waitingForManager.remove(node.managerId);
+            }
+        }
+    }
+
+    private static void attach(Node node, Node manager) {
+        node.manager = manager;
+        node.positionInTeam = manager.subordinates.size();
+        manager.subordinates.add(node);
+        manager.teamSalarySum += node.salary;
+    }
+
+    /**
+     * The CEO is the first employee without a manager in file order, as in the full analysis.
+     */
+    private void updateCeo(Set<Node> moved) {
+        Node current = withoutManager.isEmpty() ? null : withoutManager.first();
+        if (current != ceo) {
+            if (ceo != null) {
+                moved.add(ceo);
+            }
+            if (current != null) {
+                moved.add(current);
+            }
+            ceo = current;
+        }
+    }
+
+    /**
+     * Marks a moved subtree as unreachable before depths are placed again.
+     * Only employees that still had a depth are visited, so every employee is visited at most once per delta
+     * and subtrees caught in a management cycle are never walked twice.
+     */
+    private void detachSubtree(Node root, Set<Integer> changed) {
+        if (root.depth >= 0) {
+            root.depth = -1;
+            changed.add(root.id);
+        }
+        List<Node> stack = new ArrayList<>(root.subordinates);
+        while (!stack.isEmpty()) {
+            Node node = stack.remove(stack.size() - 1);
+            if (node.depth >= 0) {
+                node.depth = -1;
+                changed.add(node.id);
+                stack.addAll(node.subordinates);
+            }
+        }
+    }
+
+    /**
+     * Gives a moved employee and its unplaced subordinates their depth below a placed manager.
+     * Employees below a manager without depth stay unplaced; they are placed when their manager is.
+     */
+    private void placeSubtree(Node root, Set<Integer> changed) {
+        if (root.depth >= 0) {
+            return;
+        }
+        int depth;
+        if (root == ceo) {
+            depth = 0;
+        } else if (root.manager != null && root.manager.depth >= 0) {
+            depth = root.manager.depth + 1;
+        } else {
+            return;
+        }
+        root.depth = depth;
+        changed.add(root.id);
+        List<Node> stack = new ArrayList<>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.remove(stack.size() - 1);
+            for (Node subordinate : node.subordinates) {
+                if (subordinate.depth < 0) {
+                    subordinate.depth = node.depth + 1;
+                    changed.add(subordinate.id);
+                    stack.add(subordinate);
+                }
+            }
+        }
+    }
+
+    /**
+     * Re-evaluates the findings of every changed employee. Reporting line findings carry the depth of the
+     * manager, but a manager whose depth changes moves with its whole subtree, so its subordinates are changed too.
+     */
+    private FindingChanges evaluate(Set<Integer> changed) {
+        List<Finding> added = new ArrayList<>();
+        List<Finding> removed = new ArrayList<>();
+        for (Integer id : changed) {
+            Node node = employees.get(id);
+            compare(salaryFindings, id, node == null ? null : salaryFinding(node), added, removed);
+        }
+        for (Integer id : changed) {
+            Node node = employees.get(id);
+            compare(reportingLineFindings, id, node == null ? null : reportingLineFinding(node), added, removed);
+        }
+        added.sort(FINDING_ORDER);
+        removed.sort(FINDING_ORDER);
+        return new FindingChanges(added, removed);
+    }
+
+    private static <T extends Finding> void compare(Map<Integer, T> findings, Integer id, T current,
+                                                    List<Finding> added, List<Finding> removed) {
+        T previous = current == null ? findings.remove(id) : findings.put(id, current);
+        if (!Objects.equals(previous, current)) {
+            if (previous != null) {
+                removed.add(previous);
+            }
+            if (current != null) {
+                added.add(current);
+            }
+        }
+    }
+
+    private Finding salaryFinding(Node manager) {
+        if (manager.depth < 0 || manager.subordinates.isEmpty()) {
+            return null;
+        }
+        double averageSalary = (double) manager.teamSalarySum / manager.subordinates.size();
+        double minExpectedSalary = policy.minCoefficient() * averageSalary;
+        double maxExpectedSalary = policy.maxCoefficient() * averageSalary;
+        if (manager.salary < minExpectedSalary) {
+            return new UnderpaidFinding(manager.id, manager.firstName, manager.lastName, manager.salary, minExpectedSalary);
+        }
+        if (manager.salary > maxExpectedSalary) {
+            return new OverpaidFinding(manager.id, manager.firstName, manager.lastName, manager.salary, maxExpectedSalary);
+        }
+        return null;
+    }
+
+    private ReportingLineTooLongFinding reportingLineFinding(Node employee) {
+        Node manager = employee.manager;
+        if (employee.depth < 0 || manager == null || manager.depth <= policy.maxReportingLineDepth()) {
+            return null;
+        }
+        return new ReportingLineTooLongFinding(employee.id, employee.firstName, employee.lastName, manager.id,
+                manager.depth, manager.depth - policy.maxReportingLineDepth());
+    }
+
+    private static final class Node {
+        private final int id;
+        private final long sequence;
+        private final List<Node> subordinates = new ArrayList<>(0);
+        private String firstName;
+        private String lastName;
+        private int salary;
+        private Integer managerId;
+        private Node manager;
+        private int positionInTeam;
+        private long teamSalarySum;
+        private int depth = -1;
+
+        private Node(int id, long sequence) {
+            this.id = id;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package org.company.analyzer;
+
+import org.company.model.EmployeeStore;
+
+/**
+ * Per employee aggregates of an {@link EmployeeStore}, computed bottom-up in a single linear pass.
+ * Direct statistics cover the direct reports of an employee, subtree statistics cover everyone reporting
+ * to the employee directly or indirectly, excluding the employee itself.
+ * Employees caught in a management cycle never complete the bottom-up pass, so their statistics stay incomplete.
+ */
+public final class ManagerStatistics {
+
+    private final EmployeeStore employees;
+    private final int[] directReports;
+    private final long[] directSalarySums;
+    private final int[] minDirectSalaries;
+    private final int[] maxDirectSalaries;
+    private final int[] subtreeHeadcounts;
+    private final long[] subtreePayrolls;
+
+    private ManagerStatistics(EmployeeStore employees) {
+        int size = employees.size();
+        this.employees = employees;
+        this.directReports = new int[size];
+        this.directSalarySums = new long[size];
+        this.minDirectSalaries = new int[size];
+        this.maxDirectSalaries = new int[size];
+        this.subtreeHeadcounts = new int[size];
+        this.subtreePayrolls = new long[size];
+    }
+
+    /**
+     * Aggregates all employees in post-order: an employee is folded into its manager once all of its own
+     * subordinates have been folded into it, so every statistic is computed with one visit per employee.
+     */
+    public static ManagerStatistics of(EmployeeStore employees) {
+        ManagerStatistics statistics = new ManagerStatistics(employees);
+        statistics.aggregate();
+        return statistics;
+    }
+
+    private void aggregate() {
+        int size = employees.size();
+        int[] pendingSubordinates = new int[size];
+        int[] ready = new int[size];
+        int readyCount = 0;
+        for (int index = 0; index < size; index++) {
+            pendingSubordinates[index] = employees.subordinateCount(index);
+            minDirectSalaries[index] = Integer.MAX_VALUE;
+            maxDirectSalaries[index] = Integer.MIN_VALUE;
+            if (pendingSubordinates[index] == 0) {
+                ready[readyCount++] = index;
+            }
+        }
+        for (int next = 0; next < readyCount; next++) {
+            int employee = ready[next];
+            int manager = employees.managerIndex(employee);
+            if (manager < 0) {
+                continue;
+            }
+            int salary = employees.salary(employee);
+            directReports[manager]++;
+            directSalarySums[manager] += salary;
+            minDirectSalaries[manager] = Math.min(minDirectSalaries[manager], salary);
+            maxDirectSalaries[manager] = Math.max(maxDirectSalaries[manager], salary);
+            subtreeHeadcounts[manager] += subtreeHeadcounts[employee] + 1;
+            subtreePayrolls[manager] += subtreePayrolls[employee] + salary;
+            if (--pendingSubordinates[manager] == 0) {
+                ready[readyCount++] = manager;
+            }
+        }
+    }
+
+    public EmployeeStore employees() {
+        return employees;
+    }
+
+    /**
+     * @return number of direct reports, i.e. the span of control
+     */
+    public int directReports(int index) {
+        return directReports[index];
+    }
+
+    public long directSalarySum(int index) {
+        return directSalarySums[index];
+    }
+
+    /**
+     * @return lowest salary among direct reports, or 0 without direct reports
+     */
+    public int minDirectSalary(int index) {
+        return directReports[index] == 0 ? 0 : minDirectSalaries[index];
+    }
+
+    /**
+     * @return highest salary among direct reports, or 0 without direct reports
+     */
+    public int maxDirectSalary(int index) {
+        return directReports[index] == 0 ? 0 : maxDirectSalaries[index];
+    }
+
+    /**
+     * @return average salary of direct reports, or 0 without direct reports
+     */
+    public double averageDirectSalary(int index) {
+        return directReports[index] == 0 ? 0 : (double) directSalarySums[index] / directReports[index];
+    }
+
+    /**
+     * @return the direct report counts by index, shared with the caller
+     */
+    int[] directReportCounts() {
+        return directReports;
+    }
+
+    /**
+     * @return the direct report salary sums by index, shared with the caller
+     */
+    long[] directSalarySums() {
+        return directSalarySums;
+    }
+
+    public int subtreeHeadcount(int index) {
+        return subtreeHeadcounts[index];
+    }
+
+    public long subtreePayroll(int index) {
+        return subtreePayrolls[index];
+    }
+}
@@ -0,0 +1,33 @@
+package org.company.analyzer;
+
+import org.company.finding.OverpaidFinding;
+import org.company.finding.ReportingLineTooLongFinding;
+import org.company.finding.UnderpaidFinding;
+import org.company.report.FindingSink;
+
+import java.util.List;
+
+/**
+ * Worst findings of an analysis and the distribution of salary ratios of all managers.
+ *
+ * @param mostUnderpaid         underpaid managers by descending amount below the lowest expected salary
+ * @param mostOverpaid          overpaid managers by descending amount above the highest expected salary
+ * @param deepestReportingLines employees with too long a reporting line by descending depth
+ * @param salaryRatios          salary of every manager divided by the average salary of their direct reports
+ */
+public record RankedAnalysis(
+        List<UnderpaidFinding> mostUnderpaid,
+        List<OverpaidFinding> mostOverpaid,
+        List<ReportingLineTooLongFinding> deepestReportingLines,
+        SalaryRatioHistogram salaryRatios) {
+
+    /**
+     * Passes the underpaid, overpaid and reporting line findings to the sink, each in rank order, and flushes it.
+     */
+    public void writeTo(FindingSink sink) {
+        mostUnderpaid.forEach(sink::accept);
+        mostOverpaid.forEach(sink::accept);
+        deepestReportingLines.forEach(sink::accept);
+        sink.flush();
+    }
+}
@@ -0,0 +1,180 @@
+package org.company.analyzer;
+
+import org.company.finding.OverpaidFinding;
+import org.company.finding.ReportingLineTooLongFinding;
+import org.company.finding.UnderpaidFinding;
+import org.company.metrics.PipelineMetrics;
+import org.company.metrics.PipelineStage;
+import org.company.model.EmployeeStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the worst findings of the same checks as {@link EmployeeAnalyzerImpl} without producing all of them.
+ * One walk over the hierarchy offers every violation to a bounded heap per kind and adds the salary ratio of
+ * every manager to a fixed size histogram. Averages are summed from the direct reports of each manager during
+ * the walk, and the walk only keeps the current reporting line, so ranking takes O(n log k) time and O(k + h)
+ * memory besides the store, where h is the depth of the deepest reporting line. Findings are only created for
+ * the employees that are kept. Equal amounts and depths rank the employee earlier in the file first.
+ */
+public final class RankedAnalyzer {
+
+    private final int limit;
+    private final ThresholdPolicy policy;
+    private final PipelineMetrics metrics;
+
+    /**
+     * @param limit number of findings kept of every kind
+     */
+    public RankedAnalyzer(int limit) {
+        this(limit, PipelineMetrics.disabled());
+    }
+
+    /**
+     * @param limit   number of findings kept of every kind
+     * @param metrics receives the timing of every analysis
+     */
+    public RankedAnalyzer(int limit, PipelineMetrics metrics) {
+        this(limit, ThresholdPolicy.DEFAULT, metrics);
+    }
+
+    /**
+     * @param limit   number of findings kept of every kind
+     * @param policy  salary band and reporting line limit the findings are ranked against
+     * @param metrics receives the timing of every analysis
+     */
+    public RankedAnalyzer(int limit, ThresholdPolicy policy, PipelineMetrics metrics) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        this.limit = limit;
+        this.policy = policy;
+        this.metrics = metrics;
+    }
+
+    public RankedAnalysis analyze(EmployeeStore employees) {
+        try (PipelineMetrics.Timer timer = metrics.start(PipelineStage.ANALYZE)) {
+            TopKHeap underpaid = new TopKHeap(limit);
+            TopKHeap overpaid = new TopKHeap(limit);
+            TopKHeap deepest = new TopKHeap(limit);
+            SalaryRatioHistogram ratios = new SalaryRatioHistogram();
+            if (employees.ceo() >= 0) {
+                walk(employees, employees.ceo(), underpaid, overpaid, deepest, ratios);
+            }
+            timer.rows(employees.size());
+            return new RankedAnalysis(underpaidFindings(employees, underpaid), overpaidFindings(employees, overpaid),
+                    reportingLineFindings(employees, deepest), ratios);
+        }
+    }
+
+    /**
+     * Visits every employee below the CEO in pre-order, keeping only the remaining range of subordinates of every
+     * manager on the current reporting line, so the level of a frame is the reporting line depth of its manager.
+     */
+    private void walk(EmployeeStore employees, int ceo, TopKHeap underpaid, TopKHeap overpaid, TopKHeap deepest,
+                      SalaryRatioHistogram ratios) {
+        if (!employees.hasSubordinates(ceo)) {
+            return;
+        }
+        int[] positions = new int[16];
+        int[] ends = new int[16];
+        checkSalary(employees, ceo, underpaid, overpaid, ratios);
+        positions[0] = employees.firstSubordinate(ceo);
+        ends[0] = employees.lastSubordinate(ceo);
+        int level = 0;
+        while (level >= 0) {
+            if (positions[level] == ends[level]) {
+                level--;
+                continue;
+            }
+            int subordinate = employees.subordinate(positions[level]++);
+            if (level > policy.maxReportingLineDepth()) {
+                deepest.offer(level, subordinate);
+            }
+            if (employees.hasSubordinates(subordinate)) {
+                checkSalary(employees, subordinate, underpaid, overpaid, ratios);
+                if (++level == positions.length) {
+                    positions = Arrays.copyOf(positions, level * 2);
+                    ends = Arrays.copyOf(ends, level * 2);
+                }
+                positions[level] = employees.firstSubordinate(subordinate);
+                ends[level] = employees.lastSubordinate(subordinate);
+            }
+        }
+    }
+
+    private void checkSalary(EmployeeStore employees, int manager, TopKHeap underpaid, TopKHeap overpaid,
+                             SalaryRatioHistogram ratios) {
+        double averageSalary = averageDirectSalary(employees, manager);
+        int salary = employees.salary(manager);
+        if (averageSalary > 0) {
+            ratios.add(salary / averageSalary);
+        }
+        double minExpectedSalary = policy.minCoefficient() * averageSalary;
+        double maxExpectedSalary = policy.maxCoefficient() * averageSalary;
+        if (salary < minExpectedSalary) {
+            underpaid.offer(minExpectedSalary - salary, manager);
+        }
+        if (salary > maxExpectedSalary) {
+            overpaid.offer(salary - maxExpectedSalary, manager);
+        }
+    }
+
+    /**
+     * Sums the salaries of the contiguous range of direct reports of the manager, so the average is computed where
+     * it is needed instead of being kept for every manager.
+     */
+    private static double averageDirectSalary(EmployeeStore employees, int manager) {
+        int first = employees.firstSubordinate(manager);
+        int last = employees.lastSubordinate(manager);
+        long sum = 0;
+        for (int position = first; position < last; position++) {
+            sum += employees.salary(employees.subordinate(position));
+        }
+        return last == first ? 0 : (double) sum / (last - first);
+    }
+
+    /**
+     * @return the number of managers above the employee, counted along its reporting line
+     */
+    private static int reportingLineDepth(EmployeeStore employees, int employee) {
+        int depth = 0;
+        for (int manager = employees.managerIndex(employee); manager >= 0; manager = employees.managerIndex(manager)) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private List<UnderpaidFinding> underpaidFindings(EmployeeStore employees, TopKHeap heap) {
+        List<UnderpaidFinding> findings = new ArrayList<>(heap.size());
+        for (int manager : heap.sortedValues()) {
+            findings.add(new UnderpaidFinding(employees.id(manager), employees.firstName(manager),
+                    employees.lastName(manager), employees.salary(manager),
+                    policy.minCoefficient() * averageDirectSalary(employees, manager)));
+        }
+        return findings;
+    }
+
+    private List<OverpaidFinding> overpaidFindings(EmployeeStore employees, TopKHeap heap) {
+        List<OverpaidFinding> findings = new ArrayList<>(heap.size());
+        for (int manager : heap.sortedValues()) {
+            findings.add(new OverpaidFinding(employees.id(manager), employees.firstName(manager),
+                    employees.lastName(manager), employees.salary(manager),
+                    policy.maxCoefficient() * averageDirectSalary(employees, manager)));
+        }
+        return findings;
+    }
+
+    private List<ReportingLineTooLongFinding> reportingLineFindings(EmployeeStore employees, TopKHeap heap) {
+        List<ReportingLineTooLongFinding> findings = new ArrayList<>(heap.size());
+        for (int employee : heap.sortedValues()) {
+            int managerDepth = reportingLineDepth(employees, employee) - 1;
+            findings.add(new ReportingLineTooLongFinding(employees.id(employee), employees.firstName(employee),
+                    employees.lastName(employee), employees.managerId(employee), managerDepth,
+                    managerDepth - policy.maxReportingLineDepth()));
+        }
+        return findings;
+    }
+}
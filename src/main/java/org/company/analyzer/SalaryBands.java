@@ -0,0 +1,86 @@
+package org.company.analyzer;
+
+import org.company.model.EmployeeStore;
+
+/**
+ * Salary band violations of every employee of a store, checked in bulk by a {@link SalaryKernel} against the
+ * direct report counts and salary sums of {@link ManagerStatistics}, so the teams are aggregated in one pass
+ * shared with the statistics. All employees are checked at once, into one bitmap of underpaid and one of
+ * overpaid managers. Averages and violations are exactly those the analysis computes one manager at a time.
+ */
+public final class SalaryBands {
+
+    private final ManagerStatistics statistics;
+    private final long[] underpaid;
+    private final long[] overpaid;
+
+    private SalaryBands(ManagerStatistics statistics, long[] underpaid, long[] overpaid) {
+        this.statistics = statistics;
+        this.underpaid = underpaid;
+        this.overpaid = overpaid;
+    }
+
+    public static SalaryBands of(EmployeeStore employees, ThresholdPolicy policy, SalaryKernel kernel) {
+        return of(ManagerStatistics.of(employees), policy, kernel);
+    }
+
+    /**
+     * Checks the bands on the direct report aggregates of already computed statistics.
+     */
+    public static SalaryBands of(ManagerStatistics statistics, ThresholdPolicy policy, SalaryKernel kernel) {
+        EmployeeStore employees = statistics.employees();
+        int size = employees.size();
+        int[] salaries = new int[size];
+        for (int index = 0; index < size; index++) {
+            salaries[index] = employees.salary(index);
+        }
+        long[] underpaid = new long[(size + 63) >>> 6];
+        long[] overpaid = new long[underpaid.length];
+        kernel.checkBands(salaries, statistics.directSalarySums(), statistics.directReportCounts(),
+                policy.minCoefficient(), policy.maxCoefficient(), underpaid, overpaid);
+        return new SalaryBands(statistics, underpaid, overpaid);
+    }
+
+    public ManagerStatistics statistics() {
+        return statistics;
+    }
+
+    public EmployeeStore employees() {
+        return statistics.employees();
+    }
+
+    public long directSalarySum(int index) {
+        return statistics.directSalarySum(index);
+    }
+
+    /**
+     * @return average salary of direct reports, or 0 without direct reports
+     */
+    public double averageDirectSalary(int index) {
+        return statistics.averageDirectSalary(index);
+    }
+
+    public boolean isUnderpaid(int index) {
+        return (underpaid[index >>> 6] & 1L << index) != 0;
+    }
+
+    public boolean isOverpaid(int index) {
+        return (overpaid[index >>> 6] & 1L << index) != 0;
+    }
+
+    public int underpaidCount() {
+        return bitCount(underpaid);
+    }
+
+    public int overpaidCount() {
+        return bitCount(overpaid);
+    }
+
+    private static int bitCount(long[] bitmap) {
+        int count = 0;
+        for (long word : bitmap) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,66 @@
+package org.company.analyzer;
+
+import java.util.logging.Logger;
+
+/**
+ * Bulk salary band checks over primitive columns, behind the salary checks of the analysis. Every kernel returns
+ * exactly the results of {@link #scalar()}, down to the last bit of every average.
+ * <p>
+ * The {@link #preferred()} kernel uses the incubating Vector API when the build includes it (profile
+ * {@code vector}) and the JVM runs with {@code --add-modules jdk.incubator.vector}; otherwise it is the scalar
+ * kernel. The system property {@code company.vector=false} forces the scalar kernel.
+ */
+public interface SalaryKernel {
+
+    String name();
+
+    /**
+     * Sets the bit of every employee with at least one direct report whose salary is below
+     * {@code minCoefficient} or above {@code maxCoefficient} times {@code sums[i] / counts[i]}.
+     *
+     * @param underpaid bitmap of {@code (salaries.length + 63) / 64} words, bit {@code i % 64} of word
+     *                  {@code i / 64} standing for employee {@code i}
+     * @param overpaid  bitmap of the same size
+     */
+    void checkBands(int[] salaries, long[] sums, int[] counts, double minCoefficient, double maxCoefficient,
+                    long[] underpaid, long[] overpaid);
+
+    static SalaryKernel scalar() {
+        return ScalarSalaryKernel.INSTANCE;
+    }
+
+    /**
+     * @return the fastest kernel available to this JVM
+     */
+    static SalaryKernel preferred() {
+        return Preferred.KERNEL;
+    }
+
+    final class Preferred {
+        private static final Logger logger = Logger.getLogger(SalaryKernel.class.getName());
+        private static final String VECTOR_KERNEL = "org.company.analyzer.VectorSalaryKernel";
+        private static final SalaryKernel KERNEL = load();
+
+        private Preferred() {
+        }
+
+        private static SalaryKernel load() {
+            if (!Boolean.parseBoolean(System.getProperty("company.vector", "true"))) {
+                return scalar();
+            }
+            try {
+                Class<?> vectorKernel = Class.forName(VECTOR_KERNEL);
+                if (!(boolean) vectorKernel.getDeclaredMethod("isSupported").invoke(null)) {
+                    logger.fine("Vector shape of this CPU not supported, using the scalar salary kernel");
+                    return scalar();
+                }
+                SalaryKernel kernel = (SalaryKernel) vectorKernel.getDeclaredConstructor().newInstance();
+                logger.fine("Using the " + kernel.name() + " salary kernel");
+                return kernel;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                logger.fine("Vector API not available, using the scalar salary kernel: " + e);
+                return scalar();
+            }
+        }
+    }
+}
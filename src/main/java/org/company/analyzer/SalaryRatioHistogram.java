@@ -0,0 +1,85 @@
+package org.company.analyzer;
+
+/**
+ * Streaming distribution of the ratio between the salary of managers and the average salary of their direct
+ * reports. Ratios are counted in fixed buckets of {@value #BUCKET_WIDTH} up to {@value #MAX_BUCKETED_RATIO},
+ * so memory is constant and every percentile is within half a bucket of the exact one. Higher ratios share
+ * one overflow bucket, whose percentiles are answered with the exact maximum.
+ * Instances are not thread safe.
+ */
+public final class SalaryRatioHistogram {
+
+    public static final double BUCKET_WIDTH = 0.01;
+    public static final double MAX_BUCKETED_RATIO = 10.0;
+
+    private static final int BUCKETS = (int) Math.round(MAX_BUCKETED_RATIO / BUCKET_WIDTH);
+
+    private final long[] counts = new long[BUCKETS + 1];
+    private long count;
+    private double sum;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    void add(double ratio) {
+        int bucket = ratio >= MAX_BUCKETED_RATIO ? BUCKETS : (int) (ratio / BUCKET_WIDTH);
+        counts[bucket]++;
+        if (count == 0 || ratio < min) {
+            min = ratio;
+        }
+        if (count == 0 || ratio > max) {
+            max = ratio;
+        }
+        count++;
+        sum += ratio;
+    }
+
+    /**
+     * @return number of managers counted
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return lowest ratio, NaN when empty
+     */
+    public double min() {
+        return min;
+    }
+
+    /**
+     * @return highest ratio, NaN when empty
+     */
+    public double max() {
+        return max;
+    }
+
+    /**
+     * @return mean ratio, NaN when empty
+     */
+    public double mean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return approximate ratio below or at which the given percentage of managers lie, NaN when empty
+     */
+    public double percentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return Math.min(max, Math.max(min, (bucket + 0.5) * BUCKET_WIDTH));
+            }
+        }
+        return max;
+    }
+}
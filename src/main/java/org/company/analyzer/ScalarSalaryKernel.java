@@ -0,0 +1,39 @@
+package org.company.analyzer;
+
+/**
+ * One employee at a time; the reference every other kernel has to match.
+ */
+final class ScalarSalaryKernel implements SalaryKernel {
+
+    static final ScalarSalaryKernel INSTANCE = new ScalarSalaryKernel();
+
+    private ScalarSalaryKernel() {
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public void checkBands(int[] salaries, long[] sums, int[] counts, double minCoefficient, double maxCoefficient,
+                           long[] underpaid, long[] overpaid) {
+        checkBands(salaries, sums, counts, minCoefficient, maxCoefficient, underpaid, overpaid, 0, salaries.length);
+    }
+
+    static void checkBands(int[] salaries, long[] sums, int[] counts, double minCoefficient, double maxCoefficient,
+                           long[] underpaid, long[] overpaid, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            double averageSalary = (double) sums[i] / counts[i];
+            if (salaries[i] < minCoefficient * averageSalary) {
+                underpaid[i >>> 6] |= 1L << i;
+            }
+            if (salaries[i] > maxCoefficient * averageSalary) {
+                overpaid[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+}
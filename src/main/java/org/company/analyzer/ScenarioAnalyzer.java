@@ -0,0 +1,210 @@
+package org.company.analyzer;
+
+import org.company.metrics.PipelineMetrics;
+import org.company.metrics.PipelineStage;
+import org.company.model.EmployeeStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Evaluates many {@link ThresholdPolicy policies} in one walk over the hierarchy, counting the findings
+ * {@link EmployeeAnalyzerImpl} would report under each of them.
+ * <p>
+ * The team average of every manager is computed once. Policies are sorted by ascending lowest and by descending
+ * highest coefficient, so the policies a manager is underpaid or overpaid under are a suffix of the respective
+ * order. The suffix is found by binary search with the comparisons of the analyzer and the manager is added at
+ * its start, so prefix sums give the totals of every policy. Employees are counted by the depth of their manager, and the
+ * reporting line counts of all policies are suffix sums of those counts. A walk costs O(n log p) for p policies,
+ * plus O(p log p + depth) once.
+ */
+public final class ScenarioAnalyzer {
+
+    private final PipelineMetrics metrics;
+
+    public ScenarioAnalyzer() {
+        this(PipelineMetrics.disabled());
+    }
+
+    /**
+     * @param metrics receives the timing of every evaluation
+     */
+    public ScenarioAnalyzer(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return one summary per policy, in the order of the policies
+     */
+    public List<ScenarioSummary> analyze(EmployeeStore employees, List<ThresholdPolicy> policies) {
+        try (PipelineMetrics.Timer timer = metrics.start(PipelineStage.ANALYZE)) {
+            int count = policies.size();
+            int[] byMin = IntStream.range(0, count).boxed()
+                    .sorted(Comparator.comparingDouble(policy -> policies.get(policy).minCoefficient()))
+                    .mapToInt(Integer::intValue).toArray();
+            int[] byMax = IntStream.range(0, count).boxed()
+                    .sorted(Comparator.comparingDouble(policy -> -policies.get(policy).maxCoefficient()))
+                    .mapToInt(Integer::intValue).toArray();
+            double[] minCoefficients = new double[count];
+            double[] maxCoefficients = new double[count];
+            for (int i = 0; i < count; i++) {
+                minCoefficients[i] = policies.get(byMin[i]).minCoefficient();
+                maxCoefficients[i] = policies.get(byMax[i]).maxCoefficient();
+            }
+
+            Totals underpaid = new Totals(count);
+            Totals overpaid = new Totals(count);
+            long[] employeesByManagerDepth = new long[16];
+            if (employees.ceo() >= 0 && count > 0) {
+                employeesByManagerDepth = walk(ManagerStatistics.of(employees), minCoefficients, maxCoefficients,
+                        underpaid, overpaid, employeesByManagerDepth);
+            }
+            timer.rows(employees.size());
+            return summaries(policies, byMin, byMax, underpaid.sums(), overpaid.sums(),
+                    suffixSums(employeesByManagerDepth));
+        }
+    }
+
+    private static long[] walk(ManagerStatistics statistics, double[] minCoefficients, double[] maxCoefficients,
+                               Totals underpaid, Totals overpaid, long[] employeesByManagerDepth) {
+        EmployeeStore employees = statistics.employees();
+        int[] stack = new int[16];
+        int[] depths = new int[16];
+        int size = 0;
+        stack[size] = employees.ceo();
+        depths[size++] = 0;
+        while (size > 0) {
+            int manager = stack[--size];
+            int depth = depths[size];
+            if (!employees.hasSubordinates(manager)) {
+                continue;
+            }
+            double averageSalary = statistics.averageDirectSalary(manager);
+            int salary = employees.salary(manager);
+            underpaid.add(firstUnderpaid(minCoefficients, salary, averageSalary), salary, averageSalary);
+            overpaid.add(firstOverpaid(maxCoefficients, salary, averageSalary), salary, averageSalary);
+
+            int first = employees.firstSubordinate(manager);
+            int last = employees.lastSubordinate(manager);
+            if (depth >= employeesByManagerDepth.length) {
+                employeesByManagerDepth = Arrays.copyOf(employeesByManagerDepth, depth * 2);
+            }
+            employeesByManagerDepth[depth] += last - first;
+            if (size + last - first > stack.length) {
+                int capacity = Math.max(stack.length * 2, size + last - first);
+                stack = Arrays.copyOf(stack, capacity);
+                depths = Arrays.copyOf(depths, capacity);
+            }
+            for (int position = last - 1; position >= first; position--) {
+                stack[size] = employees.subordinate(position);
+                depths[size++] = depth + 1;
+            }
+        }
+        return employeesByManagerDepth;
+    }
+
+    /**
+     * @param minCoefficients ascending lowest coefficients
+     * @return index of the first coefficient under which the manager is underpaid, or the length if there is none
+     */
+    private static int firstUnderpaid(double[] minCoefficients, int salary, double averageSalary) {
+        int low = 0;
+        int high = minCoefficients.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (salary < minCoefficients[middle] * averageSalary) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param maxCoefficients descending highest coefficients
+     * @return index of the first coefficient under which the manager is overpaid, or the length if there is none
+     */
+    private static int firstOverpaid(double[] maxCoefficients, int salary, double averageSalary) {
+        int low = 0;
+        int high = maxCoefficients.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (salary > maxCoefficients[middle] * averageSalary) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return for every depth, the number of employees whose manager is deeper than it
+     */
+    private static long[] suffixSums(long[] employeesByManagerDepth) {
+        long[] deeper = new long[employeesByManagerDepth.length + 1];
+        for (int depth = employeesByManagerDepth.length - 1; depth >= 0; depth--) {
+            deeper[depth] = deeper[depth + 1] + employeesByManagerDepth[depth];
+        }
+        return deeper;
+    }
+
+    private static List<ScenarioSummary> summaries(List<ThresholdPolicy> policies, int[] byMin, int[] byMax,
+                                                   Totals underpaid, Totals overpaid, long[] deeper) {
+        ScenarioSummary[] summaries = new ScenarioSummary[policies.size()];
+        long[] underpaidCounts = new long[policies.size()];
+        double[] underpaidAmounts = new double[policies.size()];
+        for (int i = 0; i < byMin.length; i++) {
+            ThresholdPolicy policy = policies.get(byMin[i]);
+            underpaidCounts[byMin[i]] = underpaid.counts[i];
+            underpaidAmounts[byMin[i]] = policy.minCoefficient() * underpaid.averageSalaries[i] - underpaid.salaries[i];
+        }
+        for (int i = 0; i < byMax.length; i++) {
+            int index = byMax[i];
+            ThresholdPolicy policy = policies.get(index);
+            int depth = policy.maxReportingLineDepth() + 1;
+            summaries[index] = new ScenarioSummary(policy, underpaidCounts[index], overpaid.counts[i],
+                    depth < deeper.length ? deeper[depth] : 0, underpaidAmounts[index],
+                    overpaid.salaries[i] - policy.maxCoefficient() * overpaid.averageSalaries[i]);
+        }
+        return new ArrayList<>(Arrays.asList(summaries));
+    }
+
+    /**
+     * Managers matching a suffix of the sorted policies, added at the start of their suffix, with their salaries
+     * and team averages so the amounts can be derived per policy.
+     */
+    private static final class Totals {
+        private final long[] counts;
+        private final long[] salaries;
+        private final double[] averageSalaries;
+
+        private Totals(int policies) {
+            counts = new long[policies + 1];
+            salaries = new long[policies + 1];
+            averageSalaries = new double[policies + 1];
+        }
+
+        private void add(int from, int salary, double averageSalary) {
+            counts[from]++;
+            salaries[from] += salary;
+            averageSalaries[from] += averageSalary;
+        }
+
+        /**
+         * Turns the additions into the totals of every policy.
+         */
+        private Totals sums() {
+            for (int i = 1; i < counts.length; i++) {
+                counts[i] += counts[i - 1];
+                salaries[i] += salaries[i - 1];
+                averageSalaries[i] += averageSalaries[i - 1];
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.company.analyzer;
+
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Findings the analysis would report under one policy.
+ *
+ * @param underpaidAmount total amount underpaid managers earn below their lowest expected salary
+ * @param overpaidAmount  total amount overpaid managers earn above their highest expected salary
+ */
+public record ScenarioSummary(
+        ThresholdPolicy policy,
+        long underpaid,
+        long overpaid,
+        long reportingLineTooLong,
+        double underpaidAmount,
+        double overpaidAmount) {
+
+    public long findings() {
+        return underpaid + overpaid + reportingLineTooLong;
+    }
+
+    /**
+     * Writes one CSV row per scenario, in the given order.
+     */
+    public static void write(List<ScenarioSummary> scenarios, PrintWriter writer) {
+        writer.println("minCoefficient,maxCoefficient,maxReportingLineDepth,underpaid,overpaid,reportingLineTooLong,"
+                + "underpaidAmount,overpaidAmount");
+        for (ScenarioSummary scenario : scenarios) {
+            ThresholdPolicy policy = scenario.policy();
+            writer.println(String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%d,%.2f,%.2f", policy.minCoefficient(),
+                    policy.maxCoefficient(), policy.maxReportingLineDepth(), scenario.underpaid(), scenario.overpaid(),
+                    scenario.reportingLineTooLong(), scenario.underpaidAmount(), scenario.overpaidAmount()));
+        }
+        writer.flush();
+    }
+}
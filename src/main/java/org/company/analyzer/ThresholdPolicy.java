@@ -0,0 +1,49 @@
+package org.company.analyzer;
+
+/**
+ * Salary band and reporting line limit the analysis checks every manager and employee against.
+ *
+ * @param minCoefficient        lowest expected salary of a manager as a multiple of the average salary of their
+ *                              direct reports
+ * @param maxCoefficient        highest expected salary of a manager as a multiple of that average
+ * @param maxReportingLineDepth highest number of managers allowed between an employee and the CEO
+ */
+public record ThresholdPolicy(double minCoefficient, double maxCoefficient, int maxReportingLineDepth) {
+
+    /**
+     * The company policy: between 20% and 50% above the team average and at most 4 managers up to the CEO.
+     */
+    public static final ThresholdPolicy DEFAULT = new ThresholdPolicy(1.2, 1.5, 4);
+
+    public ThresholdPolicy {
+        if (!(minCoefficient >= 0) || !(maxCoefficient >= minCoefficient) || Double.isInfinite(maxCoefficient)) {
+            throw new IllegalArgumentException("Invalid salary band " + minCoefficient + "-" + maxCoefficient);
+        }
+        if (maxReportingLineDepth < 0) {
+            throw new IllegalArgumentException("Invalid reporting line depth " + maxReportingLineDepth);
+        }
+    }
+
+    /**
+     * Parses a policy written as {@code min-max:depth}, such as {@code 1.1-1.4:3}.
+     */
+    public static ThresholdPolicy parse(String policy) {
+        int dash = policy.indexOf('-');
+        int colon = policy.indexOf(':');
+        if (dash < 0 || colon < dash) {
+            throw new IllegalArgumentException("Policy " + policy + " is not of the form min-max:depth");
+        }
+        try {
+            return new ThresholdPolicy(Double.parseDouble(policy.substring(0, dash)),
+                    Double.parseDouble(policy.substring(dash + 1, colon)),
+                    Integer.parseInt(policy.substring(colon + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Policy " + policy + " is not of the form min-max:depth", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return minCoefficient + "-" + maxCoefficient + ":" + maxReportingLineDepth;
+    }
+}
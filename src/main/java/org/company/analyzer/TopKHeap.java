@@ -0,0 +1,96 @@
+package org.company.analyzer;
+
+/**
+ * Keeps the {@code k} values with the largest keys seen so far in a binary min-heap over two primitive arrays,
+ * so offering a value costs O(log k) and nothing is boxed. Equal keys rank the smaller value first, which makes
+ * the kept values independent of the order they were offered in.
+ */
+final class TopKHeap {
+
+    private final double[] keys;
+    private final int[] values;
+    private int size;
+
+    TopKHeap(int capacity) {
+        this.keys = new double[capacity];
+        this.values = new int[capacity];
+    }
+
+    void offer(double key, int value) {
+        if (size < keys.length) {
+            keys[size] = key;
+            values[size] = value;
+            siftUp(size++);
+        } else if (size > 0 && ranksBelow(keys[0], values[0], key, value)) {
+            keys[0] = key;
+            values[0] = value;
+            siftDown(0, size);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the kept values from the largest key down
+     */
+    int[] sortedValues() {
+        double[] heapKeys = keys.clone();
+        int[] heapValues = values.clone();
+        int[] sorted = new int[size];
+        for (int remaining = size; remaining > 0; remaining--) {
+            sorted[remaining - 1] = heapValues[0];
+            swap(heapKeys, heapValues, 0, remaining - 1);
+            siftDown(heapKeys, heapValues, 0, remaining - 1);
+        }
+        return sorted;
+    }
+
+    private void siftUp(int child) {
+        while (child > 0) {
+            int parent = (child - 1) >>> 1;
+            if (!ranksBelow(keys[child], values[child], keys[parent], values[parent])) {
+                return;
+            }
+            swap(keys, values, child, parent);
+            child = parent;
+        }
+    }
+
+    private void siftDown(int parent, int limit) {
+        siftDown(keys, values, parent, limit);
+    }
+
+    private static void siftDown(double[] keys, int[] values, int parent, int limit) {
+        while (true) {
+            int lowest = parent;
+            int left = 2 * parent + 1;
+            int right = left + 1;
+            if (left < limit && ranksBelow(keys[left], values[left], keys[lowest], values[lowest])) {
+                lowest = left;
+            }
+            if (right < limit && ranksBelow(keys[right], values[right], keys[lowest], values[lowest])) {
+                lowest = right;
+            }
+            if (lowest == parent) {
+                return;
+            }
+            swap(keys, values, parent, lowest);
+            parent = lowest;
+        }
+    }
+
+    private static boolean ranksBelow(double key, int value, double otherKey, int otherValue) {
+        return key < otherKey || key == otherKey && value > otherValue;
+    }
+
+    private static void swap(double[] keys, int[] values, int first, int second) {
+        double key = keys[first];
+        keys[first] = keys[second];
+        keys[second] = key;
+        int value = values[first];
+        values[first] = values[second];
+        values[second] = value;
+    }
+}
@@ -0,0 +1,376 @@
+package org.company.batch;
+
+import org.company.analyzer.EmployeeAnalyzerImpl;
+import org.company.finding.Finding;
+import org.company.metrics.PipelineMetrics;
+import org.company.model.EmployeeStore;
+import org.company.reader.EmployeeCSVReader;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.company.report.CountingFindingSink;
+import org.company.report.FindingSink;
+import org.company.report.TextFindingSink;
+import org.company.validation.HierarchyValidationMode;
+import org.company.validation.HierarchyValidator;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Analyzes many CSV files in one JVM. Every file runs as its own task with its own reader, validator and analyzer,
+ * writes its findings to its own report file and fails on its own: an invalid file is recorded in the summary
+ * and never stops the other files.
+ * <p>
+ * Tasks run on virtual threads when the runtime has them, and on a pool of platform threads otherwise. Either
+ * way a semaphore bounds how many files are parsed at once, because parsing holds the most memory; analyses
+ * and report writing are not limited.
+ */
+public final class BatchAnalyzer {
+
+    private static final Logger logger = Logger.getLogger(BatchAnalyzer.class.getName());
+
+    private static final String SUMMARY_FILE = "summary.csv";
+
+    private final Supplier<EmployeeCSVReader> readerFactory;
+    private final Supplier<HierarchyValidator> validatorFactory;
+    private final Function<PrintWriter, FindingSink> sinkFactory;
+    private final String reportExtension;
+    private final Path outputDirectory;
+    private final int maxConcurrentParses;
+    private final int platformThreads;
+    private final boolean skipInvalidRows;
+    private final PipelineMetrics metrics;
+
+    private BatchAnalyzer(Builder builder) {
+        this.readerFactory = builder.readerFactory;
+        this.validatorFactory = builder.validatorFactory;
+        this.sinkFactory = builder.sinkFactory;
+        this.reportExtension = builder.reportExtension;
+        this.outputDirectory = builder.outputDirectory;
+        this.maxConcurrentParses = builder.maxConcurrentParses;
+        this.platformThreads = builder.platformThreads;
+        this.skipInvalidRows = builder.skipInvalidRows;
+        this.metrics = builder.metrics;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Resolves a directory to the CSV files directly inside it, compressed or not, and anything else to the files
+     * matching it as a glob such as {@code data/**.csv}. The glob is walked from its longest directory prefix
+     * without wildcards.
+     *
+     * @return the matching regular files in lexicographic order
+     */
+    public static List<Path> resolveInputs(String directoryOrGlob) throws IOException {
+        Path directory = Path.of(directoryOrGlob);
+        if (Files.isRegularFile(directory)) {
+            return List.of(directory);
+        }
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                return files.filter(Files::isRegularFile)
+                        .filter(BatchAnalyzer::isCsvFile)
+                        .sorted()
+                        .toList();
+            }
+        }
+        Path base = globBase(directoryOrGlob);
+        if (!Files.isDirectory(base)) {
+            return List.of();
+        }
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + directoryOrGlob);
+        try (Stream<Path> files = Files.walk(base)) {
+            return files.filter(Files::isRegularFile).filter(matcher::matches).sorted().toList();
+        }
+    }
+
+    /**
+     * @return whether the name of the file ends with {@code .csv} or {@code .csv.gz}
+     */
+    static boolean isCsvFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".csv") || name.endsWith(".csv.gz");
+    }
+
+    private static Path globBase(String glob) {
+        int wildcard = 0;
+        while (wildcard < glob.length() && "*?[{".indexOf(glob.charAt(wildcard)) < 0) {
+            wildcard++;
+        }
+        Path prefix = Path.of(glob.substring(0, wildcard));
+        if (wildcard < glob.length() && !glob.substring(0, wildcard).endsWith(prefix.getFileSystem().getSeparator())) {
+            prefix = prefix.getParent();
+        }
+        return prefix == null ? Path.of("") : prefix;
+    }
+
+    /**
+     * Analyzes all files, writes their reports and the combined {@code summary.csv} to the output directory.
+     */
+    public BatchSummary analyze(List<Path> files) throws IOException {
+        Files.createDirectories(outputDirectory);
+        long start = System.nanoTime();
+        List<Path> reports = reportPaths(files);
+        Semaphore parses = new Semaphore(maxConcurrentParses);
+        List<FileReport> results = new ArrayList<>(files.size());
+        ExecutorService executor = newTaskExecutor(platformThreads);
+        try {
+            List<Future<FileReport>> futures = new ArrayList<>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                Path file = files.get(i);
+                Path report = reports.get(i);
+                futures.add(executor.submit(() -> analyzeFile(file, report, parses)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                results.add(await(futures.get(i), files.get(i)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        BatchSummary summary = new BatchSummary(results, System.nanoTime() - start);
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(outputDirectory.resolve(SUMMARY_FILE),
+                StandardCharsets.UTF_8))) {
+            summary.write(writer);
+        }
+        logger.info(String.format("Analyzed %d of %d files with %d employees and %d findings in %d ms",
+                summary.succeeded(), files.size(), summary.employees(), summary.findings(), summary.nanos() / 1_000_000));
+        return summary;
+    }
+
+    private FileReport analyzeFile(Path file, Path report, Semaphore parses) {
+        return analyzeFile(file, report, parses, null, employees -> {
+        });
+    }
+
+    /**
+     * @param previous the store of a previous read of the file whose capacity a strict read presizes from, or null
+     * @param parsed   receives the store once the file is parsed, before it is validated
+     */
+    FileReport analyzeFile(Path file, Path report, Semaphore parses, EmployeeStore previous,
+                           Consumer<EmployeeStore> parsed) {
+        long start = System.nanoTime();
+        try {
+            EmployeeStore employees;
+            parses.acquire();
+            try {
+                EmployeeCSVReader reader = readerFactory.get();
+                if (skipInvalidRows) {
+                    employees = reader.readEmployeeStoreLeniently(file.toString()).employees();
+                } else {
+                    employees = previous == null ? reader.readEmployeeStoreFromFile(file.toString())
+                            : reader.readEmployeeStoreFromFile(file.toString(), previous);
+                }
+            } finally {
+                parses.release();
+            }
+            parsed.accept(employees);
+            employees = validatorFactory.get().validate(employees);
+
+            CountingFindingSink counts = new CountingFindingSink();
+            try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(report, StandardCharsets.UTF_8))) {
+                FindingSink sink = sinkFactory.apply(writer);
+                new EmployeeAnalyzerImpl(new TeeSink(sink, counts), 1, metrics).analyzeEmployees(employees);
+                if (writer.checkError()) {
+                    throw new IOException("Error writing report " + report);
+                }
+            }
+            return new FileReport(file, report, employees.size(), counts.underpaid(), counts.overpaid(),
+                    counts.reportingLineTooLong(), System.nanoTime() - start, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return FileReport.failed(file, System.nanoTime() - start, "Interrupted");
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.SEVERE, String.format("An error occurred while processing the CSV file %s: %s",
+                    file, e.getMessage()));
+            return FileReport.failed(file, System.nanoTime() - start, String.valueOf(e.getMessage()));
+        }
+    }
+
+    private static FileReport await(Future<FileReport> future, Path file) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while analyzing " + file, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            return FileReport.failed(file, 0, String.valueOf(e.getCause().getMessage()));
+        }
+    }
+
+    Path outputDirectory() {
+        return outputDirectory;
+    }
+
+    /**
+     * Names every report after its file, adding the parent directories while names would clash.
+     */
+    List<Path> reportPaths(List<Path> files) {
+        List<Path> reports = new ArrayList<>(files.size());
+        Set<String> used = new HashSet<>();
+        for (Path file : files) {
+            String name = stripExtension(file.getFileName().toString());
+            Path parent = file.toAbsolutePath().getParent();
+            while (used.contains(name) && parent != null && parent.getFileName() != null) {
+                name = parent.getFileName() + "_" + name;
+                parent = parent.getParent();
+            }
+            String unique = name;
+            for (int suffix = 2; used.contains(unique); suffix++) {
+                unique = name + "_" + suffix;
+            }
+            used.add(unique);
+            reports.add(outputDirectory.resolve(unique + "." + reportExtension));
+        }
+        return reports;
+    }
+
+    private static String stripExtension(String fileName) {
+        if (fileName.toLowerCase(Locale.ROOT).endsWith(".gz")) {
+            fileName = fileName.substring(0, fileName.length() - ".gz".length());
+        }
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+
+    /**
+     * Runs every task on a new virtual thread where {@code Executors.newVirtualThreadPerTaskExecutor} exists and
+     * is usable, and on a fixed pool of platform threads otherwise. The lookup is reflective so the code still
+     * compiles for and runs on Java 17.
+     */
+    static ExecutorService newTaskExecutor(int platformThreads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            logger.fine("Virtual threads are not available, using " + platformThreads + " platform threads");
+            return Executors.newFixedThreadPool(platformThreads);
+        }
+    }
+
+    private record TeeSink(FindingSink first, FindingSink second) implements FindingSink {
+        @Override
+        public void accept(Finding finding) {
+            first.accept(finding);
+            second.accept(finding);
+        }
+
+        @Override
+        public void flush() {
+            first.flush();
+            second.flush();
+        }
+    }
+
+    public static final class Builder {
+        private Supplier<EmployeeCSVReader> readerFactory = EmployeeCSVReaderImpl::new;
+        private Supplier<HierarchyValidator> validatorFactory = () -> new HierarchyValidator(HierarchyValidationMode.OFF);
+        private Function<PrintWriter, FindingSink> sinkFactory = TextFindingSink::new;
+        private String reportExtension = "txt";
+        private Path outputDirectory = Path.of("reports");
+        private int maxConcurrentParses = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        private int platformThreads = Runtime.getRuntime().availableProcessors();
+        private boolean skipInvalidRows;
+        private PipelineMetrics metrics = PipelineMetrics.disabled();
+
+        private Builder() {
+        }
+
+        /**
+         * @param readerFactory creates the reader of every file
+         */
+        public Builder readerFactory(Supplier<EmployeeCSVReader> readerFactory) {
+            this.readerFactory = readerFactory;
+            return this;
+        }
+
+        /**
+         * @param validatorFactory creates the hierarchy validator of every file
+         */
+        public Builder validatorFactory(Supplier<HierarchyValidator> validatorFactory) {
+            this.validatorFactory = validatorFactory;
+            return this;
+        }
+
+        /**
+         * @param sinkFactory     creates the sink writing the findings of a file to its report
+         * @param reportExtension file extension of the reports
+         */
+        public Builder reports(Function<PrintWriter, FindingSink> sinkFactory, String reportExtension) {
+            this.sinkFactory = sinkFactory;
+            this.reportExtension = reportExtension;
+            return this;
+        }
+
+        public Builder outputDirectory(Path outputDirectory) {
+            this.outputDirectory = outputDirectory;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrentParses number of files parsed at the same time
+         */
+        public Builder maxConcurrentParses(int maxConcurrentParses) {
+            this.maxConcurrentParses = maxConcurrentParses;
+            return this;
+        }
+
+        /**
+         * @param platformThreads number of threads running files when virtual threads are not available
+         */
+        public Builder platformThreads(int platformThreads) {
+            this.platformThreads = platformThreads;
+            return this;
+        }
+
+        /**
+         * @param skipInvalidRows whether invalid rows of a file are logged and left out instead of failing the file
+         */
+        public Builder skipInvalidRows(boolean skipInvalidRows) {
+            this.skipInvalidRows = skipInvalidRows;
+            return this;
+        }
+
+        /**
+         * @param metrics receives the timings of the analyses and the findings of all files; readers and
+         *                validators get their metrics from their factories
+         */
+        public Builder metrics(PipelineMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        public BatchAnalyzer build() {
+            if (maxConcurrentParses < 1 || platformThreads < 1) {
+                throw new IllegalArgumentException("Concurrent parses and threads must be positive");
+            }
+            return new BatchAnalyzer(this);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.company.batch;
+
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ * Reports of all files of a batch, in the order of the input files.
+ */
+public record BatchSummary(List<FileReport> files, long nanos) {
+
+    public long succeeded() {
+        return files.stream().filter(FileReport::succeeded).count();
+    }
+
+    public long failed() {
+        return files.size() - succeeded();
+    }
+
+    public long employees() {
+        return files.stream().mapToLong(FileReport::employees).sum();
+    }
+
+    public long findings() {
+        return files.stream().mapToLong(FileReport::findings).sum();
+    }
+
+    /**
+     * Writes one CSV row per file, followed by a total row.
+     */
+    public void write(PrintWriter writer) {
+        writer.println("file,status,employees,underpaid,overpaid,reportingLineTooLong,millis,error");
+        for (FileReport file : files) {
+            writer.println(String.join(",", quote(file.file().toString()), file.succeeded() ? "OK" : "FAILED",
+                    Integer.toString(file.employees()), Long.toString(file.underpaid()), Long.toString(file.overpaid()),
+                    Long.toString(file.reportingLineTooLong()), Long.toString(file.nanos() / 1_000_000),
+                    file.succeeded() ? "" : quote(file.error())));
+        }
+        writer.println(String.join(",", "TOTAL", failed() == 0 ? "OK" : "FAILED", Long.toString(employees()),
+                Long.toString(files.stream().mapToLong(FileReport::underpaid).sum()),
+                Long.toString(files.stream().mapToLong(FileReport::overpaid).sum()),
+                Long.toString(files.stream().mapToLong(FileReport::reportingLineTooLong).sum()),
+                Long.toString(nanos / 1_000_000), ""));
+        writer.flush();
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,226 @@
+package org.company.batch;
+
+import org.company.model.EmployeeStore;
+import org.company.model.EmployeeStoreSnapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the reports of the CSV files of one directory up to date. Changes are taken from a {@link WatchService};
+ * a file is only analyzed once it has been quiet for the quiet period, so a burst of writes is analyzed once.
+ * A file whose length and CRC32C checksum are the ones of its last analysis is skipped, as is one touched or
+ * rewritten with the same content.
+ * <p>
+ * The last store parsed from every file stays in memory and is handed to the reader on the next change. A strict
+ * reload only presizes from it: it still allocates new columns, plus a map of the previous names through which
+ * names that did not change resolve to the instances already held, so only the sizes and those instances carry
+ * over and nothing is updated in place. Failed files are reported with
+ * their error and not analyzed again until their content changes. Files are analyzed one at a time on the
+ * thread calling {@link #run()}.
+ * <p>
+ * Instead of {@link #run()}, a caller can drive the watcher itself with {@link #scan()}, {@link #fileChanged(Path)}
+ * and {@link #analyzeQuietFiles()}, on a clock of its own.
+ */
+public final class DirectoryWatcher implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(DirectoryWatcher.class.getName());
+
+    private final Path directory;
+    private final BatchAnalyzer analyzer;
+    private final long quietNanos;
+    private final LongSupplier nanoClock;
+    private final Consumer<FileReport> listener;
+    private final WatchService watchService;
+    private final Semaphore parses = new Semaphore(1);
+    /** Time at which a changed file has been quiet long enough, by file. */
+    private final Map<Path, Long> pending = new HashMap<>();
+    private final Map<Path, FileState> states = new HashMap<>();
+
+    /**
+     * @param analyzer     reads, validates and writes the report of every file to its output directory
+     * @param quietPeriod  time without changes to a file before it is analyzed
+     * @param listener     receives the report of every analysis
+     */
+    public DirectoryWatcher(Path directory, BatchAnalyzer analyzer, Duration quietPeriod,
+                            Consumer<FileReport> listener) throws IOException {
+        this(directory, analyzer, quietPeriod, listener, System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock time in nanoseconds against which the quiet period is measured
+     */
+    public DirectoryWatcher(Path directory, BatchAnalyzer analyzer, Duration quietPeriod,
+                            Consumer<FileReport> listener, LongSupplier nanoClock) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            throw new NoSuchFileException(directory.toString(), null, "Not a directory");
+        }
+        this.directory = directory;
+        this.analyzer = analyzer;
+        this.quietNanos = quietPeriod.toNanos();
+        this.nanoClock = nanoClock;
+        this.listener = listener;
+        Files.createDirectories(analyzer.outputDirectory());
+        this.watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    /**
+     * Analyzes the files already in the directory, then every change until the watcher is closed or the thread
+     * is interrupted.
+     */
+    public void run() throws IOException {
+        scan();
+        try {
+            while (true) {
+                WatchKey key = nextKey();
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            scan();
+                        } else if (event.context() instanceof Path name) {
+                            fileChanged(directory.resolve(name));
+                        }
+                    }
+                    if (!key.reset()) {
+                        logger.warning("Stopped watching " + directory + " as it is no longer accessible");
+                        return;
+                    }
+                }
+                analyzeQuietFiles();
+            }
+        } catch (ClosedWatchServiceException e) {
+            logger.fine("Stopped watching " + directory);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for the next change, or until the first pending file has been quiet long enough.
+     */
+    private WatchKey nextKey() throws InterruptedException {
+        if (pending.isEmpty()) {
+            return watchService.take();
+        }
+        long now = nanoClock.getAsLong();
+        long wait = Long.MAX_VALUE;
+        for (long due : pending.values()) {
+            wait = Math.min(wait, due - now);
+        }
+        return wait <= 0 ? watchService.poll() : watchService.poll(wait, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Marks every CSV file of the directory, and every file analyzed before, as due for analysis.
+     */
+    public void scan() throws IOException {
+        long now = nanoClock.getAsLong();
+        List<Path> files = BatchAnalyzer.resolveInputs(directory.toString());
+        for (Path file : files) {
+            pending.putIfAbsent(file, now);
+        }
+        for (Path known : states.keySet()) {
+            pending.putIfAbsent(known, now);
+        }
+    }
+
+    /**
+     * Marks a file as changed now, so it is analyzed once it has been quiet for the quiet period. Files that
+     * are not CSV files are ignored.
+     */
+    public void fileChanged(Path file) {
+        if (BatchAnalyzer.isCsvFile(file.getFileName())) {
+            pending.put(file, nanoClock.getAsLong() + quietNanos);
+        }
+    }
+
+    /**
+     * Analyzes the files that have been quiet long enough and whose content changed.
+     *
+     * @return number of files analyzed
+     */
+    public int analyzeQuietFiles() {
+        long now = nanoClock.getAsLong();
+        List<Path> due = new ArrayList<>();
+        for (Iterator<Map.Entry<Path, Long>> entries = pending.entrySet().iterator(); entries.hasNext(); ) {
+            Map.Entry<Path, Long> entry = entries.next();
+            if (entry.getValue() - now <= 0) {
+                due.add(entry.getKey());
+                entries.remove();
+            }
+        }
+        due.sort(null);
+        int analyzed = 0;
+        for (Path file : due) {
+            if (analyzeIfChanged(file)) {
+                analyzed++;
+            }
+        }
+        return analyzed;
+    }
+
+    private boolean analyzeIfChanged(Path file) {
+        long length;
+        long checksum;
+        try {
+            length = Files.size(file);
+            checksum = EmployeeStoreSnapshot.checksum(file);
+        } catch (NoSuchFileException e) {
+            if (states.remove(file) != null) {
+                logger.info("Stopped tracking deleted file " + file);
+            }
+            return false;
+        } catch (IOException e) {
+            logger.warning("Could not read " + file + ": " + e.getMessage());
+            return false;
+        }
+        FileState previous = states.get(file);
+        if (previous != null && previous.length() == length && previous.checksum() == checksum) {
+            logger.fine("Skipping unchanged file " + file);
+            return false;
+        }
+
+        EmployeeStore[] parsed = {previous == null ? null : previous.employees()};
+        Path report = analyzer.reportPaths(List.of(file)).get(0);
+        FileReport result = analyzer.analyzeFile(file, report, parses, parsed[0], employees -> parsed[0] = employees);
+        states.put(file, new FileState(length, checksum, parsed[0]));
+        logger.info(result.succeeded()
+                ? String.format("Analyzed %s: %d employees, %d findings", file, result.employees(), result.findings())
+                : String.format("Failed to analyze %s: %s", file, result.error()));
+        listener.accept(result);
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    /**
+     * Content of a file at its last analysis, with the last store parsed from it, which may be older than the
+     * content when the last analysis failed.
+     */
+    private record FileState(long length, long checksum, EmployeeStore employees) {
+    }
+}
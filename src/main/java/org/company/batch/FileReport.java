@@ -0,0 +1,25 @@
+package org.company.batch;
+
+import java.nio.file.Path;
+
+/**
+ * Outcome of analyzing one file of a batch.
+ *
+ * @param report file the findings were written to, null if the file failed before the analysis
+ * @param error  message of the failure, null if the file was analyzed
+ */
+public record FileReport(Path file, Path report, int employees, long underpaid, long overpaid,
+                         long reportingLineTooLong, long nanos, String error) {
+
+    static FileReport failed(Path file, long nanos, String error) {
+        return new FileReport(file, null, 0, 0, 0, 0, nanos, error);
+    }
+
+    public boolean succeeded() {
+        return error == null;
+    }
+
+    public long findings() {
+        return underpaid + overpaid + reportingLineTooLong;
+    }
+}
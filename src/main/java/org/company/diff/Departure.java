@@ -0,0 +1,14 @@
+package org.company.diff;
+
+/**
+ * An employee only in the older export, with the values they last had.
+ *
+ * @param managerId null for an employee without a manager
+ */
+public record Departure(
+        int employeeId,
+        String firstName,
+        String lastName,
+        int salary,
+        Integer managerId) implements EmployeeChange {
+}
@@ -0,0 +1,14 @@
+package org.company.diff;
+
+/**
+ * Typed difference of one employee between two exports of the org chart. An employee whose salary and manager
+ * both changed has one change of each kind.
+ */
+public sealed interface EmployeeChange permits Hire, Departure, SalaryChange, ManagerMove {
+
+    int employeeId();
+
+    String firstName();
+
+    String lastName();
+}
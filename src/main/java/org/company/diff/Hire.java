@@ -0,0 +1,14 @@
+package org.company.diff;
+
+/**
+ * An employee only in the newer export.
+ *
+ * @param managerId null for an employee without a manager
+ */
+public record Hire(
+        int employeeId,
+        String firstName,
+        String lastName,
+        int salary,
+        Integer managerId) implements EmployeeChange {
+}
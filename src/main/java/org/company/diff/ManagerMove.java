@@ -0,0 +1,15 @@
+package org.company.diff;
+
+/**
+ * An employee in both exports who reports to someone else.
+ *
+ * @param oldManagerId null when the employee had no manager
+ * @param newManagerId null when the employee has no manager
+ */
+public record ManagerMove(
+        int employeeId,
+        String firstName,
+        String lastName,
+        Integer oldManagerId,
+        Integer newManagerId) implements EmployeeChange {
+}
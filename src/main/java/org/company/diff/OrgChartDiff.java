@@ -0,0 +1,38 @@
+package org.company.diff;
+
+import org.company.finding.FindingChanges;
+
+import java.util.List;
+
+/**
+ * Everything that changed between two exports of the org chart.
+ *
+ * @param changes  changes of the employees, ordered by employee id
+ * @param findings findings of the analysis that appeared and cleared, ordered by employee id
+ */
+public record OrgChartDiff(List<EmployeeChange> changes, FindingChanges findings) {
+
+    public long hires() {
+        return count(Hire.class);
+    }
+
+    public long departures() {
+        return count(Departure.class);
+    }
+
+    public long salaryChanges() {
+        return count(SalaryChange.class);
+    }
+
+    public long managerMoves() {
+        return count(ManagerMove.class);
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty() && findings.isEmpty();
+    }
+
+    private long count(Class<? extends EmployeeChange> kind) {
+        return changes.stream().filter(kind::isInstance).count();
+    }
+}
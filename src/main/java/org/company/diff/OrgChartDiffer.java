@@ -0,0 +1,233 @@
+package org.company.diff;
+
+import org.company.analyzer.SalaryBands;
+import org.company.analyzer.SalaryKernel;
+import org.company.analyzer.ThresholdPolicy;
+import org.company.finding.Finding;
+import org.company.finding.FindingChanges;
+import org.company.finding.OverpaidFinding;
+import org.company.finding.ReportingLineTooLongFinding;
+import org.company.finding.UnderpaidFinding;
+import org.company.metrics.PipelineMetrics;
+import org.company.metrics.PipelineStage;
+import org.company.model.EmployeeStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares two exports of the org chart. Both stores are put in id order through a primitive array of their
+ * indexes, which is skipped for the usual export already sorted by id, and walked in one merge-join that reports
+ * hires, departures, salary changes and manager moves.
+ * <p>
+ * The findings delta comes from the same merge: the salary bands and reporting line depths of each store are
+ * computed in bulk first, and findings are only built for the employees that have one in either store, so the
+ * full finding lists of two large charts are never held. The findings are the ones {@code EmployeeAnalyzerImpl}
+ * reports for the same policy; one whose values changed is listed once as removed and once as added.
+ */
+public final class OrgChartDiffer {
+
+    private final ThresholdPolicy policy;
+    private final PipelineMetrics metrics;
+    private final SalaryKernel kernel = SalaryKernel.preferred();
+
+    public OrgChartDiffer() {
+        this(ThresholdPolicy.DEFAULT, PipelineMetrics.disabled());
+    }
+
+    /**
+     * @param metrics receives the timing of the comparison
+     */
+    public OrgChartDiffer(ThresholdPolicy policy, PipelineMetrics metrics) {
+        this.policy = policy;
+        this.metrics = metrics;
+    }
+
+    public OrgChartDiff diff(EmployeeStore before, EmployeeStore after) {
+        try (PipelineMetrics.Timer timer = metrics.start(PipelineStage.ANALYZE)) {
+            Side older = new Side(before);
+            Side newer = new Side(after);
+            List<EmployeeChange> changes = new ArrayList<>();
+            List<Finding> added = new ArrayList<>();
+            List<Finding> removed = new ArrayList<>();
+            List<Finding> olderFindings = new ArrayList<>(3);
+            List<Finding> newerFindings = new ArrayList<>(3);
+            int olderPosition = 0;
+            int newerPosition = 0;
+            while (olderPosition < older.byId.length || newerPosition < newer.byId.length) {
+                int olderIndex = olderPosition < older.byId.length ? older.byId[olderPosition] : -1;
+                int newerIndex = newerPosition < newer.byId.length ? newer.byId[newerPosition] : -1;
+                int comparison = olderIndex < 0 ? 1 : newerIndex < 0 ? -1
+                        : Integer.compare(before.id(olderIndex), after.id(newerIndex));
+                if (comparison < 0) {
+                    changes.add(new Departure(before.id(olderIndex), before.firstName(olderIndex),
+                            before.lastName(olderIndex), before.salary(olderIndex), before.managerId(olderIndex)));
+                    newerIndex = -1;
+                    olderPosition++;
+                } else if (comparison > 0) {
+                    changes.add(new Hire(after.id(newerIndex), after.firstName(newerIndex),
+                            after.lastName(newerIndex), after.salary(newerIndex), after.managerId(newerIndex)));
+                    olderIndex = -1;
+                    newerPosition++;
+                } else {
+                    compareEmployee(before, olderIndex, after, newerIndex, changes);
+                    olderPosition++;
+                    newerPosition++;
+                }
+                boolean olderHasFindings = olderIndex >= 0 && older.hasFindings(olderIndex);
+                boolean newerHasFindings = newerIndex >= 0 && newer.hasFindings(newerIndex);
+                if (olderHasFindings || newerHasFindings) {
+                    olderFindings.clear();
+                    newerFindings.clear();
+                    if (olderHasFindings) {
+                        older.findings(olderIndex, olderFindings);
+                    }
+                    if (newerHasFindings) {
+                        newer.findings(newerIndex, newerFindings);
+                    }
+                    compareFindings(olderFindings, newerFindings, added, removed);
+                }
+            }
+            timer.rows((long) before.size() + after.size());
+            return new OrgChartDiff(changes, new FindingChanges(added, removed));
+        }
+    }
+
+    private static void compareEmployee(EmployeeStore before, int olderIndex, EmployeeStore after, int newerIndex,
+                                        List<EmployeeChange> changes) {
+        if (before.salary(olderIndex) != after.salary(newerIndex)) {
+            changes.add(new SalaryChange(after.id(newerIndex), after.firstName(newerIndex), after.lastName(newerIndex),
+                    before.salary(olderIndex), after.salary(newerIndex)));
+        }
+        if (managerKey(before, olderIndex) != managerKey(after, newerIndex)) {
+            changes.add(new ManagerMove(after.id(newerIndex), after.firstName(newerIndex), after.lastName(newerIndex),
+                    before.managerId(olderIndex), after.managerId(newerIndex)));
+        }
+    }
+
+    /**
+     * @return manager id of the employee, or a value outside the int range when the employee has no manager;
+     * only missing managers are looked up through the boxed id
+     */
+    private static long managerKey(EmployeeStore employees, int index) {
+        int manager = employees.managerIndex(index);
+        if (manager >= 0) {
+            return employees.id(manager);
+        }
+        return manager == EmployeeStore.NO_MANAGER ? Long.MIN_VALUE : employees.managerId(index);
+    }
+
+    private static void compareFindings(List<Finding> olderFindings, List<Finding> newerFindings,
+                                        List<Finding> added, List<Finding> removed) {
+        for (Finding finding : olderFindings) {
+            if (!newerFindings.contains(finding)) {
+                removed.add(finding);
+            }
+        }
+        for (Finding finding : newerFindings) {
+            if (!olderFindings.contains(finding)) {
+                added.add(finding);
+            }
+        }
+    }
+
+    /**
+     * One store with its indexes in id order, its salary bands and the depth of every employee.
+     */
+    private final class Side {
+        private final EmployeeStore employees;
+        private final int[] byId;
+        /** Depth by index, the CEO being at depth 0 and employees without a reporting line to the CEO at -1. */
+        private final int[] depths;
+        private final SalaryBands bands;
+
+        private Side(EmployeeStore employees) {
+            this.employees = employees;
+            this.byId = indexesById(employees);
+            this.depths = depths(employees);
+            this.bands = SalaryBands.of(employees, policy, kernel);
+        }
+
+        boolean hasFindings(int index) {
+            if (depths[index] < 0) {
+                return false;
+            }
+            int manager = employees.managerIndex(index);
+            return bands.isUnderpaid(index) || bands.isOverpaid(index)
+                    || manager >= 0 && depths[manager] > policy.maxReportingLineDepth();
+        }
+
+        /**
+         * Adds the findings of the employee in the order the analysis reports them.
+         */
+        void findings(int index, List<Finding> into) {
+            if (bands.isUnderpaid(index)) {
+                into.add(new UnderpaidFinding(employees.id(index), employees.firstName(index),
+                        employees.lastName(index), employees.salary(index),
+                        policy.minCoefficient() * bands.averageDirectSalary(index)));
+            }
+            if (bands.isOverpaid(index)) {
+                into.add(new OverpaidFinding(employees.id(index), employees.firstName(index),
+                        employees.lastName(index), employees.salary(index),
+                        policy.maxCoefficient() * bands.averageDirectSalary(index)));
+            }
+            int manager = employees.managerIndex(index);
+            if (manager >= 0 && depths[manager] > policy.maxReportingLineDepth()) {
+                into.add(new ReportingLineTooLongFinding(employees.id(index), employees.firstName(index),
+                        employees.lastName(index), employees.id(manager), depths[manager],
+                        depths[manager] - policy.maxReportingLineDepth()));
+            }
+        }
+    }
+
+    /**
+     * @return the indexes of the store in ascending id order
+     */
+    private static int[] indexesById(EmployeeStore employees) {
+        int size = employees.size();
+        int[] indexes = new int[size];
+        boolean sorted = true;
+        for (int index = 0; index < size; index++) {
+            indexes[index] = index;
+            sorted &= index == 0 || employees.id(index - 1) < employees.id(index);
+        }
+        if (sorted) {
+            return indexes;
+        }
+        long[] keys = new long[size];
+        for (int index = 0; index < size; index++) {
+            keys[index] = (long) employees.id(index) << 32 | index;
+        }
+        Arrays.sort(keys);
+        for (int position = 0; position < size; position++) {
+            indexes[position] = (int) keys[position];
+        }
+        return indexes;
+    }
+
+    /**
+     * Numbers the depths breadth first from the CEO.
+     */
+    private static int[] depths(EmployeeStore employees) {
+        int[] depths = new int[employees.size()];
+        Arrays.fill(depths, -1);
+        if (employees.ceo() < 0) {
+            return depths;
+        }
+        int[] queue = new int[employees.size()];
+        int tail = 0;
+        queue[tail++] = employees.ceo();
+        depths[employees.ceo()] = 0;
+        for (int head = 0; head < tail; head++) {
+            int manager = queue[head];
+            for (int position = employees.firstSubordinate(manager); position < employees.lastSubordinate(manager);
+                 position++) {
+                int subordinate = employees.subordinate(position);
+                depths[subordinate] = depths[manager] + 1;
+                queue[tail++] = subordinate;
+            }
+        }
+        return depths;
+    }
+}
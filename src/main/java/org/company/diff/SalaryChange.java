@@ -0,0 +1,16 @@
+package org.company.diff;
+
+/**
+ * An employee in both exports whose salary changed.
+ */
+public record SalaryChange(
+        int employeeId,
+        String firstName,
+        String lastName,
+        int oldSalary,
+        int newSalary) implements EmployeeChange {
+
+    public int difference() {
+        return newSalary - oldSalary;
+    }
+}
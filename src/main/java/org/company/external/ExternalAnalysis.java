@@ -0,0 +1,14 @@
+package org.company.external;
+
+/**
+ * Outcome of an out-of-core analysis.
+ *
+ * @param employees          rows read from the file
+ * @param reachableEmployees employees with a reporting line up to the CEO, the only ones analyzed
+ * @param findings           findings passed to the sink
+ * @param runFiles           sorted run files spilled to disk, zero when every sort fit the memory budget
+ * @param depthRounds        join rounds needed to find the reporting line depths
+ */
+public record ExternalAnalysis(long employees, long reachableEmployees, long findings, int runFiles,
+                               int depthRounds) {
+}
@@ -0,0 +1,424 @@
+package org.company.external;
+
+import org.company.analyzer.ThresholdPolicy;
+import org.company.exception.InvalidCsvDataException;
+import org.company.finding.OverpaidFinding;
+import org.company.finding.ReportingLineTooLongFinding;
+import org.company.finding.UnderpaidFinding;
+import org.company.metrics.PipelineMetrics;
+import org.company.metrics.PipelineStage;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.company.reader.EmployeeRowHandler;
+import org.company.report.FindingSink;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Analyzes org charts with more employees than fit in the heap. Rows are streamed from the file into external
+ * sorts that hold at most the memory budget, so the heap only grows with the budget and a few file buffers of
+ * 64 KiB, never with the file:
+ * <ol>
+ *     <li>rows are sorted by ID, which finds duplicate IDs, and the salaries of all employees with a manager are
+ *     sorted by manager ID and summed per manager in one merge;</li>
+ *     <li>reporting line depths are found by pointer jumping: every employee starts pointing at its manager, and
+ *     every round joins the pointers with the table of all pointers to replace each pointer by the one of the
+ *     employee it points at, adding up the distances. An employee whose pointer reaches an employee without a
+ *     manager knows its depth, so a chart of depth {@code d} needs about {@code log2(d)} rounds of two sorts,
+ *     where a walk down the levels would need {@code d} passes;</li>
+ *     <li>a last merge of the employees, their depths and the salary sums of their teams reports the findings.</li>
+ * </ol>
+ * The findings are the ones of the in-memory analyzer for the same policy, with the same salary comparisons and
+ * the same treatment of cycles and missing managers, but they arrive ordered by employee ID rather than by a
+ * walk of the hierarchy; the findings of one employee keep the order underpaid, overpaid, reporting line.
+ * All work files live in a temporary directory that is deleted when the analysis ends.
+ */
+public final class ExternalAnalyzer {
+
+    private static final Logger logger = Logger.getLogger(ExternalAnalyzer.class.getName());
+
+    /** Smallest budget accepted, which still leaves each of the two sorts alive at a time one file buffer. */
+    public static final long MIN_MEMORY_BUDGET = 2L * RecordFile.BUFFER_SIZE;
+
+    /** Manager ID of employees without a manager, and pointer of employees whose depth is known. */
+    private static final long TOP = Long.MIN_VALUE;
+    /** Pointer of employees without a reporting line to any top employee. */
+    private static final long DEAD = Long.MIN_VALUE + 1;
+
+    /** Parsed row: id, manager ID or {@link #TOP}, salary, position in the file, offset of the names. */
+    private static final int ROW_WIDTH = 5;
+    /** Employee by ID: id, manager ID or {@link #TOP}, salary, offset of the names. */
+    private static final int EMPLOYEE_WIDTH = 4;
+    /** Team salary by manager ID: manager ID, salary; summed to manager ID, count, sum. */
+    private static final int SALARY_WIDTH = 2;
+    private static final int TEAM_WIDTH = 3;
+    /** Pointer by ID: id, pointer or {@link #TOP} or {@link #DEAD}, distance to the pointer, top employee ID. */
+    private static final int POINTER_WIDTH = 4;
+    /** Pointer request by pointer: pointer, id. */
+    private static final int REQUEST_WIDTH = 2;
+
+    private final long memoryBudget;
+    private final Path workDirectory;
+    private final ThresholdPolicy policy;
+    private final PipelineMetrics metrics;
+
+    /**
+     * Analyzes with the default policy in the temporary directory of the JVM.
+     */
+    public ExternalAnalyzer(long memoryBudget) {
+        this(memoryBudget, Path.of(System.getProperty("java.io.tmpdir")), ThresholdPolicy.DEFAULT,
+                PipelineMetrics.disabled());
+    }
+
+    /**
+     * @param memoryBudget  bytes of heap for sorting, split between the two sorts that are alive at a time
+     * @param workDirectory directory in which the temporary directory of every analysis is created
+     * @param metrics       receives the timings of parsing and of the analysis
+     */
+    public ExternalAnalyzer(long memoryBudget, Path workDirectory, ThresholdPolicy policy, PipelineMetrics metrics) {
+        if (memoryBudget < MIN_MEMORY_BUDGET) {
+            throw new IllegalArgumentException("Memory budget must be at least " + MIN_MEMORY_BUDGET + " bytes");
+        }
+        this.memoryBudget = memoryBudget;
+        this.workDirectory = workDirectory;
+        this.policy = policy;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Reads and analyzes the file, which is validated like in a strict read, and passes the findings to the sink.
+     *
+     * @throws IOException when the work files cannot be written or read
+     */
+    public ExternalAnalysis analyze(String csvFile, FindingSink sink) throws IOException {
+        Path work = Files.createTempDirectory(workDirectory, "employee-analyzer-");
+        try (Analysis analysis = new Analysis(work)) {
+            analysis.parse(csvFile);
+            try (PipelineMetrics.Timer timer = metrics.start(PipelineStage.ANALYZE)) {
+                FindingSink measuredSink = metrics.measure(sink);
+                analysis.sortEmployees();
+                analysis.sumTeams();
+                analysis.findDepths();
+                analysis.report(measuredSink);
+                measuredSink.flush();
+                timer.rows(analysis.employees);
+            }
+            ExternalAnalysis result = new ExternalAnalysis(analysis.employees, analysis.reachable, analysis.findings,
+                    analysis.runFiles, analysis.rounds);
+            logger.fine(() -> String.format("Analyzed %s out of core: %d employees, %d run files, %d depth rounds",
+                    csvFile, result.employees(), result.runFiles(), result.depthRounds()));
+            return result;
+        } finally {
+            deleteRecursively(work);
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * State of one analysis: the work files and the counts reported at the end. Every step reads the files of
+     * the previous ones and closes what it opened.
+     */
+    private final class Analysis implements EmployeeRowHandler, AutoCloseable {
+        private final Path work;
+        private final Path employeeFile;
+        private final Path teamFile;
+        private final Path nameFile;
+        private Path pointerFile;
+
+        private ExternalSorter rows;
+        private NameFile.Writer names;
+        private final long[] row = new long[ROW_WIDTH];
+        private long employees;
+        private long unresolved;
+        private long ceo = TOP;
+        private long reachable;
+        private long findings;
+        private int runFiles;
+        private int rounds;
+
+        private Analysis(Path work) {
+            this.work = work;
+            this.employeeFile = work.resolve("employees.bin");
+            this.teamFile = work.resolve("teams.bin");
+            this.nameFile = work.resolve("names.bin");
+            this.pointerFile = work.resolve("pointers-0.bin");
+        }
+
+        private ExternalSorter sorter(String name, int width) {
+            return new ExternalSorter(work, name, width, 0, memoryBudget / 2);
+        }
+
+        void parse(String csvFile) throws IOException {
+            rows = sorter("rows", ROW_WIDTH);
+            try (NameFile.Writer writer = new NameFile.Writer(nameFile)) {
+                names = writer;
+                new EmployeeCSVReaderImpl(metrics).readRows(csvFile, this);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        @Override
+        public void onRow(int id, String firstName, String lastName, int salary, boolean hasManager, int managerId) {
+            try {
+                row[0] = id;
+                row[1] = hasManager ? managerId : TOP;
+                row[2] = salary;
+                row[3] = employees++;
+                row[4] = names.write(firstName, lastName);
+                rows.add(row);
+                if (!hasManager && ceo == TOP) {
+                    ceo = id;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Writes the employees and their first pointers by ID, and sorts the salaries of every team by manager.
+         * The duplicate ID reported is the first one in the file, like in the in-memory read.
+         */
+        void sortEmployees() throws IOException {
+            long[] employee = new long[EMPLOYEE_WIDTH];
+            long[] pointer = new long[POINTER_WIDTH];
+            long[] salary = new long[SALARY_WIDTH];
+            long duplicateId = 0;
+            long duplicatePosition = Long.MAX_VALUE;
+            ExternalSorter salaries = sorter("salaries", SALARY_WIDTH);
+            try (RecordReader sorted = rows.sorted();
+                 RecordFile.Writer employeeWriter = RecordFile.write(employeeFile, EMPLOYEE_WIDTH);
+                 RecordFile.Writer pointerWriter = RecordFile.write(pointerFile, POINTER_WIDTH)) {
+                long previousId = TOP;
+                while (sorted.next(row)) {
+                    if (row[0] == previousId) {
+                        if (row[3] < duplicatePosition) {
+                            duplicateId = row[0];
+                            duplicatePosition = row[3];
+                        }
+                        continue;
+                    }
+                    previousId = row[0];
+                    boolean hasManager = row[1] != TOP;
+                    employee[0] = row[0];
+                    employee[1] = row[1];
+                    employee[2] = row[2];
+                    employee[3] = row[4];
+                    employeeWriter.write(employee);
+                    pointer[0] = row[0];
+                    pointer[1] = row[1];
+                    pointer[2] = hasManager ? 1 : 0;
+                    pointer[3] = hasManager ? 0 : row[0];
+                    pointerWriter.write(pointer);
+                    if (hasManager) {
+                        unresolved++;
+                        salary[0] = row[1];
+                        salary[1] = row[2];
+                        salaries.add(salary);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                salaries.close();
+                throw e;
+            } finally {
+                runFiles += rows.runFiles();
+                rows.close();
+                rows = null;
+            }
+            if (duplicatePosition != Long.MAX_VALUE) {
+                salaries.close();
+                logger.severe("Duplicate ID found in CSV file: " + duplicateId);
+                throw new InvalidCsvDataException("Duplicate ID found in CSV file: " + duplicateId);
+            }
+            rows = salaries;
+        }
+
+        /**
+         * Sums the sorted team salaries to one count and sum per manager ID.
+         */
+        void sumTeams() throws IOException {
+            long[] salary = new long[SALARY_WIDTH];
+            long[] team = {TOP, 0, 0};
+            try (RecordReader sorted = rows.sorted();
+                 RecordFile.Writer writer = RecordFile.write(teamFile, TEAM_WIDTH)) {
+                while (sorted.next(salary)) {
+                    if (salary[0] != team[0]) {
+                        if (team[1] > 0) {
+                            writer.write(team);
+                        }
+                        team[0] = salary[0];
+                        team[1] = 0;
+                        team[2] = 0;
+                    }
+                    team[1]++;
+                    team[2] += salary[1];
+                }
+                if (team[1] > 0) {
+                    writer.write(team);
+                }
+            } finally {
+                runFiles += rows.runFiles();
+                rows.close();
+                rows = null;
+            }
+        }
+
+        /**
+         * Jumps pointers until every employee knows its depth or a round makes no progress. A round always
+         * resolves the employees of the lowest unresolved depth, so one without progress leaves only employees
+         * in or below a cycle, which never reach the top.
+         */
+        void findDepths() throws IOException {
+            while (unresolved > 0) {
+                rounds++;
+                Path nextPointerFile = work.resolve("pointers-" + rounds + ".bin");
+                long remaining = jump(nextPointerFile);
+                Files.delete(pointerFile);
+                pointerFile = nextPointerFile;
+                if (remaining == unresolved) {
+                    break;
+                }
+                unresolved = remaining;
+            }
+        }
+
+        /**
+         * Replaces every unresolved pointer by the pointer of the employee it points at.
+         *
+         * @return number of employees still unresolved
+         */
+        private long jump(Path nextPointerFile) throws IOException {
+            long[] pointer = new long[POINTER_WIDTH];
+            long[] request = new long[REQUEST_WIDTH];
+            try (ExternalSorter requests = sorter("requests", REQUEST_WIDTH);
+                 ExternalSorter answers = sorter("answers", POINTER_WIDTH)) {
+                try (RecordReader pointers = RecordFile.read(pointerFile, POINTER_WIDTH)) {
+                    while (pointers.next(pointer)) {
+                        if (isUnresolved(pointer)) {
+                            request[0] = pointer[1];
+                            request[1] = pointer[0];
+                            requests.add(request);
+                        }
+                    }
+                }
+                long[] target = new long[POINTER_WIDTH];
+                long[] answer = new long[POINTER_WIDTH];
+                try (RecordReader sortedRequests = requests.sorted();
+                     RecordReader targets = RecordFile.read(pointerFile, POINTER_WIDTH)) {
+                    boolean hasTarget = targets.next(target);
+                    while (sortedRequests.next(request)) {
+                        while (hasTarget && target[0] < request[0]) {
+                            hasTarget = targets.next(target);
+                        }
+                        answer[0] = request[1];
+                        if (hasTarget && target[0] == request[0]) {
+                            answer[1] = target[1];
+                            answer[2] = target[2];
+                            answer[3] = target[3];
+                        } else {
+                            answer[1] = DEAD;
+                            answer[2] = 0;
+                            answer[3] = DEAD;
+                        }
+                        answers.add(answer);
+                    }
+                }
+                long unresolved = 0;
+                try (RecordReader sortedAnswers = answers.sorted();
+                     RecordReader pointers = RecordFile.read(pointerFile, POINTER_WIDTH);
+                     RecordFile.Writer writer = RecordFile.write(nextPointerFile, POINTER_WIDTH)) {
+                    boolean hasAnswer = sortedAnswers.next(answer);
+                    while (pointers.next(pointer)) {
+                        if (hasAnswer && answer[0] == pointer[0]) {
+                            pointer[1] = answer[1];
+                            pointer[2] += answer[2];
+                            pointer[3] = answer[1] == TOP ? answer[3] : answer[1] == DEAD ? DEAD : 0;
+                            hasAnswer = sortedAnswers.next(answer);
+                        }
+                        if (isUnresolved(pointer)) {
+                            unresolved++;
+                        }
+                        writer.write(pointer);
+                    }
+                }
+                runFiles += requests.runFiles() + answers.runFiles();
+                return unresolved;
+            }
+        }
+
+        private static boolean isUnresolved(long[] pointer) {
+            return pointer[1] != TOP && pointer[1] != DEAD;
+        }
+
+        /**
+         * Merges the employees with their depths and team salaries, all ordered by ID, and reports the findings
+         * of every employee with a reporting line up to the CEO.
+         */
+        void report(FindingSink sink) throws IOException {
+            long[] employee = new long[EMPLOYEE_WIDTH];
+            long[] pointer = new long[POINTER_WIDTH];
+            long[] team = new long[TEAM_WIDTH];
+            try (RecordReader employeeReader = RecordFile.read(employeeFile, EMPLOYEE_WIDTH);
+                 RecordReader pointers = RecordFile.read(pointerFile, POINTER_WIDTH);
+                 RecordReader teams = RecordFile.read(teamFile, TEAM_WIDTH);
+                 NameFile.Reader nameReader = new NameFile.Reader(nameFile)) {
+                boolean hasTeam = teams.next(team);
+                while (employeeReader.next(employee) && pointers.next(pointer)) {
+                    while (hasTeam && team[0] < employee[0]) {
+                        hasTeam = teams.next(team);
+                    }
+                    if (pointer[1] != TOP || pointer[3] != ceo) {
+                        continue;
+                    }
+                    reachable++;
+                    int id = (int) employee[0];
+                    int salary = (int) employee[2];
+                    String[] employeeNames = null;
+                    if (hasTeam && team[0] == employee[0]) {
+                        double averageSalary = (double) team[2] / team[1];
+                        if (salary < policy.minCoefficient() * averageSalary) {
+                            employeeNames = nameReader.read(employee[3]);
+                            findings++;
+                            sink.accept(new UnderpaidFinding(id, employeeNames[0], employeeNames[1], salary,
+                                    policy.minCoefficient() * averageSalary));
+                        }
+                        if (salary > policy.maxCoefficient() * averageSalary) {
+                            employeeNames = nameReader.read(employee[3]);
+                            findings++;
+                            sink.accept(new OverpaidFinding(id, employeeNames[0], employeeNames[1], salary,
+                                    policy.maxCoefficient() * averageSalary));
+                        }
+                    }
+                    int managerDepth = (int) pointer[2] - 1;
+                    if (employee[1] != TOP && managerDepth > policy.maxReportingLineDepth()) {
+                        if (employeeNames == null) {
+                            employeeNames = nameReader.read(employee[3]);
+                        }
+                        findings++;
+                        sink.accept(new ReportingLineTooLongFinding(id, employeeNames[0], employeeNames[1],
+                                (int) employee[1], managerDepth, managerDepth - policy.maxReportingLineDepth()));
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (rows != null) {
+                rows.close();
+            }
+        }
+    }
+}
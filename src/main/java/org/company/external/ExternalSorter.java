@@ -0,0 +1,269 @@
+package org.company.external;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * External merge sort of fixed width records of longs by one of their columns. Records are buffered until the
+ * ones that fit the memory budget are held, then sorted and spilled to a run file. The runs are merged at most
+ * as many at a time as read buffers fit the budget, in as many passes as needed, and the last merge is streamed
+ * to the reader without being written. Records with equal keys keep the order they were added in.
+ * <p>
+ * The buffer is sorted as one primitive array of keys that carry the key in their high and the position of the
+ * record in their low half, so the key column has to hold int values. Instances are not thread safe.
+ */
+final class ExternalSorter implements Closeable {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_FAN_IN = 256;
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    private final Path directory;
+    private final String name;
+    private final int width;
+    private final int keyColumn;
+    private final int capacity;
+    private final int fanIn;
+
+    private long[] records;
+    private long[] keys;
+    private int size;
+    private List<Path> runs = new ArrayList<>();
+    private final List<Path> files = new ArrayList<>();
+    private RecordReader reader;
+
+    /**
+     * @param directory    directory of the run files, which are deleted on close
+     * @param name         prefix of the run files
+     * @param memoryBudget bytes of the buffer, and of the read buffers of a merge
+     */
+    ExternalSorter(Path directory, String name, int width, int keyColumn, long memoryBudget) {
+        this.directory = directory;
+        this.name = name;
+        this.width = width;
+        this.keyColumn = keyColumn;
+        long fitting = memoryBudget / ((long) Long.BYTES * (width + 1));
+        this.capacity = (int) Math.max(2, Math.min(fitting, MAX_ARRAY_LENGTH / width));
+        this.fanIn = (int) Math.max(2, Math.min(MAX_FAN_IN, memoryBudget / RecordFile.BUFFER_SIZE));
+        int initialCapacity = Math.min(capacity, INITIAL_CAPACITY);
+        this.records = new long[initialCapacity * width];
+        this.keys = new long[initialCapacity];
+    }
+
+    void add(long[] record) throws IOException {
+        if (reader != null) {
+            throw new IllegalStateException("Records were already sorted");
+        }
+        long key = record[keyColumn];
+        if ((int) key != key) {
+            throw new IllegalArgumentException("Sort key does not fit an int: " + key);
+        }
+        if (size == capacity) {
+            spill();
+        } else if (size == keys.length) {
+            int grown = (int) Math.min(capacity, 2L * keys.length);
+            keys = Arrays.copyOf(keys, grown);
+            records = Arrays.copyOf(records, grown * width);
+        }
+        System.arraycopy(record, 0, records, size * width, width);
+        keys[size] = key << 32 | size;
+        size++;
+    }
+
+    /**
+     * @return reader of all added records in key order; no records can be added afterwards
+     */
+    RecordReader sorted() throws IOException {
+        if (reader != null) {
+            throw new IllegalStateException("Records were already sorted");
+        }
+        if (runs.isEmpty()) {
+            Arrays.sort(keys, 0, size);
+            reader = new BufferReader();
+            return reader;
+        }
+        if (size > 0) {
+            spill();
+        }
+        records = null;
+        keys = null;
+        while (runs.size() > fanIn) {
+            List<Path> merged = new ArrayList<>();
+            for (int from = 0; from < runs.size(); from += fanIn) {
+                List<Path> group = runs.subList(from, Math.min(runs.size(), from + fanIn));
+                merged.add(group.size() == 1 ? group.get(0) : mergeToRun(group));
+            }
+            runs = merged;
+        }
+        reader = new MergingReader(runs);
+        return reader;
+    }
+
+    /**
+     * @return number of run files written, including the ones of intermediate merges
+     */
+    int runFiles() {
+        return files.size();
+    }
+
+    private void spill() throws IOException {
+        Arrays.sort(keys, 0, size);
+        Path run = newRun();
+        runs.add(run);
+        try (RecordFile.Writer writer = RecordFile.write(run, width)) {
+            for (int position = 0; position < size; position++) {
+                writer.write(records, (int) keys[position] * width);
+            }
+        }
+        size = 0;
+    }
+
+    private Path mergeToRun(List<Path> group) throws IOException {
+        Path run = newRun();
+        long[] record = new long[width];
+        try (MergingReader merge = new MergingReader(group);
+             RecordFile.Writer writer = RecordFile.write(run, width)) {
+            while (merge.next(record)) {
+                writer.write(record);
+            }
+        }
+        for (Path merged : group) {
+            Files.deleteIfExists(merged);
+        }
+        return run;
+    }
+
+    private Path newRun() {
+        Path run = directory.resolve(name + "-" + files.size() + ".run");
+        files.add(run);
+        return run;
+    }
+
+    @Override
+    public void close() throws IOException {
+        records = null;
+        keys = null;
+        if (reader != null) {
+            reader.close();
+        }
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private final class BufferReader implements RecordReader {
+        private int position;
+
+        @Override
+        public boolean next(long[] record) {
+            if (position == size) {
+                return false;
+            }
+            System.arraycopy(records, (int) keys[position++] * width, record, 0, width);
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Merges sorted runs through a binary min-heap of run positions, ordered by the key of the current record
+     * of each run and then by position, which keeps equal keys in run order.
+     */
+    private final class MergingReader implements RecordReader {
+        private final RecordReader[] readers;
+        private final long[][] current;
+        private final int[] heap;
+        private int heapSize;
+
+        private MergingReader(List<Path> runs) throws IOException {
+            readers = new RecordReader[runs.size()];
+            current = new long[runs.size()][width];
+            heap = new int[runs.size()];
+            try {
+                for (int run = 0; run < readers.length; run++) {
+                    readers[run] = RecordFile.read(runs.get(run), width);
+                    if (readers[run].next(current[run])) {
+                        heap[heapSize] = run;
+                        siftUp(heapSize++);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean next(long[] record) throws IOException {
+            if (heapSize == 0) {
+                return false;
+            }
+            int run = heap[0];
+            System.arraycopy(current[run], 0, record, 0, width);
+            if (!readers[run].next(current[run])) {
+                heap[0] = heap[--heapSize];
+            }
+            siftDown(0);
+            return true;
+        }
+
+        private void siftUp(int child) {
+            while (child > 0) {
+                int parent = (child - 1) >>> 1;
+                if (!before(heap[child], heap[parent])) {
+                    return;
+                }
+                swap(child, parent);
+                child = parent;
+            }
+        }
+
+        private void siftDown(int parent) {
+            while (true) {
+                int first = parent;
+                int left = 2 * parent + 1;
+                int right = left + 1;
+                if (left < heapSize && before(heap[left], heap[first])) {
+                    first = left;
+                }
+                if (right < heapSize && before(heap[right], heap[first])) {
+                    first = right;
+                }
+                if (first == parent) {
+                    return;
+                }
+                swap(parent, first);
+                parent = first;
+            }
+        }
+
+        private boolean before(int run, int otherRun) {
+            long key = current[run][keyColumn];
+            long otherKey = current[otherRun][keyColumn];
+            return key < otherKey || key == otherKey && run < otherRun;
+        }
+
+        private void swap(int first, int second) {
+            int run = heap[first];
+            heap[first] = heap[second];
+            heap[second] = run;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (RecordReader runReader : readers) {
+                if (runReader != null) {
+                    runReader.close();
+                }
+            }
+        }
+    }
+}
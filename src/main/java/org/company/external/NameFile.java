@@ -0,0 +1,103 @@
+package org.company.external;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The first and last names of all employees, appended in file order as length prefixed UTF-8 and read back by
+ * offset. Sorted records only carry the offset of the names, so their width stays fixed and the names are only
+ * read for the employees that are reported.
+ */
+final class NameFile {
+
+    private NameFile() {
+    }
+
+    static final class Writer implements Closeable {
+        private final DataOutputStream out;
+        private long offset;
+
+        Writer(Path file) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file),
+                    RecordFile.BUFFER_SIZE));
+        }
+
+        /**
+         * @return offset of the names, to read them back with {@link Reader#read(long)}
+         */
+        long write(String firstName, String lastName) throws IOException {
+            long start = offset;
+            write(firstName);
+            write(lastName);
+            return start;
+        }
+
+        private void write(String name) throws IOException {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            offset += Integer.BYTES + bytes.length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocate(256);
+
+        Reader(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        }
+
+        /**
+         * @return first and last name written at the offset
+         */
+        String[] read(long offset) throws IOException {
+            int firstNameLength = readLength(offset);
+            String firstName = readName(offset, firstNameLength);
+            long lastNameOffset = offset + Integer.BYTES + firstNameLength;
+            return new String[]{firstName, readName(lastNameOffset, readLength(lastNameOffset))};
+        }
+
+        private int readLength(long offset) throws IOException {
+            readFully(offset, Integer.BYTES);
+            return buffer.getInt();
+        }
+
+        private String readName(long offset, int length) throws IOException {
+            if (length > buffer.capacity()) {
+                buffer = ByteBuffer.allocate(Math.max(length, 2 * buffer.capacity()));
+            }
+            readFully(offset + Integer.BYTES, length);
+            return new String(buffer.array(), 0, length, StandardCharsets.UTF_8);
+        }
+
+        private void readFully(long offset, int length) throws IOException {
+            buffer.clear().limit(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("Names end before offset " + (offset + length));
+                }
+            }
+            buffer.flip();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.company.external;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * File of fixed width records of longs, written and read sequentially through a buffer of
+ * {@value #BUFFER_SIZE} bytes. A record file holds no header; its width is known to both sides.
+ */
+final class RecordFile {
+
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private RecordFile() {
+    }
+
+    static Writer write(Path file, int width) throws IOException {
+        return new Writer(file, width);
+    }
+
+    static RecordReader read(Path file, int width) throws IOException {
+        return new FileReader(file, width);
+    }
+
+    static final class Writer implements Closeable {
+        private final DataOutputStream out;
+        private final int width;
+        private long records;
+
+        private Writer(Path file, int width) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE));
+            this.width = width;
+        }
+
+        void write(long[] record) throws IOException {
+            write(record, 0);
+        }
+
+        /**
+         * Writes the record starting at the given offset of an array of consecutive records.
+         */
+        void write(long[] records, int offset) throws IOException {
+            for (int field = offset; field < offset + width; field++) {
+                out.writeLong(records[field]);
+            }
+            this.records++;
+        }
+
+        long records() {
+            return records;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    private static final class FileReader implements RecordReader {
+        private final DataInputStream in;
+        private final int width;
+
+        private FileReader(Path file, int width) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE));
+            this.width = width;
+        }
+
+        @Override
+        public boolean next(long[] record) throws IOException {
+            long first;
+            try {
+                first = in.readLong();
+            } catch (EOFException e) {
+                return false;
+            }
+            record[0] = first;
+            for (int field = 1; field < width; field++) {
+                record[field] = in.readLong();
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
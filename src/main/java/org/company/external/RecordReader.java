@@ -0,0 +1,17 @@
+package org.company.external;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Sequential reader of fixed width records of longs.
+ */
+interface RecordReader extends Closeable {
+
+    /**
+     * Copies the next record into the given array, which is at least as wide as the records.
+     *
+     * @return false at the end of the records, leaving the array untouched
+     */
+    boolean next(long[] record) throws IOException;
+}
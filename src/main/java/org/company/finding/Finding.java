@@ -0,0 +1,17 @@
+package org.company.finding;
+
+/**
+ * Typed result of the employee analysis.
+ */
+public sealed interface Finding permits UnderpaidFinding, OverpaidFinding, ReportingLineTooLongFinding {
+
+    int employeeId();
+
+    String firstName();
+
+    String lastName();
+
+    default String fullName() {
+        return firstName() + " " + lastName();
+    }
+}
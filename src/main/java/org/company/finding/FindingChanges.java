@@ -0,0 +1,14 @@
+package org.company.finding;
+
+import java.util.List;
+
+/**
+ * Findings that appeared and disappeared between two versions of the org chart, ordered by employee id.
+ * A finding whose values changed is listed once as removed, with its old values, and once as added.
+ */
+public record FindingChanges(List<Finding> added, List<Finding> removed) {
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty();
+    }
+}
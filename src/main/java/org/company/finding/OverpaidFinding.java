@@ -0,0 +1,16 @@
+package org.company.finding;
+
+/**
+ * A manager earning more than the highest expected salary for the average salary of their direct reports.
+ */
+public record OverpaidFinding(
+        int employeeId,
+        String firstName,
+        String lastName,
+        int salary,
+        double maxExpectedSalary) implements Finding {
+
+    public double amount() {
+        return salary - maxExpectedSalary;
+    }
+}
@@ -0,0 +1,16 @@
+package org.company.finding;
+
+/**
+ * An employee with too many managers between them and the CEO.
+ *
+ * @param reportingLineDepth number of managers between the employee and the CEO
+ * @param excess             number of managers above the allowed maximum
+ */
+public record ReportingLineTooLongFinding(
+        int employeeId,
+        String firstName,
+        String lastName,
+        int managerId,
+        int reportingLineDepth,
+        int excess) implements Finding {
+}
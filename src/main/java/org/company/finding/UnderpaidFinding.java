@@ -0,0 +1,16 @@
+package org.company.finding;
+
+/**
+ * A manager earning less than the lowest expected salary for the average salary of their direct reports.
+ */
+public record UnderpaidFinding(
+        int employeeId,
+        String firstName,
+        String lastName,
+        int salary,
+        double minExpectedSalary) implements Finding {
+
+    public double amount() {
+        return minExpectedSalary - salary;
+    }
+}
@@ -0,0 +1,484 @@
+package org.company.generator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.logging.Logger;
+
+/**
+ * Generates synthetic org charts in the {@code Id,firstName,lastName,salary,managerId} CSV format.
+ * <p>
+ * The tree is generated depth first, assigning ids in pre-order, and every row is written as soon as it is
+ * generated. Each manager on the current reporting line keeps only its team size, the number of employees
+ * still to be placed below it and the average salary its team is drawn around, so memory grows with the depth
+ * of the chart and never with the headcount. All randomness comes from one seeded {@link SplittableRandom},
+ * so the same settings always produce byte-identical files.
+ * <p>
+ * Team salaries are drawn around {@code managerSalary / ratio}, where the ratio is chosen per manager to make it
+ * fairly paid, underpaid or overpaid with the configured rates, and paired deviations keep the team average exact.
+ * Reporting lines stop at the deepest level without findings unless a subtree is picked as too long with the
+ * configured rate. The headcount always wins: when the depth limits leave no room for the remaining
+ * employees, they become additional direct reports of the deepest managers allowed to have them.
+ */
+public final class OrgChartGenerator {
+
+    private static final Logger logger = Logger.getLogger(OrgChartGenerator.class.getName());
+
+    /**
+     * Deepest level, counted from the CEO at level 0, whose employees do not have a too long reporting line.
+     */
+    private static final int LAST_COMPLIANT_DEPTH = 5;
+
+    private static final double MIN_FAIR_RATIO = 1.25;
+    private static final double MAX_FAIR_RATIO = 1.45;
+    private static final double MIN_UNDERPAID_RATIO = 0.8;
+    private static final double MAX_UNDERPAID_RATIO = 1.15;
+    private static final double MIN_OVERPAID_RATIO = 1.55;
+    private static final double MAX_OVERPAID_RATIO = 2.0;
+
+    private static final byte[] HEADER = "Id,firstName,lastName,salary,managerId\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] FIRST_NAMES = names("Mike", "Joe", "Martin", "Bob", "Alice", "Brett", "John", "Anna",
+            "Anthony", "Denis", "Brad", "Maria", "Olga", "Peter", "Laura", "Sofia", "Lucas", "Emma", "Noah", "Mia",
+            "Liam", "Olivia", "Ethan", "Chloe", "Jacob", "Grace", "Henry", "Ella", "Oscar", "Ruby", "Isaac", "Zoe");
+    private static final byte[][] LAST_NAMES = names("Doe", "Chekov", "Ronstad", "Hasacat", "Hardleaf", "Smith", "Brown",
+            "How", "Miller", "Wilson", "Taylor", "Clark", "Lewis", "Walker", "Young", "King", "Wright", "Scott",
+            "Green", "Baker", "Adams", "Nelson", "Hill", "Campbell", "Mitchell", "Roberts", "Carter", "Phillips");
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+    private static final int MAX_ROW_LENGTH = 64;
+
+    public enum FanOutDistribution {
+        /**
+         * Team sizes spread evenly between the minimum and maximum fan-out.
+         */
+        UNIFORM,
+        /**
+         * Mostly small teams with a heavy tail of large ones, capped at the maximum fan-out.
+         */
+        PARETO
+    }
+
+    private final long seed;
+    private final int headcount;
+    private final int minFanOut;
+    private final int maxFanOut;
+    private final FanOutDistribution fanOutDistribution;
+    private final int maxDepth;
+    private final int ceoSalary;
+    private final double salarySpread;
+    private final double underpaidRate;
+    private final double overpaidRate;
+    private final double longReportingLineRate;
+
+    private OrgChartGenerator(Builder builder) {
+        this.seed = builder.seed;
+        this.headcount = builder.headcount;
+        this.minFanOut = builder.minFanOut;
+        this.maxFanOut = builder.maxFanOut;
+        this.fanOutDistribution = builder.fanOutDistribution;
+        this.maxDepth = builder.maxDepth;
+        this.ceoSalary = builder.ceoSalary;
+        this.salarySpread = builder.salarySpread;
+        this.underpaidRate = builder.underpaidRate;
+        this.overpaidRate = builder.overpaidRate;
+        this.longReportingLineRate = builder.longReportingLineRate;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Writes the org chart to a file, replacing an existing file.
+     *
+     * @return number of bytes written
+     */
+    public long generate(Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            return generate(out);
+        }
+    }
+
+    /**
+     * Writes the org chart to the stream. The stream is not closed.
+     *
+     * @return number of bytes written
+     */
+    public long generate(OutputStream out) throws IOException {
+        return new Generation(out).run();
+    }
+
+    /**
+     * Generates a file from {@code --key=value} options, for example
+     * {@code --output=company.csv --headcount=10000000 --seed=42 --fan-out=2-12 --max-depth=9}.
+     */
+    public static void main(String[] args) throws IOException {
+        Builder builder = builder();
+        Path output = null;
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                logger.warning("Unknown option: " + arg);
+                return;
+            }
+            String option = arg.substring(0, separator);
+            String value = arg.substring(separator + 1);
+            try {
+                switch (option.substring(2)) {
+                    case "output" -> output = Path.of(value);
+                    case "seed" -> builder.seed(Long.parseLong(value));
+                    case "headcount" -> builder.headcount(Integer.parseInt(value));
+                    case "fan-out" -> {
+                        int dash = value.indexOf('-');
+                        String min = dash < 0 ? value : value.substring(0, dash);
+                        builder.fanOut(Integer.parseInt(min), Integer.parseInt(value.substring(dash + 1)));
+                    }
+                    case "fan-out-distribution" -> builder.fanOutDistribution(
+                            FanOutDistribution.valueOf(value.toUpperCase(Locale.ROOT)));
+                    case "max-depth" -> builder.maxDepth(Integer.parseInt(value));
+                    case "ceo-salary" -> builder.ceoSalary(Integer.parseInt(value));
+                    case "salary-spread" -> builder.salarySpread(Double.parseDouble(value));
+                    case "underpaid-rate" -> builder.underpaidRate(Double.parseDouble(value));
+                    case "overpaid-rate" -> builder.overpaidRate(Double.parseDouble(value));
+                    case "long-reporting-line-rate" -> builder.longReportingLineRate(Double.parseDouble(value));
+                    default -> {
+                        logger.warning("Unknown option: " + arg);
+                        return;
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                logger.warning("Invalid value for " + option + ": " + value + expected(option));
+                return;
+            }
+        }
+        if (output == null) {
+            logger.warning("Please provide the output file with --output=<file>");
+            return;
+        }
+        OrgChartGenerator generator;
+        try {
+            generator = builder.build();
+        } catch (IllegalArgumentException e) {
+            logger.warning("Invalid options: " + e.getMessage());
+            return;
+        }
+
+        long start = System.nanoTime();
+        long bytes = generator.generate(output);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        logger.info(String.format("Wrote %d bytes to %s in %.2f s (%.1f MB/s)", bytes, output, seconds,
+                bytes / seconds / (1 << 20)));
+    }
+
+    private static String expected(String option) {
+        return switch (option) {
+            case "--fan-out" -> ", expected a number or a range such as 2-12";
+            case "--fan-out-distribution" -> ", expected one of " + Arrays.toString(FanOutDistribution.values())
+                    .toLowerCase(Locale.ROOT);
+            case "--salary-spread", "--underpaid-rate", "--overpaid-rate", "--long-reporting-line-rate" ->
+                    ", expected a number";
+            case "--output" -> ", expected a file path";
+            default -> ", expected an integer";
+        };
+    }
+
+    private static byte[][] names(String... names) {
+        return Arrays.stream(names).map(name -> name.getBytes(StandardCharsets.US_ASCII)).toArray(byte[][]::new);
+    }
+
+    /**
+     * State of one generated file. The arrays hold one entry per manager on the current reporting line.
+     */
+    private final class Generation {
+        private final OutputStream out;
+        private final SplittableRandom random = new SplittableRandom(seed);
+        private final byte[] buffer = new byte[WRITE_BUFFER_SIZE];
+        private int position;
+        private long written;
+        private int nextId = 1;
+
+        private int depth = -1;
+        private int[] managerIds = new int[16];
+        private double[] teamAverages = new double[16];
+        private int[] teamSizes = new int[16];
+        private int[] nextMembers = new int[16];
+        private int[] managingMembers = new int[16];
+        private int[] unplaced = new int[16];
+        private double[] pairedDeviations = new double[16];
+
+        private Generation(OutputStream out) {
+            this.out = out;
+        }
+
+        private long run() throws IOException {
+            append(HEADER);
+            int ceo = nextId++;
+            writeRow(ceo, ceoSalary, -1);
+            if (headcount > 1) {
+                push(ceo, ceoSalary, headcount - 1);
+            }
+            while (depth >= 0) {
+                if (nextMembers[depth] == teamSizes[depth]) {
+                    depth--;
+                    continue;
+                }
+                int member = nextMembers[depth]++;
+                int id = nextId++;
+                int salary = memberSalary(member);
+                writeRow(id, salary, managerIds[depth]);
+                int below = memberBudget(member);
+                if (below > 0) {
+                    push(id, salary, below);
+                }
+            }
+            flush();
+            return written;
+        }
+
+        /**
+         * Starts the team of a manager at level {@code depth + 1} that has {@code below} employees
+         * to place in its subtree.
+         */
+        private void push(int managerId, int managerSalary, int below) {
+            depth++;
+            ensureCapacity();
+            int teamLevel = depth + 1;
+            int teamSize;
+            int managing;
+            if (teamLevel >= maxDepth) {
+                teamSize = below;
+                managing = 0;
+            } else {
+                teamSize = Math.min(below, sampleFanOut());
+                managing = teamSize;
+                if (teamLevel == LAST_COMPLIANT_DEPTH) {
+                    managing = 0;
+                    for (int member = 0; member < teamSize; member++) {
+                        if (random.nextDouble() < longReportingLineRate) {
+                            managing++;
+                        }
+                    }
+                    if (managing == 0) {
+                        teamSize = below;
+                    }
+                }
+            }
+            managerIds[depth] = managerId;
+            teamAverages[depth] = managerSalary / sampleRatio();
+            teamSizes[depth] = teamSize;
+            nextMembers[depth] = 0;
+            managingMembers[depth] = managing;
+            unplaced[depth] = below - teamSize;
+        }
+
+        private int sampleFanOut() {
+            if (fanOutDistribution == FanOutDistribution.PARETO) {
+                double pareto = minFanOut / Math.pow(1 - random.nextDouble(), 1 / 1.5);
+                return (int) Math.min(maxFanOut, pareto);
+            }
+            return random.nextInt(minFanOut, maxFanOut + 1);
+        }
+
+        private double sampleRatio() {
+            double kind = random.nextDouble();
+            if (kind < underpaidRate) {
+                return uniform(MIN_UNDERPAID_RATIO, MAX_UNDERPAID_RATIO);
+            }
+            if (kind < underpaidRate + overpaidRate) {
+                return uniform(MIN_OVERPAID_RATIO, MAX_OVERPAID_RATIO);
+            }
+            return uniform(MIN_FAIR_RATIO, MAX_FAIR_RATIO);
+        }
+
+        private double uniform(double min, double max) {
+            return min + (max - min) * random.nextDouble();
+        }
+
+        /**
+         * Members are drawn in pairs with opposite deviations, so the team average stays at the drawn average.
+         */
+        private int memberSalary(int member) {
+            double deviation;
+            if (member % 2 == 1) {
+                deviation = -pairedDeviations[depth];
+            } else if (member + 1 < teamSizes[depth]) {
+                deviation = salarySpread * random.nextDouble();
+                pairedDeviations[depth] = deviation;
+            } else {
+                deviation = 0;
+            }
+            return (int) Math.max(0, Math.min(Integer.MAX_VALUE, Math.round(teamAverages[depth] * (1 + deviation))));
+        }
+
+        /**
+         * Splits the employees not yet placed among the managing members, handing each one a random share
+         * averaging an equal split and the last one everything left.
+         */
+        private int memberBudget(int member) {
+            int managing = managingMembers[depth];
+            if (member >= managing) {
+                return 0;
+            }
+            int left = unplaced[depth];
+            int remainingMembers = managing - member;
+            int budget = remainingMembers == 1 ? left
+                    : (int) Math.min(left, (long) (2.0 * random.nextDouble() * left / remainingMembers));
+            unplaced[depth] = left - budget;
+            return budget;
+        }
+
+        private void ensureCapacity() {
+            if (depth == managerIds.length) {
+                int capacity = managerIds.length * 2;
+                managerIds = Arrays.copyOf(managerIds, capacity);
+                teamAverages = Arrays.copyOf(teamAverages, capacity);
+                teamSizes = Arrays.copyOf(teamSizes, capacity);
+                nextMembers = Arrays.copyOf(nextMembers, capacity);
+                managingMembers = Arrays.copyOf(managingMembers, capacity);
+                unplaced = Arrays.copyOf(unplaced, capacity);
+                pairedDeviations = Arrays.copyOf(pairedDeviations, capacity);
+            }
+        }
+
+        private void writeRow(int id, int salary, int managerId) throws IOException {
+            if (position + MAX_ROW_LENGTH > buffer.length) {
+                flush();
+            }
+            appendInt(id);
+            buffer[position++] = ',';
+            append(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+            buffer[position++] = ',';
+            append(LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+            buffer[position++] = ',';
+            appendInt(salary);
+            buffer[position++] = ',';
+            if (managerId >= 0) {
+                appendInt(managerId);
+            }
+            buffer[position++] = '\n';
+        }
+
+        private void append(byte[] bytes) {
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void appendInt(int value) {
+            int digits = 1;
+            for (int rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            for (int index = position + digits - 1; index >= position; index--) {
+                buffer[index] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            position += digits;
+        }
+
+        private void flush() throws IOException {
+            out.write(buffer, 0, position);
+            written += position;
+            position = 0;
+        }
+    }
+
+    public static final class Builder {
+        private long seed = 1;
+        private int headcount = 1000;
+        private int minFanOut = 2;
+        private int maxFanOut = 10;
+        private FanOutDistribution fanOutDistribution = FanOutDistribution.UNIFORM;
+        private int maxDepth = 8;
+        private int ceoSalary = 2_000_000;
+        private double salarySpread = 0.2;
+        private double underpaidRate = 0.05;
+        private double overpaidRate = 0.05;
+        private double longReportingLineRate = 0.05;
+
+        private Builder() {
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder headcount(int headcount) {
+            this.headcount = headcount;
+            return this;
+        }
+
+        public Builder fanOut(int minFanOut, int maxFanOut) {
+            this.minFanOut = minFanOut;
+            this.maxFanOut = maxFanOut;
+            return this;
+        }
+
+        public Builder fanOutDistribution(FanOutDistribution fanOutDistribution) {
+            this.fanOutDistribution = fanOutDistribution;
+            return this;
+        }
+
+        /**
+         * @param maxDepth number of levels below the CEO
+         */
+        public Builder maxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        public Builder ceoSalary(int ceoSalary) {
+            this.ceoSalary = ceoSalary;
+            return this;
+        }
+
+        /**
+         * @param salarySpread largest relative deviation of a salary from its team average
+         */
+        public Builder salarySpread(double salarySpread) {
+            this.salarySpread = salarySpread;
+            return this;
+        }
+
+        /**
+         * @param underpaidRate share of managers earning less than 1.2 times their team average
+         */
+        public Builder underpaidRate(double underpaidRate) {
+            this.underpaidRate = underpaidRate;
+            return this;
+        }
+
+        /**
+         * @param overpaidRate share of managers earning more than 1.5 times their team average
+         */
+        public Builder overpaidRate(double overpaidRate) {
+            this.overpaidRate = overpaidRate;
+            return this;
+        }
+
+        /**
+         * @param longReportingLineRate share of employees on the deepest compliant level that get subordinates
+         *                              of their own, who then have too long reporting lines
+         */
+        public Builder longReportingLineRate(double longReportingLineRate) {
+            this.longReportingLineRate = longReportingLineRate;
+            return this;
+        }
+
+        public OrgChartGenerator build() {
+            if (headcount < 1 || minFanOut < 1 || maxFanOut < minFanOut || maxDepth < 1 || ceoSalary < 0) {
+                throw new IllegalArgumentException("Headcount, fan-out and depth must be positive and the salary not negative");
+            }
+            if (salarySpread < 0 || salarySpread >= 1 || underpaidRate < 0 || overpaidRate < 0
+                    || underpaidRate + overpaidRate > 1 || longReportingLineRate < 0 || longReportingLineRate > 1) {
+                throw new IllegalArgumentException("Salary spread and violation rates must be between 0 and 1");
+            }
+            return new OrgChartGenerator(this);
+        }
+    }
+}
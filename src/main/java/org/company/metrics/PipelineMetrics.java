@@ -0,0 +1,270 @@
+package org.company.metrics;
+
+import org.company.finding.Finding;
+import org.company.finding.OverpaidFinding;
+import org.company.finding.ReportingLineTooLongFinding;
+import org.company.finding.UnderpaidFinding;
+import org.company.report.FindingSink;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timers and counters of the pipeline stages, passed to the reader, validator and analyzer through their
+ * constructors. Stages are timed as a whole and rows and bytes are added once per stage, so nothing is counted
+ * per row. Only findings are counted one by one, by a sink wrapper installed when metrics are enabled.
+ * <p>
+ * Every completed stage is also committed as a {@code org.company.PipelineStage} flight recorder event when a
+ * recording enables it. Allocations are estimated from the bytes allocated by the thread running a stage, so
+ * work the stage hands to a thread pool is not included.
+ * <p>
+ * The {@link #disabled() disabled} instance hands out a shared timer that does nothing, so disabled metrics cost
+ * one branch per stage. Counters are lock free and instances are thread safe.
+ */
+public final class PipelineMetrics {
+
+    private static final PipelineMetrics DISABLED = new PipelineMetrics(false);
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final boolean enabled;
+    private final LongAdder[] nanos = adders(PipelineStage.values().length);
+    private final LongAdder[] calls = adders(PipelineStage.values().length);
+    private final LongAdder[] rows = adders(PipelineStage.values().length);
+    private final LongAdder[] bytes = adders(PipelineStage.values().length);
+    private final LongAdder[] allocatedBytes = adders(PipelineStage.values().length);
+    private final LongAdder underpaid = new LongAdder();
+    private final LongAdder overpaid = new LongAdder();
+    private final LongAdder reportingLineTooLong = new LongAdder();
+    private final Timer noTimer = new Timer(null, null);
+
+    private PipelineMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static PipelineMetrics disabled() {
+        return DISABLED;
+    }
+
+    public static PipelineMetrics enabled() {
+        return new PipelineMetrics(true);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts timing a stage; the stage ends when the timer is closed.
+     */
+    public Timer start(PipelineStage stage) {
+        return enabled ? new Timer(this, stage) : noTimer;
+    }
+
+    /**
+     * @return the sink itself when disabled, otherwise a sink counting findings and timing their output
+     */
+    public FindingSink measure(FindingSink sink) {
+        return enabled ? new MeasuredFindingSink(sink) : sink;
+    }
+
+    public long nanos(PipelineStage stage) {
+        return nanos[stage.ordinal()].sum();
+    }
+
+    public long calls(PipelineStage stage) {
+        return calls[stage.ordinal()].sum();
+    }
+
+    public long rows(PipelineStage stage) {
+        return rows[stage.ordinal()].sum();
+    }
+
+    public long bytes(PipelineStage stage) {
+        return bytes[stage.ordinal()].sum();
+    }
+
+    public long allocatedBytes(PipelineStage stage) {
+        return allocatedBytes[stage.ordinal()].sum();
+    }
+
+    public long underpaid() {
+        return underpaid.sum();
+    }
+
+    public long overpaid() {
+        return overpaid.sum();
+    }
+
+    public long reportingLineTooLong() {
+        return reportingLineTooLong.sum();
+    }
+
+    /**
+     * @return one JSON object with every stage that ran and the finding counts
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\"stages\":{");
+        boolean first = true;
+        for (PipelineStage stage : PipelineStage.values()) {
+            if (calls(stage) == 0) {
+                continue;
+            }
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            long stageNanos = nanos(stage);
+            long stageRows = rows(stage);
+            json.append('"').append(stage.label()).append("\":{")
+                    .append("\"calls\":").append(calls(stage))
+                    .append(",\"nanos\":").append(stageNanos)
+                    .append(",\"rows\":").append(stageRows)
+                    .append(",\"rowsPerSecond\":").append(String.format(Locale.ROOT, "%.1f",
+                            stageNanos == 0 ? 0.0 : stageRows * 1e9 / stageNanos))
+                    .append(",\"bytes\":").append(bytes(stage))
+                    .append(",\"allocatedBytes\":").append(allocatedBytes(stage))
+                    .append('}');
+        }
+        json.append("},\"findings\":{")
+                .append("\"underpaid\":").append(underpaid())
+                .append(",\"overpaid\":").append(overpaid())
+                .append(",\"reportingLineTooLong\":").append(reportingLineTooLong())
+                .append(",\"total\":").append(underpaid() + overpaid() + reportingLineTooLong())
+                .append("}}");
+        return json.toString();
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private long findingCount() {
+        return underpaid.sum() + overpaid.sum() + reportingLineTooLong.sum();
+    }
+
+    private static long allocatedByCurrentThread() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    /**
+     * Running stage. Close it on the thread that started it.
+     */
+    public static final class Timer implements AutoCloseable {
+        private final PipelineMetrics metrics;
+        private final PipelineStage stage;
+        private final StageEvent event;
+        private final long startNanos;
+        private final long startAllocatedBytes;
+        private final long startFindings;
+        private long rows;
+        private long bytes;
+
+        private Timer(PipelineMetrics metrics, PipelineStage stage) {
+            this.metrics = metrics;
+            this.stage = stage;
+            if (metrics == null) {
+                event = null;
+                startNanos = 0;
+                startAllocatedBytes = 0;
+                startFindings = 0;
+                return;
+            }
+            event = new StageEvent();
+            event.begin();
+            startFindings = metrics.findingCount();
+            startAllocatedBytes = allocatedByCurrentThread();
+            startNanos = System.nanoTime();
+        }
+
+        /**
+         * Sets the number of rows the stage processed.
+         */
+        public Timer rows(long rows) {
+            if (metrics != null) {
+                this.rows = rows;
+            }
+            return this;
+        }
+
+        /**
+         * Sets the number of bytes the stage read.
+         */
+        public Timer bytes(long bytes) {
+            if (metrics != null) {
+                this.bytes = bytes;
+            }
+            return this;
+        }
+
+        @Override
+        public void close() {
+            if (metrics == null) {
+                return;
+            }
+            long elapsed = System.nanoTime() - startNanos;
+            long allocated = allocatedByCurrentThread() - startAllocatedBytes;
+            int ordinal = stage.ordinal();
+            metrics.nanos[ordinal].add(elapsed);
+            metrics.calls[ordinal].increment();
+            metrics.rows[ordinal].add(rows);
+            metrics.bytes[ordinal].add(bytes);
+            metrics.allocatedBytes[ordinal].add(allocated);
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.stage = stage.label();
+                event.rows = rows;
+                event.bytes = bytes;
+                event.allocatedBytes = allocated;
+                event.findings = metrics.findingCount() - startFindings;
+                event.commit();
+            }
+        }
+    }
+
+    private final class MeasuredFindingSink implements FindingSink {
+        private final FindingSink sink;
+        private long outputNanos;
+        private long outputFindings;
+
+        private MeasuredFindingSink(FindingSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void accept(Finding finding) {
+            if (finding instanceof UnderpaidFinding) {
+                underpaid.increment();
+            } else if (finding instanceof OverpaidFinding) {
+                overpaid.increment();
+            } else if (finding instanceof ReportingLineTooLongFinding) {
+                reportingLineTooLong.increment();
+            }
+            long start = System.nanoTime();
+            sink.accept(finding);
+            outputNanos += System.nanoTime() - start;
+            outputFindings++;
+        }
+
+        @Override
+        public void flush() {
+            long start = System.nanoTime();
+            sink.flush();
+            outputNanos += System.nanoTime() - start;
+            nanos[PipelineStage.OUTPUT.ordinal()].add(outputNanos);
+            calls[PipelineStage.OUTPUT.ordinal()].increment();
+            rows[PipelineStage.OUTPUT.ordinal()].add(outputFindings);
+            outputNanos = 0;
+            outputFindings = 0;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.company.metrics;
+
+/**
+ * Stages of a run, in pipeline order.
+ */
+public enum PipelineStage {
+    /**
+     * Reading and tokenizing the file, including the duplicate ID check.
+     */
+    PARSE("parse"),
+    /**
+     * Linking employees to their managers.
+     */
+    LINK("link"),
+    /**
+     * Replacing the parsed employees by immutable copies.
+     */
+    IMMUTABLE("immutable"),
+    /**
+     * Validating the management hierarchy.
+     */
+    VALIDATE("validate"),
+    /**
+     * Analyzing the hierarchy, including the output of findings.
+     */
+    ANALYZE("analyze"),
+    /**
+     * Passing findings to the sink, as part of the analysis. Its rows are the findings.
+     */
+    OUTPUT("output");
+
+    private final String label;
+
+    PipelineStage(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+}
@@ -0,0 +1,40 @@
+package org.company.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of one completed pipeline stage. The event duration is the duration of the stage.
+ */
+@Name(StageEvent.NAME)
+@Label("Pipeline Stage")
+@Category("Employee Analyzer")
+@Description("A completed stage of reading or analyzing an org chart")
+@StackTrace(false)
+final class StageEvent extends Event {
+
+    static final String NAME = "org.company.PipelineStage";
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Allocated")
+    @Description("Bytes allocated by the thread running the stage")
+    @DataAmount
+    long allocatedBytes;
+
+    @Label("Findings")
+    long findings;
+}
@@ -0,0 +1,27 @@
+package org.company.model;
+
+/**
+ * One row of a delta file: an employee that is hired or changed, or an employee that left.
+ * For a deletion only the id is set.
+ */
+public record EmployeeDelta(
+        Operation operation,
+        int id,
+        String firstName,
+        String lastName,
+        int salary,
+        Integer managerId) {
+
+    public enum Operation {
+        UPSERT,
+        DELETE
+    }
+
+    public static EmployeeDelta upsert(int id, String firstName, String lastName, int salary, Integer managerId) {
+        return new EmployeeDelta(Operation.UPSERT, id, firstName, lastName, salary, managerId);
+    }
+
+    public static EmployeeDelta delete(int id) {
+        return new EmployeeDelta(Operation.DELETE, id, null, null, 0, null);
+    }
+}
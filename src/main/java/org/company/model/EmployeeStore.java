@@ -0,0 +1,511 @@
+package org.company.model;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+
+/**
+ * Compact, column oriented representation of all employees of a company.
+ * Employees are addressed by a dense index in file order. Ids, salaries and manager indexes are kept
+ * in primitive arrays, subordinates are kept in CSR form ({@code childOffsets} into one {@code children} array)
+ * and first and last names are interned into a shared dictionary.
+ */
+public final class EmployeeStore {
+
+    public static final int NO_MANAGER = -1;
+    public static final int MISSING_MANAGER = -2;
+
+    private final int[] ids;
+    private final int[] salaries;
+    private final int[] managerIndexes;
+    private final int[] firstNames;
+    private final int[] lastNames;
+    private final String[] names;
+    private final int[] childOffsets;
+    private final int[] children;
+    private final IdIndex idIndex;
+    private final Map<Integer, Integer> missingManagerIds;
+    private final int ceo;
+
+    private EmployeeStore(int[] ids, int[] salaries, int[] managerIndexes, int[] firstNames, int[] lastNames,
+                          String[] names, Map<Integer, Integer> missingManagerIds, IdIndex idIndex) {
+        this.ids = ids;
+        this.salaries = salaries;
+        this.managerIndexes = managerIndexes;
+        this.firstNames = firstNames;
+        this.lastNames = lastNames;
+        this.names = names;
+        this.missingManagerIds = missingManagerIds;
+        this.idIndex = idIndex;
+        this.childOffsets = new int[ids.length + 1];
+        this.children = new int[ids.length];
+        this.ceo = linkChildren();
+    }
+
+    /**
+     * Restores a store from previously built columns without resolving or linking anything again.
+     */
+    EmployeeStore(int[] ids, int[] salaries, int[] managerIndexes, int[] firstNames, int[] lastNames, String[] names,
+                  int[] childOffsets, int[] children, IdIndex idIndex, Map<Integer, Integer> missingManagerIds, int ceo) {
+        this.ids = ids;
+        this.salaries = salaries;
+        this.managerIndexes = managerIndexes;
+        this.firstNames = firstNames;
+        this.lastNames = lastNames;
+        this.names = names;
+        this.childOffsets = childOffsets;
+        this.children = children;
+        this.idIndex = idIndex;
+        this.missingManagerIds = missingManagerIds;
+        this.ceo = ceo;
+    }
+
+    public static Builder builder() {
+        return new Builder(false);
+    }
+
+    /**
+     * Starts a builder for a new version of a previously built store, such as a re-read of the same file.
+     * Nothing of the previous store is reused in place: new columns are allocated, sized for the previous
+     * headcount, and a map of the previous names is built so that names that are still used resolve to the
+     * instances the previous store holds. Only names used by the new rows enter the dictionary, so names that are gone are
+     * dropped and repeated reloads do not grow it.
+     */
+    public static Builder builder(EmployeeStore previous) {
+        return new Builder(false, previous.size(), previous.names);
+    }
+
+    /**
+     * Builds a store of {@code root} and everyone reporting to it, directly or indirectly.
+     * Employees are indexed in pre-order and subordinates keep the order of {@link Employee#subordinates()};
+     * links are taken from the subordinate lists, so ids are only used for {@link #indexOf(int)}.
+     */
+    public static EmployeeStore fromHierarchy(Employee root) {
+        Builder builder = new Builder(true);
+        Deque<Employee> stack = new ArrayDeque<>();
+        int[] managerIndexes = new int[16];
+        stack.push(root);
+        managerIndexes[0] = NO_MANAGER;
+        while (!stack.isEmpty()) {
+            Employee employee = stack.pop();
+            int managerIndex = managerIndexes[stack.size()];
+            int index = builder.size();
+            builder.addLinked(employee.id(), employee.firstName(), employee.lastName(), employee.salary(), managerIndex);
+
+            List<Employee> subordinates = employee.subordinates();
+            if (stack.size() + subordinates.size() > managerIndexes.length) {
+                managerIndexes = Arrays.copyOf(managerIndexes, Math.max(managerIndexes.length * 2, stack.size() + subordinates.size()));
+            }
+            for (ListIterator<Employee> iterator = subordinates.listIterator(subordinates.size()); iterator.hasPrevious(); ) {
+                managerIndexes[stack.size()] = index;
+                stack.push(iterator.previous());
+            }
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @return index of the first employee in file order without a manager, or -1 when there is none
+     */
+    public int ceo() {
+        return ceo;
+    }
+
+    /**
+     * @return index of the employee with the given id, or -1 when there is no such employee
+     */
+    public int indexOf(int id) {
+        return idIndex.get(id);
+    }
+
+    public int id(int index) {
+        return ids[index];
+    }
+
+    public int salary(int index) {
+        return salaries[index];
+    }
+
+    /**
+     * @return index of the manager, {@link #NO_MANAGER} for employees without a manager or
+     * {@link #MISSING_MANAGER} when the manager id does not belong to any employee
+     */
+    public int managerIndex(int index) {
+        return managerIndexes[index];
+    }
+
+    /**
+     * @return manager id of the employee, or {@code null} when the employee has no manager
+     */
+    public Integer managerId(int index) {
+        int managerIndex = managerIndexes[index];
+        if (managerIndex == NO_MANAGER) {
+            return null;
+        }
+        return managerIndex == MISSING_MANAGER ? missingManagerIds.get(index) : ids[managerIndex];
+    }
+
+    public String firstName(int index) {
+        return names[firstNames[index]];
+    }
+
+    public String lastName(int index) {
+        return names[lastNames[index]];
+    }
+
+    public String fullName(int index) {
+        return firstName(index) + " " + lastName(index);
+    }
+
+    public String identityInfo(int index) {
+        return "id=" + id(index) + ", " + fullName(index);
+    }
+
+    public int subordinateCount(int index) {
+        return childOffsets[index + 1] - childOffsets[index];
+    }
+
+    public boolean hasSubordinates(int index) {
+        return subordinateCount(index) > 0;
+    }
+
+    /**
+     * Subordinates of {@code index} are {@code subordinate(firstSubordinate(index))} up to
+     * {@code subordinate(lastSubordinate(index) - 1)}, in file order.
+     */
+    public int firstSubordinate(int index) {
+        return childOffsets[index];
+    }
+
+    public int lastSubordinate(int index) {
+        return childOffsets[index + 1];
+    }
+
+    public int subordinate(int position) {
+        return children[position];
+    }
+
+    public Employee toEmployee(int index) {
+        return new Employee(id(index), firstName(index), lastName(index), salary(index), managerId(index));
+    }
+
+    /**
+     * Creates the map of employee id to {@link Employee} that {@code EmployeeCSVReader.readEmployeesDataFromFile}
+     * returns for the same rows, linked in the same map iteration order.
+     */
+    public Map<Integer, Employee> toEmployees() {
+        Map<Integer, Employee> employees = new HashMap<>();
+        for (int index = 0; index < size(); index++) {
+            employees.put(ids[index], toEmployee(index));
+        }
+        for (Employee employee : employees.values()) {
+            Integer managerId = employee.managerId();
+            if (managerId != null) {
+                Employee manager = employees.get(managerId);
+                if (manager != null) {
+                    manager.subordinates().add(employee);
+                }
+            }
+        }
+        employees.replaceAll((id, employee) -> employee.immutableCopy());
+        return employees;
+    }
+
+    int[] ids() {
+        return ids;
+    }
+
+    int[] salaries() {
+        return salaries;
+    }
+
+    int[] managerIndexes() {
+        return managerIndexes;
+    }
+
+    int[] firstNames() {
+        return firstNames;
+    }
+
+    int[] lastNames() {
+        return lastNames;
+    }
+
+    /**
+     * @return number of distinct first and last names in the name dictionary
+     */
+    public int nameCount() {
+        return names.length;
+    }
+
+    String[] names() {
+        return names;
+    }
+
+    int[] childOffsets() {
+        return childOffsets;
+    }
+
+    int[] children() {
+        return children;
+    }
+
+    IdIndex idIndex() {
+        return idIndex;
+    }
+
+    Map<Integer, Integer> missingManagerIds() {
+        return missingManagerIds;
+    }
+
+    /**
+     * Builds the CSR subordinate arrays with a counting sort over the manager indexes,
+     * so the subordinates of every manager stay in file order.
+     *
+     * @return index of the CEO
+     */
+    private int linkChildren() {
+        int firstRoot = -1;
+        for (int index = 0; index < managerIndexes.length; index++) {
+            int manager = managerIndexes[index];
+            if (manager >= 0) {
+                childOffsets[manager + 1]++;
+            } else if (manager == NO_MANAGER && firstRoot < 0) {
+                firstRoot = index;
+            }
+        }
+        for (int index = 0; index < ids.length; index++) {
+            childOffsets[index + 1] += childOffsets[index];
+        }
+        int[] next = Arrays.copyOf(childOffsets, ids.length);
+        for (int index = 0; index < managerIndexes.length; index++) {
+            int manager = managerIndexes[index];
+            if (manager >= 0) {
+                children[next[manager]++] = index;
+            }
+        }
+        return firstRoot;
+    }
+
+    /**
+     * Accumulates employees in file order. Manager ids are resolved to indexes when the store is built,
+     * so rows may reference managers that appear later in the file. A builder must not be reused after {@link #build()}.
+     */
+    public static final class Builder {
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private int size;
+        private int[] ids;
+        private int[] salaries;
+        private int[] managerIds;
+        private boolean[] hasManager;
+        private int[] firstNames;
+        private int[] lastNames;
+        private final Map<String, Integer> nameDictionary = new HashMap<>();
+        private String[] names = new String[INITIAL_CAPACITY];
+        private final IdIndex idIndex;
+        private final boolean linked;
+        /** Instances of the names of a previous store by value, only used to look up new names. */
+        private final Map<String, String> previousNames;
+
+        private Builder(boolean linked) {
+            this(linked, INITIAL_CAPACITY, new String[0]);
+        }
+
+        private Builder(boolean linked, int expectedSize, String[] previousNames) {
+            int capacity = Math.max(INITIAL_CAPACITY, expectedSize);
+            this.linked = linked;
+            this.ids = new int[capacity];
+            this.salaries = new int[capacity];
+            this.managerIds = new int[capacity];
+            this.hasManager = new boolean[capacity];
+            this.firstNames = new int[capacity];
+            this.lastNames = new int[capacity];
+            this.idIndex = new IdIndex(capacity);
+            this.previousNames = new HashMap<>(previousNames.length * 2);
+            for (String name : previousNames) {
+                this.previousNames.put(name, name);
+            }
+        }
+
+        /**
+         * Adds an employee; {@code managerId} is ignored when {@code hasManager} is false.
+         *
+         * @return false if an employee with the same id was already added, in which case nothing is added
+         */
+        public boolean add(int id, String firstName, String lastName, int salary, boolean hasManager, int managerId) {
+            if (!idIndex.putIfAbsent(id, size)) {
+                return false;
+            }
+            ensureCapacity();
+            ids[size] = id;
+            salaries[size] = salary;
+            managerIds[size] = managerId;
+            this.hasManager[size] = hasManager;
+            firstNames[size] = intern(firstName);
+            lastNames[size] = intern(lastName);
+            size++;
+            return true;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Adds an employee whose manager is already known by index. Ids may repeat, the first one is indexed.
+         */
+        private void addLinked(int id, String firstName, String lastName, int salary, int managerIndex) {
+            idIndex.putIfAbsent(id, size);
+            ensureCapacity();
+            ids[size] = id;
+            salaries[size] = salary;
+            managerIds[size] = managerIndex;
+            hasManager[size] = managerIndex >= 0;
+            firstNames[size] = intern(firstName);
+            lastNames[size] = intern(lastName);
+            size++;
+        }
+
+        public EmployeeStore build() {
+            int[] managerIndexes = new int[size];
+            Map<Integer, Integer> missingManagerIds = new HashMap<>();
+            for (int index = 0; index < size; index++) {
+                if (!hasManager[index]) {
+                    managerIndexes[index] = NO_MANAGER;
+                } else if (linked) {
+                    managerIndexes[index] = managerIds[index];
+                } else {
+                    int managerIndex = idIndex.get(managerIds[index]);
+                    if (managerIndex < 0) {
+                        managerIndexes[index] = MISSING_MANAGER;
+                        missingManagerIds.put(index, managerIds[index]);
+                    } else {
+                        managerIndexes[index] = managerIndex;
+                    }
+                }
+            }
+            return new EmployeeStore(Arrays.copyOf(ids, size), Arrays.copyOf(salaries, size), managerIndexes,
+                    Arrays.copyOf(firstNames, size), Arrays.copyOf(lastNames, size),
+                    Arrays.copyOf(names, nameDictionary.size()), missingManagerIds, idIndex);
+        }
+
+        private int intern(String name) {
+            Integer existing = nameDictionary.get(name);
+            if (existing != null) {
+                return existing;
+            }
+            int code = nameDictionary.size();
+            if (code == names.length) {
+                names = Arrays.copyOf(names, code * 2);
+            }
+            String canonical = previousNames.getOrDefault(name, name);
+            names[code] = canonical;
+            nameDictionary.put(canonical, code);
+            return code;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                salaries = Arrays.copyOf(salaries, capacity);
+                managerIds = Arrays.copyOf(managerIds, capacity);
+                hasManager = Arrays.copyOf(hasManager, capacity);
+                firstNames = Arrays.copyOf(firstNames, capacity);
+                lastNames = Arrays.copyOf(lastNames, capacity);
+            }
+        }
+    }
+
+    /**
+     * Open addressing hash table from employee id to index without boxing.
+     */
+    static final class IdIndex {
+        private int[] keys;
+        private int[] values;
+        private int size;
+
+        private IdIndex(int expectedSize) {
+            int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1;
+            keys = new int[capacity];
+            values = new int[capacity];
+        }
+
+        IdIndex(int[] keys, int[] values, int size) {
+            this.keys = keys;
+            this.values = values;
+            this.size = size;
+        }
+
+        int[] keys() {
+            return keys;
+        }
+
+        int[] values() {
+            return values;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private int get(int id) {
+            int mask = keys.length - 1;
+            for (int slot = hash(id) & mask; values[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == id) {
+                    return values[slot] - 1;
+                }
+            }
+            return -1;
+        }
+
+        private boolean putIfAbsent(int id, int index) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int slot = hash(id) & mask;
+            for (; values[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == id) {
+                    return false;
+                }
+            }
+            keys[slot] = id;
+            values[slot] = index + 1;
+            size++;
+            return true;
+        }
+
+        private void resize() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != 0) {
+                    int slot = hash(oldKeys[i]) & mask;
+                    while (values[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private static int hash(int id) {
+            int h = id * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
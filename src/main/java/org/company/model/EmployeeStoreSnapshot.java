@@ -0,0 +1,367 @@
+package org.company.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary snapshot of an {@link EmployeeStore}. The file starts with a versioned header holding the length
+ * and CRC32C checksum of the CSV file it was built from, followed by the columns of the store, the CSR
+ * subordinate table, the id index and the name dictionary, all little endian.
+ * Loading maps the file and copies the columns back without any text parsing or linking.
+ */
+public final class EmployeeStoreSnapshot {
+
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x504D4553;
+    private static final int HEADER_SIZE = 48;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+    private static final long CHECKSUM_WINDOW_SIZE = 1L << 26;
+
+    private final EmployeeStore employees;
+    private final long sourceLength;
+    private final long sourceChecksum;
+
+    private EmployeeStoreSnapshot(EmployeeStore employees, long sourceLength, long sourceChecksum) {
+        this.employees = employees;
+        this.sourceLength = sourceLength;
+        this.sourceChecksum = sourceChecksum;
+    }
+
+    public EmployeeStore employees() {
+        return employees;
+    }
+
+    /**
+     * @return true if the snapshot was written for a source file with the given length and checksum
+     */
+    public boolean matches(long length, long checksum) {
+        return sourceLength == length && sourceChecksum == checksum;
+    }
+
+    /**
+     * Computes the CRC32C checksum of a file by mapping it in large windows.
+     */
+    public static long checksum(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += CHECKSUM_WINDOW_SIZE) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHECKSUM_WINDOW_SIZE, size - position)));
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Writes the store to {@code snapshotFile}, replacing an existing snapshot atomically.
+     */
+    public static void write(EmployeeStore employees, Path snapshotFile, long sourceLength, long sourceChecksum) throws IOException {
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ColumnWriter writer = new ColumnWriter(channel);
+            writer.putInt(MAGIC);
+            writer.putInt(VERSION);
+            writer.putLong(sourceLength);
+            writer.putLong(sourceChecksum);
+            writer.putInt(employees.size());
+            writer.putInt(employees.names().length);
+            writer.putInt(employees.ceo());
+            writer.putInt(employees.idIndex().keys().length);
+            writer.putInt(employees.idIndex().size());
+            writer.putInt(employees.missingManagerIds().size());
+
+            writer.putInts(employees.ids());
+            writer.putInts(employees.salaries());
+            writer.putInts(employees.managerIndexes());
+            writer.putInts(employees.firstNames());
+            writer.putInts(employees.lastNames());
+            writer.putInts(employees.childOffsets());
+            writer.putInts(employees.children());
+            writer.putInts(employees.idIndex().keys());
+            writer.putInts(employees.idIndex().values());
+            for (Map.Entry<Integer, Integer> missing : employees.missingManagerIds().entrySet()) {
+                writer.putInt(missing.getKey());
+                writer.putInt(missing.getValue());
+            }
+            for (String name : employees.names()) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                writer.putInt(bytes.length);
+                writer.putBytes(bytes);
+            }
+            writer.flush();
+        }
+        Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads a snapshot.
+     *
+     * @throws IOException if the file is not a snapshot of the current {@link #VERSION}, or is corrupt
+     */
+    public static EmployeeStoreSnapshot read(Path snapshotFile) throws IOException {
+        return read(snapshotFile, false, 0, 0);
+    }
+
+    /**
+     * Loads a snapshot if it was written for a source file with the given length and checksum. The header is
+     * checked first, so a stale snapshot is not decoded.
+     *
+     * @return the snapshot, or null if it is stale
+     * @throws IOException if the file is not a snapshot of the current {@link #VERSION}, or is corrupt
+     */
+    public static EmployeeStoreSnapshot readIfMatches(Path snapshotFile, long sourceLength, long sourceChecksum)
+            throws IOException {
+        return read(snapshotFile, true, sourceLength, sourceChecksum);
+    }
+
+    private static EmployeeStoreSnapshot read(Path snapshotFile, boolean checkSource, long expectedLength,
+                                              long expectedChecksum) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            ColumnReader reader = new ColumnReader(channel);
+            ByteBuffer header = reader.region(HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not an employee snapshot: " + snapshotFile);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported employee snapshot version " + version + ": " + snapshotFile);
+            }
+            long sourceLength = header.getLong();
+            long sourceChecksum = header.getLong();
+            int size = header.getInt();
+            int nameCount = header.getInt();
+            int ceo = header.getInt();
+            int idIndexCapacity = header.getInt();
+            int idIndexSize = header.getInt();
+            int missingManagerCount = header.getInt();
+            if (checkSource && (sourceLength != expectedLength || sourceChecksum != expectedChecksum)) {
+                return null;
+            }
+            if (size < 0 || nameCount < 0 || ceo < -1 || ceo >= size || idIndexCapacity < 0 || idIndexSize < 0
+                    || idIndexSize > idIndexCapacity || missingManagerCount < 0) {
+                throw new IOException("Corrupt employee snapshot header: " + snapshotFile);
+            }
+            // every name takes at least its length prefix
+            long minimumSize = HEADER_SIZE + Integer.BYTES * (7L * size + 1 + 2L * idIndexCapacity
+                    + 2L * missingManagerCount + nameCount);
+            if (minimumSize > channel.size()) {
+                throw new IOException("Truncated employee snapshot: " + snapshotFile);
+            }
+
+            int[] ids = reader.ints(size);
+            int[] salaries = reader.ints(size);
+            int[] managerIndexes = reader.ints(size);
+            int[] firstNames = reader.ints(size);
+            int[] lastNames = reader.ints(size);
+            int[] childOffsets = reader.ints(size + 1);
+            int[] children = reader.ints(size);
+            int[] idKeys = reader.ints(idIndexCapacity);
+            int[] idValues = reader.ints(idIndexCapacity);
+            int[] missing = reader.ints(missingManagerCount * 2);
+            Map<Integer, Integer> missingManagerIds = new HashMap<>();
+            for (int i = 0; i < missing.length; i += 2) {
+                missingManagerIds.put(missing[i], missing[i + 1]);
+            }
+            String[] names = new String[nameCount];
+            for (int i = 0; i < nameCount; i++) {
+                int length = reader.ints(1)[0];
+                ByteBuffer bytes = reader.region(length);
+                byte[] name = new byte[length];
+                bytes.get(name);
+                names[i] = new String(name, StandardCharsets.UTF_8);
+            }
+
+            validateColumns(managerIndexes, firstNames, lastNames, nameCount, childOffsets, children, ceo,
+                    snapshotFile);
+            validateIndexes(ids, managerIndexes, idKeys, idValues, idIndexSize, missingManagerIds, snapshotFile);
+
+            EmployeeStore employees = new EmployeeStore(ids, salaries, managerIndexes, firstNames, lastNames, names,
+                    childOffsets, children, new EmployeeStore.IdIndex(idKeys, idValues, idIndexSize), missingManagerIds, ceo);
+            return new EmployeeStoreSnapshot(employees, sourceLength, sourceChecksum);
+        }
+    }
+
+    /**
+     * Checks that every manager index and name code is in range, and that the CSR subordinate table lists exactly
+     * the employees with a manager, under that manager and in file order, as {@link EmployeeStore} links them.
+     */
+    private static void validateColumns(int[] managerIndexes, int[] firstNames, int[] lastNames, int nameCount,
+                                        int[] childOffsets, int[] children, int ceo, Path snapshotFile)
+            throws IOException {
+        int size = managerIndexes.length;
+        int firstRoot = -1;
+        int managed = 0;
+        for (int index = 0; index < size; index++) {
+            int manager = managerIndexes[index];
+            if (manager < EmployeeStore.MISSING_MANAGER || manager >= size) {
+                throw corrupt("manager of employee " + index + " out of range", snapshotFile);
+            }
+            if (manager >= 0) {
+                managed++;
+            } else if (manager == EmployeeStore.NO_MANAGER && firstRoot < 0) {
+                firstRoot = index;
+            }
+            if (firstNames[index] < 0 || firstNames[index] >= nameCount
+                    || lastNames[index] < 0 || lastNames[index] >= nameCount) {
+                throw corrupt("name of employee " + index + " out of range", snapshotFile);
+            }
+        }
+        if (ceo != firstRoot) {
+            throw corrupt("CEO does not match the manager column", snapshotFile);
+        }
+        if (childOffsets[0] != 0 || childOffsets[size] != managed) {
+            throw corrupt("subordinate table does not cover the employees with a manager", snapshotFile);
+        }
+        for (int manager = 0; manager < size; manager++) {
+            int from = childOffsets[manager];
+            int to = childOffsets[manager + 1];
+            if (to < from || to > managed) {
+                throw corrupt("subordinate offsets of employee " + manager + " out of order", snapshotFile);
+            }
+            for (int position = from; position < to; position++) {
+                int child = children[position];
+                if (child < 0 || child >= size || managerIndexes[child] != manager
+                        || position > from && child <= children[position - 1]) {
+                    throw corrupt("subordinates of employee " + manager + " do not match the manager column",
+                            snapshotFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that the id index is an open addressing table with a free slot whose entries point at rows holding
+     * their id, and that missing managers are recorded for exactly the employees marked with one.
+     */
+    private static void validateIndexes(int[] ids, int[] managerIndexes, int[] idKeys, int[] idValues,
+                                        int idIndexSize, Map<Integer, Integer> missingManagerIds, Path snapshotFile)
+            throws IOException {
+        int capacity = idKeys.length;
+        if (Integer.bitCount(capacity) != 1 || idIndexSize >= capacity) {
+            throw corrupt("id index capacity " + capacity + " for " + idIndexSize + " ids", snapshotFile);
+        }
+        int occupied = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            int value = idValues[slot];
+            if (value == 0) {
+                continue;
+            }
+            if (value < 0 || value > ids.length || ids[value - 1] != idKeys[slot]) {
+                throw corrupt("id index entry " + slot + " does not match the id column", snapshotFile);
+            }
+            occupied++;
+        }
+        if (occupied != idIndexSize) {
+            throw corrupt("id index holds " + occupied + " ids instead of " + idIndexSize, snapshotFile);
+        }
+        int missing = 0;
+        for (int managerIndex : managerIndexes) {
+            if (managerIndex == EmployeeStore.MISSING_MANAGER) {
+                missing++;
+            }
+        }
+        for (int index : missingManagerIds.keySet()) {
+            if (index < 0 || index >= ids.length || managerIndexes[index] != EmployeeStore.MISSING_MANAGER) {
+                throw corrupt("missing manager recorded for employee " + index + " with a manager", snapshotFile);
+            }
+        }
+        if (missingManagerIds.size() != missing) {
+            throw corrupt("missing managers do not match the manager column", snapshotFile);
+        }
+    }
+
+    private static IOException corrupt(String reason, Path snapshotFile) {
+        return new IOException("Corrupt employee snapshot, " + reason + ": " + snapshotFile);
+    }
+
+    private static final class ColumnWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        private ColumnWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void putInt(int value) throws IOException {
+            ensureRemaining(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        private void putLong(long value) throws IOException {
+            ensureRemaining(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        private void putInts(int[] values) throws IOException {
+            int offset = 0;
+            while (offset < values.length) {
+                ensureRemaining(Integer.BYTES);
+                int count = Math.min(values.length - offset, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+                offset += count;
+            }
+        }
+
+        private void putBytes(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensureRemaining(1);
+                int count = Math.min(bytes.length - offset, buffer.remaining());
+                buffer.put(bytes, offset, count);
+                offset += count;
+            }
+        }
+
+        private void ensureRemaining(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    private static final class ColumnReader {
+        private final FileChannel channel;
+        private long position;
+
+        private ColumnReader(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private ByteBuffer region(long length) throws IOException {
+            if (length < 0 || length > Integer.MAX_VALUE || position + length > channel.size()) {
+                throw new IOException("Truncated or oversized employee snapshot section");
+            }
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            position += length;
+            return region.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        private int[] ints(int count) throws IOException {
+            int[] values = new int[count];
+            region((long) count * Integer.BYTES).asIntBuffer().get(values);
+            return values;
+        }
+    }
+}
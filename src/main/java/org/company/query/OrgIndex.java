@@ -0,0 +1,378 @@
+package org.company.query;
+
+import org.company.analyzer.EmployeeAnalyzerImpl;
+import org.company.finding.OverpaidFinding;
+import org.company.finding.UnderpaidFinding;
+import org.company.model.EmployeeStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only index of the hierarchy below the CEO of an {@link EmployeeStore}, built once in O(n log n) time.
+ * <p>
+ * Employees are numbered in pre-order, so the subtree of an employee is the contiguous range
+ * {@code [enter, exit)} of that numbering and "reports to" is two comparisons. Every employee keeps its depth
+ * and one jump pointer to an ancestor, chosen so that any ancestor is reached in O(log depth) jumps with O(n)
+ * memory instead of the O(n log n) of a full binary lifting table. Managers with a salary finding and all
+ * employees ordered by salary are kept as sorted position lists, so subtree and salary range queries are
+ * answered by binary search.
+ * <p>
+ * Employees outside the hierarchy, such as those caught in a management cycle, are not indexed.
+ * Instances are immutable and thread safe.
+ */
+public final class OrgIndex {
+
+    private final EmployeeStore employees;
+    /** Pre-order position of every store index, -1 if it is outside the hierarchy. */
+    private final int[] enter;
+    /** Position after the subtree, by pre-order position. */
+    private final int[] exit;
+    /** Store index by pre-order position. */
+    private final int[] order;
+    /** Depth by pre-order position, the CEO being at depth 0. */
+    private final int[] depths;
+    /** Pre-order position of the manager, -1 for the CEO. */
+    private final int[] managers;
+    /** Pre-order position of an ancestor used to skip several levels at once, -1 for the CEO. */
+    private final int[] jumps;
+    /** Pre-order positions ordered by salary, ties in pre-order. */
+    private final int[] bySalary;
+    private final int[] sortedSalaries;
+    private final int[] underpaid;
+    private final int[] overpaid;
+
+    private OrgIndex(EmployeeStore employees, int[] enter, int[] exit, int[] order, int[] depths, int[] managers,
+                     int[] jumps, int[] bySalary, int[] sortedSalaries, int[] underpaid, int[] overpaid) {
+        this.employees = employees;
+        this.enter = enter;
+        this.exit = exit;
+        this.order = order;
+        this.depths = depths;
+        this.managers = managers;
+        this.jumps = jumps;
+        this.bySalary = bySalary;
+        this.sortedSalaries = sortedSalaries;
+        this.underpaid = underpaid;
+        this.overpaid = overpaid;
+    }
+
+    /**
+     * Indexes every employee reachable from the CEO and evaluates the salary findings once.
+     */
+    public static OrgIndex of(EmployeeStore employees) {
+        int[] enter = new int[employees.size()];
+        Arrays.fill(enter, -1);
+        int ceo = employees.ceo();
+        int count = ceo < 0 ? 0 : countReachable(employees, ceo);
+        int[] order = new int[count];
+        int[] exit = new int[count];
+        int[] depths = new int[count];
+        int[] managers = new int[count];
+        int[] jumps = new int[count];
+        if (count > 0) {
+            number(employees, ceo, enter, order, exit, depths, managers, jumps);
+        }
+
+        long[] salaryKeys = new long[count];
+        for (int position = 0; position < count; position++) {
+            salaryKeys[position] = (long) employees.salary(order[position]) << 32 | position;
+        }
+        Arrays.sort(salaryKeys);
+        int[] bySalary = new int[count];
+        int[] sortedSalaries = new int[count];
+        for (int i = 0; i < count; i++) {
+            bySalary[i] = (int) salaryKeys[i];
+            sortedSalaries[i] = (int) (salaryKeys[i] >>> 32);
+        }
+
+        List<Integer> underpaid = new ArrayList<>();
+        List<Integer> overpaid = new ArrayList<>();
+        new EmployeeAnalyzerImpl(finding -> {
+            if (finding instanceof UnderpaidFinding) {
+                underpaid.add(enter[employees.indexOf(finding.employeeId())]);
+            } else if (finding instanceof OverpaidFinding) {
+                overpaid.add(enter[employees.indexOf(finding.employeeId())]);
+            }
+        }, 1).analyzeEmployees(employees);
+
+        return new OrgIndex(employees, enter, exit, order, depths, managers, jumps, bySalary, sortedSalaries,
+                sortedArray(underpaid), sortedArray(overpaid));
+    }
+
+    private static int countReachable(EmployeeStore employees, int ceo) {
+        int count = 0;
+        int[] stack = new int[16];
+        int size = 0;
+        stack[size++] = ceo;
+        while (size > 0) {
+            int employee = stack[--size];
+            count++;
+            int first = employees.firstSubordinate(employee);
+            int last = employees.lastSubordinate(employee);
+            if (size + last - first > stack.length) {
+                stack = Arrays.copyOf(stack, Math.max(stack.length * 2, size + last - first));
+            }
+            for (int position = first; position < last; position++) {
+                stack[size++] = employees.subordinate(position);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Numbers the hierarchy in pre-order with an explicit stack. The employees on the path to the current one
+     * stay open; an open employee gets its exit once the walk reaches an employee that is not below it.
+     */
+    private static void number(EmployeeStore employees, int ceo, int[] enter, int[] order, int[] exit,
+                               int[] depths, int[] managers, int[] jumps) {
+        int[] stack = new int[16];
+        int[] parents = new int[16];
+        int size = 0;
+        stack[size] = ceo;
+        parents[size++] = -1;
+        int next = 0;
+        int[] open = new int[16];
+        int openSize = 0;
+        while (size > 0) {
+            int employee = stack[--size];
+            int manager = parents[size];
+            while (openSize > 0 && open[openSize - 1] != manager) {
+                exit[open[--openSize]] = next;
+            }
+            int position = next++;
+            enter[employee] = position;
+            order[position] = employee;
+            managers[position] = manager;
+            if (manager < 0) {
+                depths[position] = 0;
+                jumps[position] = -1;
+            } else {
+                depths[position] = depths[manager] + 1;
+                int jump = jumps[manager];
+                boolean skip = jump >= 0 && jumps[jump] >= 0
+                        && depths[manager] - depths[jump] == depths[jump] - depths[jumps[jump]];
+                jumps[position] = skip ? jumps[jump] : manager;
+            }
+            if (openSize == open.length) {
+                open = Arrays.copyOf(open, open.length * 2);
+            }
+            open[openSize++] = position;
+
+            int first = employees.firstSubordinate(employee);
+            int last = employees.lastSubordinate(employee);
+            if (size + last - first > stack.length) {
+                int capacity = Math.max(stack.length * 2, size + last - first);
+                stack = Arrays.copyOf(stack, capacity);
+                parents = Arrays.copyOf(parents, capacity);
+            }
+            for (int subordinate = last - 1; subordinate >= first; subordinate--) {
+                stack[size] = employees.subordinate(subordinate);
+                parents[size++] = position;
+            }
+        }
+        while (openSize > 0) {
+            exit[open[--openSize]] = next;
+        }
+    }
+
+    private static int[] sortedArray(List<Integer> positions) {
+        int[] sorted = positions.stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    public EmployeeStore employees() {
+        return employees;
+    }
+
+    /**
+     * @return number of employees in the hierarchy
+     */
+    public int size() {
+        return order.length;
+    }
+
+    /**
+     * @return whether the employee with this id is part of the hierarchy below the CEO
+     */
+    public boolean contains(int id) {
+        return position(id) >= 0;
+    }
+
+    /**
+     * @return depth of the employee, the CEO being at depth 0
+     */
+    public int depth(int id) {
+        return depths[require(id)];
+    }
+
+    /**
+     * @return whether {@code id} reports directly or indirectly to {@code managerId}
+     */
+    public boolean reportsTo(int id, int managerId) {
+        int employee = require(id);
+        int manager = require(managerId);
+        return manager < employee && employee < exit[manager];
+    }
+
+    /**
+     * @return ids of the managers of the employee, from the direct manager up to the CEO
+     */
+    public int[] chainOfCommand(int id) {
+        int position = require(id);
+        int[] chain = new int[depths[position]];
+        for (int i = 0; i < chain.length; i++) {
+            position = managers[position];
+            chain[i] = idAt(position);
+        }
+        return chain;
+    }
+
+    /**
+     * @param levels number of levels above the employee, 1 being its direct manager and 0 the employee itself
+     * @return id of the manager that many levels up, or -1 if levels is negative or the reporting line is shorter
+     */
+    public int managerAbove(int id, int levels) {
+        int position = require(id);
+        if (levels < 0 || levels > depths[position]) {
+            return -1;
+        }
+        return idAt(ancestorAtDepth(position, depths[position] - levels));
+    }
+
+    /**
+     * @return id of the lowest manager both employees report to, or of one of them if it manages the other
+     */
+    public int lowestCommonManager(int id, int otherId) {
+        int position = require(id);
+        int other = require(otherId);
+        if (position > other) {
+            int swap = position;
+            position = other;
+            other = swap;
+        }
+        while (!(position <= other && other < exit[position])) {
+            int jump = jumps[position];
+            position = jump >= 0 && !(jump <= other && other < exit[jump]) ? jump : managers[position];
+        }
+        return idAt(position);
+    }
+
+    /**
+     * @return ids of the direct reports of the employee, in file order
+     */
+    public int[] directReports(int id) {
+        int index = order[require(id)];
+        int[] reports = new int[employees.subordinateCount(index)];
+        for (int i = 0; i < reports.length; i++) {
+            reports[i] = employees.id(employees.subordinate(employees.firstSubordinate(index) + i));
+        }
+        return reports;
+    }
+
+    /**
+     * @return ids of everyone reporting directly or indirectly to the employee, in pre-order
+     */
+    public int[] allReports(int id) {
+        int position = require(id);
+        int[] reports = new int[exit[position] - position - 1];
+        for (int i = 0; i < reports.length; i++) {
+            reports[i] = idAt(position + 1 + i);
+        }
+        return reports;
+    }
+
+    /**
+     * @return ids of the underpaid managers in the subtree of the employee, the employee included, in pre-order
+     */
+    public int[] underpaidManagers(int id) {
+        return inSubtree(underpaid, require(id));
+    }
+
+    /**
+     * @return ids of the overpaid managers in the subtree of the employee, the employee included, in pre-order
+     */
+    public int[] overpaidManagers(int id) {
+        return inSubtree(overpaid, require(id));
+    }
+
+    /**
+     * @return ids of all employees of the hierarchy earning between both salaries inclusive, by ascending salary
+     */
+    public int[] salaryBetween(int minSalary, int maxSalary) {
+        int from = lowerBound(sortedSalaries, minSalary);
+        int to = maxSalary == Integer.MAX_VALUE ? sortedSalaries.length : lowerBound(sortedSalaries, maxSalary + 1);
+        int[] ids = new int[Math.max(0, to - from)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = idAt(bySalary[from + i]);
+        }
+        return ids;
+    }
+
+    /**
+     * @return ids of the employees in the subtree of {@code managerId}, the manager included, earning between
+     * both salaries inclusive, by ascending salary
+     */
+    public int[] salaryBetween(int minSalary, int maxSalary, int managerId) {
+        int root = require(managerId);
+        int from = lowerBound(sortedSalaries, minSalary);
+        int to = maxSalary == Integer.MAX_VALUE ? sortedSalaries.length : lowerBound(sortedSalaries, maxSalary + 1);
+        return IntStream.range(from, Math.max(from, to))
+                .map(i -> bySalary[i])
+                .filter(position -> root <= position && position < exit[root])
+                .map(this::idAt)
+                .toArray();
+    }
+
+    private int[] inSubtree(int[] positions, int root) {
+        int from = lowerBound(positions, root);
+        int to = lowerBound(positions, exit[root]);
+        int[] ids = new int[to - from];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = idAt(positions[from + i]);
+        }
+        return ids;
+    }
+
+    private int ancestorAtDepth(int position, int depth) {
+        while (depths[position] > depth) {
+            int jump = jumps[position];
+            position = depths[jump] >= depth ? jump : managers[position];
+        }
+        return position;
+    }
+
+    private static int lowerBound(int[] values, int key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int idAt(int position) {
+        return employees.id(order[position]);
+    }
+
+    private int position(int id) {
+        int index = employees.indexOf(id);
+        return index < 0 ? -1 : enter[index];
+    }
+
+    private int require(int id) {
+        int position = position(id);
+        if (position < 0) {
+            throw new IllegalArgumentException("Employee " + id + " is not part of the hierarchy");
+        }
+        return position;
+    }
+}
@@ -0,0 +1,150 @@
+package org.company.query;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Front ends of an {@link OrgQueryService}, meant to run next to the tools asking the questions.
+ * <p>
+ * On a line based stream every query line is answered by its answer lines followed by an empty line;
+ * failed queries are answered by one {@code error: } line. On HTTP, {@code GET /query?q=chain+305} answers
+ * with the lines as plain text, or with status 400 and the error. The HTTP server only listens on the
+ * loopback address.
+ */
+public final class OrgQueryServer {
+
+    private static final Logger logger = Logger.getLogger(OrgQueryServer.class.getName());
+
+    private final OrgQueryService service;
+
+    public OrgQueryServer(OrgQueryService service) {
+        this.service = service;
+    }
+
+    /**
+     * Answers queries until the input ends or a {@code quit} line is read.
+     */
+    public void serve(BufferedReader in, PrintWriter out) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (line.trim().equalsIgnoreCase("quit")) {
+                break;
+            }
+            try {
+                service.query(line).forEach(out::println);
+            } catch (IllegalArgumentException e) {
+                out.println("error: " + e.getMessage());
+            }
+            out.println();
+            out.flush();
+        }
+    }
+
+    /**
+     * Starts answering queries on {@code http://localhost:<port>/query}.
+     *
+     * @param port    port to listen on, 0 for any free port
+     * @param threads number of daemon threads answering requests
+     * @return the running server, to be closed by the caller
+     */
+    public Http startHttp(int port, int threads) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/query", this::handle);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "org-query");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.start();
+        logger.info("Answering queries on http://localhost:" + server.getAddress().getPort() + "/query");
+        return new Http(server, executor);
+    }
+
+    /**
+     * A running HTTP front end. {@link HttpServer#stop(int)} leaves the executor of the server running, so closing
+     * stops the server and then shuts down the threads answering requests.
+     */
+    public static final class Http implements Closeable {
+        private final HttpServer server;
+        private final ExecutorService executor;
+
+        private Http(HttpServer server, ExecutorService executor) {
+            this.server = server;
+            this.executor = executor;
+        }
+
+        public int port() {
+            return server.getAddress().getPort();
+        }
+
+        /**
+         * Stops accepting requests, drops the exchanges in progress and lets the answering threads exit.
+         */
+        @Override
+        public void close() {
+            server.stop(0);
+            executor.shutdown();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String query = queryParameter(exchange.getRequestURI().getRawQuery());
+            int status = 200;
+            String body;
+            if (!exchange.getRequestMethod().equals("GET")) {
+                status = 405;
+                body = "Only GET is supported\n";
+            } else if (query == null) {
+                status = 400;
+                body = "Missing query parameter q\n";
+            } else {
+                try {
+                    List<String> answer = service.query(query);
+                    StringBuilder text = new StringBuilder();
+                    answer.forEach(line -> text.append(line).append('\n'));
+                    body = text.toString();
+                } catch (IllegalArgumentException e) {
+                    status = 400;
+                    body = e.getMessage() + "\n";
+                }
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static String queryParameter(String rawQuery) {
+        if (rawQuery == null) {
+            return null;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            if (parameter.startsWith("q=")) {
+                return URLDecoder.decode(parameter.substring(2), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+}
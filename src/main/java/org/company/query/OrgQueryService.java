@@ -0,0 +1,169 @@
+package org.company.query;
+
+import org.company.model.EmployeeStore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Answers text queries against an {@link OrgIndex} and keeps the most recently used answers in a cache bounded
+ * both by the number of answers and by the total number of lines they hold.
+ * Every query is one line of a command and its arguments:
+ * <pre>
+ * chain &lt;id&gt;                      managers of the employee up to the CEO
+ * manager &lt;id&gt; &lt;levels&gt;           manager the given number of levels up
+ * common-manager &lt;id&gt; &lt;id&gt;        lowest manager both employees report to
+ * reports-to &lt;id&gt; &lt;managerId&gt;     whether the employee reports to the manager
+ * team &lt;id&gt;                       direct reports
+ * reports &lt;id&gt;                    everyone reporting directly or indirectly
+ * underpaid &lt;id&gt;                  underpaid managers in the subtree
+ * overpaid &lt;id&gt;                   overpaid managers in the subtree
+ * salary &lt;min&gt; &lt;max&gt; [&lt;id&gt;]      employees earning between both salaries, optionally in a subtree
+ * </pre>
+ * Employees are answered as {@code id,firstName,lastName,salary} lines. Answers longer than
+ * {@link #MAX_CACHED_LINES} lines are not cached, since rendering them costs about as much as computing them.
+ * The least recently used answers are evicted until both bounds hold again.
+ * Instances are thread safe.
+ */
+public final class OrgQueryService {
+
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+    public static final int MAX_CACHED_LINES = 10_000;
+    public static final int DEFAULT_CACHE_LINES = 100_000;
+
+    private final OrgIndex index;
+    private final int cacheSize;
+    private final long cacheLines;
+    private final Map<String, List<String>> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedLines;
+    private long hits;
+    private long misses;
+
+    public OrgQueryService(OrgIndex index) {
+        this(index, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param cacheSize number of answers kept, 0 to disable caching
+     */
+    public OrgQueryService(OrgIndex index, int cacheSize) {
+        this(index, cacheSize, DEFAULT_CACHE_LINES);
+    }
+
+    /**
+     * @param cacheSize  number of answers kept, 0 to disable caching
+     * @param cacheLines total number of answer lines kept over all cached answers
+     */
+    public OrgQueryService(OrgIndex index, int cacheSize, long cacheLines) {
+        if (cacheSize < 0 || cacheLines < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative");
+        }
+        this.index = index;
+        this.cacheSize = cacheSize;
+        this.cacheLines = cacheLines;
+    }
+
+    /**
+     * @return the answer lines of the query
+     * @throws IllegalArgumentException if the query is malformed or names an employee outside the hierarchy
+     */
+    public List<String> query(String query) {
+        String[] words = query.trim().split("\\s+");
+        String key = String.join(" ", words).toLowerCase(Locale.ROOT);
+        synchronized (cache) {
+            List<String> cached = cache.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+        List<String> answer = Collections.unmodifiableList(answer(words));
+        if (answer.size() <= Math.min(MAX_CACHED_LINES, cacheLines)) {
+            synchronized (cache) {
+                cache(key, answer);
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Total number of lines held by the cached answers.
+     */
+    public long cachedLines() {
+        synchronized (cache) {
+            return cachedLines;
+        }
+    }
+
+    private void cache(String key, List<String> answer) {
+        List<String> previous = cache.put(key, answer);
+        cachedLines += answer.size() - (previous == null ? 0 : previous.size());
+        Iterator<List<String>> eldest = cache.values().iterator();
+        while (cache.size() > cacheSize || cachedLines > cacheLines) {
+            cachedLines -= eldest.next().size();
+            eldest.remove();
+        }
+    }
+
+    public long cacheHits() {
+        synchronized (cache) {
+            return hits;
+        }
+    }
+
+    public long cacheMisses() {
+        synchronized (cache) {
+            return misses;
+        }
+    }
+
+    private List<String> answer(String[] words) {
+        String command = words[0].toLowerCase(Locale.ROOT);
+        return switch (command) {
+            case "chain" -> employees(index.chainOfCommand(argument(words, 1, 2)));
+            case "manager" -> employee(index.managerAbove(argument(words, 1, 3), argument(words, 2, 3)));
+            case "common-manager" -> employee(index.lowestCommonManager(argument(words, 1, 3), argument(words, 2, 3)));
+            case "reports-to" -> List.of(Boolean.toString(index.reportsTo(argument(words, 1, 3), argument(words, 2, 3))));
+            case "team" -> employees(index.directReports(argument(words, 1, 2)));
+            case "reports" -> employees(index.allReports(argument(words, 1, 2)));
+            case "underpaid" -> employees(index.underpaidManagers(argument(words, 1, 2)));
+            case "overpaid" -> employees(index.overpaidManagers(argument(words, 1, 2)));
+            case "salary" -> words.length == 4
+                    ? employees(index.salaryBetween(argument(words, 1, 4), argument(words, 2, 4), argument(words, 3, 4)))
+                    : employees(index.salaryBetween(argument(words, 1, 3), argument(words, 2, 3)));
+            default -> throw new IllegalArgumentException("Unknown query: " + words[0]);
+        };
+    }
+
+    private static int argument(String[] words, int position, int expectedWords) {
+        if (words.length != expectedWords) {
+            throw new IllegalArgumentException("Query " + words[0] + " expects " + (expectedWords - 1) + " arguments");
+        }
+        try {
+            return Integer.parseInt(words[position]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + words[position]);
+        }
+    }
+
+    private List<String> employee(int id) {
+        return id < 0 ? List.of() : employees(new int[]{id});
+    }
+
+    private List<String> employees(int[] ids) {
+        EmployeeStore employees = index.employees();
+        List<String> lines = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            int employee = employees.indexOf(id);
+            lines.add(id + "," + employees.firstName(employee) + "," + employees.lastName(employee) + ","
+                    + employees.salary(employee));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,119 @@
+package org.company.reader;
+
+import org.company.exception.InvalidCsvStructureException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Invalid rows skipped by a lenient read. Only the first rows in file order are kept with their line number
+ * and message, so a file full of broken rows cannot exhaust memory; all skipped rows are counted.
+ */
+public final class CsvErrorReport {
+
+    public static final int DEFAULT_MAX_REPORTED_ERRORS = 1000;
+
+    /**
+     * Groups row errors by the exception a strict read would have thrown for them.
+     */
+    public enum Category {
+        /**
+         * Rows rejected with {@link org.company.exception.InvalidCsvDataException}.
+         */
+        DATA,
+        /**
+         * Rows rejected with {@link InvalidCsvStructureException}.
+         */
+        STRUCTURE
+    }
+
+    /**
+     * @param lineNumber line of the row in the file, the header being line 1
+     */
+    public record RowError(long lineNumber, Category category, String message) {
+    }
+
+    private final int maxReportedErrors;
+    private final List<RowError> errors = new ArrayList<>();
+    private final long[] counts = new long[Category.values().length];
+
+    CsvErrorReport(int maxReportedErrors) {
+        if (maxReportedErrors < 0) {
+            throw new IllegalArgumentException("Maximum number of reported errors must not be negative");
+        }
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Reports a row error. Errors have to be added in file order.
+     */
+    void add(long lineNumber, RuntimeException error) {
+        add(new RowError(lineNumber, categoryOf(error), error.getMessage()));
+    }
+
+    void add(RowError error) {
+        counts[error.category().ordinal()]++;
+        if (errors.size() < maxReportedErrors) {
+            errors.add(error);
+        }
+    }
+
+    /**
+     * Counts errors that were skipped without being kept, because an earlier part of the file already
+     * filled the report.
+     */
+    void count(Category category, long errorCount) {
+        counts[category.ordinal()] += errorCount;
+    }
+
+    static Category categoryOf(RuntimeException error) {
+        return error instanceof InvalidCsvStructureException ? Category.STRUCTURE : Category.DATA;
+    }
+
+    /**
+     * @return the reported errors in file order
+     */
+    public List<RowError> errors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * @return the reported errors of every category that occurred, each in file order
+     */
+    public Map<Category, List<RowError>> errorsByCategory() {
+        Map<Category, List<RowError>> byCategory = new EnumMap<>(Category.class);
+        for (RowError error : errors) {
+            byCategory.computeIfAbsent(error.category(), category -> new ArrayList<>()).add(error);
+        }
+        return byCategory;
+    }
+
+    /**
+     * @return number of skipped rows, including those not kept in the report
+     */
+    public long errorCount() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    public long errorCount(Category category) {
+        return counts[category.ordinal()];
+    }
+
+    /**
+     * @return true if more rows were skipped than the report keeps
+     */
+    public boolean isTruncated() {
+        return errorCount() > errors.size();
+    }
+
+    public boolean isEmpty() {
+        return errorCount() == 0;
+    }
+}
@@ -0,0 +1,59 @@
+package org.company.reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Opens CSV files for streaming, decompressing gzip files on the fly. Compression is detected from the magic
+ * bytes of the file and not from its name. A gzip file is inflated straight into the buffer of the caller
+ * through a large input buffer, without a temporary file and without holding the decompressed text.
+ */
+final class CsvInputs {
+
+    private static final int GZIP_MAGIC_FIRST = 0x1f;
+    private static final int GZIP_MAGIC_SECOND = 0x8b;
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+
+    private CsvInputs() {
+    }
+
+    /**
+     * @return a stream of the text of the file, decompressed if the file is gzip compressed
+     */
+    static InputStream open(Path file) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(Files.newInputStream(file), 2);
+        try {
+            byte[] magic = new byte[2];
+            int read = in.readNBytes(magic, 0, 2);
+            in.unread(magic, 0, read);
+            return isGzipMagic(magic, read) ? new GZIPInputStream(in, GZIP_BUFFER_SIZE) : in;
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return whether the file starts with the gzip magic bytes
+     */
+    static boolean isGzip(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(2);
+            while (magic.hasRemaining() && channel.read(magic) > 0) {
+                // read until two bytes or the end of the file
+            }
+            return isGzipMagic(magic.array(), magic.position());
+        }
+    }
+
+    private static boolean isGzipMagic(byte[] magic, int length) {
+        return length == 2 && (magic[0] & 0xff) == GZIP_MAGIC_FIRST && (magic[1] & 0xff) == GZIP_MAGIC_SECOND;
+    }
+}
@@ -0,0 +1,9 @@
+package org.company.reader;
+
+import org.company.model.EmployeeStore;
+
+/**
+ * Outcome of a lenient read: the employees of all valid rows and the report of the rows that were skipped.
+ */
+public record CsvReadResult(EmployeeStore employees, CsvErrorReport errors) {
+}
@@ -0,0 +1,344 @@
+package org.company.reader;
+
+import org.company.exception.InvalidCsvDataException;
+import org.company.exception.InvalidCsvStructureException;
+import org.company.model.Employee;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * Byte level tokenizer for employee CSV rows.
+ * Lines are scanned once straight from the read buffer, integer fields are parsed in place and
+ * only the first and last name strings kept by {@link Employee} are allocated.
+ * Instances keep the fields of the last parsed row and are not thread safe.
+ */
+final class CsvRowTokenizer {
+
+    private static final Logger logger = Logger.getLogger(CsvRowTokenizer.class.getName());
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final int ID_INDEX = 0;
+    private static final int FIRST_NAME_INDEX = 1;
+    private static final int LAST_NAME_INDEX = 2;
+    private static final int SALARY_INDEX = 3;
+    private static final int MANAGER_ID_INDEX = 4;
+
+    private static final int MIN_EXPECTED_ROW_LENGTH = 4;
+    private static final int MAX_EXPECTED_ROW_LENGTH = 5;
+
+    @FunctionalInterface
+    interface RowHandler {
+        void onRow(CsvRowTokenizer row);
+    }
+
+    /**
+     * Receives invalid rows when reading past them instead of failing on the first one.
+     */
+    @FunctionalInterface
+    interface ErrorHandler {
+        void onError(long lineNumber, RuntimeException error);
+    }
+
+    private final int[] fieldStarts = new int[MAX_EXPECTED_ROW_LENGTH];
+    private final int[] fieldEnds = new int[MAX_EXPECTED_ROW_LENGTH];
+
+    private int id;
+    private int salary;
+    private int managerId;
+    private boolean hasManager;
+    private String firstName;
+    private String lastName;
+
+    private boolean header = true;
+    private boolean skipLineFeed;
+    private long lineNumber;
+    private final ErrorHandler errorHandler;
+
+    CsvRowTokenizer() {
+        this(null);
+    }
+
+    /**
+     * @param errorHandler receives invalid rows, which are then skipped without logging;
+     *                     null to throw on the first invalid row
+     */
+    CsvRowTokenizer(ErrorHandler errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Reads all rows of the stream, skipping the header line, and hands every parsed row to the handler.
+     */
+    void readRows(InputStream in, RowHandler handler) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int limit = 0;
+        int read;
+        while ((read = in.read(buffer, limit, buffer.length - limit)) != -1) {
+            limit += read;
+            int tail = scanLines(buffer, 0, limit, handler);
+            if (tail > 0) {
+                System.arraycopy(buffer, tail, buffer, 0, limit - tail);
+                limit -= tail;
+            } else if (limit == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        finishLines(buffer, 0, limit, handler);
+    }
+
+    /**
+     * Reads all remaining rows of a buffer, such as a mapped region of the file, through a copy buffer of
+     * {@value #BUFFER_SIZE} bytes that only grows for a longer line.
+     */
+    void readRows(ByteBuffer in, RowHandler handler) {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int limit = 0;
+        while (in.hasRemaining()) {
+            int read = Math.min(in.remaining(), buffer.length - limit);
+            in.get(buffer, limit, read);
+            limit += read;
+            int tail = scanLines(buffer, 0, limit, handler);
+            if (tail > 0) {
+                System.arraycopy(buffer, tail, buffer, 0, limit - tail);
+                limit -= tail;
+            } else if (limit == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        finishLines(buffer, 0, limit, handler);
+    }
+
+    /**
+     * Parses every complete line in {@code buffer[from, limit)}.
+     *
+     * @return the offset of the first byte of the trailing line that is not terminated yet
+     */
+    int scanLines(byte[] buffer, int from, int limit, RowHandler handler) {
+        int lineStart = from;
+        for (int position = from; position < limit; position++) {
+            byte b = buffer[position];
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (b == '\n') {
+                    lineStart = position + 1;
+                    continue;
+                }
+            }
+            if (b == '\n' || b == '\r') {
+                acceptLine(buffer, lineStart, position, handler);
+                skipLineFeed = b == '\r';
+                lineStart = position + 1;
+            }
+        }
+        return lineStart;
+    }
+
+    /**
+     * Parses the last line of the input when it is not followed by a line terminator.
+     */
+    void finishLines(byte[] buffer, int from, int limit, RowHandler handler) {
+        if (from < limit) {
+            acceptLine(buffer, from, limit, handler);
+        }
+    }
+
+    /**
+     * Marks the next line as a data row rather than the header.
+     */
+    void skipHeader() {
+        header = false;
+    }
+
+    private void acceptLine(byte[] buffer, int from, int to, RowHandler handler) {
+        lineNumber++;
+        if (header) {
+            header = false;
+            return;
+        }
+        if (errorHandler != null) {
+            try {
+                parseRow(buffer, from, to);
+            } catch (InvalidCsvDataException | InvalidCsvStructureException e) {
+                errorHandler.onError(lineNumber, e);
+                return;
+            }
+        } else {
+            parseRow(buffer, from, to);
+        }
+        handler.onRow(this);
+    }
+
+    /**
+     * @return number of the line parsed last, counting the header as line 1 of the input or of the chunk
+     */
+    long lineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Tokenizes and validates one row with the same rules and exceptions as splitting the line on commas.
+     */
+    void parseRow(byte[] buffer, int from, int to) {
+        int rowLength = tokenize(buffer, from, to);
+        if (rowLength > MAX_EXPECTED_ROW_LENGTH || rowLength < MIN_EXPECTED_ROW_LENGTH) {
+            warn("Error reading CSV file as it has an invalid format and structure.");
+            throw new InvalidCsvStructureException("Error reading CSV file as it has an invalid format and structure.");
+        }
+
+        trimField(buffer, FIRST_NAME_INDEX);
+        trimField(buffer, LAST_NAME_INDEX);
+        if (isEmptyField(FIRST_NAME_INDEX) || isEmptyField(LAST_NAME_INDEX)) {
+            String message = String.format("Some fields are empty = %s , %s",
+                    decode(buffer, FIRST_NAME_INDEX), decode(buffer, LAST_NAME_INDEX));
+            warn(message);
+            throw new InvalidCsvDataException(message);
+        }
+
+        id = parseIntField(buffer, ID_INDEX);
+        salary = parseIntField(buffer, SALARY_INDEX);
+        if (id < 0 || salary < 0) {
+            warn(String.format("Invalid ID = %s or salary = %s  value", id, salary));
+            throw new InvalidCsvDataException(String.format("Invalid ID = %s or salary = %s  value", id, salary));
+        }
+
+        if (!isValidName(buffer, FIRST_NAME_INDEX) || !isValidName(buffer, LAST_NAME_INDEX)) {
+            String message = String.format("Invalid name =  %s or last_name = %s format",
+                    decode(buffer, FIRST_NAME_INDEX), decode(buffer, LAST_NAME_INDEX));
+            warn(message);
+            throw new InvalidCsvDataException(message);
+        }
+
+        hasManager = rowLength > MIN_EXPECTED_ROW_LENGTH;
+        managerId = hasManager ? parseIntField(buffer, MANAGER_ID_INDEX) : 0;
+        firstName = asciiString(buffer, FIRST_NAME_INDEX);
+        lastName = asciiString(buffer, LAST_NAME_INDEX);
+    }
+
+    int id() {
+        return id;
+    }
+
+    int salary() {
+        return salary;
+    }
+
+    boolean hasManager() {
+        return hasManager;
+    }
+
+    int managerId() {
+        return managerId;
+    }
+
+    String firstName() {
+        return firstName;
+    }
+
+    String lastName() {
+        return lastName;
+    }
+
+    Employee toEmployee() {
+        return new Employee(id, firstName, lastName, salary, hasManager ? managerId : null);
+    }
+
+    /**
+     * Records the field boundaries of the row and returns the number of fields the same way
+     * {@code String.split(",")} counts them, i.e. without trailing empty fields.
+     */
+    private int tokenize(byte[] buffer, int from, int to) {
+        int field = 0;
+        int fieldStart = from;
+        int rowLength = 0;
+        for (int position = from; position <= to; position++) {
+            if (position == to || buffer[position] == ',') {
+                if (field < MAX_EXPECTED_ROW_LENGTH) {
+                    fieldStarts[field] = fieldStart;
+                    fieldEnds[field] = position;
+                }
+                field++;
+                if (position > fieldStart) {
+                    rowLength = field;
+                }
+                fieldStart = position + 1;
+            }
+        }
+        return from == to ? 1 : rowLength;
+    }
+
+    private void trimField(byte[] buffer, int field) {
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        while (start < end && (buffer[start] & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (buffer[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+        fieldStarts[field] = start;
+        fieldEnds[field] = end;
+    }
+
+    private boolean isEmptyField(int field) {
+        return fieldStarts[field] == fieldEnds[field];
+    }
+
+    private int parseIntField(byte[] buffer, int field) {
+        trimField(buffer, field);
+        int position = fieldStarts[field];
+        int end = fieldEnds[field];
+        boolean negative = false;
+        if (position < end && (buffer[position] == '-' || buffer[position] == '+')) {
+            negative = buffer[position] == '-';
+            position++;
+        }
+        if (position == end) {
+            throw integerParsingError();
+        }
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int result = 0;
+        for (; position < end; position++) {
+            int digit = buffer[position] - '0';
+            if (digit < 0 || digit > 9 || result < (limit + digit) / 10) {
+                throw integerParsingError();
+            }
+            result = result * 10 - digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private InvalidCsvDataException integerParsingError() {
+        warn("Error parsing integer data in CSV");
+        return new InvalidCsvDataException("Error parsing integer data in CSV");
+    }
+
+    private void warn(String message) {
+        if (errorHandler == null) {
+            logger.warning(message);
+        }
+    }
+
+    private boolean isValidName(byte[] buffer, int field) {
+        for (int position = fieldStarts[field]; position < fieldEnds[field]; position++) {
+            int letter = buffer[position] | 0x20;
+            if (letter < 'a' || letter > 'z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String asciiString(byte[] buffer, int field) {
+        return new String(buffer, fieldStarts[field], fieldEnds[field] - fieldStarts[field], StandardCharsets.ISO_8859_1);
+    }
+
+    private String decode(byte[] buffer, int field) {
+        return new String(buffer, fieldStarts[field], fieldEnds[field] - fieldStarts[field], StandardCharsets.UTF_8);
+    }
+}
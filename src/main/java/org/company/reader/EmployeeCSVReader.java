@@ -1,6 +1,7 @@
 package org.company.reader;
 
 import org.company.model.Employee;
+import org.company.model.EmployeeStore;
 
 import java.util.Map;
 
@@ -19,4 +20,49 @@ public interface EmployeeCSVReader {
      */
 
     Map<Integer, Employee> readEmployeesDataFromFile(String csvFile);
+
+    /**
+     * Reads a CSV file into a compact, column oriented {@link EmployeeStore}.
+     * Rows are validated exactly as in {@link #readEmployeesDataFromFile(String)}.
+     *
+     * @param csvFile String representing the file path to the CSV file
+     * @return EmployeeStore with all employees of the file and their management hierarchy
+     * @throws CsvIOException               if there is an I/O error reading the CSV file
+     * @throws InvalidCsvDataException      if the CSV data is invalid or incomplete
+     * @throws InvalidCsvStructureException if the CSV file structure is invalid
+     */
+    EmployeeStore readEmployeeStoreFromFile(String csvFile);
+
+    /**
+     * Reads a new version of a file that was read before. Readers building the store themselves start from
+     * {@link EmployeeStore#builder(EmployeeStore)}, which presizes the new columns and shares the instances of
+     * unchanged names with the previous version, but allocates the new store in full.
+     *
+     * @param previous the store of the previous version
+     * @see #readEmployeeStoreFromFile(String)
+     */
+    default EmployeeStore readEmployeeStoreFromFile(String csvFile, EmployeeStore previous) {
+        return readEmployeeStoreFromFile(csvFile);
+    }
+
+    /**
+     * Reads a CSV file like {@link #readEmployeeStoreFromFile(String)}, but skips invalid rows and rows with a
+     * duplicate ID instead of failing on the first one. The first row of an ID wins.
+     * At most {@link CsvErrorReport#DEFAULT_MAX_REPORTED_ERRORS} skipped rows are reported in detail.
+     *
+     * @param csvFile String representing the file path to the CSV file
+     * @return the employees of all valid rows and the report of the skipped rows
+     * @throws CsvIOException          if there is an I/O error reading the CSV file
+     * @throws InvalidCsvDataException if the CSV file has no rows at all
+     */
+    default CsvReadResult readEmployeeStoreLeniently(String csvFile) {
+        return readEmployeeStoreLeniently(csvFile, CsvErrorReport.DEFAULT_MAX_REPORTED_ERRORS);
+    }
+
+    /**
+     * @param csvFile           String representing the file path to the CSV file
+     * @param maxReportedErrors number of skipped rows reported with line number and message
+     * @see #readEmployeeStoreLeniently(String)
+     */
+    CsvReadResult readEmployeeStoreLeniently(String csvFile, int maxReportedErrors);
 }
@@ -2,51 +2,193 @@ package org.company.reader;
 
 import org.company.exception.CsvIOException;
 import org.company.exception.InvalidCsvDataException;
-import org.company.exception.InvalidCsvStructureException;
+import org.company.metrics.PipelineMetrics;
+import org.company.metrics.PipelineStage;
 import org.company.model.Employee;
+import org.company.model.EmployeeStore;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 public class EmployeeCSVReaderImpl implements EmployeeCSVReader {
 
     private static final Logger logger = Logger.getLogger(EmployeeCSVReaderImpl.class.getName());
 
-    private static final int ID_INDEX = 0;
-    private static final int FIRST_NAME_INDEX = 1;
-    private static final int LAST_NAME_INDEX = 2;
-    private static final int SALARY_INDEX = 3;
-    private static final int MANAGER_ID_INDEX = 4;
+    protected final PipelineMetrics metrics;
 
-    private static final int MIN_EXPECTED_ROW_LENGTH = 4;
-    private static final int MAX_EXPECTED_ROW_LENGTH = 5;
+    public EmployeeCSVReaderImpl() {
+        this(PipelineMetrics.disabled());
+    }
+
+    /**
+     * @param metrics receives the timings of parsing, linking and, for maps, making employees immutable
+     */
+    public EmployeeCSVReaderImpl(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
 
     @Override
     public Map<Integer, Employee> readEmployeesDataFromFile(String csvFile) throws CsvIOException {
         try {
             validateFileExists(csvFile);
             validateFileReadable(csvFile);
-            List<String> lines = readAllLines(csvFile);
-            Map<Integer, Employee> employees = parseLines(lines);
+            Map<Integer, Employee> employees;
+            try (PipelineMetrics.Timer timer = metrics.start(PipelineStage.PARSE)) {
+                employees = readLines(csvFile);
+                timer.rows(employees.size()).bytes(measuredFileSize(csvFile));
+            }
             validateNotEmpty(employees, csvFile);
-            establishEmployeeManagementHierarchy(employees);
-            return makeImmutable(employees);
+            try (PipelineMetrics.Timer timer = metrics.start(PipelineStage.LINK)) {
+                establishEmployeeManagementHierarchy(employees);
+                timer.rows(employees.size());
+            }
+            try (PipelineMetrics.Timer timer = metrics.start(PipelineStage.IMMUTABLE)) {
+                timer.rows(employees.size());
+                return makeImmutable(employees);
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error reading CSV file: " + e.getMessage(), e.getCause());
+            throw new CsvIOException("Error reading CSV file: " + e.getMessage(), e.getCause());
+        }
+    }
+
+    @Override
+    public EmployeeStore readEmployeeStoreFromFile(String csvFile) throws CsvIOException {
+        return readEmployeeStore(csvFile, EmployeeStore.builder());
+    }
+
+    @Override
+    public EmployeeStore readEmployeeStoreFromFile(String csvFile, EmployeeStore previous) throws CsvIOException {
+        return readEmployeeStore(csvFile, EmployeeStore.builder(previous));
+    }
+
+    private EmployeeStore readEmployeeStore(String csvFile, EmployeeStore.Builder builder) {
+        try {
+            validateFileExists(csvFile);
+            validateFileReadable(csvFile);
+            try (PipelineMetrics.Timer timer = metrics.start(PipelineStage.PARSE);
+                 InputStream in = CsvInputs.open(Path.of(csvFile))) {
+                new CsvRowTokenizer().readRows(in, row -> {
+                    boolean added = builder.add(row.id(), row.firstName(), row.lastName(), row.salary(),
+                            row.hasManager(), row.managerId());
+                    checkDuplicateId(!added, row.id());
+                });
+                timer.rows(builder.size()).bytes(measuredFileSize(csvFile));
+            }
+            if (builder.size() == 0) {
+                logger.warning("CSV file does not contain any data: " + csvFile);
+                throw new InvalidCsvDataException("CSV file does not contain any data: " + csvFile);
+            }
+            return build(builder);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error reading CSV file: " + e.getMessage(), e.getCause());
+            throw new CsvIOException("Error reading CSV file: " + e.getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Streams the rows of the file to the handler without keeping them, with the validation of a strict read
+     * except for the duplicate ID check, which needs all IDs at once and is left to the caller.
+     *
+     * @return number of rows handed to the handler
+     */
+    public long readRows(String csvFile, EmployeeRowHandler handler) throws CsvIOException {
+        try {
+            validateFileExists(csvFile);
+            validateFileReadable(csvFile);
+            long[] rows = {0};
+            try (PipelineMetrics.Timer timer = metrics.start(PipelineStage.PARSE);
+                 InputStream in = CsvInputs.open(Path.of(csvFile))) {
+                new CsvRowTokenizer().readRows(in, row -> {
+                    handler.onRow(row.id(), row.firstName(), row.lastName(), row.salary(), row.hasManager(),
+                            row.managerId());
+                    rows[0]++;
+                });
+                timer.rows(rows[0]).bytes(measuredFileSize(csvFile));
+            }
+            if (rows[0] == 0) {
+                logger.warning("CSV file does not contain any data: " + csvFile);
+                throw new InvalidCsvDataException("CSV file does not contain any data: " + csvFile);
+            }
+            return rows[0];
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error reading CSV file: " + e.getMessage(), e.getCause());
+            throw new CsvIOException("Error reading CSV file: " + e.getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Reads the IDs, salaries and managers of the file without its names: every employee of the store has
+     * empty names. Rows are validated as in a strict read, for callers that stream the rows again with
+     * {@link #readRows(String, EmployeeRowHandler)} once they need the names.
+     */
+    public EmployeeStore readEmployeeStructure(String csvFile) throws CsvIOException {
+        EmployeeStore.Builder builder = EmployeeStore.builder();
+        readRows(csvFile, (id, firstName, lastName, salary, hasManager, managerId) ->
+                checkDuplicateId(!builder.add(id, "", "", salary, hasManager, managerId), id));
+        return build(builder);
+    }
+
+    @Override
+    public CsvReadResult readEmployeeStoreLeniently(String csvFile, int maxReportedErrors) throws CsvIOException {
+        try {
+            validateFileExists(csvFile);
+            validateFileReadable(csvFile);
+            CsvErrorReport errors = new CsvErrorReport(maxReportedErrors);
+            EmployeeStore.Builder builder = EmployeeStore.builder();
+            try (PipelineMetrics.Timer timer = metrics.start(PipelineStage.PARSE);
+                 InputStream in = CsvInputs.open(Path.of(csvFile))) {
+                CsvRowTokenizer tokenizer = new CsvRowTokenizer(errors::add);
+                tokenizer.readRows(in, row -> {
+                    if (!builder.add(row.id(), row.firstName(), row.lastName(), row.salary(),
+                            row.hasManager(), row.managerId())) {
+                        errors.add(duplicateIdError(row.lineNumber(), row.id()));
+                    }
+                });
+                timer.rows(builder.size()).bytes(measuredFileSize(csvFile));
+            }
+            validateNotEmpty(builder.size(), errors, csvFile);
+            logErrors(errors, csvFile);
+            return new CsvReadResult(build(builder), errors);
         } catch (IOException e) {
             logger.log(Level.SEVERE, "Error reading CSV file: " + e.getMessage(), e.getCause());
             throw new CsvIOException("Error reading CSV file: " + e.getMessage(), e.getCause());
         }
     }
 
-    private List<String> readAllLines(String csvFile) throws IOException {
-        return Files.readAllLines(Path.of(csvFile));
+    /**
+     * Builds the store, which links every employee to its manager.
+     */
+    protected EmployeeStore build(EmployeeStore.Builder builder) {
+        try (PipelineMetrics.Timer timer = metrics.start(PipelineStage.LINK)) {
+            timer.rows(builder.size());
+            return builder.build();
+        }
+    }
+
+    /**
+     * @return the size of the file when metrics are enabled, so disabled metrics do not touch the file system
+     */
+    protected long measuredFileSize(String csvFile) throws IOException {
+        return metrics.isEnabled() ? Files.size(Path.of(csvFile)) : 0;
+    }
+
+    /**
+     * Streams the file through the byte level tokenizer and parses every row as soon as it is read,
+     * so only the parsed employees are kept in memory and never the raw text of the whole file.
+     * Gzip compressed files are decompressed while they are read.
+     */
+    protected Map<Integer, Employee> readLines(String csvFile) throws IOException {
+        try (InputStream in = CsvInputs.open(Path.of(csvFile))) {
+            return parseLines(in);
+        }
     }
 
     private void validateFileExists(String csvFile) throws FileNotFoundException {
@@ -68,75 +210,62 @@ public class EmployeeCSVReaderImpl implements EmployeeCSVReader {
             logger.warning("CSV file does not contain any data: " + csvFile);
             throw new InvalidCsvDataException("CSV file does not contain any data: " + csvFile);
         }
-        checkDuplicateIds(employees);
     }
 
-    private void checkDuplicateIds(Map<Integer, Employee> employees) throws InvalidCsvDataException {
-        Map<Integer, Employee> idMap = new HashMap<>();
-        for (Employee employee : employees.values()) {
-            Integer id = employee.id();
-            if (idMap.containsKey(id)) {
-                logger.severe("Duplicate ID found in CSV file: " + id);
-                throw new InvalidCsvDataException("Duplicate ID found in CSV file: " + id);
-            }
-            idMap.put(id, employee);
+    /**
+     * A lenient read of a file with only invalid rows returns an empty store, but a file without any rows is
+     * still rejected like in a strict read.
+     */
+    protected void validateNotEmpty(int employeeCount, CsvErrorReport errors, String csvFile) {
+        if (employeeCount == 0 && errors.isEmpty()) {
+            logger.warning("CSV file does not contain any data: " + csvFile);
+            throw new InvalidCsvDataException("CSV file does not contain any data: " + csvFile);
         }
     }
 
-    private Map<Integer, Employee> parseLines(List<String> lines) throws InvalidCsvDataException {
-        Map<Integer, Employee> employees = new HashMap<>();
-        boolean isHeader = true;
-        for (String line : lines) {
-            if (isHeader) {
-                isHeader = false;
-                continue;
+    protected static CsvErrorReport.RowError duplicateIdError(long lineNumber, int id) {
+        return new CsvErrorReport.RowError(lineNumber, CsvErrorReport.Category.DATA,
+                "Duplicate ID found in CSV file: " + id);
+    }
+
+    /**
+     * Logs one summary line per category instead of one warning per skipped row.
+     */
+    protected void logErrors(CsvErrorReport errors, String csvFile) {
+        for (CsvErrorReport.Category category : CsvErrorReport.Category.values()) {
+            long count = errors.errorCount(category);
+            if (count > 0) {
+                logger.warning(String.format("Skipped %d rows with %s errors in CSV file: %s",
+                        count, category.name().toLowerCase(), csvFile));
             }
-            String[] row = line.split(",");
-            validateRow(row);
-            employees.put(Integer.parseInt(row[ID_INDEX]), mapToEmployee(row));
         }
-        return employees;
     }
 
-    private Map<Integer, Employee> makeImmutable(Map<Integer, Employee> employees) {
-        return employees.entrySet().stream()
-                .map(entry -> Map.entry(entry.getKey(), entry.getValue().immutableCopy()))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    private Map<Integer, Employee> parseLines(InputStream in) throws IOException, InvalidCsvDataException {
+        Map<Integer, Employee> employees = new HashMap<>();
+        new CsvRowTokenizer().readRows(in, row -> {
+            Employee employee = row.toEmployee();
+            checkDuplicateId(employees.putIfAbsent(employee.id(), employee) != null, employee.id());
+        });
+        return employees;
     }
 
-    private void validateRow(String[] row) {
-        if (row.length > MAX_EXPECTED_ROW_LENGTH || row.length < MIN_EXPECTED_ROW_LENGTH) {
-            logger.warning("Error reading CSV file as it has an invalid format and structure.");
-            throw new InvalidCsvStructureException("Error reading CSV file as it has an invalid format and structure.");
-        }
-
-        String firstName = row[FIRST_NAME_INDEX].trim();
-        String lastName = row[LAST_NAME_INDEX].trim();
-        if (firstName.isEmpty() || lastName.isEmpty()) {
-            logger.warning(String.format("Some fields are empty = %s , %s", firstName, lastName));
-            throw new InvalidCsvDataException(String.format("Some fields are empty = %s , %s", firstName, lastName));
-        }
-        try {
-            int id = Integer.parseInt(row[ID_INDEX].trim());
-            int salary = Integer.parseInt(row[SALARY_INDEX].trim());
-
-            if (id < 0 || salary < 0) {
-                logger.warning(String.format("Invalid ID = %s or salary = %s  value", id, salary));
-                throw new InvalidCsvDataException(String.format("Invalid ID = %s or salary = %s  value", id, salary));
-            }
-
-        } catch (NumberFormatException e) {
-            logger.warning("Error parsing integer data in CSV");
-            throw new InvalidCsvDataException("Error parsing integer data in CSV");
-        }
-        if (!isValidName(firstName) || !isValidName(lastName)) {
-            logger.warning(String.format("Invalid name =  %s or last_name = %s format", firstName, lastName));
-            throw new InvalidCsvDataException(String.format("Invalid name =  %s or last_name = %s format", firstName, lastName));
+    protected void checkDuplicateId(boolean duplicate, int id) throws InvalidCsvDataException {
+        if (duplicate) {
+            logger.severe("Duplicate ID found in CSV file: " + id);
+            throw new InvalidCsvDataException("Duplicate ID found in CSV file: " + id);
         }
+    }
 
+    /**
+     * Replaces every employee by its immutable copy in place, so no second map is built.
+     */
+    protected Map<Integer, Employee> makeImmutable(Map<Integer, Employee> employees) {
+        employees.replaceAll((id, employee) -> employee.immutableCopy());
+        return employees;
     }
 
-    private static void establishEmployeeManagementHierarchy(Map<Integer, Employee> employees) {
+    protected void establishEmployeeManagementHierarchy(Map<Integer, Employee> employees) {
         for (var employee : employees.values()) {
             Integer managerId = employee.managerId();
             if (managerId != null) {
@@ -147,18 +276,4 @@ public class EmployeeCSVReaderImpl implements EmployeeCSVReader {
             }
         }
     }
-
-    private static Employee mapToEmployee(String[] row) {
-        return new Employee(
-                Integer.parseInt(row[ID_INDEX]),
-                row[FIRST_NAME_INDEX].trim(),
-                row[LAST_NAME_INDEX].trim(),
-                Integer.parseInt(row[SALARY_INDEX]),
-                row.length > MIN_EXPECTED_ROW_LENGTH ? Integer.parseInt(row[MANAGER_ID_INDEX].trim()) : null
-        );
-    }
-
-    private static boolean isValidName(String name) {
-        return name.matches("[a-zA-Z]+");
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,93 @@
+package org.company.reader;
+
+import org.company.exception.CsvIOException;
+import org.company.exception.InvalidCsvDataException;
+import org.company.exception.InvalidCsvStructureException;
+import org.company.model.EmployeeDelta;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads delta files of the form
+ * <pre>
+ * op,Id,firstName,lastName,salary,managerId
+ * upsert,305,Brett,Hardleaf,34000,300
+ * delete,124
+ * </pre>
+ * Upserted rows are validated exactly like the rows of an employee CSV file.
+ * Delta files are small, so they are read as a whole.
+ */
+public class EmployeeDeltaCSVReader {
+
+    private static final Logger logger = Logger.getLogger(EmployeeDeltaCSVReader.class.getName());
+
+    private static final String UPSERT = "upsert";
+    private static final String DELETE = "delete";
+
+    /**
+     * @param deltaFile String representing the file path to the delta file
+     * @return the changes of the file in file order
+     * @throws CsvIOException               if there is an I/O error reading the file
+     * @throws InvalidCsvDataException      if a row contains invalid data
+     * @throws InvalidCsvStructureException if a row has an unknown operation or the wrong number of fields
+     */
+    public List<EmployeeDelta> readDeltasFromFile(String deltaFile) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(Path.of(deltaFile), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            logger.log(Level.SEVERE, "File not found: " + deltaFile);
+            throw new CsvIOException("Error reading CSV file: File not found: " + deltaFile, e);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error reading CSV file: " + e.getMessage(), e);
+            throw new CsvIOException("Error reading CSV file: " + e.getMessage(), e);
+        }
+
+        CsvRowTokenizer tokenizer = new CsvRowTokenizer();
+        List<EmployeeDelta> deltas = new ArrayList<>(Math.max(0, lines.size() - 1));
+        for (int line = 1; line < lines.size(); line++) {
+            deltas.add(parseDelta(tokenizer, lines.get(line)));
+        }
+        return deltas;
+    }
+
+    private static EmployeeDelta parseDelta(CsvRowTokenizer tokenizer, String line) {
+        int separator = line.indexOf(',');
+        String operation = separator < 0 ? line.trim() : line.substring(0, separator).trim();
+        String row = separator < 0 ? "" : line.substring(separator + 1);
+        if (operation.equalsIgnoreCase(UPSERT)) {
+            byte[] bytes = row.getBytes(StandardCharsets.UTF_8);
+            tokenizer.parseRow(bytes, 0, bytes.length);
+            return EmployeeDelta.upsert(tokenizer.id(), tokenizer.firstName(), tokenizer.lastName(), tokenizer.salary(),
+                    tokenizer.hasManager() ? tokenizer.managerId() : null);
+        }
+        if (operation.equalsIgnoreCase(DELETE)) {
+            return EmployeeDelta.delete(parseId(row.trim()));
+        }
+        logger.warning("Unknown delta operation: " + operation);
+        throw new InvalidCsvStructureException("Unknown delta operation: " + operation);
+    }
+
+    private static int parseId(String field) {
+        int id;
+        try {
+            id = Integer.parseInt(field);
+        } catch (NumberFormatException e) {
+            logger.warning("Error parsing integer data in CSV");
+            throw new InvalidCsvDataException("Error parsing integer data in CSV");
+        }
+        if (id < 0) {
+            logger.warning(String.format("Invalid ID = %s value", id));
+            throw new InvalidCsvDataException(String.format("Invalid ID = %s value", id));
+        }
+        return id;
+    }
+}
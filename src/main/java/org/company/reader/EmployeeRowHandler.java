@@ -0,0 +1,13 @@
+package org.company.reader;
+
+/**
+ * Receives the rows of a CSV file one at a time, for callers that do not keep the employees in memory.
+ */
+@FunctionalInterface
+public interface EmployeeRowHandler {
+
+    /**
+     * @param managerId only meaningful when {@code hasManager} is set
+     */
+    void onRow(int id, String firstName, String lastName, int salary, boolean hasManager, int managerId);
+}
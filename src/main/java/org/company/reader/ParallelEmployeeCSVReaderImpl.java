@@ -0,0 +1,414 @@
+package org.company.reader;
+
+import org.company.exception.CsvIOException;
+import org.company.metrics.PipelineMetrics;
+import org.company.metrics.PipelineStage;
+import org.company.model.Employee;
+import org.company.model.EmployeeStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Reader that memory-maps the CSV file, splits it into chunks aligned to line boundaries and parses
+ * the chunks on a fork-join pool. Every chunk is tokenized from its mapping through a small copy buffer, so a
+ * read holds no more heap than the parsed rows. Parsed chunks are merged in file order, so duplicate ids and
+ * invalid rows are reported exactly as the sequential {@link EmployeeCSVReaderImpl} reports them.
+ * Gzip compressed files are streamed by the sequential reader instead.
+ * <p>
+ * All reads of a reader share one pool, either its own or one handed to it; the reader never shuts it down.
+ */
+public class ParallelEmployeeCSVReaderImpl extends EmployeeCSVReaderImpl {
+
+    private static final int DEFAULT_MIN_CHUNK_SIZE = 1 << 20;
+    private static final int MAX_CHUNK_SIZE = 1 << 26;
+    private static final int BOUNDARY_WINDOW_SIZE = 1 << 12;
+
+    private final ForkJoinPool pool;
+    private final int minChunkSize;
+
+    /**
+     * Reader parsing on the common pool.
+     */
+    public ParallelEmployeeCSVReaderImpl() {
+        this(ForkJoinPool.commonPool(), DEFAULT_MIN_CHUNK_SIZE, PipelineMetrics.disabled());
+    }
+
+    public ParallelEmployeeCSVReaderImpl(int parallelism) {
+        this(parallelism, DEFAULT_MIN_CHUNK_SIZE);
+    }
+
+    /**
+     * @param parallelism  number of threads parsing chunks and linking managers
+     * @param minChunkSize smallest chunk in bytes handed to a single task
+     */
+    public ParallelEmployeeCSVReaderImpl(int parallelism, int minChunkSize) {
+        this(parallelism, minChunkSize, PipelineMetrics.disabled());
+    }
+
+    /**
+     * Reader with a pool of its own, whose idle threads end by themselves.
+     *
+     * @param parallelism  number of threads parsing chunks and linking managers
+     * @param minChunkSize smallest chunk in bytes handed to a single task
+     * @param metrics      receives the timings of the reading stages
+     */
+    public ParallelEmployeeCSVReaderImpl(int parallelism, int minChunkSize, PipelineMetrics metrics) {
+        this(newPool(parallelism), minChunkSize, metrics);
+    }
+
+    /**
+     * @param pool    pool parsing chunks and linking managers, shared with its other users
+     * @param metrics receives the timings of the reading stages
+     */
+    public ParallelEmployeeCSVReaderImpl(ForkJoinPool pool, PipelineMetrics metrics) {
+        this(pool, DEFAULT_MIN_CHUNK_SIZE, metrics);
+    }
+
+    /**
+     * @param pool         pool parsing chunks and linking managers, shared with its other users
+     * @param minChunkSize smallest chunk in bytes handed to a single task
+     * @param metrics      receives the timings of the reading stages
+     */
+    public ParallelEmployeeCSVReaderImpl(ForkJoinPool pool, int minChunkSize, PipelineMetrics metrics) {
+        super(metrics);
+        if (minChunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.pool = pool;
+        this.minChunkSize = Math.min(minChunkSize, MAX_CHUNK_SIZE);
+    }
+
+    private static ForkJoinPool newPool(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        return new ForkJoinPool(parallelism);
+    }
+
+    @Override
+    protected Map<Integer, Employee> readLines(String csvFile) throws IOException {
+        if (isGzip(csvFile)) {
+            return super.readLines(csvFile);
+        }
+        try (FileChannel channel = FileChannel.open(Path.of(csvFile), StandardOpenOption.READ)) {
+            List<ChunkResult> chunks = parseChunks(channel, findChunkBoundaries(channel));
+            return mergeChunks(chunks);
+        }
+    }
+
+    /**
+     * Validates the chunks in parallel, each collecting its valid rows and its first errors with chunk local
+     * line numbers. The chunks are then merged in file order, so the result and the report equal those of the
+     * sequential reader.
+     */
+    @Override
+    public CsvReadResult readEmployeeStoreLeniently(String csvFile, int maxReportedErrors) {
+        if (isGzip(csvFile)) {
+            return super.readEmployeeStoreLeniently(csvFile, maxReportedErrors);
+        }
+        CsvErrorReport errors = new CsvErrorReport(maxReportedErrors);
+        EmployeeStore.Builder builder = EmployeeStore.builder();
+        try (PipelineMetrics.Timer timer = metrics.start(PipelineStage.PARSE);
+             FileChannel channel = FileChannel.open(Path.of(csvFile), StandardOpenOption.READ)) {
+            long[] boundaries = findChunkBoundaries(channel);
+            List<Callable<LenientChunk>> tasks = new ArrayList<>();
+            for (int chunk = 0; chunk + 1 < boundaries.length; chunk++) {
+                long start = boundaries[chunk];
+                long end = boundaries[chunk + 1];
+                boolean firstChunk = chunk == 0;
+                tasks.add(() -> parseChunkLeniently(channel, start, end, firstChunk, maxReportedErrors));
+            }
+            long lineOffset = 0;
+            for (LenientChunk chunk : invokeAll(tasks)) {
+                chunk.mergeInto(builder, errors, lineOffset);
+                lineOffset += chunk.lineCount;
+            }
+            timer.rows(builder.size()).bytes(channel.size());
+        } catch (NoSuchFileException e) {
+            throw new CsvIOException("Error reading CSV file: File not found: " + csvFile, e);
+        } catch (IOException e) {
+            throw new CsvIOException("Error reading CSV file: " + e.getMessage(), e);
+        }
+        validateNotEmpty(builder.size(), errors, csvFile);
+        logErrors(errors, csvFile);
+        return new CsvReadResult(build(builder), errors);
+    }
+
+    /**
+     * Compressed files cannot be split at arbitrary offsets, so they are read by the sequential reader.
+     */
+    private static boolean isGzip(String csvFile) {
+        try {
+            return CsvInputs.isGzip(Path.of(csvFile));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    protected void establishEmployeeManagementHierarchy(Map<Integer, Employee> employees) {
+        Employee[] values = employees.values().toArray(new Employee[0]);
+        try {
+            pool.submit(() -> Arrays.stream(values).parallel()
+                            .filter(employee -> employee.managerId() != null)
+                            .collect(Collectors.groupingBy(Employee::managerId))
+                            .entrySet().parallelStream()
+                            .forEach(team -> {
+                                Employee manager = employees.get(team.getKey());
+                                if (manager != null) {
+                                    manager.subordinates().addAll(team.getValue());
+                                }
+                            }))
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CsvIOException("Interrupted while linking employees", e);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    /**
+     * Splits the file into chunks of roughly equal size, moving every split point just past the next line terminator.
+     *
+     * @return ascending offsets where the first entry is 0 and the last entry is the file size
+     */
+    private long[] findChunkBoundaries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long chunkSize = Math.max(minChunkSize, Math.min(MAX_CHUNK_SIZE, size / (pool.getParallelism() * 4L)));
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        long position = 0;
+        while (size - position > chunkSize) {
+            position = nextLineStart(channel, position + chunkSize, size);
+            if (position >= size) {
+                break;
+            }
+            boundaries.add(position);
+        }
+        boundaries.add(size);
+        return boundaries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(BOUNDARY_WINDOW_SIZE);
+        while (position < size) {
+            window.clear();
+            int read = channel.read(window, position);
+            if (read <= 0) {
+                return size;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = window.get(i);
+                if (b == '\n') {
+                    return position + i + 1;
+                }
+                if (b == '\r') {
+                    return nextAfterCarriageReturn(channel, position + i + 1, size);
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static long nextAfterCarriageReturn(FileChannel channel, long position, long size) throws IOException {
+        if (position >= size) {
+            return size;
+        }
+        ByteBuffer next = ByteBuffer.allocate(1);
+        channel.read(next, position);
+        return next.get(0) == '\n' ? position + 1 : position;
+    }
+
+    private List<ChunkResult> parseChunks(FileChannel channel, long[] boundaries) throws IOException {
+        List<Callable<ChunkResult>> tasks = new ArrayList<>();
+        for (int chunk = 0; chunk + 1 < boundaries.length; chunk++) {
+            long start = boundaries[chunk];
+            long end = boundaries[chunk + 1];
+            boolean firstChunk = chunk == 0;
+            tasks.add(() -> parseChunk(channel, start, end, firstChunk));
+        }
+        return invokeAll(tasks);
+    }
+
+    private <T> List<T> invokeAll(List<Callable<T>> tasks) throws IOException {
+        try {
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing CSV file", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw rethrow(e.getCause());
+        }
+    }
+
+    /**
+     * Parses one chunk up to its first invalid row. The error is kept with the rows parsed before it
+     * so the merge can decide which error comes first in file order.
+     */
+    private ChunkResult parseChunk(FileChannel channel, long start, long end, boolean firstChunk) {
+        MappedByteBuffer mapped = map(channel, start, end);
+        CsvRowTokenizer tokenizer = new CsvRowTokenizer();
+        if (!firstChunk) {
+            tokenizer.skipHeader();
+        }
+        List<Employee> employees = new ArrayList<>();
+        try {
+            tokenizer.readRows(mapped, row -> employees.add(row.toEmployee()));
+            return new ChunkResult(employees, null);
+        } catch (RuntimeException e) {
+            return new ChunkResult(employees, e);
+        }
+    }
+
+    private LenientChunk parseChunkLeniently(FileChannel channel, long start, long end, boolean firstChunk,
+                                             int maxReportedErrors) {
+        MappedByteBuffer mapped = map(channel, start, end);
+        LenientChunk chunk = new LenientChunk(maxReportedErrors);
+        CsvRowTokenizer tokenizer = new CsvRowTokenizer(chunk::addError);
+        if (!firstChunk) {
+            tokenizer.skipHeader();
+        }
+        tokenizer.readRows(mapped, chunk::addRow);
+        chunk.lineCount = tokenizer.lineNumber();
+        return chunk;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long start, long end) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Map<Integer, Employee> mergeChunks(List<ChunkResult> chunks) {
+        long rows = chunks.stream().mapToLong(chunk -> chunk.employees().size()).sum();
+        Map<Integer, Employee> employees = new HashMap<>((int) Math.min(Integer.MAX_VALUE, (long) Math.ceil(rows / 0.75)));
+        for (ChunkResult chunk : chunks) {
+            for (Employee employee : chunk.employees()) {
+                checkDuplicateId(employees.putIfAbsent(employee.id(), employee) != null, employee.id());
+            }
+            if (chunk.error() != null) {
+                throw chunk.error();
+            }
+        }
+        return employees;
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new CsvIOException("Error reading CSV file: " + cause.getMessage(), cause);
+    }
+
+    private record ChunkResult(List<Employee> employees, RuntimeException error) {
+    }
+
+    /**
+     * Valid rows of a chunk in columns, so no employee objects are created before the store is built.
+     * Errors beyond the report limit are only counted; the rows before them already fill the report.
+     */
+    private static final class LenientChunk {
+        private final int maxReportedErrors;
+        private final List<CsvErrorReport.RowError> errors = new ArrayList<>();
+        private final long[] unreportedErrors = new long[CsvErrorReport.Category.values().length];
+        private long[] lineNumbers = new long[64];
+        private int[] ids = new int[64];
+        private int[] salaries = new int[64];
+        private int[] managerIds = new int[64];
+        private boolean[] hasManagers = new boolean[64];
+        private String[] firstNames = new String[64];
+        private String[] lastNames = new String[64];
+        private int size;
+        private long lineCount;
+
+        private LenientChunk(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        private void addRow(CsvRowTokenizer row) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                lineNumbers = Arrays.copyOf(lineNumbers, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+                salaries = Arrays.copyOf(salaries, capacity);
+                managerIds = Arrays.copyOf(managerIds, capacity);
+                hasManagers = Arrays.copyOf(hasManagers, capacity);
+                firstNames = Arrays.copyOf(firstNames, capacity);
+                lastNames = Arrays.copyOf(lastNames, capacity);
+            }
+            lineNumbers[size] = row.lineNumber();
+            ids[size] = row.id();
+            salaries[size] = row.salary();
+            managerIds[size] = row.managerId();
+            hasManagers[size] = row.hasManager();
+            firstNames[size] = row.firstName();
+            lastNames[size] = row.lastName();
+            size++;
+        }
+
+        private void addError(long lineNumber, RuntimeException error) {
+            CsvErrorReport.Category category = CsvErrorReport.categoryOf(error);
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new CsvErrorReport.RowError(lineNumber, category, error.getMessage()));
+            } else {
+                unreportedErrors[category.ordinal()]++;
+            }
+        }
+
+        /**
+         * Adds rows and errors in line order, so duplicate IDs are reported where the sequential reader reports them.
+         */
+        private void mergeInto(EmployeeStore.Builder builder, CsvErrorReport report, long lineOffset) {
+            int error = 0;
+            for (int row = 0; row < size; row++) {
+                while (error < errors.size() && errors.get(error).lineNumber() < lineNumbers[row]) {
+                    report.add(shift(errors.get(error++), lineOffset));
+                }
+                if (!builder.add(ids[row], firstNames[row], lastNames[row], salaries[row], hasManagers[row], managerIds[row])) {
+                    report.add(duplicateIdError(lineNumbers[row] + lineOffset, ids[row]));
+                }
+            }
+            while (error < errors.size()) {
+                report.add(shift(errors.get(error++), lineOffset));
+            }
+            for (CsvErrorReport.Category category : CsvErrorReport.Category.values()) {
+                report.count(category, unreportedErrors[category.ordinal()]);
+            }
+        }
+
+        private static CsvErrorReport.RowError shift(CsvErrorReport.RowError error, long lineOffset) {
+            return new CsvErrorReport.RowError(error.lineNumber() + lineOffset, error.category(), error.message());
+        }
+    }
+}
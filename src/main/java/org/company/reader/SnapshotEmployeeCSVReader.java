@@ -0,0 +1,95 @@
+package org.company.reader;
+
+import org.company.exception.CsvIOException;
+import org.company.model.Employee;
+import org.company.model.EmployeeStore;
+import org.company.model.EmployeeStoreSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reader that keeps a binary snapshot next to every CSV file it has parsed successfully.
+ * A snapshot is only used while the length and checksum of the CSV file still match the ones recorded
+ * in its header; otherwise the file is parsed by the delegate reader and the snapshot is rewritten.
+ * Snapshots that cannot be read or written are ignored, so they never change what is reported for the CSV file.
+ */
+public class SnapshotEmployeeCSVReader implements EmployeeCSVReader {
+
+    public static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    private static final Logger logger = Logger.getLogger(SnapshotEmployeeCSVReader.class.getName());
+
+    private final EmployeeCSVReader delegate;
+
+    public SnapshotEmployeeCSVReader(EmployeeCSVReader delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Map<Integer, Employee> readEmployeesDataFromFile(String csvFile) {
+        return readEmployeeStoreFromFile(csvFile).toEmployees();
+    }
+
+    @Override
+    public EmployeeStore readEmployeeStoreFromFile(String csvFile) {
+        Path csvPath = Path.of(csvFile);
+        Path snapshotPath = snapshotPath(csvFile);
+        if (!Files.isRegularFile(csvPath)) {
+            return delegate.readEmployeeStoreFromFile(csvFile);
+        }
+
+        long length;
+        long checksum;
+        try {
+            length = Files.size(csvPath);
+            checksum = EmployeeStoreSnapshot.checksum(csvPath);
+        } catch (IOException e) {
+            throw new CsvIOException("Error reading CSV file: " + e.getMessage(), e);
+        }
+
+        EmployeeStore cached = readSnapshot(snapshotPath, length, checksum);
+        if (cached != null) {
+            return cached;
+        }
+        EmployeeStore employees = delegate.readEmployeeStoreFromFile(csvFile);
+        try {
+            EmployeeStoreSnapshot.write(employees, snapshotPath, length, checksum);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not write snapshot " + snapshotPath + ": " + e.getMessage());
+        }
+        return employees;
+    }
+
+    /**
+     * Lenient reads always parse the file, because a snapshot only holds valid files.
+     */
+    @Override
+    public CsvReadResult readEmployeeStoreLeniently(String csvFile, int maxReportedErrors) {
+        return delegate.readEmployeeStoreLeniently(csvFile, maxReportedErrors);
+    }
+
+    public static Path snapshotPath(String csvFile) {
+        return Path.of(csvFile + SNAPSHOT_SUFFIX);
+    }
+
+    private static EmployeeStore readSnapshot(Path snapshotPath, long length, long checksum) {
+        if (!Files.isRegularFile(snapshotPath)) {
+            return null;
+        }
+        try {
+            EmployeeStoreSnapshot snapshot = EmployeeStoreSnapshot.readIfMatches(snapshotPath, length, checksum);
+            if (snapshot != null) {
+                return snapshot.employees();
+            }
+            logger.info("Snapshot is stale, re-reading CSV file: " + snapshotPath);
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Ignoring unreadable snapshot " + snapshotPath + ": " + e.getMessage());
+        }
+        return null;
+    }
+}
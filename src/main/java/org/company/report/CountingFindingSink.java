@@ -0,0 +1,68 @@
+package org.company.report;
+
+import org.company.finding.Finding;
+import org.company.finding.OverpaidFinding;
+import org.company.finding.ReportingLineTooLongFinding;
+import org.company.finding.UnderpaidFinding;
+
+import java.io.PrintWriter;
+
+/**
+ * Only counts findings per type, without formatting individual findings.
+ * When created with a writer, the counts are written as one summary line on {@link #flush()}.
+ */
+public class CountingFindingSink implements FindingSink {
+
+    private final PrintWriter summaryWriter;
+    private long underpaid;
+    private long overpaid;
+    private long reportingLineTooLong;
+
+    public CountingFindingSink() {
+        this(null);
+    }
+
+    public CountingFindingSink(PrintWriter summaryWriter) {
+        this.summaryWriter = summaryWriter;
+    }
+
+    @Override
+    public void accept(Finding finding) {
+        if (finding instanceof UnderpaidFinding) {
+            underpaid++;
+        } else if (finding instanceof OverpaidFinding) {
+            overpaid++;
+        } else if (finding instanceof ReportingLineTooLongFinding) {
+            reportingLineTooLong++;
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (summaryWriter != null) {
+            summaryWriter.println(this);
+            summaryWriter.flush();
+        }
+    }
+
+    public long underpaid() {
+        return underpaid;
+    }
+
+    public long overpaid() {
+        return overpaid;
+    }
+
+    public long reportingLineTooLong() {
+        return reportingLineTooLong;
+    }
+
+    public long total() {
+        return underpaid + overpaid + reportingLineTooLong;
+    }
+
+    @Override
+    public String toString() {
+        return "underpaid=" + underpaid + ", overpaid=" + overpaid + ", reportingLineTooLong=" + reportingLineTooLong;
+    }
+}
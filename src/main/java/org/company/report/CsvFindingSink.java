@@ -0,0 +1,57 @@
+package org.company.report;
+
+import org.company.finding.Finding;
+import org.company.finding.OverpaidFinding;
+import org.company.finding.ReportingLineTooLongFinding;
+import org.company.finding.UnderpaidFinding;
+
+import java.io.PrintWriter;
+
+/**
+ * Writes one CSV row per finding, preceded by a header row.
+ * Columns that do not apply to a finding type are left empty.
+ */
+public class CsvFindingSink implements FindingSink {
+
+    private static final String HEADER = "type,employeeId,firstName,lastName,salary,amount,managerId,reportingLineDepth,excess";
+
+    private final PrintWriter printWriter;
+    private final StringBuilder line = new StringBuilder(128);
+    private boolean headerWritten;
+
+    public CsvFindingSink(PrintWriter printWriter) {
+        this.printWriter = printWriter;
+    }
+
+    @Override
+    public void accept(Finding finding) {
+        if (!headerWritten) {
+            printWriter.println(HEADER);
+            headerWritten = true;
+        }
+        line.setLength(0);
+        if (finding instanceof UnderpaidFinding underpaid) {
+            appendCommon("UNDERPAID", finding).append(underpaid.salary()).append(',').append(underpaid.amount()).append(",,,");
+        } else if (finding instanceof OverpaidFinding overpaid) {
+            appendCommon("OVERPAID", finding).append(overpaid.salary()).append(',').append(overpaid.amount()).append(",,,");
+        } else if (finding instanceof ReportingLineTooLongFinding reportingLine) {
+            appendCommon("REPORTING_LINE_TOO_LONG", finding).append(",,")
+                    .append(reportingLine.managerId()).append(',')
+                    .append(reportingLine.reportingLineDepth()).append(',')
+                    .append(reportingLine.excess());
+        }
+        printWriter.println(line);
+    }
+
+    @Override
+    public void flush() {
+        printWriter.flush();
+    }
+
+    private StringBuilder appendCommon(String type, Finding finding) {
+        return line.append(type).append(',')
+                .append(finding.employeeId()).append(',')
+                .append(finding.firstName()).append(',')
+                .append(finding.lastName()).append(',');
+    }
+}
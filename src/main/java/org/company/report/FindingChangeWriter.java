@@ -0,0 +1,37 @@
+package org.company.report;
+
+import org.company.finding.Finding;
+import org.company.finding.FindingChanges;
+
+import java.io.PrintWriter;
+
+/**
+ * Writes the findings changed by a delta in the text format of the report,
+ * prefixed with "- " for findings that were resolved and "+ " for new findings.
+ */
+public class FindingChangeWriter {
+
+    private final PrintWriter printWriter;
+    private final StringBuilder line = new StringBuilder(128);
+
+    public FindingChangeWriter(PrintWriter printWriter) {
+        this.printWriter = printWriter;
+    }
+
+    public void write(FindingChanges changes) {
+        for (Finding finding : changes.removed()) {
+            writeLine("- ", finding);
+        }
+        for (Finding finding : changes.added()) {
+            writeLine("+ ", finding);
+        }
+        printWriter.flush();
+    }
+
+    private void writeLine(String prefix, Finding finding) {
+        line.setLength(0);
+        line.append(prefix);
+        TextFindingSink.format(finding, line);
+        printWriter.println(line);
+    }
+}
@@ -0,0 +1,18 @@
+package org.company.report;
+
+import org.company.finding.Finding;
+
+/**
+ * Destination of analysis findings. Findings arrive in report order from a single thread.
+ */
+@FunctionalInterface
+public interface FindingSink {
+
+    void accept(Finding finding);
+
+    /**
+     * Called once the analysis has delivered all of its findings.
+     */
+    default void flush() {
+    }
+}
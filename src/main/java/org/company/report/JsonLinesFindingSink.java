@@ -0,0 +1,71 @@
+package org.company.report;
+
+import org.company.finding.Finding;
+import org.company.finding.OverpaidFinding;
+import org.company.finding.ReportingLineTooLongFinding;
+import org.company.finding.UnderpaidFinding;
+
+import java.io.PrintWriter;
+
+/**
+ * Writes one JSON object per line and finding.
+ */
+public class JsonLinesFindingSink implements FindingSink {
+
+    private final PrintWriter printWriter;
+    private final StringBuilder line = new StringBuilder(160);
+
+    public JsonLinesFindingSink(PrintWriter printWriter) {
+        this.printWriter = printWriter;
+    }
+
+    @Override
+    public void accept(Finding finding) {
+        line.setLength(0);
+        if (finding instanceof UnderpaidFinding underpaid) {
+            appendCommon("UNDERPAID", finding);
+            line.append(",\"salary\":").append(underpaid.salary())
+                    .append(",\"amount\":").append(underpaid.amount());
+        } else if (finding instanceof OverpaidFinding overpaid) {
+            appendCommon("OVERPAID", finding);
+            line.append(",\"salary\":").append(overpaid.salary())
+                    .append(",\"amount\":").append(overpaid.amount());
+        } else if (finding instanceof ReportingLineTooLongFinding reportingLine) {
+            appendCommon("REPORTING_LINE_TOO_LONG", finding);
+            line.append(",\"managerId\":").append(reportingLine.managerId())
+                    .append(",\"reportingLineDepth\":").append(reportingLine.reportingLineDepth())
+                    .append(",\"excess\":").append(reportingLine.excess());
+        }
+        line.append('}');
+        printWriter.println(line);
+    }
+
+    @Override
+    public void flush() {
+        printWriter.flush();
+    }
+
+    private void appendCommon(String type, Finding finding) {
+        line.append("{\"type\":\"").append(type)
+                .append("\",\"employeeId\":").append(finding.employeeId())
+                .append(",\"firstName\":");
+        appendString(finding.firstName());
+        line.append(",\"lastName\":");
+        appendString(finding.lastName());
+    }
+
+    private void appendString(String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < ' ') {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,36 @@
+package org.company.report;
+
+import org.company.finding.Finding;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Logs every finding as a warning before passing it on. Findings are only formatted
+ * when the logger is enabled for warnings.
+ */
+public class LoggingFindingSink implements FindingSink {
+
+    private static final Logger logger = Logger.getLogger(LoggingFindingSink.class.getName());
+
+    private final FindingSink delegate;
+
+    public LoggingFindingSink(FindingSink delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void accept(Finding finding) {
+        if (logger.isLoggable(Level.WARNING)) {
+            StringBuilder message = new StringBuilder(128);
+            TextFindingSink.format(finding, message);
+            logger.warning(message.toString());
+        }
+        delegate.accept(finding);
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+}
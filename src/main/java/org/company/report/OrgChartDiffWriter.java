@@ -0,0 +1,67 @@
+package org.company.report;
+
+import org.company.diff.Departure;
+import org.company.diff.EmployeeChange;
+import org.company.diff.Hire;
+import org.company.diff.ManagerMove;
+import org.company.diff.OrgChartDiff;
+import org.company.diff.SalaryChange;
+
+import java.io.PrintWriter;
+
+/**
+ * Writes the employee changes between two exports, one per line, followed by the findings delta in the format
+ * of {@link FindingChangeWriter}.
+ */
+public class OrgChartDiffWriter {
+
+    private final PrintWriter printWriter;
+    private final FindingChangeWriter findingChangeWriter;
+    private final StringBuilder line = new StringBuilder(128);
+
+    public OrgChartDiffWriter(PrintWriter printWriter) {
+        this.printWriter = printWriter;
+        this.findingChangeWriter = new FindingChangeWriter(printWriter);
+    }
+
+    public void write(OrgChartDiff diff) {
+        for (EmployeeChange change : diff.changes()) {
+            line.setLength(0);
+            format(change, line);
+            printWriter.println(line);
+        }
+        printWriter.println(String.format("%d hires, %d departures, %d salary changes, %d manager moves, "
+                        + "%d new findings, %d resolved findings", diff.hires(), diff.departures(),
+                diff.salaryChanges(), diff.managerMoves(), diff.findings().added().size(),
+                diff.findings().removed().size()));
+        findingChangeWriter.write(diff.findings());
+    }
+
+    static void format(EmployeeChange change, StringBuilder line) {
+        line.append("Employee id=").append(change.employeeId()).append(", ")
+                .append(change.firstName()).append(' ').append(change.lastName());
+        if (change instanceof Hire hire) {
+            line.append(" joined with salary ").append(hire.salary()).append(", reporting to ");
+            appendManager(hire.managerId(), line);
+        } else if (change instanceof Departure departure) {
+            line.append(" left, last earning ").append(departure.salary());
+        } else if (change instanceof SalaryChange salaryChange) {
+            line.append(" salary changed from ").append(salaryChange.oldSalary()).append(" to ")
+                    .append(salaryChange.newSalary());
+        } else if (change instanceof ManagerMove move) {
+            line.append(" moved from ");
+            appendManager(move.oldManagerId(), line);
+            line.append(" to ");
+            appendManager(move.newManagerId(), line);
+        }
+        line.append('.');
+    }
+
+    private static void appendManager(Integer managerId, StringBuilder line) {
+        if (managerId == null) {
+            line.append("no manager");
+        } else {
+            line.append("id=").append(managerId);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.company.report;
+
+import org.company.finding.Finding;
+import org.company.finding.OverpaidFinding;
+import org.company.finding.ReportingLineTooLongFinding;
+import org.company.finding.UnderpaidFinding;
+
+import java.io.PrintWriter;
+
+/**
+ * Writes findings in the human readable format of the command line report.
+ * Consecutive reporting line findings of the same manager share one heading line.
+ */
+public class TextFindingSink implements FindingSink {
+
+    private final PrintWriter printWriter;
+    private final StringBuilder line = new StringBuilder(128);
+    private ReportingLineTooLongFinding lastReportingLine;
+
+    public TextFindingSink(PrintWriter printWriter) {
+        this.printWriter = printWriter;
+    }
+
+    @Override
+    public void accept(Finding finding) {
+        line.setLength(0);
+        if (finding instanceof ReportingLineTooLongFinding reportingLine) {
+            if (!sameManager(lastReportingLine, reportingLine)) {
+                line.append("Find below Employees with reporting line more by ").append(reportingLine.excess())
+                        .append(System.lineSeparator());
+            }
+            lastReportingLine = reportingLine;
+            line.append("id=").append(reportingLine.employeeId()).append(", ");
+            appendFullName(reportingLine);
+        } else {
+            lastReportingLine = null;
+            format(finding, line);
+        }
+        printWriter.println(line);
+    }
+
+    @Override
+    public void flush() {
+        printWriter.flush();
+    }
+
+    /**
+     * Appends the text of a salary finding, as printed in the report, to {@code line}.
+     */
+    static void format(Finding finding, StringBuilder line) {
+        if (finding instanceof UnderpaidFinding underpaid) {
+            line.append("Employee id=").append(underpaid.employeeId()).append(", ")
+                    .append(underpaid.firstName()).append(' ').append(underpaid.lastName())
+                    .append(" earns less than expected by ").append(underpaid.amount()).append('.');
+        } else if (finding instanceof OverpaidFinding overpaid) {
+            line.append("Employee id=").append(overpaid.employeeId()).append(", ")
+                    .append(overpaid.firstName()).append(' ').append(overpaid.lastName())
+                    .append(" earns more than expected by ").append(overpaid.amount()).append('.');
+        } else if (finding instanceof ReportingLineTooLongFinding reportingLine) {
+            line.append("Employee id=").append(reportingLine.employeeId()).append(", ")
+                    .append(reportingLine.firstName()).append(' ').append(reportingLine.lastName())
+                    .append(" has a reporting line longer by ").append(reportingLine.excess()).append('.');
+        }
+    }
+
+    private void appendFullName(Finding finding) {
+        line.append(finding.firstName()).append(' ').append(finding.lastName());
+    }
+
+    private static boolean sameManager(ReportingLineTooLongFinding previous, ReportingLineTooLongFinding current) {
+        return previous != null
+                && previous.managerId() == current.managerId()
+                && previous.reportingLineDepth() == current.reportingLineDepth();
+    }
+}
@@ -0,0 +1,81 @@
+package org.company.shard;
+
+import org.company.model.EmployeeStore;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Binary file of the employees of a shard in file order, appended to row by row by the coordinator and loaded
+ * into a store by the worker. Every row is a tag byte followed by the fields of the row; a zero tag ends the
+ * file, so a file the coordinator did not finish cannot be read.
+ */
+final class EmployeeFile {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final byte END_OF_FILE = 0;
+    private static final byte ROW = 1;
+
+    private EmployeeFile() {
+    }
+
+    /**
+     * @return the employees of the file, linked to their managers
+     * @throws IOException when the file is truncated or holds an ID twice
+     */
+    static EmployeeStore read(Path file) throws IOException {
+        EmployeeStore.Builder builder = EmployeeStore.builder();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file),
+                BUFFER_SIZE))) {
+            for (byte tag = in.readByte(); tag != END_OF_FILE; tag = in.readByte()) {
+                if (tag != ROW) {
+                    throw new StreamCorruptedException("Unknown row tag " + tag);
+                }
+                int id = in.readInt();
+                if (!builder.add(id, in.readUTF(), in.readUTF(), in.readInt(), in.readBoolean(), in.readInt())) {
+                    throw new StreamCorruptedException("Duplicate employee " + id);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    static final class Writer implements Closeable {
+        private final DataOutputStream out;
+
+        Writer(Path file) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE));
+        }
+
+        /**
+         * @param managerId only meaningful when {@code hasManager} is set
+         */
+        void add(int id, String firstName, String lastName, int salary, boolean hasManager, int managerId)
+                throws IOException {
+            out.writeByte(ROW);
+            out.writeInt(id);
+            out.writeUTF(firstName);
+            out.writeUTF(lastName);
+            out.writeInt(salary);
+            out.writeBoolean(hasManager);
+            out.writeInt(managerId);
+        }
+
+        void finish() throws IOException {
+            out.writeByte(END_OF_FILE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.company.shard;
+
+import org.company.reader.EmployeeRowHandler;
+
+import java.io.IOException;
+
+/**
+ * The rows of the org chart a {@link ShardCoordinator} splits, streamed once more to write the shards, so the
+ * coordinator never holds the names of all employees at once.
+ */
+@FunctionalInterface
+public interface EmployeeRows {
+
+    /**
+     * Passes every row to the handler in file order.
+     */
+    void forEach(EmployeeRowHandler handler) throws IOException;
+}
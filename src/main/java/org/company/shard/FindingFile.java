@@ -0,0 +1,135 @@
+package org.company.shard;
+
+import org.company.finding.Finding;
+import org.company.finding.OverpaidFinding;
+import org.company.finding.ReportingLineTooLongFinding;
+import org.company.finding.UnderpaidFinding;
+import org.company.report.FindingSink;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Binary file of the findings of a shard, one segment per subtree in the order the subtrees were analyzed.
+ * Every finding is a tag byte followed by its fields; salary expectations are stored as raw doubles, so the
+ * findings read back are equal to the ones written. A zero tag ends a segment.
+ */
+final class FindingFile {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final byte END_OF_SUBTREE = 0;
+    private static final byte UNDERPAID = 1;
+    private static final byte OVERPAID = 2;
+    private static final byte REPORTING_LINE = 3;
+
+    private FindingFile() {
+    }
+
+    /**
+     * Writes to a temporary file that only replaces the target on commit, so a worker that fails half way never
+     * leaves a findings file behind.
+     */
+    static final class Writer implements FindingSink, Closeable {
+        private final Path target;
+        private final Path temporary;
+        private final DataOutputStream out;
+        private boolean committed;
+
+        Writer(Path target) throws IOException {
+            this.target = target;
+            this.temporary = target.resolveSibling(target.getFileName() + ".tmp");
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE));
+        }
+
+        @Override
+        public void accept(Finding finding) {
+            try {
+                if (finding instanceof UnderpaidFinding underpaid) {
+                    writeNames(UNDERPAID, finding);
+                    out.writeInt(underpaid.salary());
+                    out.writeDouble(underpaid.minExpectedSalary());
+                } else if (finding instanceof OverpaidFinding overpaid) {
+                    writeNames(OVERPAID, finding);
+                    out.writeInt(overpaid.salary());
+                    out.writeDouble(overpaid.maxExpectedSalary());
+                } else if (finding instanceof ReportingLineTooLongFinding reportingLine) {
+                    writeNames(REPORTING_LINE, finding);
+                    out.writeInt(reportingLine.managerId());
+                    out.writeInt(reportingLine.reportingLineDepth());
+                    out.writeInt(reportingLine.excess());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeNames(byte tag, Finding finding) throws IOException {
+            out.writeByte(tag);
+            out.writeInt(finding.employeeId());
+            out.writeUTF(finding.firstName());
+            out.writeUTF(finding.lastName());
+        }
+
+        void endSubtree() throws IOException {
+            out.writeByte(END_OF_SUBTREE);
+        }
+
+        void commit() throws IOException {
+            out.close();
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+            if (!committed) {
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+
+    static final class Reader implements Closeable {
+        private final DataInputStream in;
+
+        Reader(Path file) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE));
+        }
+
+        /**
+         * @return the next finding of the current subtree, or null at its end, after which the next call
+         * continues with the next subtree
+         */
+        Finding next() throws IOException {
+            byte tag = in.readByte();
+            if (tag == END_OF_SUBTREE) {
+                return null;
+            }
+            int id = in.readInt();
+            String firstName = in.readUTF();
+            String lastName = in.readUTF();
+            return switch (tag) {
+                case UNDERPAID -> new UnderpaidFinding(id, firstName, lastName, in.readInt(), in.readDouble());
+                case OVERPAID -> new OverpaidFinding(id, firstName, lastName, in.readInt(), in.readDouble());
+                case REPORTING_LINE -> new ReportingLineTooLongFinding(id, firstName, lastName, in.readInt(),
+                        in.readInt(), in.readInt());
+                default -> throw new StreamCorruptedException("Unknown finding tag " + tag);
+            };
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
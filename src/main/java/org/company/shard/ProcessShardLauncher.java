@@ -0,0 +1,87 @@
+package org.company.shard;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Logger;
+
+/**
+ * Starts one worker JVM per shard with the java executable and class path of the running JVM, running
+ * {@code org.company.Application --worker=<shard>}. Workers inherit the standard streams, so their log lines
+ * appear with the ones of the coordinator. Workers are awaited in the order they exit, so the first failing
+ * worker stops all others at once, however long the workers started before it still run.
+ */
+final class ProcessShardLauncher implements ShardLauncher {
+
+    private static final Logger logger = Logger.getLogger(ProcessShardLauncher.class.getName());
+
+    private static final String MAIN_CLASS = "org.company.Application";
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    private final int maxWorkers;
+    private final List<String> jvmOptions;
+
+    ProcessShardLauncher(int maxWorkers, List<String> jvmOptions) {
+        if (maxWorkers < 1) {
+            throw new IllegalArgumentException("Number of workers must be positive");
+        }
+        this.maxWorkers = maxWorkers;
+        this.jvmOptions = List.copyOf(jvmOptions);
+    }
+
+    @Override
+    public void launch(List<Path> shards) throws IOException {
+        Deque<Path> waiting = new ArrayDeque<>(shards);
+        Set<Worker> running = new HashSet<>();
+        BlockingQueue<Worker> exited = new LinkedBlockingQueue<>();
+        try {
+            while (!waiting.isEmpty() || !running.isEmpty()) {
+                while (!waiting.isEmpty() && running.size() < maxWorkers) {
+                    Path shard = waiting.pollFirst();
+                    Worker worker = new Worker(shard, command(shard).start());
+                    running.add(worker);
+                    worker.process().onExit().thenRun(() -> exited.add(worker));
+                }
+                Worker worker = exited.take();
+                running.remove(worker);
+                int exitCode = worker.process().exitValue();
+                if (exitCode != 0) {
+                    throw new IOException("Worker of shard " + worker.shard() + " exited with code " + exitCode);
+                }
+                logger.fine("Worker of shard " + worker.shard() + " finished");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the workers");
+        } finally {
+            for (Worker worker : running) {
+                worker.process().destroyForcibly();
+            }
+        }
+    }
+
+    private ProcessBuilder command(Path shard) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            command.add("--add-modules=" + VECTOR_MODULE);
+        }
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(MAIN_CLASS);
+        command.add("--worker=" + shard);
+        return new ProcessBuilder(command).inheritIO();
+    }
+
+    private record Worker(Path shard, Process process) {
+    }
+}
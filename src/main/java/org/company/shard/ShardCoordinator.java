@@ -0,0 +1,429 @@
+package org.company.shard;
+
+import org.company.analyzer.EmployeeAnalyzerImpl;
+import org.company.analyzer.ThresholdPolicy;
+import org.company.finding.Finding;
+import org.company.finding.ReportingLineTooLongFinding;
+import org.company.metrics.PipelineMetrics;
+import org.company.model.EmployeeStore;
+import org.company.report.FindingSink;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Splits the analysis of one org chart across worker processes and merges their findings into exactly the
+ * output of one {@link EmployeeAnalyzerImpl} run.
+ * <p>
+ * With {@code n} reachable employees and {@code s} shards, every employee heading at most {@code n / s} employees
+ * whose manager heads more becomes the root of a subtree. Subtrees are handed out in pre-order, in contiguous
+ * runs of about equal size, so each shard is a forest whose findings form consecutive stretches of the output.
+ * A shard is written as a file of its employees with every root as a top employee, next to the depth of every
+ * root, which is all a worker needs: a subtree holds every direct report of its members, so salary checks never
+ * cross a shard boundary, and only reporting lines depend on how deep the root sits.
+ * <p>
+ * The employees above the subtrees, the spine, are few. The coordinator analyzes them as one more store made of
+ * the spine and the subtree roots, which checks the spine managers and the reporting lines of their direct
+ * reports, and then walks the spine in pre-order: the findings of a spine manager come from its own analysis and
+ * those of a subtree are read from its shard, one segment after the other.
+ * <p>
+ * The plan only needs the IDs, salaries and managers. Given {@link EmployeeRows}, the coordinator splits a store
+ * without names and streams the rows once more, appending every row to the file of its shard as it arrives, so
+ * it holds the names of the spine only. Its memory is then bounded by that store, two ints per employee for the
+ * subtree sizes and shards, and two bit sets, about 80 bytes per employee at the peak whatever the length of
+ * the names.
+ */
+public final class ShardCoordinator {
+
+    private static final Logger logger = Logger.getLogger(ShardCoordinator.class.getName());
+
+    private final int shards;
+    private final ShardLauncher launcher;
+    private final Path workDirectory;
+    private final ThresholdPolicy policy;
+
+    /**
+     * @param shards        number of shards to split the chart into; fewer are used when subtrees are large
+     * @param launcher      runs the workers of the shards
+     * @param workDirectory directory in which the temporary directory of every analysis is created
+     */
+    public ShardCoordinator(int shards, ShardLauncher launcher, Path workDirectory, ThresholdPolicy policy) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("Number of shards must be positive");
+        }
+        this.shards = shards;
+        this.launcher = launcher;
+        this.workDirectory = workDirectory;
+        this.policy = policy;
+    }
+
+    /**
+     * Splits a store that holds the names as well, which then serves as its own rows.
+     *
+     * @throws IOException when the shard files cannot be written or read, or a worker fails
+     */
+    public ShardedAnalysis analyze(EmployeeStore employees, FindingSink sink) throws IOException {
+        return analyze(employees, handler -> {
+            for (int index = 0; index < employees.size(); index++) {
+                Integer managerId = employees.managerId(index);
+                handler.onRow(employees.id(index), employees.firstName(index), employees.lastName(index),
+                        employees.salary(index), managerId != null, managerId == null ? 0 : managerId);
+            }
+        }, sink);
+    }
+
+    /**
+     * @param structure the chart to split, whose names are not used
+     * @param rows      the rows of the same chart, which give the names of the employees written to the shards;
+     *                  only their IDs and names are read, and rows of IDs left out of the structure are skipped
+     * @throws IOException when the shard files cannot be written or read, the rows do not match the structure,
+     *                     or a worker fails
+     */
+    public ShardedAnalysis analyze(EmployeeStore structure, EmployeeRows rows, FindingSink sink) throws IOException {
+        if (structure.ceo() < 0) {
+            sink.flush();
+            return new ShardedAnalysis(0, 0, 0, 0, 0);
+        }
+        Plan plan = Plan.of(structure, shards);
+        Path work = Files.createTempDirectory(workDirectory, "employee-analyzer-shards-");
+        try {
+            List<Path> shardPaths = new ArrayList<>();
+            for (int shard = 0; shard < plan.shardCount(); shard++) {
+                Path shardPath = work.resolve("shard-" + shard);
+                writeRoots(structure, plan, shard, new ShardFiles(shardPath));
+                shardPaths.add(shardPath);
+            }
+            EmployeeStore spine = writeShards(structure, rows, plan, shardPaths);
+            int largestShard = plan.largestShard();
+            logger.info(String.format("Analyzing %d shards of %d subtrees, largest %d employees, spine %d employees",
+                    plan.shardCount(), plan.roots.length, largestShard, plan.spineSize()));
+            launcher.launch(shardPaths);
+            long findings = merge(structure, spine, plan, shardPaths, sink);
+            return new ShardedAnalysis(plan.shardCount(), plan.roots.length, plan.spineSize(), largestShard,
+                    findings);
+        } finally {
+            deleteRecursively(work);
+        }
+    }
+
+    private void writeRoots(EmployeeStore structure, Plan plan, int shard, ShardFiles files) throws IOException {
+        int from = plan.firstRoot(shard);
+        int to = plan.firstRoot(shard + 1);
+        int[] rootIds = new int[to - from];
+        for (int root = from; root < to; root++) {
+            rootIds[root - from] = structure.id(plan.roots[root]);
+        }
+        files.writeRoots(policy, rootIds, Arrays.copyOfRange(plan.rootDepths, from, to));
+    }
+
+    /**
+     * Streams the rows once, appending every employee of a subtree to the file of its shard with the roots as top
+     * employees, and keeping the spine and the subtree roots with their names. Rows arrive in file order, so a
+     * worker walks every subtree in the order of the whole chart. Salaries and managers are taken from the
+     * structure, which may have been repaired by a validation.
+     *
+     * @return the spine and the subtree roots, whose analysis reports every finding of a spine manager
+     */
+    private static EmployeeStore writeShards(EmployeeStore structure, EmployeeRows rows, Plan plan,
+                                             List<Path> shardPaths) throws IOException {
+        int[] memberShards = plan.memberShards(structure);
+        BitSet spine = new BitSet(structure.size());
+        for (int index : plan.sequence) {
+            spine.set(index);
+        }
+        BitSet written = new BitSet(structure.size());
+        EmployeeStore.Builder spineBuilder = EmployeeStore.builder();
+        EmployeeFile.Writer[] writers = new EmployeeFile.Writer[shardPaths.size()];
+        try {
+            for (int shard = 0; shard < writers.length; shard++) {
+                writers[shard] = new EmployeeFile.Writer(new ShardFiles(shardPaths.get(shard)).employees());
+            }
+            rows.forEach((id, firstName, lastName, salary, hasManager, managerId) -> {
+                int index = structure.indexOf(id);
+                if (index < 0 || written.get(index) || (memberShards[index] < 0 && !spine.get(index))) {
+                    return;
+                }
+                written.set(index);
+                int manager = structure.managerIndex(index);
+                if (memberShards[index] >= 0) {
+                    boolean root = plan.isRoot(structure, index);
+                    try {
+                        writers[memberShards[index]].add(id, firstName, lastName, structure.salary(index), !root,
+                                root ? 0 : structure.id(manager));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                if (spine.get(index)) {
+                    spineBuilder.add(id, firstName, lastName, structure.salary(index), manager >= 0,
+                            manager >= 0 ? structure.id(manager) : 0);
+                }
+            });
+            for (EmployeeFile.Writer writer : writers) {
+                writer.finish();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            for (EmployeeFile.Writer writer : writers) {
+                if (writer != null) {
+                    writer.close();
+                }
+            }
+        }
+        int reachable = plan.sizes[structure.ceo()];
+        if (written.cardinality() != reachable) {
+            throw new IOException("Rows of " + (reachable - written.cardinality())
+                    + " employees of the chart are missing, the file changed while it was split");
+        }
+        return spineBuilder.build();
+    }
+
+    /**
+     * Analyzes the spine and passes its findings and the segments of the shards to the sink in pre-order.
+     *
+     * @return number of findings passed to the sink
+     */
+    private long merge(EmployeeStore employees, EmployeeStore spine, Plan plan, List<Path> shardPaths,
+                       FindingSink sink) throws IOException {
+        List<Finding> spineFindings = new ArrayList<>();
+        new EmployeeAnalyzerImpl(spineFindings::add, 1, PipelineMetrics.disabled(), policy).analyzeEmployees(spine);
+
+        long findings = 0;
+        int spineFinding = 0;
+        int root = 0;
+        int openShard = -1;
+        FindingFile.Reader reader = null;
+        try {
+            for (int index : plan.sequence) {
+                if (plan.isRoot(employees, index)) {
+                    int shard = plan.rootShards[root++];
+                    if (shard != openShard) {
+                        if (reader != null) {
+                            reader.close();
+                        }
+                        reader = new FindingFile.Reader(new ShardFiles(shardPaths.get(shard)).findings());
+                        openShard = shard;
+                    }
+                    for (Finding finding = reader.next(); finding != null; finding = reader.next()) {
+                        sink.accept(finding);
+                        findings++;
+                    }
+                } else {
+                    int id = employees.id(index);
+                    while (spineFinding < spineFindings.size() && reportingManager(spineFindings.get(spineFinding)) == id) {
+                        sink.accept(spineFindings.get(spineFinding++));
+                        findings++;
+                    }
+                }
+            }
+        } finally {
+            if (reader != null) {
+                reader.close();
+            }
+        }
+        if (spineFinding != spineFindings.size()) {
+            throw new IllegalStateException("Spine findings do not follow the spine walk");
+        }
+        sink.flush();
+        return findings;
+    }
+
+    /**
+     * @return the manager whose visit reports the finding: the employee itself for salary findings
+     */
+    private static int reportingManager(Finding finding) {
+        return finding instanceof ReportingLineTooLongFinding reportingLine
+                ? reportingLine.managerId() : finding.employeeId();
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Subtree sizes, the pre-order walk of the spine and the subtree roots, and the shard of every root.
+     */
+    private static final class Plan {
+        /** Employees headed by every reachable employee, including itself; 0 for unreachable ones. */
+        private final int[] sizes;
+        private final int rootLimit;
+        /** Spine employees and subtree roots in pre-order. */
+        private final int[] sequence;
+        /** Subtree roots in pre-order, with their depths and shards. */
+        private final int[] roots;
+        private final int[] rootDepths;
+        private final int[] rootShards;
+
+        private Plan(int[] sizes, int rootLimit, int[] sequence, int[] roots, int[] rootDepths, int[] rootShards) {
+            this.sizes = sizes;
+            this.rootLimit = rootLimit;
+            this.sequence = sequence;
+            this.roots = roots;
+            this.rootDepths = rootDepths;
+            this.rootShards = rootShards;
+        }
+
+        static Plan of(EmployeeStore employees, int shards) {
+            int[] sizes = subtreeSizes(employees);
+            int ceo = employees.ceo();
+            int rootLimit = Math.max(1, (int) ((sizes[ceo] + (long) shards - 1) / shards));
+
+            int[] sequence = new int[16];
+            int sequenceSize = 0;
+            int[] roots = new int[16];
+            int[] rootDepths = new int[16];
+            int rootCount = 0;
+            int[] stack = new int[16];
+            int[] depths = new int[16];
+            int top = 0;
+            stack[top] = ceo;
+            depths[top++] = 0;
+            while (top > 0) {
+                int index = stack[--top];
+                int depth = depths[top];
+                if (sequenceSize == sequence.length) {
+                    sequence = Arrays.copyOf(sequence, sequenceSize * 2);
+                }
+                sequence[sequenceSize++] = index;
+                if (sizes[index] <= rootLimit) {
+                    if (rootCount == roots.length) {
+                        roots = Arrays.copyOf(roots, rootCount * 2);
+                        rootDepths = Arrays.copyOf(rootDepths, rootCount * 2);
+                    }
+                    roots[rootCount] = index;
+                    rootDepths[rootCount++] = depth;
+                    continue;
+                }
+                int first = employees.firstSubordinate(index);
+                int last = employees.lastSubordinate(index);
+                if (top + last - first > stack.length) {
+                    int capacity = Math.max(stack.length * 2, top + last - first);
+                    stack = Arrays.copyOf(stack, capacity);
+                    depths = Arrays.copyOf(depths, capacity);
+                }
+                for (int position = last - 1; position >= first; position--) {
+                    stack[top] = employees.subordinate(position);
+                    depths[top++] = depth + 1;
+                }
+            }
+
+            long rootEmployees = sizes[ceo] - (sequenceSize - rootCount);
+            int[] rootShards = new int[rootCount];
+            long before = 0;
+            int shardCount = 0;
+            int previous = -1;
+            for (int root = 0; root < rootCount; root++) {
+                int shard = (int) (before * shards / rootEmployees);
+                if (shard != previous) {
+                    shardCount++;
+                    previous = shard;
+                }
+                rootShards[root] = shardCount - 1;
+                before += sizes[roots[root]];
+            }
+            return new Plan(sizes, rootLimit, Arrays.copyOf(sequence, sequenceSize), Arrays.copyOf(roots, rootCount),
+                    Arrays.copyOf(rootDepths, rootCount), rootShards);
+        }
+
+        /**
+         * Sums the sizes bottom up over the reverse of a breadth first numbering of the reachable employees.
+         */
+        private static int[] subtreeSizes(EmployeeStore employees) {
+            int[] sizes = new int[employees.size()];
+            int[] order = new int[employees.size()];
+            int tail = 0;
+            order[tail++] = employees.ceo();
+            for (int head = 0; head < tail; head++) {
+                int manager = order[head];
+                for (int position = employees.firstSubordinate(manager);
+                     position < employees.lastSubordinate(manager); position++) {
+                    order[tail++] = employees.subordinate(position);
+                }
+            }
+            for (int position = tail - 1; position >= 0; position--) {
+                int index = order[position];
+                sizes[index]++;
+                if (position > 0) {
+                    sizes[employees.managerIndex(index)] += sizes[index];
+                }
+            }
+            return sizes;
+        }
+
+        /**
+         * @return the shard of every employee of a subtree, -1 for the spine above the subtrees and unreachable
+         * employees
+         */
+        int[] memberShards(EmployeeStore employees) {
+            int[] shards = new int[sizes.length];
+            Arrays.fill(shards, -1);
+            int[] stack = new int[16];
+            for (int root = 0; root < roots.length; root++) {
+                int top = 0;
+                stack[top++] = roots[root];
+                while (top > 0) {
+                    int manager = stack[--top];
+                    shards[manager] = rootShards[root];
+                    int first = employees.firstSubordinate(manager);
+                    int last = employees.lastSubordinate(manager);
+                    if (top + last - first > stack.length) {
+                        stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + last - first));
+                    }
+                    for (int position = first; position < last; position++) {
+                        stack[top++] = employees.subordinate(position);
+                    }
+                }
+            }
+            return shards;
+        }
+
+        /**
+         * @return number of employees of the largest shard
+         */
+        int largestShard() {
+            int[] shardSizes = new int[shardCount()];
+            for (int root = 0; root < roots.length; root++) {
+                shardSizes[rootShards[root]] += sizes[roots[root]];
+            }
+            return Arrays.stream(shardSizes).max().orElse(0);
+        }
+
+        boolean isRoot(EmployeeStore employees, int index) {
+            int manager = employees.managerIndex(index);
+            return sizes[index] <= rootLimit && (manager < 0 || sizes[manager] > rootLimit);
+        }
+
+        int shardCount() {
+            return roots.length == 0 ? 0 : rootShards[roots.length - 1] + 1;
+        }
+
+        /**
+         * @return position of the first root of the shard in the roots, or the number of roots after the last shard
+         */
+        int firstRoot(int shard) {
+            int root = 0;
+            while (root < rootShards.length && rootShards[root] < shard) {
+                root++;
+            }
+            return root;
+        }
+
+        int spineSize() {
+            return sequence.length - roots.length;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.company.shard;
+
+import org.company.analyzer.ThresholdPolicy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The files through which the coordinator and the worker of one shard talk, all named after the shard:
+ * the employees of its subtrees, the roots of its subtrees with their depths and the policy, written by the
+ * coordinator, and the findings, written by the worker.
+ */
+record ShardFiles(Path shard) {
+
+    Path employees() {
+        return sibling(".employees");
+    }
+
+    Path roots() {
+        return sibling(".roots");
+    }
+
+    Path findings() {
+        return sibling(".findings");
+    }
+
+    private Path sibling(String extension) {
+        return shard.resolveSibling(shard.getFileName() + extension);
+    }
+
+    /**
+     * @param rootIds    ids of the subtree roots in the order their findings are expected
+     * @param rootDepths depth of every root below the CEO
+     */
+    void writeRoots(ThresholdPolicy policy, int[] rootIds, int[] rootDepths) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(roots())))) {
+            out.writeDouble(policy.minCoefficient());
+            out.writeDouble(policy.maxCoefficient());
+            out.writeInt(policy.maxReportingLineDepth());
+            out.writeInt(rootIds.length);
+            for (int i = 0; i < rootIds.length; i++) {
+                out.writeInt(rootIds[i]);
+                out.writeInt(rootDepths[i]);
+            }
+        }
+    }
+
+    Roots readRoots() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(roots())))) {
+            ThresholdPolicy policy = new ThresholdPolicy(in.readDouble(), in.readDouble(), in.readInt());
+            int[] ids = new int[in.readInt()];
+            int[] depths = new int[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = in.readInt();
+                depths[i] = in.readInt();
+            }
+            return new Roots(policy, ids, depths);
+        }
+    }
+
+    record Roots(ThresholdPolicy policy, int[] ids, int[] depths) {
+    }
+}
@@ -0,0 +1,40 @@
+package org.company.shard;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Runs the workers of the shards written by a {@link ShardCoordinator}.
+ */
+@FunctionalInterface
+public interface ShardLauncher {
+
+    /**
+     * Runs the worker of every shard and returns once all of them have written their findings.
+     *
+     * @param shards paths of the shards without extension
+     * @throws IOException when a worker fails
+     */
+    void launch(List<Path> shards) throws IOException;
+
+    /**
+     * @return a launcher running the workers one after the other in this JVM
+     */
+    static ShardLauncher inProcess() {
+        return shards -> {
+            for (Path shard : shards) {
+                ShardWorker.run(shard);
+            }
+        };
+    }
+
+    /**
+     * @param maxWorkers  number of worker JVMs running at a time
+     * @param jvmOptions  options of every worker JVM, such as its heap size
+     * @return a launcher starting one JVM on the class path of this one per shard
+     */
+    static ShardLauncher processes(int maxWorkers, List<String> jvmOptions) {
+        return new ProcessShardLauncher(maxWorkers, jvmOptions);
+    }
+}
@@ -0,0 +1,53 @@
+package org.company.shard;
+
+import org.company.analyzer.EmployeeAnalyzerImpl;
+import org.company.metrics.PipelineMetrics;
+import org.company.model.EmployeeStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.logging.Logger;
+
+/**
+ * Analyzes one shard written by a {@link ShardCoordinator}: loads its employees, analyzes the subtree of every
+ * root at the depth the root has in the whole chart and writes the findings of every subtree as one segment.
+ */
+public final class ShardWorker {
+
+    private static final Logger logger = Logger.getLogger(ShardWorker.class.getName());
+
+    private ShardWorker() {
+    }
+
+    /**
+     * @param shard path of the shard without extension, as passed to the worker process
+     */
+    public static void run(Path shard) throws IOException {
+        ShardFiles files = new ShardFiles(shard);
+        ShardFiles.Roots roots = files.readRoots();
+        EmployeeStore employees = EmployeeFile.read(files.employees());
+        int[] rootIndexes = new int[roots.ids().length];
+        for (int i = 0; i < rootIndexes.length; i++) {
+            rootIndexes[i] = employees.indexOf(roots.ids()[i]);
+            if (rootIndexes[i] < 0) {
+                throw new IOException("Root " + roots.ids()[i] + " is missing from shard " + shard);
+            }
+        }
+        try (FindingFile.Writer writer = new FindingFile.Writer(files.findings())) {
+            new EmployeeAnalyzerImpl(writer, 1, PipelineMetrics.disabled(), roots.policy())
+                    .analyzeSubtrees(employees, rootIndexes, roots.depths(), writer, root -> {
+                        try {
+                            writer.endSubtree();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+            writer.commit();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        logger.fine(() -> String.format("Analyzed shard %s: %d employees in %d subtrees", shard, employees.size(),
+                roots.ids().length));
+    }
+}
@@ -0,0 +1,13 @@
+package org.company.shard;
+
+/**
+ * Outcome of a sharded analysis.
+ *
+ * @param shards          shards analyzed by workers
+ * @param subtrees        subtrees the shards were made of
+ * @param spineEmployees  employees above the subtrees, analyzed by the coordinator
+ * @param largestShard    employees of the largest shard
+ * @param findings        findings passed to the sink
+ */
+public record ShardedAnalysis(int shards, int subtrees, int spineEmployees, int largestShard, long findings) {
+}
@@ -0,0 +1,46 @@
+package org.company.validation;
+
+import java.util.List;
+
+/**
+ * A row that breaks the management hierarchy.
+ *
+ * @param employeeId id of the offending employee, for a cycle the first member found
+ * @param managerId  manager id of the offending employee, null for an extra root
+ * @param members    ids of the cycle members in reporting order for {@link Type#CYCLE}, otherwise only the employee
+ */
+public record HierarchyIssue(Type type, int employeeId, Integer managerId, List<Integer> members) {
+
+    private static final int MAX_DESCRIBED_MEMBERS = 10;
+
+    public enum Type {
+        /**
+         * The employee is its own manager.
+         */
+        SELF_MANAGED,
+        /**
+         * The manager id does not belong to any employee.
+         */
+        MISSING_MANAGER,
+        /**
+         * The employees manage each other in a loop and never reach the CEO.
+         */
+        CYCLE,
+        /**
+         * The employee has no manager but is not the CEO, the first such employee in the file.
+         */
+        EXTRA_ROOT
+    }
+
+    public String description() {
+        return switch (type) {
+            case SELF_MANAGED -> "Employee id=" + employeeId + " is their own manager";
+            case MISSING_MANAGER -> "Employee id=" + employeeId + " reports to missing manager id=" + managerId;
+            case CYCLE -> members.size() <= MAX_DESCRIBED_MEMBERS
+                    ? "Employees " + members + " manage each other in a cycle"
+                    : "Employees " + members.subList(0, MAX_DESCRIBED_MEMBERS) + " and " + (members.size() - MAX_DESCRIBED_MEMBERS)
+                    + " more manage each other in a cycle";
+            case EXTRA_ROOT -> "Employee id=" + employeeId + " has no manager but is not the CEO";
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package org.company.validation;
+
+import org.company.model.EmployeeStore;
+
+import java.util.List;
+
+/**
+ * Outcome of validating a management hierarchy.
+ *
+ * @param issues      every self-reference, missing manager, cycle and extra root, in file order of discovery
+ * @param employees   the employees reachable from the CEO, in file order
+ * @param quarantined number of employees left out, the offending rows and everyone reporting to them
+ */
+public record HierarchyValidation(List<HierarchyIssue> issues, EmployeeStore employees, int quarantined) {
+
+    public boolean isValid() {
+        return issues.isEmpty();
+    }
+}
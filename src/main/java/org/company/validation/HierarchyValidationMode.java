@@ -0,0 +1,16 @@
+package org.company.validation;
+
+public enum HierarchyValidationMode {
+    /**
+     * No validation; employees outside the CEO's hierarchy are silently left out of the analysis.
+     */
+    OFF,
+    /**
+     * Issues are logged and the offending rows, with everyone reporting to them, are quarantined.
+     */
+    LENIENT,
+    /**
+     * Any issue fails the run.
+     */
+    STRICT
+}
@@ -0,0 +1,177 @@
+package org.company.validation;
+
+import org.company.exception.InvalidCsvDataException;
+import org.company.metrics.PipelineMetrics;
+import org.company.metrics.PipelineStage;
+import org.company.model.EmployeeStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Validates the management hierarchy of an {@link EmployeeStore} in one linear pass over its manager index column.
+ * <p>
+ * Every employee follows its chain of managers, colouring the employees on the current chain, until the chain
+ * reaches an employee whose outcome is already known, a root, a missing manager or an employee of the current
+ * chain, which closes a cycle. The outcome is then copied to the whole chain, so every employee is visited once.
+ * The CEO is the first employee without a manager in file order; other employees without a manager are extra roots.
+ */
+public class HierarchyValidator {
+
+    private static final Logger logger = Logger.getLogger(HierarchyValidator.class.getName());
+
+    private static final int MAX_REPORTED_ISSUES = 10;
+
+    private static final byte UNVISITED = 0;
+    private static final byte ON_CHAIN = 1;
+    private static final byte VALID = 2;
+    private static final byte QUARANTINED = 3;
+
+    private final HierarchyValidationMode mode;
+    private final PipelineMetrics metrics;
+
+    public HierarchyValidator(HierarchyValidationMode mode) {
+        this(mode, PipelineMetrics.disabled());
+    }
+
+    /**
+     * @param metrics receives the timing of every validation that is not off
+     */
+    public HierarchyValidator(HierarchyValidationMode mode, PipelineMetrics metrics) {
+        this.mode = mode;
+        this.metrics = metrics;
+    }
+
+    public HierarchyValidationMode mode() {
+        return mode;
+    }
+
+    /**
+     * Applies the validation mode.
+     *
+     * @return the employees to analyze, without quarantined rows in lenient mode
+     * @throws InvalidCsvDataException in strict mode if the hierarchy has any issue
+     */
+    public EmployeeStore validate(EmployeeStore employees) {
+        if (mode == HierarchyValidationMode.OFF) {
+            return employees;
+        }
+        HierarchyValidation validation;
+        try (PipelineMetrics.Timer timer = metrics.start(PipelineStage.VALIDATE)) {
+            timer.rows(employees.size());
+            validation = check(employees);
+        }
+        if (validation.isValid()) {
+            return employees;
+        }
+        String summary = summary(validation);
+        if (mode == HierarchyValidationMode.STRICT) {
+            logger.severe(summary);
+            throw new InvalidCsvDataException(summary);
+        }
+        logger.warning(summary + "; " + validation.quarantined() + " employees quarantined");
+        return validation.employees();
+    }
+
+    public HierarchyValidation check(EmployeeStore employees) {
+        int size = employees.size();
+        int ceo = employees.ceo();
+        byte[] states = new byte[size];
+        int[] chain = new int[16];
+        int[] chainPositions = new int[size];
+        List<HierarchyIssue> issues = new ArrayList<>();
+        int quarantined = 0;
+
+        for (int start = 0; start < size; start++) {
+            if (states[start] != UNVISITED) {
+                continue;
+            }
+            int length = 0;
+            int employee = start;
+            byte outcome;
+            while (true) {
+                if (length == chain.length) {
+                    chain = Arrays.copyOf(chain, length * 2);
+                }
+                states[employee] = ON_CHAIN;
+                chainPositions[employee] = length;
+                chain[length++] = employee;
+
+                int manager = employees.managerIndex(employee);
+                if (manager == EmployeeStore.NO_MANAGER) {
+                    if (employee == ceo) {
+                        outcome = VALID;
+                    } else {
+                        issues.add(issue(HierarchyIssue.Type.EXTRA_ROOT, employees, employee));
+                        outcome = QUARANTINED;
+                    }
+                    break;
+                }
+                if (manager == EmployeeStore.MISSING_MANAGER) {
+                    issues.add(issue(HierarchyIssue.Type.MISSING_MANAGER, employees, employee));
+                    outcome = QUARANTINED;
+                    break;
+                }
+                if (states[manager] == ON_CHAIN) {
+                    issues.add(cycle(employees, chain, chainPositions[manager], length));
+                    outcome = QUARANTINED;
+                    break;
+                }
+                if (states[manager] != UNVISITED) {
+                    outcome = states[manager];
+                    break;
+                }
+                employee = manager;
+            }
+            for (int position = 0; position < length; position++) {
+                states[chain[position]] = outcome;
+            }
+            if (outcome == QUARANTINED) {
+                quarantined += length;
+            }
+        }
+
+        EmployeeStore valid = quarantined == 0 ? employees : validEmployees(employees, states);
+        return new HierarchyValidation(List.copyOf(issues), valid, quarantined);
+    }
+
+    private static HierarchyIssue issue(HierarchyIssue.Type type, EmployeeStore employees, int employee) {
+        return new HierarchyIssue(type, employees.id(employee), employees.managerId(employee), List.of(employees.id(employee)));
+    }
+
+    private static HierarchyIssue cycle(EmployeeStore employees, int[] chain, int from, int to) {
+        int first = chain[from];
+        if (to - from == 1) {
+            return issue(HierarchyIssue.Type.SELF_MANAGED, employees, first);
+        }
+        List<Integer> members = new ArrayList<>(to - from);
+        for (int position = from; position < to; position++) {
+            members.add(employees.id(chain[position]));
+        }
+        return new HierarchyIssue(HierarchyIssue.Type.CYCLE, employees.id(first), employees.managerId(first), members);
+    }
+
+    private static EmployeeStore validEmployees(EmployeeStore employees, byte[] states) {
+        EmployeeStore.Builder builder = EmployeeStore.builder();
+        for (int index = 0; index < employees.size(); index++) {
+            if (states[index] == VALID) {
+                Integer managerId = employees.managerId(index);
+                builder.add(employees.id(index), employees.firstName(index), employees.lastName(index),
+                        employees.salary(index), managerId != null, managerId == null ? 0 : managerId);
+            }
+        }
+        return builder.build();
+    }
+
+    private static String summary(HierarchyValidation validation) {
+        List<HierarchyIssue> issues = validation.issues();
+        String reported = issues.stream().limit(MAX_REPORTED_ISSUES)
+                .map(HierarchyIssue::description)
+                .collect(Collectors.joining("; "));
+        String more = issues.size() > MAX_REPORTED_ISSUES ? " and " + (issues.size() - MAX_REPORTED_ISSUES) + " more" : "";
+        return "Invalid management hierarchy with " + issues.size() + " issues: " + reported + more;
+    }
+}
@@ -3,17 +3,24 @@ package company.analyzer;
 import org.company.analyzer.EmployeeAnalyzer;
 import org.company.analyzer.EmployeeAnalyzerImpl;
 import org.company.model.Employee;
+import org.company.model.EmployeeStore;
+import org.company.reader.EmployeeCSVReaderImpl;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.io.PrintWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -29,11 +36,12 @@ public class EmployeeAnalyzerTest {
        printWriter = new PrintWriter(outputStreamCaptor);
     }
 
-    @Test
-    void testSingleEmployeeWithNoSubordinates() {
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void testSingleEmployeeWithNoSubordinates(int parallelism) {
         Employee ceo = new Employee(1, "John", "Doe", 5000, null);
         Map<Integer, Employee> employees = Collections.singletonMap(1, ceo);
-        EmployeeAnalyzerImpl analyzer = new EmployeeAnalyzerImpl(printWriter);
+        EmployeeAnalyzerImpl analyzer = new EmployeeAnalyzerImpl(printWriter, parallelism);
 
         analyzer.analyzeEmployees(employees);
 
@@ -41,8 +49,9 @@ public class EmployeeAnalyzerTest {
     }
 
 
-    @Test
-    void testSingleEmployeeWithSubordinates() {
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void testSingleEmployeeWithSubordinates(int parallelism) {
 
         Employee ceo = new Employee(1, "John", "Doe", 5000, null);
         Employee subordinate1 = new Employee(2, "Jane", "Doe", 4000, 1);
@@ -53,18 +62,19 @@ public class EmployeeAnalyzerTest {
         employees.put(2, subordinate1);
         employees.put(3, subordinate2);
 
-        EmployeeAnalyzerImpl analyzer = new EmployeeAnalyzerImpl(printWriter);
+        EmployeeAnalyzerImpl analyzer = new EmployeeAnalyzerImpl(printWriter, parallelism);
 
         analyzer.analyzeEmployees(employees);
 
         assertTrue(outputStreamCaptor.toString().isEmpty());
     }
-    @Test
-    void EmployeeSalariesTest() {
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void EmployeeSalariesTest(int parallelism) {
         employees = getEmployeesMap();
         establishEmployeeManagementHierarchy();
 
-        EmployeeAnalyzer companyEmployeeAnalyzer = new EmployeeAnalyzerImpl(printWriter);
+        EmployeeAnalyzer companyEmployeeAnalyzer = new EmployeeAnalyzerImpl(printWriter, parallelism);
         companyEmployeeAnalyzer.analyzeEmployees(employees);
 
         assertEquals("""
@@ -75,14 +85,15 @@ public class EmployeeAnalyzerTest {
                 outputStreamCaptor.toString().trim());
     }
 
-    @Test
-    void reportingLinesTest() {
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void reportingLinesTest(int parallelism) {
         getEmployeesMap().put(313, new Employee(313, "Brad", "Smith", 37000, 312,
                 new ArrayList<>()));
 
         establishEmployeeManagementHierarchy();
 
-        EmployeeAnalyzer companyEmployeeAnalyzer = new EmployeeAnalyzerImpl(printWriter);
+        EmployeeAnalyzer companyEmployeeAnalyzer = new EmployeeAnalyzerImpl(printWriter, parallelism);
         companyEmployeeAnalyzer.analyzeEmployees(employees);
 
         assertEquals("""
@@ -95,15 +106,88 @@ public class EmployeeAnalyzerTest {
                 outputStreamCaptor.toString().trim());
     }
 
-    @Test
-    void emptyEmployeesMapTest() {
-        EmployeeAnalyzer companyEmployeeAnalyzer = new EmployeeAnalyzerImpl(printWriter);
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void emptyEmployeesMapTest(int parallelism) {
+        EmployeeAnalyzer companyEmployeeAnalyzer = new EmployeeAnalyzerImpl(printWriter, parallelism);
         companyEmployeeAnalyzer.analyzeEmployees(Map.of());
 
         assertEquals("", outputStreamCaptor.toString().trim());
     }
 
 
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void employeeStoreFindingsMatchMapFindings(int parallelism) {
+        var csvReader = new EmployeeCSVReaderImpl();
+        EmployeeAnalyzer companyEmployeeAnalyzer = new EmployeeAnalyzerImpl(printWriter, parallelism);
+
+        companyEmployeeAnalyzer.analyzeEmployees(csvReader.readEmployeesDataFromFile("src/test/resources/company.csv"));
+        String mapOutput = outputStreamCaptor.toString();
+        outputStreamCaptor.reset();
+        companyEmployeeAnalyzer.analyzeEmployees(csvReader.readEmployeeStoreFromFile("src/test/resources/company.csv"));
+
+        assertEquals(Set.of(mapOutput.split(System.lineSeparator())),
+                Set.of(outputStreamCaptor.toString().split(System.lineSeparator())));
+        assertTrue(outputStreamCaptor.toString().contains("Find below Employees with reporting line more by 1"));
+    }
+
+    @Test
+    void millionLevelReportingLineDoesNotOverflowStack() {
+        int levels = 1_000_000;
+        Map<Integer, Employee> chain = new HashMap<>();
+        Employee manager = new Employee(1, "Joe", "Doe", 60000, null);
+        chain.put(1, manager);
+        for (int id = 2; id <= levels; id++) {
+            Employee subordinate = new Employee(id, "Joe", "Doe", 50000, id - 1);
+            manager.subordinates().add(subordinate);
+            chain.put(id, subordinate);
+            manager = subordinate;
+        }
+        CountingWriter writer = new CountingWriter();
+        new EmployeeAnalyzerImpl(new PrintWriter(writer)).analyzeEmployees(chain);
+
+        assertTrue(writer.lines > 2L * (levels - 1 - 5));
+    }
+
+    @Test
+    void parallelAnalysisIsByteIdenticalToSequentialAnalysis() {
+        Map<Integer, Employee> company = new HashMap<>();
+        EmployeeStore.Builder builder = EmployeeStore.builder();
+        Random random = new Random(42);
+        company.put(1, new Employee(1, "Joe", "Doe", 500000, null));
+        builder.add(1, "Joe", "Doe", 500000, false, 0);
+        for (int id = 2; id <= 20_000; id++) {
+            int managerId = 1 + random.nextInt(Math.min(id - 1, 3000));
+            int salary = 30000 + random.nextInt(70000);
+            Employee employee = new Employee(id, "Joe", "Doe", salary, managerId);
+            company.put(id, employee);
+            company.get(managerId).subordinates().add(employee);
+            builder.add(id, "Joe", "Doe", salary, true, managerId);
+        }
+        EmployeeStore store = builder.build();
+
+        String sequentialMap = analyze(new EmployeeAnalyzerImpl(printWriter, 1), company);
+        String sequentialStore = analyze(new EmployeeAnalyzerImpl(printWriter, 1), store);
+        for (int parallelism : new int[]{2, 8}) {
+            assertEquals(sequentialMap, analyze(new EmployeeAnalyzerImpl(printWriter, parallelism), company));
+            assertEquals(sequentialStore, analyze(new EmployeeAnalyzerImpl(printWriter, parallelism), store));
+        }
+        assertTrue(sequentialMap.contains("Find below Employees with reporting line more by"));
+    }
+
+    private String analyze(EmployeeAnalyzer analyzer, Map<Integer, Employee> company) {
+        outputStreamCaptor.reset();
+        analyzer.analyzeEmployees(company);
+        return outputStreamCaptor.toString();
+    }
+
+    private String analyze(EmployeeAnalyzer analyzer, EmployeeStore store) {
+        outputStreamCaptor.reset();
+        analyzer.analyzeEmployees(store);
+        return outputStreamCaptor.toString();
+    }
+
     private Map<Integer, Employee> getEmployeesMap() {
         if (employees == null) {
             employees = new HashMap<>();
@@ -130,4 +214,25 @@ public class EmployeeAnalyzerTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    private static final class CountingWriter extends Writer {
+        private long lines;
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                if (buffer[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
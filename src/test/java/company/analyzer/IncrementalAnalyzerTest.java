@@ -0,0 +1,171 @@
+package company.analyzer;
+
+import org.company.analyzer.EmployeeAnalyzerImpl;
+import org.company.analyzer.IncrementalAnalyzer;
+import org.company.analyzer.ThresholdPolicy;
+import org.company.finding.Finding;
+import org.company.finding.FindingChanges;
+import org.company.finding.OverpaidFinding;
+import org.company.finding.ReportingLineTooLongFinding;
+import org.company.finding.UnderpaidFinding;
+import org.company.metrics.PipelineMetrics;
+import org.company.model.EmployeeDelta;
+import org.company.model.EmployeeStore;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalAnalyzerTest {
+
+    private static final Comparator<Finding> FINDING_ORDER = Comparator.comparingInt(Finding::employeeId)
+            .thenComparing(finding -> finding.getClass().getSimpleName());
+
+    @Test
+    void initialFindingsMatchFullAnalysis() {
+        EmployeeStore store = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile("src/test/resources/company.csv");
+
+        assertEquals(analyze(store), IncrementalAnalyzer.of(store).findings());
+    }
+
+    @Test
+    void initialFindingsFollowThePolicy() {
+        EmployeeStore store = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile("src/test/resources/company.csv");
+        ThresholdPolicy policy = new ThresholdPolicy(1.1, 1.3, 2);
+
+        assertEquals(analyze(store, policy), IncrementalAnalyzer.of(store, policy).findings());
+    }
+
+    @Test
+    void salaryChangeOnlyReportsChangedFindings() {
+        IncrementalAnalyzer analyzer = IncrementalAnalyzer.of(
+                new EmployeeCSVReaderImpl().readEmployeeStoreFromFile("src/test/resources/company.csv"));
+
+        FindingChanges changes = analyzer.apply(List.of(EmployeeDelta.upsert(312, "Denis", "How", 15000, 311)));
+
+        assertEquals(List.of(new UnderpaidFinding(311, "Anthony", "Brown", 100000, 468000.0),
+                new OverpaidFinding(312, "Denis", "How", 390000, 15000.0)), changes.removed());
+        assertEquals(List.of(new OverpaidFinding(311, "Anthony", "Brown", 100000, 22500.0)), changes.added());
+    }
+
+    @Test
+    void movingSubtreeUpdatesReportingLines() {
+        IncrementalAnalyzer analyzer = IncrementalAnalyzer.of(
+                new EmployeeCSVReaderImpl().readEmployeeStoreFromFile("src/test/resources/company.csv"));
+
+        FindingChanges changes = analyzer.apply(List.of(EmployeeDelta.upsert(310, "Anna", "Smith", 100000, 123)));
+
+        assertTrue(changes.removed().contains(new ReportingLineTooLongFinding(312, "Denis", "How", 311, 5, 1)));
+        assertTrue(changes.removed().contains(new ReportingLineTooLongFinding(313, "Brad", "Smith", 312, 6, 2)));
+        assertTrue(changes.added().stream().noneMatch(ReportingLineTooLongFinding.class::isInstance));
+    }
+
+    @Test
+    void deletingManagerDropsFindingsOfItsSubtree() {
+        IncrementalAnalyzer analyzer = IncrementalAnalyzer.of(
+                new EmployeeCSVReaderImpl().readEmployeeStoreFromFile("src/test/resources/company.csv"));
+
+        FindingChanges changes = analyzer.apply(List.of(EmployeeDelta.delete(309)));
+
+        assertTrue(changes.added().isEmpty() || changes.added().stream().allMatch(f -> f.employeeId() == 124));
+        assertTrue(changes.removed().stream().anyMatch(f -> f.employeeId() == 313));
+        assertTrue(analyzer.findings().stream().noneMatch(f -> f.employeeId() >= 309));
+
+        FindingChanges rehired = analyzer.apply(List.of(EmployeeDelta.upsert(309, "John", "Smith", 100000, 124)));
+        assertTrue(rehired.added().stream().anyMatch(f -> f.employeeId() == 313));
+    }
+
+    @Test
+    void randomDeltasMatchFullAnalysis() {
+        Random random = new Random(7);
+        Map<Integer, EmployeeDelta> rows = new LinkedHashMap<>();
+        rows.put(0, EmployeeDelta.upsert(0, "Ceo", "Boss", 200000, null));
+        for (int id = 1; id < 400; id++) {
+            rows.put(id, randomRow(random, id, id));
+        }
+        IncrementalAnalyzer analyzer = IncrementalAnalyzer.of(toStore(rows));
+        List<Finding> previous = analyzer.findings();
+        int nextId = 400;
+
+        for (int round = 0; round < 200; round++) {
+            List<EmployeeDelta> deltas = new ArrayList<>();
+            for (int change = random.nextInt(6); change >= 0; change--) {
+                int choice = random.nextInt(10);
+                if (choice < 2) {
+                    int id = nextId++;
+                    deltas.add(randomRow(random, id, id));
+                } else if (choice < 4) {
+                    deltas.add(EmployeeDelta.delete(random.nextInt(nextId)));
+                } else {
+                    deltas.add(randomRow(random, random.nextInt(nextId), nextId));
+                }
+            }
+            for (EmployeeDelta delta : deltas) {
+                if (delta.operation() == EmployeeDelta.Operation.DELETE) {
+                    rows.remove(delta.id());
+                } else {
+                    rows.put(delta.id(), delta);
+                }
+            }
+
+            FindingChanges changes = analyzer.apply(deltas);
+            List<Finding> expected = analyze(toStore(rows));
+            assertEquals(expected, analyzer.findings(), "round " + round);
+            assertEquals(difference(expected, previous), new HashSet<>(changes.added()), "round " + round);
+            assertEquals(difference(previous, expected), new HashSet<>(changes.removed()), "round " + round);
+            previous = expected;
+        }
+    }
+
+    private static EmployeeDelta randomRow(Random random, int id, int idLimit) {
+        Integer managerId;
+        int kind = random.nextInt(50);
+        if (kind == 0) {
+            managerId = null;
+        } else if (kind == 1) {
+            managerId = id;
+        } else {
+            managerId = random.nextInt(Math.max(1, Math.min(idLimit + 5, 1000)));
+        }
+        if (id == 0) {
+            managerId = null;
+        }
+        return EmployeeDelta.upsert(id, random.nextBoolean() ? "Anna" : "Bob", "Doe",
+                30000 + random.nextInt(30) * 1000, managerId);
+    }
+
+    private static EmployeeStore toStore(Map<Integer, EmployeeDelta> rows) {
+        EmployeeStore.Builder builder = EmployeeStore.builder();
+        for (EmployeeDelta row : rows.values()) {
+            builder.add(row.id(), row.firstName(), row.lastName(), row.salary(), row.managerId() != null,
+                    row.managerId() == null ? 0 : row.managerId());
+        }
+        return builder.build();
+    }
+
+    private static List<Finding> analyze(EmployeeStore store) {
+        return analyze(store, ThresholdPolicy.DEFAULT);
+    }
+
+    private static List<Finding> analyze(EmployeeStore store, ThresholdPolicy policy) {
+        List<Finding> findings = new ArrayList<>();
+        new EmployeeAnalyzerImpl(findings::add, 1, PipelineMetrics.disabled(), policy).analyzeEmployees(store);
+        findings.sort(FINDING_ORDER);
+        return findings;
+    }
+
+    private static Set<Finding> difference(List<Finding> findings, List<Finding> removed) {
+        Set<Finding> difference = new HashSet<>(findings);
+        removed.forEach(difference::remove);
+        return difference;
+    }
+}
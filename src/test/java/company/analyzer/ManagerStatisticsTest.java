@@ -0,0 +1,48 @@
+package company.analyzer;
+
+import org.company.analyzer.EmployeeAnalyzerImpl;
+import org.company.analyzer.ManagerStatistics;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ManagerStatisticsTest {
+
+    private final ManagerStatistics statistics = new EmployeeAnalyzerImpl(new PrintWriter(Writer.nullWriter()))
+            .calculateStatistics(new EmployeeCSVReaderImpl().readEmployeeStoreFromFile("src/test/resources/company.csv"));
+
+    @Test
+    void directStatisticsOfManager() {
+        int manager = statistics.employees().indexOf(123);
+
+        assertEquals(2, statistics.directReports(manager));
+        assertEquals(92000, statistics.directSalarySum(manager));
+        assertEquals(45000, statistics.minDirectSalary(manager));
+        assertEquals(47000, statistics.maxDirectSalary(manager));
+        assertEquals(46000.0, statistics.averageDirectSalary(manager));
+    }
+
+    @Test
+    void subtreeStatisticsOfCeo() {
+        int ceo = statistics.employees().ceo();
+
+        assertEquals(1, statistics.directReports(ceo));
+        assertEquals(10, statistics.subtreeHeadcount(ceo));
+        assertEquals(60000L + 45000 + 47000 + 50000 + 34000 + 100000 * 3 + 390000 + 10000, statistics.subtreePayroll(ceo));
+    }
+
+    @Test
+    void employeeWithoutSubordinatesHasEmptyStatistics() {
+        int employee = statistics.employees().indexOf(313);
+
+        assertEquals(0, statistics.directReports(employee));
+        assertEquals(0, statistics.minDirectSalary(employee));
+        assertEquals(0.0, statistics.averageDirectSalary(employee));
+        assertEquals(0, statistics.subtreeHeadcount(employee));
+        assertEquals(0, statistics.subtreePayroll(employee));
+    }
+}
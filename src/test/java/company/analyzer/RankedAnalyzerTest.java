@@ -0,0 +1,126 @@
+package company.analyzer;
+
+import org.company.analyzer.EmployeeAnalyzerImpl;
+import org.company.analyzer.RankedAnalysis;
+import org.company.analyzer.RankedAnalyzer;
+import org.company.analyzer.SalaryRatioHistogram;
+import org.company.analyzer.ThresholdPolicy;
+import org.company.finding.Finding;
+import org.company.finding.OverpaidFinding;
+import org.company.finding.ReportingLineTooLongFinding;
+import org.company.finding.UnderpaidFinding;
+import org.company.generator.OrgChartGenerator;
+import org.company.metrics.PipelineMetrics;
+import org.company.model.EmployeeStore;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RankedAnalyzerTest {
+
+    @Test
+    void keepsTheWorstFindingsOfEveryKind() {
+        EmployeeStore employees = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile("src/test/resources/company.csv");
+
+        RankedAnalysis ranked = new RankedAnalyzer(2).analyze(employees);
+
+        assertEquals(List.of(311, 124), ranked.mostUnderpaid().stream().map(Finding::employeeId).toList());
+        assertEquals(368000.0, ranked.mostUnderpaid().get(0).amount());
+        assertEquals(List.of(312), ranked.mostOverpaid().stream().map(Finding::employeeId).toList());
+        assertEquals(List.of(313, 312), ranked.deepestReportingLines().stream().map(Finding::employeeId).toList());
+        assertEquals(2, ranked.deepestReportingLines().get(0).excess());
+        assertEquals(8, ranked.salaryRatios().count());
+    }
+
+    @Test
+    void findingsFollowThePolicy() {
+        EmployeeStore employees = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile("src/test/resources/company.csv");
+        ThresholdPolicy policy = new ThresholdPolicy(1.1, 1.3, 2);
+        List<Finding> all = new ArrayList<>();
+        new EmployeeAnalyzerImpl(all::add, 1, PipelineMetrics.disabled(), policy).analyzeEmployees(employees);
+
+        RankedAnalysis ranked = new RankedAnalyzer(100, policy, PipelineMetrics.disabled()).analyze(employees);
+
+        assertEquals(all.size(), ranked.mostUnderpaid().size() + ranked.mostOverpaid().size()
+                + ranked.deepestReportingLines().size());
+        assertTrue(all.containsAll(ranked.mostUnderpaid()));
+        assertTrue(all.containsAll(ranked.mostOverpaid()));
+        assertTrue(all.containsAll(ranked.deepestReportingLines()));
+    }
+
+    @Test
+    void rankingMatchesSortedFullAnalysis(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("generated.csv");
+        OrgChartGenerator.builder().headcount(20_000).seed(7).maxDepth(9)
+                .underpaidRate(0.2).overpaidRate(0.2).longReportingLineRate(0.2).build().generate(file);
+        EmployeeStore employees = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile(file.toString());
+        List<Finding> all = new ArrayList<>();
+        new EmployeeAnalyzerImpl(all::add, 1).analyzeEmployees(employees);
+
+        RankedAnalysis ranked = new RankedAnalyzer(50).analyze(employees);
+
+        assertEquals(topIds(all, UnderpaidFinding.class, Comparator.comparingDouble(UnderpaidFinding::amount), employees),
+                ranked.mostUnderpaid().stream().map(Finding::employeeId).toList());
+        assertEquals(topIds(all, OverpaidFinding.class, Comparator.comparingDouble(OverpaidFinding::amount), employees),
+                ranked.mostOverpaid().stream().map(Finding::employeeId).toList());
+        assertEquals(topIds(all, ReportingLineTooLongFinding.class,
+                        Comparator.comparingInt(ReportingLineTooLongFinding::reportingLineDepth), employees),
+                ranked.deepestReportingLines().stream().map(Finding::employeeId).toList());
+        assertEquals(50, ranked.mostUnderpaid().size());
+        assertTrue(all.containsAll(ranked.mostOverpaid()));
+        assertTrue(all.containsAll(ranked.deepestReportingLines()));
+    }
+
+    @Test
+    void percentilesAreWithinHalfABucket(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("generated.csv");
+        OrgChartGenerator.builder().headcount(5_000).seed(3).build().generate(file);
+        EmployeeStore employees = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile(file.toString());
+        List<Double> exact = new ArrayList<>();
+        var statistics = new EmployeeAnalyzerImpl(finding -> {
+        }, 1).calculateStatistics(employees);
+        for (int index = 0; index < employees.size(); index++) {
+            if (employees.hasSubordinates(index)) {
+                exact.add(employees.salary(index) / statistics.averageDirectSalary(index));
+            }
+        }
+        exact.sort(null);
+
+        SalaryRatioHistogram ratios = new RankedAnalyzer(1).analyze(employees).salaryRatios();
+
+        assertEquals(exact.size(), ratios.count());
+        assertEquals(exact.get(0), ratios.min());
+        assertEquals(exact.get(exact.size() - 1), ratios.max());
+        for (double percentile : new double[]{1, 25, 50, 90, 99, 100}) {
+            double expected = exact.get((int) Math.ceil(percentile / 100 * exact.size()) - 1);
+            assertEquals(expected, ratios.percentile(percentile), SalaryRatioHistogram.BUCKET_WIDTH / 2 + 1e-9,
+                    "p" + percentile);
+        }
+        assertThrows(IllegalArgumentException.class, () -> ratios.percentile(101));
+    }
+
+    @Test
+    void whenLimitIsNotPositiveThenException() {
+        assertThrows(IllegalArgumentException.class, () -> new RankedAnalyzer(0));
+    }
+
+    /**
+     * Ids of the findings of one kind by descending key, equal keys in file order.
+     */
+    private static <T extends Finding> List<Integer> topIds(List<Finding> all, Class<T> kind, Comparator<T> key,
+                                                            EmployeeStore employees) {
+        return all.stream().filter(kind::isInstance).map(kind::cast)
+                .sorted(key.reversed().thenComparingInt(finding -> employees.indexOf(finding.employeeId())))
+                .limit(50)
+                .map(Finding::employeeId)
+                .toList();
+    }
+}
@@ -0,0 +1,106 @@
+package company.analyzer;
+
+import org.company.analyzer.EmployeeAnalyzerImpl;
+import org.company.analyzer.ManagerStatistics;
+import org.company.analyzer.SalaryBands;
+import org.company.analyzer.SalaryKernel;
+import org.company.analyzer.ThresholdPolicy;
+import org.company.generator.OrgChartGenerator;
+import org.company.model.EmployeeStore;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.company.report.CountingFindingSink;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SalaryBandsTest {
+
+    private static final List<ThresholdPolicy> POLICIES = List.of(ThresholdPolicy.DEFAULT,
+            new ThresholdPolicy(1.1, 1.4, 3), new ThresholdPolicy(1.0, 1.0, 0), new ThresholdPolicy(0, 0, 0));
+
+    @Test
+    void bandsOfCompany() {
+        EmployeeStore employees = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile("src/test/resources/company.csv");
+
+        SalaryBands bands = SalaryBands.of(employees, ThresholdPolicy.DEFAULT, SalaryKernel.preferred());
+
+        assertEquals(5, bands.underpaidCount());
+        assertEquals(1, bands.overpaidCount());
+        assertTrue(bands.isUnderpaid(employees.indexOf(124)));
+        assertTrue(bands.isOverpaid(employees.indexOf(312)));
+        assertFalse(bands.isUnderpaid(employees.indexOf(313)));
+        assertEquals(46000.0, bands.averageDirectSalary(employees.indexOf(123)));
+    }
+
+    @Test
+    void preferredKernelMatchesScalarKernel(@TempDir Path tempDir) throws IOException {
+        for (int fanOut : new int[]{3, 40, 1000}) {
+            Path file = tempDir.resolve("fan-out-" + fanOut + ".csv");
+            OrgChartGenerator.builder().headcount(30_000).seed(fanOut).fanOut(1, fanOut)
+                    .underpaidRate(0.1).overpaidRate(0.1).build().generate(file);
+            EmployeeStore employees = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile(file.toString());
+            for (ThresholdPolicy policy : POLICIES) {
+                assertSameBands(employees, policy);
+            }
+        }
+    }
+
+    @Test
+    void largeTeamsDoNotOverflow() {
+        EmployeeStore.Builder builder = EmployeeStore.builder();
+        builder.add(1, "Ceo", "Big", Integer.MAX_VALUE, false, 0);
+        Random random = new Random(1);
+        for (int id = 2; id < 1000; id++) {
+            builder.add(id, "Employee", "Rich", Integer.MAX_VALUE - random.nextInt(1000), true, 1);
+        }
+        EmployeeStore employees = builder.build();
+
+        SalaryBands bands = SalaryBands.of(employees, ThresholdPolicy.DEFAULT, SalaryKernel.preferred());
+
+        assertEquals(ManagerStatistics.of(employees).directSalarySum(0), bands.directSalarySum(0));
+        assertTrue(bands.isUnderpaid(0));
+        assertSameBands(employees, ThresholdPolicy.DEFAULT);
+    }
+
+    @Test
+    void analysisMatchesStatistics(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("generated.csv");
+        OrgChartGenerator.builder().headcount(20_000).seed(4).underpaidRate(0.2).overpaidRate(0.2).build().generate(file);
+        EmployeeStore employees = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile(file.toString());
+        ManagerStatistics statistics = ManagerStatistics.of(employees);
+        long underpaid = 0;
+        long overpaid = 0;
+        for (int index = 0; index < employees.size(); index++) {
+            if (statistics.directReports(index) > 0) {
+                double averageSalary = statistics.averageDirectSalary(index);
+                underpaid += employees.salary(index) < 1.2 * averageSalary ? 1 : 0;
+                overpaid += employees.salary(index) > 1.5 * averageSalary ? 1 : 0;
+            }
+        }
+        CountingFindingSink counts = new CountingFindingSink();
+
+        new EmployeeAnalyzerImpl(counts, 1).analyzeEmployees(employees);
+
+        assertEquals(underpaid, counts.underpaid());
+        assertEquals(overpaid, counts.overpaid());
+    }
+
+    private static void assertSameBands(EmployeeStore employees, ThresholdPolicy policy) {
+        SalaryBands scalar = SalaryBands.of(employees, policy, SalaryKernel.scalar());
+        SalaryBands preferred = SalaryBands.of(employees, policy, SalaryKernel.preferred());
+        String kernel = SalaryKernel.preferred().name() + " " + policy;
+        for (int index = 0; index < employees.size(); index++) {
+            assertEquals(scalar.directSalarySum(index), preferred.directSalarySum(index), kernel);
+            assertEquals(Double.doubleToLongBits(scalar.averageDirectSalary(index)),
+                    Double.doubleToLongBits(preferred.averageDirectSalary(index)), kernel);
+            assertEquals(scalar.isUnderpaid(index), preferred.isUnderpaid(index), kernel + " at " + index);
+            assertEquals(scalar.isOverpaid(index), preferred.isOverpaid(index), kernel + " at " + index);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package company.analyzer;
+
+import org.company.analyzer.EmployeeAnalyzerImpl;
+import org.company.analyzer.ScenarioAnalyzer;
+import org.company.analyzer.ScenarioSummary;
+import org.company.analyzer.ThresholdPolicy;
+import org.company.finding.OverpaidFinding;
+import org.company.finding.ReportingLineTooLongFinding;
+import org.company.finding.UnderpaidFinding;
+import org.company.generator.OrgChartGenerator;
+import org.company.metrics.PipelineMetrics;
+import org.company.model.EmployeeStore;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.company.report.CountingFindingSink;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScenarioAnalyzerTest {
+
+    @Test
+    void defaultPolicyMatchesTheAnalysis() {
+        EmployeeStore employees = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile("src/test/resources/company.csv");
+
+        List<ScenarioSummary> summaries = new ScenarioAnalyzer().analyze(employees, List.of(ThresholdPolicy.DEFAULT));
+
+        ScenarioSummary summary = summaries.get(0);
+        assertEquals(ThresholdPolicy.DEFAULT, summary.policy());
+        assertEquals(5, summary.underpaid());
+        assertEquals(1, summary.overpaid());
+        assertEquals(2, summary.reportingLineTooLong());
+        assertEquals(8, summary.findings());
+        assertEquals(375000.0, summary.overpaidAmount(), 1e-6);
+    }
+
+    @Test
+    void everyPolicyMatchesItsOwnAnalysis(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("generated.csv");
+        OrgChartGenerator.builder().headcount(20_000).seed(11).maxDepth(9)
+                .underpaidRate(0.1).overpaidRate(0.1).longReportingLineRate(0.1).build().generate(file);
+        EmployeeStore employees = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile(file.toString());
+        Random random = new Random(5);
+        List<ThresholdPolicy> policies = new ArrayList<>();
+        policies.add(ThresholdPolicy.DEFAULT);
+        policies.add(ThresholdPolicy.DEFAULT);
+        policies.add(new ThresholdPolicy(0, 0, 0));
+        for (int i = 0; i < 40; i++) {
+            double min = 0.8 + random.nextInt(60) / 100.0;
+            policies.add(new ThresholdPolicy(min, min + random.nextInt(60) / 100.0, random.nextInt(10)));
+        }
+
+        List<ScenarioSummary> summaries = new ScenarioAnalyzer().analyze(employees, policies);
+
+        assertEquals(policies.size(), summaries.size());
+        for (int i = 0; i < policies.size(); i++) {
+            ThresholdPolicy policy = policies.get(i);
+            CountingFindingSink counts = new CountingFindingSink();
+            double[] amounts = new double[2];
+            new EmployeeAnalyzerImpl(finding -> {
+                counts.accept(finding);
+                if (finding instanceof UnderpaidFinding underpaid) {
+                    amounts[0] += underpaid.amount();
+                } else if (finding instanceof OverpaidFinding overpaid) {
+                    amounts[1] += overpaid.amount();
+                }
+            }, 1, PipelineMetrics.disabled(), policy).analyzeEmployees(employees);
+
+            ScenarioSummary summary = summaries.get(i);
+            assertEquals(policy, summary.policy());
+            assertEquals(counts.underpaid(), summary.underpaid(), policy.toString());
+            assertEquals(counts.overpaid(), summary.overpaid(), policy.toString());
+            assertEquals(counts.reportingLineTooLong(), summary.reportingLineTooLong(), policy.toString());
+            assertEquals(amounts[0], summary.underpaidAmount(), 1e-6 * Math.max(1, amounts[0]), policy.toString());
+            assertEquals(amounts[1], summary.overpaidAmount(), 1e-6 * Math.max(1, amounts[1]), policy.toString());
+        }
+    }
+
+    @Test
+    void analyzerReportsFindingsOfItsPolicy() {
+        EmployeeStore employees = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile("src/test/resources/company.csv");
+        List<ReportingLineTooLongFinding> findings = new ArrayList<>();
+
+        new EmployeeAnalyzerImpl(finding -> {
+            if (finding instanceof ReportingLineTooLongFinding reportingLine) {
+                findings.add(reportingLine);
+            }
+        }, 1, PipelineMetrics.disabled(), ThresholdPolicy.parse("1.1-1.4:3")).analyzeEmployees(employees);
+
+        assertEquals(3, findings.size());
+        assertTrue(findings.stream().allMatch(finding -> finding.excess() == finding.reportingLineDepth() - 3));
+    }
+
+    @Test
+    void parsePolicy() {
+        assertEquals(new ThresholdPolicy(1.1, 1.4, 3), ThresholdPolicy.parse("1.1-1.4:3"));
+        assertEquals(ThresholdPolicy.DEFAULT, ThresholdPolicy.parse(ThresholdPolicy.DEFAULT.toString()));
+        assertThrows(IllegalArgumentException.class, () -> ThresholdPolicy.parse("1.1:3"));
+        assertThrows(IllegalArgumentException.class, () -> ThresholdPolicy.parse("1.1-x:3"));
+        assertThrows(IllegalArgumentException.class, () -> ThresholdPolicy.parse("1.5-1.2:3"));
+        assertThrows(IllegalArgumentException.class, () -> ThresholdPolicy.parse("1.2-1.5:-1"));
+    }
+
+    @Test
+    void noPoliciesGiveNoSummaries() {
+        EmployeeStore employees = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile("src/test/resources/company.csv");
+
+        assertTrue(new ScenarioAnalyzer().analyze(employees, List.of()).isEmpty());
+    }
+}
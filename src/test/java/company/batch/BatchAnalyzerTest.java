@@ -0,0 +1,169 @@
+package company.batch;
+
+import org.company.analyzer.EmployeeAnalyzerImpl;
+import org.company.batch.BatchAnalyzer;
+import org.company.batch.BatchSummary;
+import org.company.batch.FileReport;
+import org.company.metrics.PipelineMetrics;
+import org.company.metrics.PipelineStage;
+import org.company.model.Employee;
+import org.company.model.EmployeeStore;
+import org.company.reader.CsvReadResult;
+import org.company.reader.EmployeeCSVReader;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchAnalyzerTest {
+
+    @Test
+    void everyFileGetsItsOwnReportAndFailuresStayIsolated(@TempDir Path tempDir) throws IOException {
+        Path input = Files.createDirectory(tempDir.resolve("input"));
+        copy("company.csv", input);
+        copy("bigCompany.csv", input);
+        copy("invalid.csv", input);
+        copy("empty.csv", input);
+        Path output = tempDir.resolve("reports");
+
+        List<Path> files = BatchAnalyzer.resolveInputs(input.toString());
+        BatchSummary summary = BatchAnalyzer.builder().outputDirectory(output).maxConcurrentParses(2).build()
+                .analyze(files);
+
+        assertEquals(List.of("bigCompany.csv", "company.csv", "empty.csv", "invalid.csv"),
+                summary.files().stream().map(file -> file.file().getFileName().toString()).toList());
+        assertEquals(2, summary.succeeded());
+        assertEquals(2, summary.failed());
+        FileReport company = summary.files().get(1);
+        assertEquals(11, company.employees());
+        assertEquals(8, company.findings());
+        assertEquals(singleRun("company.csv"), Files.readString(output.resolve("company.txt")));
+        assertEquals(singleRun("bigCompany.csv"), Files.readString(output.resolve("bigCompany.txt")));
+        assertTrue(summary.files().get(2).error().startsWith("CSV file does not contain any data"));
+        assertFalse(Files.exists(output.resolve("invalid.txt")));
+
+        List<String> summaryLines = Files.readAllLines(output.resolve("summary.csv"));
+        assertEquals(6, summaryLines.size());
+        assertTrue(summaryLines.get(2).startsWith(files.get(1) + ",OK,11,5,1,2,"));
+        assertTrue(summaryLines.get(5).startsWith("TOTAL,FAILED,1011,"));
+    }
+
+    @Test
+    void invalidRowsAreSkippedAndMetricsCollectedWhenConfigured(@TempDir Path tempDir) throws IOException {
+        Path input = Files.createDirectory(tempDir.resolve("input"));
+        copy("company.csv", input);
+        copy("duplicateIds.csv", input);
+        PipelineMetrics metrics = PipelineMetrics.enabled();
+
+        BatchSummary summary = BatchAnalyzer.builder().outputDirectory(tempDir.resolve("reports"))
+                .skipInvalidRows(true).metrics(metrics).build()
+                .analyze(BatchAnalyzer.resolveInputs(input.toString()));
+
+        assertEquals(2, summary.succeeded());
+        assertEquals(2, metrics.calls(PipelineStage.ANALYZE));
+        assertEquals(summary.findings(), metrics.underpaid() + metrics.overpaid() + metrics.reportingLineTooLong());
+    }
+
+    @Test
+    void concurrentParsesAreBounded(@TempDir Path tempDir) throws IOException {
+        Path input = Files.createDirectory(tempDir.resolve("input"));
+        for (int i = 0; i < 12; i++) {
+            Files.copy(Path.of("src/test/resources/company.csv"), input.resolve("company" + i + ".csv"));
+        }
+        AtomicInteger parsing = new AtomicInteger();
+        AtomicInteger maxParsing = new AtomicInteger();
+
+        BatchSummary summary = BatchAnalyzer.builder()
+                .readerFactory(() -> new SlowReader(parsing, maxParsing))
+                .outputDirectory(tempDir.resolve("reports"))
+                .maxConcurrentParses(3)
+                .platformThreads(8)
+                .build()
+                .analyze(BatchAnalyzer.resolveInputs(input.toString()));
+
+        assertEquals(12, summary.succeeded());
+        assertTrue(maxParsing.get() <= 3, "at most 3 parses at once but saw " + maxParsing.get());
+    }
+
+    @Test
+    void globsMatchNestedFilesAndClashingNamesGetDistinctReports(@TempDir Path tempDir) throws IOException {
+        Path north = Files.createDirectories(tempDir.resolve("data/north"));
+        Path south = Files.createDirectories(tempDir.resolve("data/south"));
+        copy("company.csv", north);
+        copy("company.csv", south);
+        Files.writeString(south.resolve("notes.txt"), "not a csv");
+
+        List<Path> files = BatchAnalyzer.resolveInputs(tempDir.resolve("data") + "/**.csv");
+        BatchSummary summary = BatchAnalyzer.builder().outputDirectory(tempDir.resolve("reports")).build().analyze(files);
+
+        assertEquals(List.of(north.resolve("company.csv"), south.resolve("company.csv")), files);
+        assertEquals(List.of(tempDir.resolve("reports/company.txt"), tempDir.resolve("reports/south_company.txt")),
+                summary.files().stream().map(FileReport::report).toList());
+    }
+
+    @Test
+    void summaryQuotesFieldsWithCommas() {
+        StringWriter out = new StringWriter();
+        new BatchSummary(List.of(new FileReport(Path.of("a.csv"), null, 0, 0, 0, 0, 0, "Invalid name = a,b")), 0)
+                .write(new PrintWriter(out));
+
+        assertTrue(out.toString().contains("a.csv,FAILED,0,0,0,0,0,\"Invalid name = a,b\""));
+    }
+
+    private static String singleRun(String resource) {
+        StringWriter out = new StringWriter();
+        PrintWriter writer = new PrintWriter(out);
+        new EmployeeAnalyzerImpl(writer).analyzeEmployees(
+                new EmployeeCSVReaderImpl().readEmployeeStoreFromFile("src/test/resources/" + resource));
+        return out.toString();
+    }
+
+    private static void copy(String resource, Path directory) throws IOException {
+        Files.copy(Path.of("src/test/resources", resource), directory.resolve(resource));
+    }
+
+    private static final class SlowReader implements EmployeeCSVReader {
+        private final EmployeeCSVReader delegate = new EmployeeCSVReaderImpl();
+        private final AtomicInteger parsing;
+        private final AtomicInteger maxParsing;
+
+        private SlowReader(AtomicInteger parsing, AtomicInteger maxParsing) {
+            this.parsing = parsing;
+            this.maxParsing = maxParsing;
+        }
+
+        @Override
+        public Map<Integer, Employee> readEmployeesDataFromFile(String csvFile) {
+            return delegate.readEmployeesDataFromFile(csvFile);
+        }
+
+        @Override
+        public EmployeeStore readEmployeeStoreFromFile(String csvFile) {
+            maxParsing.accumulateAndGet(parsing.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+                return delegate.readEmployeeStoreFromFile(csvFile);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                parsing.decrementAndGet();
+            }
+        }
+
+        @Override
+        public CsvReadResult readEmployeeStoreLeniently(String csvFile, int maxReportedErrors) {
+            return delegate.readEmployeeStoreLeniently(csvFile, maxReportedErrors);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package company.batch;
+
+import org.company.batch.BatchAnalyzer;
+import org.company.batch.DirectoryWatcher;
+import org.company.batch.FileReport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DirectoryWatcherTest {
+
+    private static final Duration QUIET_PERIOD = Duration.ofSeconds(1);
+    private static final long QUIET_NANOS = QUIET_PERIOD.toNanos();
+    private static final String COMPANY = "src/test/resources/company.csv";
+
+    @Test
+    void onlyChangedContentIsAnalyzedAgain(@TempDir Path tempDir) throws Exception {
+        Path input = Files.createDirectory(tempDir.resolve("input"));
+        Path output = tempDir.resolve("reports");
+        Path file = Files.copy(Path.of(COMPANY), input.resolve("company.csv"));
+        AtomicLong clock = new AtomicLong();
+        List<FileReport> reports = new ArrayList<>();
+
+        try (DirectoryWatcher watcher = new DirectoryWatcher(input,
+                BatchAnalyzer.builder().outputDirectory(output).build(), QUIET_PERIOD, reports::add, clock::get)) {
+            watcher.scan();
+            assertEquals(1, watcher.analyzeQuietFiles());
+            FileReport initial = reports.get(0);
+            assertEquals(file, initial.file());
+            assertEquals(11, initial.employees());
+            assertEquals(8, initial.findings());
+            assertTrue(Files.exists(output.resolve("company.txt")));
+
+            Files.copy(Path.of(COMPANY), file, StandardCopyOption.REPLACE_EXISTING);
+            watcher.fileChanged(file);
+            clock.addAndGet(QUIET_NANOS);
+            assertEquals(0, watcher.analyzeQuietFiles());
+
+            String content = Files.readString(file);
+            String withoutLastRow = content.substring(0, content.stripTrailing().lastIndexOf('\n') + 1);
+            for (int i = 0; i < 4; i++) {
+                Files.writeString(file, i % 2 == 0 ? content : withoutLastRow);
+                watcher.fileChanged(file);
+                clock.addAndGet(QUIET_NANOS - 1);
+                assertEquals(0, watcher.analyzeQuietFiles());
+            }
+            clock.incrementAndGet();
+            assertEquals(1, watcher.analyzeQuietFiles());
+            assertEquals(10, reports.get(1).employees());
+
+            watcher.scan();
+            assertEquals(0, watcher.analyzeQuietFiles());
+            assertEquals(2, reports.size());
+        }
+    }
+
+    @Test
+    void newFilesAreAnalyzedAndFailuresReported(@TempDir Path tempDir) throws Exception {
+        Path input = Files.createDirectory(tempDir.resolve("input"));
+        AtomicLong clock = new AtomicLong();
+        List<FileReport> reports = new ArrayList<>();
+
+        try (DirectoryWatcher watcher = new DirectoryWatcher(input,
+                BatchAnalyzer.builder().outputDirectory(tempDir.resolve("reports")).build(), QUIET_PERIOD,
+                reports::add, clock::get)) {
+            watcher.fileChanged(Files.writeString(input.resolve("notes.txt"), "not a csv file"));
+            watcher.fileChanged(Files.copy(Path.of("src/test/resources/invalid.csv"), input.resolve("invalid.csv")));
+            clock.addAndGet(QUIET_NANOS);
+            assertEquals(1, watcher.analyzeQuietFiles());
+            assertFalse(reports.get(0).succeeded());
+
+            Files.delete(input.resolve("invalid.csv"));
+            watcher.fileChanged(input.resolve("invalid.csv"));
+            watcher.fileChanged(Files.copy(Path.of(COMPANY), input.resolve("company.csv")));
+            clock.addAndGet(QUIET_NANOS);
+            assertEquals(1, watcher.analyzeQuietFiles());
+            FileReport company = reports.get(1);
+            assertTrue(company.succeeded());
+            assertEquals(input.resolve("company.csv"), company.file());
+
+            watcher.scan();
+            assertEquals(0, watcher.analyzeQuietFiles());
+            assertEquals(2, reports.size());
+        }
+    }
+
+    @Test
+    void runAnalyzesChangesUntilClosed(@TempDir Path tempDir) throws Exception {
+        Path input = Files.createDirectory(tempDir.resolve("input"));
+        BlockingQueue<FileReport> reports = new LinkedBlockingQueue<>();
+
+        try (DirectoryWatcher watcher = new DirectoryWatcher(input,
+                BatchAnalyzer.builder().outputDirectory(tempDir.resolve("reports")).build(), Duration.ZERO,
+                reports::add)) {
+            Thread thread = start(watcher);
+
+            Path written = Files.copy(Path.of(COMPANY), tempDir.resolve("company.csv"));
+            Files.move(written, input.resolve("company.csv"), StandardCopyOption.ATOMIC_MOVE);
+            FileReport report = reports.poll(30, TimeUnit.SECONDS);
+            assertNotNull(report, "expected a report");
+            assertEquals(11, report.employees());
+
+            watcher.close();
+            thread.join(30_000);
+            assertFalse(thread.isAlive());
+        }
+    }
+
+    @Test
+    void whenDirectoryDoesNotExistThenException(@TempDir Path tempDir) {
+        assertThrows(IOException.class, () -> new DirectoryWatcher(tempDir.resolve("missing"),
+                BatchAnalyzer.builder().build(), QUIET_PERIOD, report -> {
+        }));
+    }
+
+    private static Thread start(DirectoryWatcher watcher) {
+        Thread thread = new Thread(() -> {
+            try {
+                watcher.run();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }, "directory-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+}
@@ -0,0 +1,160 @@
+package company.diff;
+
+import org.company.analyzer.EmployeeAnalyzerImpl;
+import org.company.analyzer.ThresholdPolicy;
+import org.company.diff.Departure;
+import org.company.diff.EmployeeChange;
+import org.company.diff.Hire;
+import org.company.diff.ManagerMove;
+import org.company.diff.OrgChartDiff;
+import org.company.diff.OrgChartDiffer;
+import org.company.diff.SalaryChange;
+import org.company.finding.Finding;
+import org.company.finding.OverpaidFinding;
+import org.company.finding.UnderpaidFinding;
+import org.company.generator.OrgChartGenerator;
+import org.company.metrics.PipelineMetrics;
+import org.company.model.EmployeeStore;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrgChartDifferTest {
+
+    private static final String HEADER = "Id,firstName,lastName,salary,managerId";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void sameExportHasNoChanges() {
+        EmployeeStore before = read("src/test/resources/bigCompany.csv");
+        EmployeeStore after = read("src/test/resources/bigCompany.csv");
+
+        OrgChartDiff diff = new OrgChartDiffer().diff(before, after);
+
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    void reportsEveryKindOfChangeInIdOrder() throws IOException {
+        Path newer = Files.writeString(tempDir.resolve("newer.csv"), String.join("\n", HEADER,
+                "120,Mike,Doe,60000,",
+                "123,Joe,Doe,60000,120",
+                "124,Martin,Chekov,45000,123",
+                "125,Bob,Ronstad,52000,123",
+                "300,Alice,Hasacat,50000,124",
+                "309,John,Smith,100000,124",
+                "310,Anna,Smith,100000,309",
+                "311,Anthony,Brown,100000,310",
+                "312,Denis,How,390000,311",
+                "313,Brad,Smith,10000,311",
+                "400,Zed,New,30000,120"));
+        EmployeeStore before = read("src/test/resources/company.csv");
+        EmployeeStore after = read(newer.toString());
+
+        OrgChartDiff diff = new OrgChartDiffer().diff(before, after);
+
+        assertEquals(List.<EmployeeChange>of(
+                new SalaryChange(125, "Bob", "Ronstad", 47000, 52000),
+                new Departure(305, "Brett", "Hardleaf", 34000, 300),
+                new ManagerMove(313, "Brad", "Smith", 312, 311),
+                new Hire(400, "Zed", "New", 30000, 120)), diff.changes());
+        assertEquals(1, diff.hires());
+        assertEquals(1, diff.departures());
+        assertEquals(1, diff.salaryChanges());
+        assertEquals(1, diff.managerMoves());
+        assertFindingsDelta(before, after, diff);
+        assertFalse(diff.findings().isEmpty());
+    }
+
+    @Test
+    void findingsDeltaMatchesTwoFullAnalyses() throws IOException {
+        Path older = tempDir.resolve("older.csv");
+        OrgChartGenerator.builder().headcount(20_000).seed(9).maxDepth(8)
+                .underpaidRate(0.05).overpaidRate(0.05).longReportingLineRate(0.05).build().generate(older);
+        List<String> rows = new ArrayList<>(Files.readAllLines(older));
+        rows.remove(0);
+        Random random = new Random(13);
+        List<String> changed = new ArrayList<>();
+        int hires = 0;
+        for (int row = 0; row < rows.size(); row++) {
+            String[] fields = rows.get(row).split(",", -1);
+            int roll = random.nextInt(100);
+            if (roll < 2 && row > 0) {
+                continue;
+            }
+            if (roll < 5) {
+                fields[3] = String.valueOf(Integer.parseInt(fields[3]) * (80 + random.nextInt(60)) / 100);
+            } else if (roll < 7 && row > 0) {
+                fields[4] = rows.get(random.nextInt(row)).split(",", -1)[0];
+            }
+            changed.add(String.join(",", fields));
+            if (roll == 99) {
+                changed.add((1_000_000 + hires++) + ",New,Hire,40000," + fields[0]);
+            }
+        }
+        Collections.shuffle(changed.subList(1, changed.size()), random);
+        changed.add(0, HEADER);
+        Path newer = Files.write(tempDir.resolve("newer.csv"), changed);
+        EmployeeStore before = read(older.toString());
+        EmployeeStore after = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile(newer.toString(), before);
+
+        OrgChartDiff diff = new OrgChartDiffer().diff(before, after);
+
+        assertEquals(hires, diff.hires());
+        assertTrue(diff.departures() > 0);
+        assertTrue(diff.salaryChanges() > 0);
+        assertTrue(diff.managerMoves() > 0);
+        List<Integer> ids = diff.changes().stream().map(EmployeeChange::employeeId).toList();
+        assertEquals(ids.stream().sorted().toList(), ids);
+        assertFindingsDelta(before, after, diff);
+        assertFalse(diff.findings().added().isEmpty());
+        assertFalse(diff.findings().removed().isEmpty());
+    }
+
+    @Test
+    void otherPolicyChangesTheFindingsDelta() {
+        EmployeeStore before = read("src/test/resources/company.csv");
+        EmployeeStore after = read("src/test/resources/bigCompany.csv");
+        ThresholdPolicy policy = new ThresholdPolicy(1.0, 1.1, 2);
+
+        OrgChartDiff diff = new OrgChartDiffer(policy, PipelineMetrics.disabled()).diff(before, after);
+
+        assertEquals(findings(after, policy).stream().filter(finding -> !findings(before, policy).contains(finding))
+                .toList(), diff.findings().added());
+    }
+
+    private static EmployeeStore read(String file) {
+        return new EmployeeCSVReaderImpl().readEmployeeStoreFromFile(file);
+    }
+
+    private static void assertFindingsDelta(EmployeeStore before, EmployeeStore after, OrgChartDiff diff) {
+        List<Finding> older = findings(before, ThresholdPolicy.DEFAULT);
+        List<Finding> newer = findings(after, ThresholdPolicy.DEFAULT);
+        assertEquals(newer.stream().filter(finding -> !older.contains(finding)).toList(), diff.findings().added());
+        assertEquals(older.stream().filter(finding -> !newer.contains(finding)).toList(), diff.findings().removed());
+    }
+
+    /**
+     * @return the findings of a full analysis, ordered by employee id like the findings delta
+     */
+    private static List<Finding> findings(EmployeeStore employees, ThresholdPolicy policy) {
+        List<Finding> findings = new ArrayList<>();
+        new EmployeeAnalyzerImpl(findings::add, 1, PipelineMetrics.disabled(), policy).analyzeEmployees(employees);
+        findings.sort(Comparator.comparingInt(Finding::employeeId).thenComparingInt(finding ->
+                finding instanceof UnderpaidFinding ? 0 : finding instanceof OverpaidFinding ? 1 : 2));
+        return findings;
+    }
+}
@@ -0,0 +1,184 @@
+package company.external;
+
+import org.company.analyzer.EmployeeAnalyzerImpl;
+import org.company.analyzer.ThresholdPolicy;
+import org.company.exception.InvalidCsvDataException;
+import org.company.external.ExternalAnalysis;
+import org.company.external.ExternalAnalyzer;
+import org.company.finding.Finding;
+import org.company.finding.OverpaidFinding;
+import org.company.finding.ReportingLineTooLongFinding;
+import org.company.finding.UnderpaidFinding;
+import org.company.generator.OrgChartGenerator;
+import org.company.metrics.PipelineMetrics;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExternalAnalyzerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void companyFileMatchesTheInMemoryAnalysis() throws IOException {
+        List<Finding> findings = new ArrayList<>();
+
+        ExternalAnalysis analysis = analyzer(1 << 20, ThresholdPolicy.DEFAULT)
+                .analyze("src/test/resources/company.csv", findings::add);
+
+        assertEquals(inMemoryFindings("src/test/resources/company.csv", ThresholdPolicy.DEFAULT), findings);
+        assertEquals(8, findings.size());
+        assertEquals(8, analysis.findings());
+        assertEquals(11, analysis.employees());
+        assertEquals(11, analysis.reachableEmployees());
+        assertEquals(0, analysis.runFiles());
+    }
+
+    @Test
+    void smallestBudgetSpillsAndStillMatches() throws IOException {
+        Path file = tempDir.resolve("generated.csv");
+        OrgChartGenerator.builder().headcount(20_000).seed(3).fanOut(1, 4).maxDepth(40)
+                .underpaidRate(0.1).overpaidRate(0.1).longReportingLineRate(0.1).build().generate(file);
+        List<Finding> findings = new ArrayList<>();
+
+        ExternalAnalysis analysis = analyzer(ExternalAnalyzer.MIN_MEMORY_BUDGET, ThresholdPolicy.DEFAULT)
+                .analyze(file.toString(), findings::add);
+
+        assertEquals(inMemoryFindings(file.toString(), ThresholdPolicy.DEFAULT), findings);
+        assertFalse(findings.isEmpty());
+        assertEquals(20_000, analysis.employees());
+        assertEquals(20_000, analysis.reachableEmployees());
+        assertTrue(analysis.runFiles() > 20, "runs: " + analysis.runFiles());
+        assertTrue(analysis.depthRounds() <= 7, "rounds: " + analysis.depthRounds());
+    }
+
+    @Test
+    void otherPoliciesMatchTheInMemoryAnalysis() throws IOException {
+        for (ThresholdPolicy policy : List.of(new ThresholdPolicy(1.0, 1.1, 2), new ThresholdPolicy(0, 0, 0))) {
+            List<Finding> findings = new ArrayList<>();
+
+            analyzer(1 << 16 << 2, policy).analyze("src/test/resources/bigCompany.csv", findings::add);
+
+            assertEquals(inMemoryFindings("src/test/resources/bigCompany.csv", policy), findings, policy.toString());
+        }
+    }
+
+    @Test
+    void longChainNeedsLogarithmicRounds() throws IOException {
+        int length = 3000;
+        StringBuilder csv = new StringBuilder("Id,firstName,lastName,salary,managerId\n");
+        for (int id = length; id >= 1; id--) {
+            csv.append(id).append(",First,Last,")
+                    .append(100_000 - id).append(id == 1 ? "" : "," + (id - 1)).append('\n');
+        }
+        Path file = Files.writeString(tempDir.resolve("chain.csv"), csv);
+        List<Finding> findings = new ArrayList<>();
+
+        ExternalAnalysis analysis = analyzer(ExternalAnalyzer.MIN_MEMORY_BUDGET, ThresholdPolicy.DEFAULT)
+                .analyze(file.toString(), findings::add);
+
+        assertEquals(inMemoryFindings(file.toString(), ThresholdPolicy.DEFAULT), findings);
+        assertEquals(length - 6, findings.stream().filter(ReportingLineTooLongFinding.class::isInstance).count());
+        assertTrue(analysis.depthRounds() <= 13, "rounds: " + analysis.depthRounds());
+    }
+
+    @Test
+    void cyclesMissingManagersAndOtherRootsAreNotAnalyzed() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("broken.csv"), """
+                Id,firstName,lastName,salary,managerId
+                1,Ceo,Root,50000
+                2,Low,Paid,10000,1
+                3,Team,Member,40000,2
+                10,Cycle,One,10000,11
+                11,Cycle,Two,90000,10
+                12,Below,Cycle,90000,11
+                20,Missing,Manager,10000,99
+                21,Below,Missing,90000,20
+                30,Other,Root,10000
+                31,Below,Root,90000,30
+                40,Self,Managed,10000,40
+                """);
+        List<Finding> findings = new ArrayList<>();
+
+        ExternalAnalysis analysis = analyzer(1 << 20, ThresholdPolicy.DEFAULT).analyze(file.toString(), findings::add);
+
+        assertEquals(inMemoryFindings(file.toString(), ThresholdPolicy.DEFAULT), findings);
+        assertEquals(List.of(1, 2), findings.stream().map(Finding::employeeId).toList());
+        assertEquals(11, analysis.employees());
+        assertEquals(3, analysis.reachableEmployees());
+    }
+
+    @Test
+    void firstDuplicateInTheFileIsReported() throws IOException {
+        StringBuilder csv = new StringBuilder("Id,firstName,lastName,salary,managerId\n");
+        csv.append("1,Ceo,Root,50000\n");
+        for (int id = 2; id < 3000; id++) {
+            csv.append(id).append(",First,Last,40000,1\n");
+        }
+        csv.append("2500,Second,Duplicate,40000,1\n");
+        csv.append("7,First,Duplicate,40000,1\n");
+        Path file = Files.writeString(tempDir.resolve("duplicates.csv"), csv);
+
+        InvalidCsvDataException exception = assertThrows(InvalidCsvDataException.class,
+                () -> analyzer(ExternalAnalyzer.MIN_MEMORY_BUDGET, ThresholdPolicy.DEFAULT)
+                        .analyze(file.toString(), finding -> {
+                        }));
+
+        assertEquals("Duplicate ID found in CSV file: 2500", exception.getMessage());
+        assertWorkFilesDeleted();
+    }
+
+    @Test
+    void workFilesAreDeletedAfterTheAnalysis() throws IOException {
+        analyzer(ExternalAnalyzer.MIN_MEMORY_BUDGET, ThresholdPolicy.DEFAULT)
+                .analyze("src/test/resources/bigCompany.csv", finding -> {
+                });
+
+        assertWorkFilesDeleted();
+    }
+
+    @Test
+    void budgetBelowTheMinimumIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ExternalAnalyzer(ExternalAnalyzer.MIN_MEMORY_BUDGET - 1));
+    }
+
+    private ExternalAnalyzer analyzer(long memoryBudget, ThresholdPolicy policy) throws IOException {
+        Path work = Files.createDirectories(tempDir.resolve("work"));
+        return new ExternalAnalyzer(memoryBudget, work, policy, PipelineMetrics.disabled());
+    }
+
+    private void assertWorkFilesDeleted() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir.resolve("work"))) {
+            assertEquals(List.of(), files.toList());
+        }
+    }
+
+    /**
+     * @return the findings of the in-memory analyzer in the order of the out-of-core one
+     */
+    private static List<Finding> inMemoryFindings(String file, ThresholdPolicy policy) {
+        List<Finding> findings = new ArrayList<>();
+        new EmployeeAnalyzerImpl(findings::add, 1, PipelineMetrics.disabled(), policy)
+                .analyzeEmployees(new EmployeeCSVReaderImpl().readEmployeeStoreFromFile(file));
+        findings.sort(Comparator.comparingInt(Finding::employeeId).thenComparingInt(ExternalAnalyzerTest::kindOrder));
+        return findings;
+    }
+
+    private static int kindOrder(Finding finding) {
+        if (finding instanceof UnderpaidFinding) {
+            return 0;
+        }
+        return finding instanceof OverpaidFinding ? 1 : 2;
+    }
+}
@@ -0,0 +1,111 @@
+package company.generator;
+
+import org.company.analyzer.EmployeeAnalyzerImpl;
+import org.company.finding.Finding;
+import org.company.finding.ReportingLineTooLongFinding;
+import org.company.finding.UnderpaidFinding;
+import org.company.generator.OrgChartGenerator;
+import org.company.model.EmployeeStore;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrgChartGeneratorTest {
+
+    @Test
+    void sameSeedGivesIdenticalBytes() throws IOException {
+        OrgChartGenerator generator = OrgChartGenerator.builder().seed(42).headcount(20_000).build();
+
+        assertArrayEquals(generate(generator), generate(generator));
+        assertFalse(Arrays.equals(generate(generator),
+                generate(OrgChartGenerator.builder().seed(43).headcount(20_000).build())));
+    }
+
+    @Test
+    void generatedFileIsValidWithRequestedHeadcount(@TempDir Path tempDir) throws IOException {
+        Path csvFile = tempDir.resolve("generated.csv");
+        OrgChartGenerator.builder().seed(7).headcount(12_345).fanOut(1, 30)
+                .fanOutDistribution(OrgChartGenerator.FanOutDistribution.PARETO).build().generate(csvFile);
+
+        EmployeeStore employees = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile(csvFile.toString());
+
+        assertEquals(12_345, employees.size());
+        assertEquals(0, employees.ceo());
+        assertEquals(12_344, countBelowCeo(employees));
+    }
+
+    @Test
+    void zeroViolationRatesGiveNoFindings(@TempDir Path tempDir) throws IOException {
+        List<Finding> findings = analyze(tempDir, OrgChartGenerator.builder().seed(1).headcount(50_000)
+                .underpaidRate(0).overpaidRate(0).longReportingLineRate(0));
+
+        assertTrue(findings.isEmpty(), () -> findings.size() + " findings, first " + findings.get(0));
+    }
+
+    @Test
+    void violationRatesControlFindingTypes(@TempDir Path tempDir) throws IOException {
+        List<Finding> findings = analyze(tempDir, OrgChartGenerator.builder().seed(1).headcount(5_000).maxDepth(12)
+                .underpaidRate(1).overpaidRate(0).longReportingLineRate(0.5));
+
+        assertTrue(findings.stream().anyMatch(ReportingLineTooLongFinding.class::isInstance));
+        assertTrue(findings.stream().noneMatch(finding -> !(finding instanceof UnderpaidFinding)
+                && !(finding instanceof ReportingLineTooLongFinding)));
+    }
+
+    @Test
+    void maxDepthLimitsReportingLines(@TempDir Path tempDir) throws IOException {
+        List<Finding> findings = analyze(tempDir, OrgChartGenerator.builder().seed(5).headcount(5_000).maxDepth(7)
+                .longReportingLineRate(1));
+
+        assertTrue(findings.stream().filter(ReportingLineTooLongFinding.class::isInstance)
+                .map(ReportingLineTooLongFinding.class::cast)
+                .allMatch(finding -> finding.reportingLineDepth() <= 6));
+    }
+
+    @Test
+    void invalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> OrgChartGenerator.builder().headcount(0).build());
+        assertThrows(IllegalArgumentException.class, () -> OrgChartGenerator.builder().fanOut(5, 2).build());
+        assertThrows(IllegalArgumentException.class,
+                () -> OrgChartGenerator.builder().underpaidRate(0.7).overpaidRate(0.7).build());
+    }
+
+    private static int countBelowCeo(EmployeeStore employees) {
+        int count = 0;
+        int[] stack = new int[employees.size()];
+        int size = 0;
+        stack[size++] = 0;
+        while (size > 0) {
+            int manager = stack[--size];
+            for (int position = employees.firstSubordinate(manager); position < employees.lastSubordinate(manager); position++) {
+                stack[size++] = employees.subordinate(position);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static byte[] generate(OrgChartGenerator generator) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.generate(out);
+        return out.toByteArray();
+    }
+
+    private static List<Finding> analyze(Path tempDir, OrgChartGenerator.Builder builder) throws IOException {
+        Path csvFile = tempDir.resolve("generated.csv");
+        builder.build().generate(csvFile);
+        List<Finding> findings = new ArrayList<>();
+        new EmployeeAnalyzerImpl(findings::add, 1)
+                .analyzeEmployees(new EmployeeCSVReaderImpl().readEmployeeStoreFromFile(csvFile.toString()));
+        return findings;
+    }
+}
@@ -0,0 +1,112 @@
+package company.metrics;
+
+import org.company.analyzer.EmployeeAnalyzerImpl;
+import org.company.finding.Finding;
+import org.company.metrics.PipelineMetrics;
+import org.company.metrics.PipelineStage;
+import org.company.model.EmployeeStore;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.company.reader.ParallelEmployeeCSVReaderImpl;
+import org.company.report.CountingFindingSink;
+import org.company.report.FindingSink;
+import org.company.validation.HierarchyValidationMode;
+import org.company.validation.HierarchyValidator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PipelineMetricsTest {
+
+    private static final String COMPANY_CSV = "src/test/resources/company.csv";
+
+    @Test
+    void disabledMetricsRecordNothing() {
+        PipelineMetrics metrics = PipelineMetrics.disabled();
+        FindingSink sink = finding -> {
+        };
+
+        assertSame(sink, metrics.measure(sink));
+        try (PipelineMetrics.Timer timer = metrics.start(PipelineStage.PARSE)) {
+            timer.rows(10).bytes(100);
+        }
+        new EmployeeAnalyzerImpl(sink, 1, metrics).analyzeEmployees(
+                new EmployeeCSVReaderImpl(metrics).readEmployeeStoreFromFile(COMPANY_CSV));
+
+        assertEquals(0, metrics.calls(PipelineStage.PARSE));
+        assertEquals(0, metrics.calls(PipelineStage.ANALYZE));
+        assertEquals("{\"stages\":{},\"findings\":{\"underpaid\":0,\"overpaid\":0,\"reportingLineTooLong\":0,\"total\":0}}",
+                metrics.toJson());
+    }
+
+    @Test
+    void everyStageOfARunIsMeasured() throws IOException {
+        PipelineMetrics metrics = PipelineMetrics.enabled();
+        CountingFindingSink findings = new CountingFindingSink();
+
+        EmployeeStore employees = new HierarchyValidator(HierarchyValidationMode.LENIENT, metrics)
+                .validate(new EmployeeCSVReaderImpl(metrics).readEmployeeStoreFromFile(COMPANY_CSV));
+        new EmployeeAnalyzerImpl(findings, 1, metrics).analyzeEmployees(employees);
+
+        for (PipelineStage stage : List.of(PipelineStage.PARSE, PipelineStage.LINK, PipelineStage.VALIDATE,
+                PipelineStage.ANALYZE, PipelineStage.OUTPUT)) {
+            assertEquals(1, metrics.calls(stage), stage.label());
+            assertTrue(metrics.nanos(stage) > 0, stage.label());
+        }
+        assertEquals(11, metrics.rows(PipelineStage.PARSE));
+        assertEquals(Files.size(Path.of(COMPANY_CSV)), metrics.bytes(PipelineStage.PARSE));
+        assertEquals(8, metrics.rows(PipelineStage.OUTPUT));
+        assertEquals(findings.underpaid(), metrics.underpaid());
+        assertEquals(findings.overpaid(), metrics.overpaid());
+        assertEquals(findings.reportingLineTooLong(), metrics.reportingLineTooLong());
+        assertTrue(metrics.toJson().contains("\"parse\":{\"calls\":1,"));
+        assertTrue(metrics.toJson().endsWith("\"findings\":{\"underpaid\":5,\"overpaid\":1,\"reportingLineTooLong\":2,\"total\":8}}"));
+    }
+
+    @Test
+    void mapReadsMeasureLinkingAndImmutableCopies() {
+        PipelineMetrics metrics = PipelineMetrics.enabled();
+
+        new ParallelEmployeeCSVReaderImpl(2, 64, metrics).readEmployeesDataFromFile("src/test/resources/bigCompany.csv");
+
+        assertEquals(1000, metrics.rows(PipelineStage.PARSE));
+        assertEquals(1, metrics.calls(PipelineStage.LINK));
+        assertEquals(1000, metrics.rows(PipelineStage.IMMUTABLE));
+    }
+
+    @Test
+    void stagesAreRecordedAsFlightRecorderEvents(@TempDir Path tempDir) throws IOException {
+        PipelineMetrics metrics = PipelineMetrics.enabled();
+        Path recordingFile = tempDir.resolve("run.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("org.company.PipelineStage");
+            recording.start();
+            List<Finding> findings = new ArrayList<>();
+            new EmployeeAnalyzerImpl(findings::add, 1, metrics).analyzeEmployees(
+                    new EmployeeCSVReaderImpl(metrics).readEmployeeStoreFromFile(COMPANY_CSV));
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        Set<String> stages = events.stream().map(event -> event.getString("stage")).collect(Collectors.toSet());
+        assertEquals(Set.of("parse", "link", "analyze"), stages);
+        RecordedEvent analyze = events.stream().filter(event -> event.getString("stage").equals("analyze"))
+                .findFirst().orElseThrow();
+        assertEquals(8, analyze.getLong("findings"));
+        assertEquals(11, analyze.getLong("rows"));
+    }
+}
@@ -0,0 +1,169 @@
+package company.query;
+
+import org.company.analyzer.EmployeeAnalyzerImpl;
+import org.company.finding.Finding;
+import org.company.finding.OverpaidFinding;
+import org.company.finding.UnderpaidFinding;
+import org.company.generator.OrgChartGenerator;
+import org.company.model.EmployeeStore;
+import org.company.query.OrgIndex;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrgIndexTest {
+
+    @Test
+    void answersHierarchyQueries() {
+        OrgIndex index = OrgIndex.of(new EmployeeCSVReaderImpl().readEmployeeStoreFromFile("src/test/resources/company.csv"));
+
+        assertEquals(11, index.size());
+        assertArrayEquals(new int[]{312, 311, 310, 309, 124, 123, 120}, index.chainOfCommand(313));
+        assertArrayEquals(new int[0], index.chainOfCommand(120));
+        assertEquals(7, index.depth(313));
+        assertTrue(index.reportsTo(313, 124));
+        assertFalse(index.reportsTo(124, 313));
+        assertFalse(index.reportsTo(124, 124));
+        assertEquals(310, index.managerAbove(313, 3));
+        assertEquals(-1, index.managerAbove(123, 2));
+        assertEquals(124, index.lowestCommonManager(305, 313));
+        assertEquals(309, index.lowestCommonManager(313, 309));
+        assertArrayEquals(new int[]{124, 125}, index.directReports(123));
+        assertArrayEquals(new int[]{310, 311, 312, 313}, index.allReports(309));
+        assertArrayEquals(new int[]{309, 310, 311}, index.underpaidManagers(309));
+        assertArrayEquals(new int[]{312}, index.overpaidManagers(120));
+        assertArrayEquals(new int[]{124, 125, 300}, index.salaryBetween(45000, 50000));
+        assertArrayEquals(new int[]{124, 300}, index.salaryBetween(45000, 50000, 124));
+    }
+
+    @Test
+    void employeesOutsideTheHierarchyAreRejected() {
+        EmployeeStore.Builder builder = EmployeeStore.builder();
+        builder.add(1, "Ceo", "Boss", 100000, false, 0);
+        builder.add(2, "Ann", "Lee", 50000, true, 3);
+        builder.add(3, "Bob", "Lee", 50000, true, 2);
+        OrgIndex index = OrgIndex.of(builder.build());
+
+        assertTrue(index.contains(1));
+        assertFalse(index.contains(2));
+        assertFalse(index.contains(42));
+        assertThrows(IllegalArgumentException.class, () -> index.chainOfCommand(2));
+    }
+
+    @Test
+    void generatedChartMatchesWalkingTheHierarchy(@TempDir Path tempDir) throws IOException {
+        Path csvFile = tempDir.resolve("generated.csv");
+        OrgChartGenerator.builder().seed(11).headcount(3_000).fanOut(1, 4).maxDepth(40).build().generate(csvFile);
+        EmployeeStore employees = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile(csvFile.toString());
+        OrgIndex index = OrgIndex.of(employees);
+        Random random = new Random(3);
+
+        for (int query = 0; query < 2_000; query++) {
+            int employee = random.nextInt(employees.size());
+            int other = random.nextInt(employees.size());
+            int id = employees.id(employee);
+            int[] chain = chain(employees, employee);
+
+            assertArrayEquals(chain, index.chainOfCommand(id));
+            assertEquals(chain.length, index.depth(id));
+            int levels = random.nextInt(chain.length + 2);
+            assertEquals(levels == 0 ? id : levels <= chain.length ? chain[levels - 1] : -1, index.managerAbove(id, levels));
+            assertEquals(contains(chain, employees.id(other)), index.reportsTo(id, employees.id(other)));
+            assertEquals(lowestCommonManager(employees, employee, other),
+                    index.lowestCommonManager(id, employees.id(other)));
+        }
+    }
+
+    @Test
+    void generatedChartSubtreeQueriesMatchFilteringAllEmployees(@TempDir Path tempDir) throws IOException {
+        Path csvFile = tempDir.resolve("generated.csv");
+        OrgChartGenerator.builder().seed(5).headcount(2_000).underpaidRate(0.2).overpaidRate(0.2).build().generate(csvFile);
+        EmployeeStore employees = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile(csvFile.toString());
+        OrgIndex index = OrgIndex.of(employees);
+        List<Finding> findings = new ArrayList<>();
+        new EmployeeAnalyzerImpl(findings::add, 1).analyzeEmployees(employees);
+        Random random = new Random(9);
+
+        for (int query = 0; query < 200; query++) {
+            int manager = employees.id(random.nextInt(employees.size()));
+            int[] subtree = index.allReports(manager);
+            assertEquals(Arrays.stream(employeeIds(employees)).filter(id -> index.reportsTo(id, manager)).count(),
+                    subtree.length);
+            int[] withManager = concat(manager, subtree);
+            assertArrayEquals(findingIds(findings, UnderpaidFinding.class, withManager), sorted(index.underpaidManagers(manager)));
+            assertArrayEquals(findingIds(findings, OverpaidFinding.class, withManager), sorted(index.overpaidManagers(manager)));
+
+            int minSalary = 20_000 + random.nextInt(100_000);
+            int maxSalary = minSalary + random.nextInt(50_000);
+            int[] expected = Arrays.stream(withManager)
+                    .filter(id -> salaryOf(employees, id) >= minSalary && salaryOf(employees, id) <= maxSalary)
+                    .toArray();
+            assertArrayEquals(sorted(expected), sorted(index.salaryBetween(minSalary, maxSalary, manager)));
+        }
+        int[] all = index.salaryBetween(0, Integer.MAX_VALUE);
+        assertEquals(employees.size(), all.length);
+        for (int i = 1; i < all.length; i++) {
+            assertTrue(salaryOf(employees, all[i - 1]) <= salaryOf(employees, all[i]));
+        }
+    }
+
+    private static int[] chain(EmployeeStore employees, int employee) {
+        List<Integer> chain = new ArrayList<>();
+        for (int manager = employees.managerIndex(employee); manager >= 0; manager = employees.managerIndex(manager)) {
+            chain.add(employees.id(manager));
+        }
+        return chain.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int lowestCommonManager(EmployeeStore employees, int employee, int other) {
+        int[] chain = concat(employees.id(employee), chain(employees, employee));
+        int[] otherChain = concat(employees.id(other), chain(employees, other));
+        for (int id : chain) {
+            if (contains(otherChain, id)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    private static int[] findingIds(List<Finding> findings, Class<? extends Finding> type, int[] ids) {
+        return findings.stream().filter(type::isInstance).mapToInt(Finding::employeeId)
+                .filter(id -> contains(ids, id)).sorted().toArray();
+    }
+
+    private static int[] employeeIds(EmployeeStore employees) {
+        int[] ids = new int[employees.size()];
+        Arrays.setAll(ids, employees::id);
+        return ids;
+    }
+
+    private static int salaryOf(EmployeeStore employees, int id) {
+        return employees.salary(employees.indexOf(id));
+    }
+
+    private static int[] concat(int first, int[] rest) {
+        int[] all = new int[rest.length + 1];
+        all[0] = first;
+        System.arraycopy(rest, 0, all, 1, rest.length);
+        return all;
+    }
+
+    private static boolean contains(int[] ids, int id) {
+        return Arrays.stream(ids).anyMatch(value -> value == id);
+    }
+
+    private static int[] sorted(int[] ids) {
+        int[] copy = ids.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,116 @@
+package company.query;
+
+import org.company.query.OrgIndex;
+import org.company.query.OrgQueryServer;
+import org.company.query.OrgQueryService;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrgQueryServiceTest {
+
+    private OrgIndex index;
+
+    @BeforeEach
+    void loadIndex() {
+        index = OrgIndex.of(new EmployeeCSVReaderImpl().readEmployeeStoreFromFile("src/test/resources/company.csv"));
+    }
+
+    @Test
+    void answersQueriesAsEmployeeLines() {
+        OrgQueryService service = new OrgQueryService(index);
+
+        assertEquals(List.of("124,Martin,Chekov,45000", "123,Joe,Doe,60000", "120,Mike,Doe,60000"),
+                service.query("chain 300"));
+        assertEquals(List.of("310,Anna,Smith,100000", "311,Anthony,Brown,100000"), service.query("underpaid 310"));
+        assertEquals(List.of("true"), service.query("reports-to 313 123"));
+        assertEquals(List.of("124,Martin,Chekov,45000"), service.query("common-manager 305 310"));
+        assertEquals(List.of(), service.query("manager 120 1"));
+        assertEquals(List.of("305,Brett,Hardleaf,34000", "300,Alice,Hasacat,50000"), service.query("salary 0 50000 300"));
+    }
+
+    @Test
+    void repeatedQueriesAreAnsweredFromTheCache() {
+        OrgQueryService service = new OrgQueryService(index, 2);
+
+        List<String> first = service.query("reports 309");
+        assertSame(first, service.query("  REPORTS   309 "));
+        service.query("team 123");
+        service.query("team 124");
+        assertNotSame(first, service.query("reports 309"));
+        service.query("team 124");
+
+        assertEquals(2, service.cacheHits());
+        assertEquals(4, service.cacheMisses());
+    }
+
+    @Test
+    void cacheIsBoundedByTheLinesOfItsAnswers() {
+        OrgQueryService service = new OrgQueryService(index, 100, 3);
+
+        List<String> team = service.query("team 123");
+        service.query("chain 300");
+        assertEquals(3, service.cachedLines());
+        assertNotSame(team, service.query("team 123"));
+        assertEquals(2, service.cachedLines());
+        service.query("reports 123");
+
+        assertEquals(0, service.cacheHits());
+        assertEquals(2, service.cachedLines());
+    }
+
+    @Test
+    void invalidQueriesAreRejected() {
+        OrgQueryService service = new OrgQueryService(index);
+
+        assertThrows(IllegalArgumentException.class, () -> service.query("boss 120"));
+        assertThrows(IllegalArgumentException.class, () -> service.query("chain"));
+        assertThrows(IllegalArgumentException.class, () -> service.query("chain abc"));
+        assertThrows(IllegalArgumentException.class, () -> service.query("chain 999"));
+    }
+
+    @Test
+    void streamFrontEndSeparatesAnswersWithEmptyLines() throws IOException {
+        StringWriter out = new StringWriter();
+
+        new OrgQueryServer(new OrgQueryService(index)).serve(
+                new BufferedReader(new StringReader("team 123\nchain 42\nquit\nteam 120\n")), new PrintWriter(out));
+
+        assertEquals(String.join(System.lineSeparator(), "124,Martin,Chekov,45000", "125,Bob,Ronstad,47000", "",
+                "error: Employee 42 is not part of the hierarchy", "", ""), out.toString());
+    }
+
+    @Test
+    void httpFrontEndAnswersGetRequests() throws IOException, InterruptedException {
+        try (OrgQueryServer.Http server = new OrgQueryServer(new OrgQueryService(index)).startHttp(0, 2)) {
+            HttpClient client = HttpClient.newHttpClient();
+            HttpResponse<String> answer = client.send(request(server, "team 123"), HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> error = client.send(request(server, "chain x"), HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(200, answer.statusCode());
+            assertEquals("124,Martin,Chekov,45000\n125,Bob,Ronstad,47000\n", answer.body());
+            assertEquals(400, error.statusCode());
+            assertEquals("Invalid number: x\n", error.body());
+        }
+    }
+
+    private static HttpRequest request(OrgQueryServer.Http server, String query) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + server.port() + "/query?q="
+                + URLEncoder.encode(query, StandardCharsets.UTF_8))).GET().build();
+    }
+}
@@ -5,6 +5,16 @@ import org.company.exception.InvalidCsvDataException;
 import org.company.exception.InvalidCsvStructureException;
 import org.company.reader.EmployeeCSVReaderImpl;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -126,4 +136,187 @@ public class EmployeeCSVReaderImplTest {
         assertThrows(InvalidCsvDataException.class,
                 () -> csvReader.readEmployeesDataFromFile("src/test/resources/cyclicManagerRealationship.csv"));
     }
+
+    @Test
+    void whenDuplicateIdsThenException() {
+        var csvReader = new EmployeeCSVReaderImpl();
+        assertThrows(InvalidCsvDataException.class,
+                () -> csvReader.readEmployeesDataFromFile("src/test/resources/duplicateIds.csv"));
+    }
+
+    @Test
+    void readEmployeesFromGeneratedFile(@TempDir Path tempDir) throws IOException {
+        Path csvFile = writeChainCsv(tempDir.resolve("generated.csv"), 200_000);
+
+        var employees = new EmployeeCSVReaderImpl().readEmployeesDataFromFile(csvFile.toString());
+
+        assertEquals(200_000, employees.size());
+        assertEquals(1, employees.get(1).subordinates().size());
+        assertEquals(199_999, employees.get(200_000).managerId());
+    }
+
+    @Test
+    void testReadEmployeeStoreFromFile() {
+        var csvReader = new EmployeeCSVReaderImpl();
+        var employees = csvReader.readEmployeesDataFromFile("src/test/resources/company.csv");
+        var store = csvReader.readEmployeeStoreFromFile("src/test/resources/company.csv");
+
+        assertEquals(employees.size(), store.size());
+        assertEquals(120, store.id(store.ceo()));
+        for (int index = 0; index < store.size(); index++) {
+            var employee = employees.get(store.id(index));
+            assertEquals(index, store.indexOf(employee.id()));
+            assertEquals(employee.fullName(), store.fullName(index));
+            assertEquals(employee.salary(), store.salary(index));
+            assertEquals(employee.managerId(), store.managerId(index));
+            assertEquals(employee.subordinates().size(), store.subordinateCount(index));
+        }
+        int manager = store.indexOf(123);
+        assertEquals(124, store.id(store.subordinate(store.firstSubordinate(manager))));
+        assertEquals(125, store.id(store.subordinate(store.firstSubordinate(manager) + 1)));
+        assertSame(store.lastName(store.indexOf(120)), store.lastName(store.indexOf(123)));
+    }
+
+    @Test
+    void rereadingWithThePreviousStoreReusesItsNames() {
+        var csvReader = new EmployeeCSVReaderImpl();
+        var previous = csvReader.readEmployeeStoreFromFile("src/test/resources/company.csv");
+        var store = csvReader.readEmployeeStoreFromFile("src/test/resources/company.csv", previous);
+
+        assertNotSame(previous, store);
+        assertEquals(previous.size(), store.size());
+        for (int index = 0; index < store.size(); index++) {
+            assertEquals(previous.id(index), store.id(index));
+            assertSame(previous.firstName(index), store.firstName(index));
+            assertSame(previous.lastName(index), store.lastName(index));
+            assertEquals(previous.subordinateCount(index), store.subordinateCount(index));
+        }
+    }
+
+    @Test
+    void rereadingDropsNamesNoLongerUsed(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("company.csv");
+        Files.writeString(file, """
+                Id,firstName,lastName,salary,managerId
+                1,Joe,Doe,60000,
+                2,Anna,Smith,50000,1
+                3,Brett,Hardleaf,40000,1
+                """);
+        var csvReader = new EmployeeCSVReaderImpl();
+        var previous = csvReader.readEmployeeStoreFromFile(file.toString());
+        Files.writeString(file, """
+                Id,firstName,lastName,salary,managerId
+                1,Joe,Doe,60000,
+                2,Anna,Smith,50000,1
+                """);
+
+        var store = csvReader.readEmployeeStoreFromFile(file.toString(), previous);
+
+        assertEquals(6, previous.nameCount());
+        assertEquals(4, store.nameCount());
+        assertSame(previous.firstName(1), store.firstName(1));
+        var reloaded = csvReader.readEmployeeStoreFromFile(file.toString(), store);
+        assertEquals(4, reloaded.nameCount());
+    }
+
+    @Test
+    void readGzipCompressedFileWhateverItsName(@TempDir Path tempDir) throws IOException {
+        Path compressed = gzip(Path.of("src/test/resources/bigCompany.csv"), tempDir.resolve("bigCompany.csv"));
+        var csvReader = new EmployeeCSVReaderImpl();
+        var plain = csvReader.readEmployeeStoreFromFile("src/test/resources/bigCompany.csv");
+        var store = csvReader.readEmployeeStoreFromFile(compressed.toString());
+
+        assertEquals(plain.size(), store.size());
+        for (int index = 0; index < store.size(); index++) {
+            assertEquals(plain.id(index), store.id(index));
+            assertEquals(plain.fullName(index), store.fullName(index));
+            assertEquals(plain.salary(index), store.salary(index));
+            assertEquals(plain.managerId(index), store.managerId(index));
+        }
+        assertEquals(csvReader.readEmployeesDataFromFile("src/test/resources/bigCompany.csv").keySet(),
+                csvReader.readEmployeesDataFromFile(compressed.toString()).keySet());
+    }
+
+    @Test
+    void whenGzipFileIsTruncatedThenException(@TempDir Path tempDir) throws IOException {
+        Path compressed = gzip(Path.of("src/test/resources/bigCompany.csv"), tempDir.resolve("bigCompany.csv.gz"));
+        byte[] bytes = Files.readAllBytes(compressed);
+        Files.write(compressed, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertThrows(CsvIOException.class,
+                () -> new EmployeeCSVReaderImpl().readEmployeeStoreFromFile(compressed.toString()));
+    }
+
+    @Test
+    void readEmployeeStoreFromLargeFile() {
+        var store = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile("src/test/resources/bigCompany.csv");
+
+        assertEquals(1000, store.size());
+    }
+
+    @Test
+    void whenDuplicateIdsInStoreThenException() {
+        var csvReader = new EmployeeCSVReaderImpl();
+        assertThrows(InvalidCsvDataException.class,
+                () -> csvReader.readEmployeeStoreFromFile("src/test/resources/duplicateIds.csv"));
+        assertThrows(InvalidCsvDataException.class,
+                () -> csvReader.readEmployeeStoreFromFile("src/test/resources/empty.csv"));
+    }
+
+    @Test
+    void readEmployeesWithWindowsLineEndingsAndPaddedFields(@TempDir Path tempDir) throws IOException {
+        Path csvFile = Files.writeString(tempDir.resolve("crlf.csv"),
+                "Id,firstName,lastName,salary,managerId\r\n1, Mike ,Doe,60000,\r\n2,Joe, Doe , 45000 , 1 \r\n");
+
+        var employees = new EmployeeCSVReaderImpl().readEmployeesDataFromFile(csvFile.toString());
+
+        assertEquals(2, employees.size());
+        assertEquals("Mike", employees.get(1).firstName());
+        assertEquals("Doe", employees.get(2).lastName());
+        assertEquals(45000, employees.get(2).salary());
+        assertEquals(1, employees.get(2).managerId());
+    }
+
+    @Test
+    void whenSalaryOverflowsThenException(@TempDir Path tempDir) throws IOException {
+        Path csvFile = Files.writeString(tempDir.resolve("overflow.csv"),
+                "Id,firstName,lastName,salary,managerId\n1,Mike,Doe,2147483648,\n");
+        var csvReader = new EmployeeCSVReaderImpl();
+        assertThrows(InvalidCsvDataException.class,
+                () -> csvReader.readEmployeesDataFromFile(csvFile.toString()));
+    }
+
+    /**
+     * Streams a multi-GB export through the reader. Enable with -DlargeCsvTests=true and a heap big enough
+     * for the parsed employees only.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "largeCsvTests", matches = "true")
+    void readEmployeesFromMultiGigabyteFile(@TempDir Path tempDir) throws IOException {
+        int rows = 60_000_000;
+        Path csvFile = writeChainCsv(tempDir.resolve("huge.csv"), rows);
+        assertTrue(Files.size(csvFile) > 2L * 1024 * 1024 * 1024);
+
+        var employees = new EmployeeCSVReaderImpl().readEmployeesDataFromFile(csvFile.toString());
+
+        assertEquals(rows, employees.size());
+    }
+
+    private static Path writeChainCsv(Path csvFile, int rows) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(csvFile)) {
+            writer.write("Id,firstName,lastName,salary,managerId\n");
+            writer.write("1,firstName,lastName,100000,\n");
+            for (int id = 2; id <= rows; id++) {
+                writer.write(id + ",firstNameLong,lastNameLonger," + (100000 + id) + "," + (id - 1) + "\n");
+            }
+        }
+        return csvFile;
+    }
+
+    static Path gzip(Path source, Path target) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(target))) {
+            Files.copy(source, out);
+        }
+        return target;
+    }
 }
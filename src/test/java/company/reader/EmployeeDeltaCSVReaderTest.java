@@ -0,0 +1,65 @@
+package company.reader;
+
+import org.company.exception.CsvIOException;
+import org.company.exception.InvalidCsvDataException;
+import org.company.exception.InvalidCsvStructureException;
+import org.company.model.EmployeeDelta;
+import org.company.reader.EmployeeDeltaCSVReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmployeeDeltaCSVReaderTest {
+
+    @Test
+    void readUpsertsAndDeletesInFileOrder(@TempDir Path tempDir) throws IOException {
+        Path deltaFile = Files.writeString(tempDir.resolve("delta.csv"),
+                "op,Id,firstName,lastName,salary,managerId\r\nupsert,305,Brett,Hardleaf,34000,300\r\nDELETE, 124\r\nupsert,400,Jane,Doe,70000\r\n");
+
+        List<EmployeeDelta> deltas = new EmployeeDeltaCSVReader().readDeltasFromFile(deltaFile.toString());
+
+        assertEquals(List.of(EmployeeDelta.upsert(305, "Brett", "Hardleaf", 34000, 300),
+                EmployeeDelta.delete(124),
+                EmployeeDelta.upsert(400, "Jane", "Doe", 70000, null)), deltas);
+    }
+
+    @Test
+    void upsertRowsAreValidatedLikeEmployeeRows(@TempDir Path tempDir) throws IOException {
+        Path deltaFile = Files.writeString(tempDir.resolve("delta.csv"),
+                "op,Id,firstName,lastName,salary,managerId\nupsert,305,Brett,Hardleaf,-1,300\n");
+
+        var exception = assertThrows(InvalidCsvDataException.class,
+                () -> new EmployeeDeltaCSVReader().readDeltasFromFile(deltaFile.toString()));
+        assertEquals("Invalid ID = 305 or salary = -1  value", exception.getMessage());
+    }
+
+    @Test
+    void unknownOperationIsStructureError(@TempDir Path tempDir) throws IOException {
+        Path deltaFile = Files.writeString(tempDir.resolve("delta.csv"),
+                "op,Id,firstName,lastName,salary,managerId\nmove,305,300\n");
+
+        assertThrows(InvalidCsvStructureException.class,
+                () -> new EmployeeDeltaCSVReader().readDeltasFromFile(deltaFile.toString()));
+    }
+
+    @Test
+    void invalidDeleteIdIsDataError(@TempDir Path tempDir) throws IOException {
+        Path deltaFile = Files.writeString(tempDir.resolve("delta.csv"),
+                "op,Id,firstName,lastName,salary,managerId\ndelete,abc\n");
+
+        assertThrows(InvalidCsvDataException.class,
+                () -> new EmployeeDeltaCSVReader().readDeltasFromFile(deltaFile.toString()));
+    }
+
+    @Test
+    void missingFileIsIOError() {
+        assertThrows(CsvIOException.class,
+                () -> new EmployeeDeltaCSVReader().readDeltasFromFile("src/test/resources/missingDelta.csv"));
+    }
+}
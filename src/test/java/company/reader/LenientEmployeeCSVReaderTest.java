@@ -0,0 +1,159 @@
+package company.reader;
+
+import org.company.exception.CsvIOException;
+import org.company.exception.InvalidCsvDataException;
+import org.company.model.EmployeeStore;
+import org.company.reader.CsvErrorReport;
+import org.company.reader.CsvReadResult;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.company.reader.ParallelEmployeeCSVReaderImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.company.reader.CsvErrorReport.Category.DATA;
+import static org.company.reader.CsvErrorReport.Category.STRUCTURE;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LenientEmployeeCSVReaderTest {
+
+    private static final int SMALL_CHUNK_SIZE = 64;
+
+    private static final String MIXED_ERRORS = """
+            Id,firstName,lastName,salary,managerId
+            1,Mike,Doe,60000,
+            2,Joe,Doe,45000,1
+            3,Joe,,45000,1
+            4,Joe,Doe,45000,1,7
+            x,Joe,Doe,45000,1
+            2,Ann,Lee,50000,1
+            5,Jo3,Doe,45000,1
+
+            6,Ann,Lee,-5,1
+            7,Ann,Lee,50000,2
+            """;
+
+    @Test
+    void invalidRowsAreReportedWithLineNumbers(@TempDir Path tempDir) throws IOException {
+        Path csvFile = write(tempDir, MIXED_ERRORS);
+
+        CsvReadResult result = new EmployeeCSVReaderImpl().readEmployeeStoreLeniently(csvFile.toString());
+
+        EmployeeStore employees = result.employees();
+        assertEquals(List.of(1, 2, 7), List.of(employees.id(0), employees.id(1), employees.id(2)));
+        assertEquals(3, employees.size());
+        assertEquals("Joe Doe", employees.fullName(employees.indexOf(2)));
+        assertEquals(List.of(
+                new CsvErrorReport.RowError(4, DATA, "Some fields are empty = Joe , "),
+                new CsvErrorReport.RowError(5, STRUCTURE, "Error reading CSV file as it has an invalid format and structure."),
+                new CsvErrorReport.RowError(6, DATA, "Error parsing integer data in CSV"),
+                new CsvErrorReport.RowError(7, DATA, "Duplicate ID found in CSV file: 2"),
+                new CsvErrorReport.RowError(8, DATA, "Invalid name =  Jo3 or last_name = Doe format"),
+                new CsvErrorReport.RowError(9, STRUCTURE, "Error reading CSV file as it has an invalid format and structure."),
+                new CsvErrorReport.RowError(10, DATA, "Invalid ID = 6 or salary = -5  value")),
+                result.errors().errors());
+        assertEquals(5, result.errors().errorCount(DATA));
+        assertEquals(2, result.errors().errorCount(STRUCTURE));
+        assertEquals(List.of(5L, 9L), result.errors().errorsByCategory().get(STRUCTURE).stream()
+                .map(CsvErrorReport.RowError::lineNumber).toList());
+        assertFalse(result.errors().isTruncated());
+    }
+
+    @Test
+    void parallelReaderReportsLikeSequentialReader(@TempDir Path tempDir) throws IOException {
+        StringBuilder csv = new StringBuilder("Id,firstName,lastName,salary,managerId\r\n1,Mike,Doe,60000,\r\n");
+        for (int id = 2; id < 2000; id++) {
+            switch (id % 97) {
+                case 3 -> csv.append(id).append(",Joe,,45000,1\r\n");
+                case 5 -> csv.append(id).append(",Joe,Doe\r\n");
+                case 7 -> csv.append(id / 2).append(",Ann,Lee,45000,1\r\n");
+                default -> csv.append(id).append(",Joe,Doe,45000,").append(id / 2).append("\r\n");
+            }
+        }
+        Path csvFile = write(tempDir, csv.toString());
+
+        for (int maxReportedErrors : new int[]{0, 7, 1000}) {
+            CsvReadResult expected = new EmployeeCSVReaderImpl().readEmployeeStoreLeniently(csvFile.toString(), maxReportedErrors);
+            CsvReadResult actual = new ParallelEmployeeCSVReaderImpl(4, SMALL_CHUNK_SIZE)
+                    .readEmployeeStoreLeniently(csvFile.toString(), maxReportedErrors);
+
+            assertSameStore(expected.employees(), actual.employees());
+            assertEquals(expected.errors().errors(), actual.errors().errors());
+            assertEquals(expected.errors().errorCount(DATA), actual.errors().errorCount(DATA));
+            assertEquals(expected.errors().errorCount(STRUCTURE), actual.errors().errorCount(STRUCTURE));
+        }
+    }
+
+    @Test
+    void reportKeepsOnlyTheFirstErrors(@TempDir Path tempDir) throws IOException {
+        StringBuilder csv = new StringBuilder("Id,firstName,lastName,salary,managerId\n1,Mike,Doe,60000,\n");
+        for (int id = 2; id < 100; id++) {
+            csv.append(id).append(",Joe,Doe,salary,1\n");
+        }
+        Path csvFile = write(tempDir, csv.toString());
+
+        CsvErrorReport errors = new ParallelEmployeeCSVReaderImpl(4, SMALL_CHUNK_SIZE)
+                .readEmployeeStoreLeniently(csvFile.toString(), 10).errors();
+
+        assertEquals(10, errors.errors().size());
+        assertEquals(3, errors.errors().get(0).lineNumber());
+        assertEquals(12, errors.errors().get(9).lineNumber());
+        assertEquals(98, errors.errorCount());
+        assertTrue(errors.isTruncated());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"company.csv", "bigCompany.csv"})
+    void validFileReadsLikeStrictRead(String fileName) {
+        String csvFile = "src/test/resources/" + fileName;
+        EmployeeStore strict = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile(csvFile);
+
+        CsvReadResult sequential = new EmployeeCSVReaderImpl().readEmployeeStoreLeniently(csvFile);
+        CsvReadResult parallel = new ParallelEmployeeCSVReaderImpl(4, SMALL_CHUNK_SIZE).readEmployeeStoreLeniently(csvFile);
+
+        assertTrue(sequential.errors().isEmpty());
+        assertTrue(parallel.errors().isEmpty());
+        assertSameStore(strict, sequential.employees());
+        assertSameStore(strict, parallel.employees());
+    }
+
+    @Test
+    void fileWithoutRowsIsStillRejected() {
+        String csvFile = "src/test/resources/empty.csv";
+
+        assertThrows(InvalidCsvDataException.class, () -> new EmployeeCSVReaderImpl().readEmployeeStoreLeniently(csvFile));
+        assertThrows(InvalidCsvDataException.class,
+                () -> new ParallelEmployeeCSVReaderImpl(2, SMALL_CHUNK_SIZE).readEmployeeStoreLeniently(csvFile));
+    }
+
+    @Test
+    void missingFileIsAnIOError() {
+        String csvFile = "src/test/resources/invaliddd.csv";
+
+        assertThrows(CsvIOException.class, () -> new EmployeeCSVReaderImpl().readEmployeeStoreLeniently(csvFile));
+        assertThrows(CsvIOException.class, () -> new ParallelEmployeeCSVReaderImpl().readEmployeeStoreLeniently(csvFile));
+    }
+
+    private static Path write(Path tempDir, String csv) throws IOException {
+        return Files.writeString(tempDir.resolve("lenient.csv"), csv);
+    }
+
+    private static void assertSameStore(EmployeeStore expected, EmployeeStore actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.ceo(), actual.ceo());
+        for (int index = 0; index < expected.size(); index++) {
+            assertEquals(expected.id(index), actual.id(index));
+            assertEquals(expected.identityInfo(index), actual.identityInfo(index));
+            assertEquals(expected.salary(index), actual.salary(index));
+            assertEquals(expected.managerId(index), actual.managerId(index));
+            assertEquals(expected.managerIndex(index), actual.managerIndex(index));
+            assertEquals(expected.subordinateCount(index), actual.subordinateCount(index));
+        }
+    }
+}
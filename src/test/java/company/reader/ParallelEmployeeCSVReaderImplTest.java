@@ -0,0 +1,128 @@
+package company.reader;
+
+import org.company.metrics.PipelineMetrics;
+import org.company.model.Employee;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.company.reader.ParallelEmployeeCSVReaderImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelEmployeeCSVReaderImplTest {
+
+    private static final int SMALL_CHUNK_SIZE = 64;
+
+    @Test
+    void readEmployeesFromLargeFileMatchesSequentialReader() {
+        var sequential = new EmployeeCSVReaderImpl().readEmployeesDataFromFile("src/test/resources/bigCompany.csv");
+        var parallel = new ParallelEmployeeCSVReaderImpl(4, SMALL_CHUNK_SIZE)
+                .readEmployeesDataFromFile("src/test/resources/bigCompany.csv");
+
+        assertEquals(1000, parallel.size());
+        assertSameEmployees(sequential, parallel);
+    }
+
+    @Test
+    void gzipFileIsReadLikePlainFile(@TempDir Path tempDir) throws IOException {
+        Path compressed = EmployeeCSVReaderImplTest.gzip(Path.of("src/test/resources/bigCompany.csv"),
+                tempDir.resolve("bigCompany.csv.gz"));
+        var reader = new ParallelEmployeeCSVReaderImpl(4, SMALL_CHUNK_SIZE);
+
+        assertSameEmployees(reader.readEmployeesDataFromFile("src/test/resources/bigCompany.csv"),
+                reader.readEmployeesDataFromFile(compressed.toString()));
+        var lenient = reader.readEmployeeStoreLeniently(compressed.toString());
+        assertEquals(1000, lenient.employees().size());
+        assertTrue(lenient.errors().isEmpty());
+    }
+
+    @Test
+    void readEmployeesFromFileMatchesSequentialReader() {
+        var sequential = new EmployeeCSVReaderImpl().readEmployeesDataFromFile("src/test/resources/company.csv");
+        var parallel = new ParallelEmployeeCSVReaderImpl(3, SMALL_CHUNK_SIZE)
+                .readEmployeesDataFromFile("src/test/resources/company.csv");
+
+        assertSameEmployees(sequential, parallel);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"invaliddd.csv", "invalid.csv", "empty.csv", "company2.csv", "company3.csv", "company4.csv",
+            "extraColumns.csv", "shortColumns.csv", "managerIdReference.csv", "mixedDataType.csv", "negativeSalary.csv",
+            "cyclicManagerRealationship.csv", "duplicateIds.csv"})
+    void invalidFilesFailLikeSequentialReader(String fileName) {
+        String csvFile = "src/test/resources/" + fileName;
+        var expected = assertThrows(RuntimeException.class,
+                () -> new EmployeeCSVReaderImpl().readEmployeesDataFromFile(csvFile));
+        var actual = assertThrows(RuntimeException.class,
+                () -> new ParallelEmployeeCSVReaderImpl(4, SMALL_CHUNK_SIZE).readEmployeesDataFromFile(csvFile));
+
+        assertEquals(expected.getClass(), actual.getClass());
+        assertEquals(expected.getMessage(), actual.getMessage());
+    }
+
+    @Test
+    void firstInvalidRowInFileOrderWins(@TempDir Path tempDir) throws IOException {
+        StringBuilder csv = new StringBuilder("Id,firstName,lastName,salary,managerId\r\n1,Mike,Doe,60000,\r\n");
+        for (int id = 2; id < 500; id++) {
+            csv.append(id).append(",Joe,Doe,45000,1\r\n");
+        }
+        csv.append("600,Jane,Doe,-1,1\r\n");
+        for (int id = 700; id < 1200; id++) {
+            csv.append(id).append(",Joe,Doe,45000\r\n");
+        }
+        csv.append("800,Bad1,Doe,45000,1\r\n");
+        Path csvFile = Files.writeString(tempDir.resolve("errors.csv"), csv);
+
+        var expected = assertThrows(RuntimeException.class,
+                () -> new EmployeeCSVReaderImpl().readEmployeesDataFromFile(csvFile.toString()));
+        for (int attempt = 0; attempt < 5; attempt++) {
+            var actual = assertThrows(RuntimeException.class,
+                    () -> new ParallelEmployeeCSVReaderImpl(8, SMALL_CHUNK_SIZE).readEmployeesDataFromFile(csvFile.toString()));
+            assertEquals(expected.getMessage(), actual.getMessage());
+        }
+    }
+
+    @Test
+    void readersShareAnInjectedPoolAcrossReads(@TempDir Path tempDir) throws IOException {
+        StringBuilder csv = new StringBuilder("Id,firstName,lastName,salary,managerId\n1,Mike,Doe,60000,\n");
+        for (int id = 2; id < 40_000; id++) {
+            csv.append(id).append(",Joe,Doe,45000,").append(id / 2).append(id % 3 == 0 ? "\r\n" : "\n");
+        }
+        Path csvFile = Files.writeString(tempDir.resolve("large.csv"), csv);
+        var sequential = new EmployeeCSVReaderImpl().readEmployeesDataFromFile(csvFile.toString());
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            // chunks of 256 KiB are tokenized through several copies of the 64 KiB buffer
+            var first = new ParallelEmployeeCSVReaderImpl(pool, 1 << 18, PipelineMetrics.disabled());
+            var second = new ParallelEmployeeCSVReaderImpl(pool, 1 << 18, PipelineMetrics.disabled());
+            for (int read = 0; read < 3; read++) {
+                assertSameEmployees(sequential, first.readEmployeesDataFromFile(csvFile.toString()));
+                assertEquals(sequential.size(), second.readEmployeeStoreLeniently(csvFile.toString()).employees().size());
+            }
+            assertFalse(pool.isShutdown());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void assertSameEmployees(Map<Integer, Employee> expected, Map<Integer, Employee> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Employee employee : expected.values()) {
+            Employee other = actual.get(employee.id());
+            assertEquals(employee.fullName(), other.fullName());
+            assertEquals(employee.salary(), other.salary());
+            assertEquals(employee.managerId(), other.managerId());
+            assertEquals(employee.subordinates().stream().map(Employee::id).toList(),
+                    other.subordinates().stream().map(Employee::id).toList());
+        }
+    }
+}
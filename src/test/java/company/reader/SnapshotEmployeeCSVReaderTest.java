@@ -0,0 +1,195 @@
+package company.reader;
+
+import org.company.exception.InvalidCsvDataException;
+import org.company.model.Employee;
+import org.company.model.EmployeeStore;
+import org.company.model.EmployeeStoreSnapshot;
+import org.company.reader.CsvReadResult;
+import org.company.reader.EmployeeCSVReader;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.company.reader.SnapshotEmployeeCSVReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotEmployeeCSVReaderTest {
+
+    @Test
+    void snapshotIsWrittenAndReloadedWithoutParsing(@TempDir Path tempDir) throws IOException {
+        Path csvFile = copy("bigCompany.csv", tempDir);
+        CountingReader counting = new CountingReader();
+        var reader = new SnapshotEmployeeCSVReader(counting);
+
+        EmployeeStore parsed = reader.readEmployeeStoreFromFile(csvFile.toString());
+        assertTrue(Files.exists(SnapshotEmployeeCSVReader.snapshotPath(csvFile.toString())));
+        EmployeeStore loaded = reader.readEmployeeStoreFromFile(csvFile.toString());
+
+        assertEquals(1, counting.reads.get());
+        assertSameStore(parsed, loaded);
+    }
+
+    @Test
+    void snapshotMapMatchesCsvMap(@TempDir Path tempDir) throws IOException {
+        Path csvFile = copy("company.csv", tempDir);
+        var reader = new SnapshotEmployeeCSVReader(new EmployeeCSVReaderImpl());
+        reader.readEmployeeStoreFromFile(csvFile.toString());
+
+        var expected = new EmployeeCSVReaderImpl().readEmployeesDataFromFile(csvFile.toString());
+        var actual = reader.readEmployeesDataFromFile(csvFile.toString());
+
+        assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach((id, employee) -> {
+            var other = actual.get(id);
+            assertEquals(employee.identityInfo(), other.identityInfo());
+            assertEquals(employee.salary(), other.salary());
+            assertEquals(employee.managerId(), other.managerId());
+            assertEquals(employee.subordinates().stream().map(Employee::id).toList(),
+                    other.subordinates().stream().map(Employee::id).toList());
+        });
+    }
+
+    @Test
+    void changedCsvFileInvalidatesSnapshot(@TempDir Path tempDir) throws IOException {
+        Path csvFile = copy("company.csv", tempDir);
+        CountingReader counting = new CountingReader();
+        var reader = new SnapshotEmployeeCSVReader(counting);
+        reader.readEmployeeStoreFromFile(csvFile.toString());
+
+        String csv = Files.readString(csvFile).replace("Joe,Doe,60000", "Joe,Doe,60001");
+        Files.writeString(csvFile, csv);
+        EmployeeStore reloaded = reader.readEmployeeStoreFromFile(csvFile.toString());
+
+        assertEquals(2, counting.reads.get());
+        assertEquals(60001, reloaded.salary(reloaded.indexOf(123)));
+        reader.readEmployeeStoreFromFile(csvFile.toString());
+        assertEquals(2, counting.reads.get());
+    }
+
+    @Test
+    void unreadableSnapshotFallsBackToCsvFile(@TempDir Path tempDir) throws IOException {
+        Path csvFile = copy("company.csv", tempDir);
+        Files.write(SnapshotEmployeeCSVReader.snapshotPath(csvFile.toString()), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        CountingReader counting = new CountingReader();
+
+        EmployeeStore employees = new SnapshotEmployeeCSVReader(counting).readEmployeeStoreFromFile(csvFile.toString());
+
+        assertEquals(1, counting.reads.get());
+        assertEquals(11, employees.size());
+    }
+
+    @Test
+    void corruptSnapshotCountsFallBackToCsvFile(@TempDir Path tempDir) throws IOException {
+        Path csvFile = copy("company.csv", tempDir);
+        Path snapshotFile = SnapshotEmployeeCSVReader.snapshotPath(csvFile.toString());
+        new SnapshotEmployeeCSVReader(new EmployeeCSVReaderImpl()).readEmployeeStoreFromFile(csvFile.toString());
+        byte[] snapshot = Files.readAllBytes(snapshotFile);
+
+        // employee count, name count and missing manager count of the header
+        for (int offset : new int[]{24, 28, 44}) {
+            for (int count : new int[]{-1, Integer.MAX_VALUE, 1 << 20}) {
+                byte[] corrupt = snapshot.clone();
+                ByteBuffer.wrap(corrupt).order(ByteOrder.LITTLE_ENDIAN).putInt(offset, count);
+                Files.write(snapshotFile, corrupt);
+                CountingReader counting = new CountingReader();
+
+                EmployeeStore employees = new SnapshotEmployeeCSVReader(counting)
+                        .readEmployeeStoreFromFile(csvFile.toString());
+
+                assertEquals(1, counting.reads.get(), "count " + count + " at " + offset);
+                assertEquals(11, employees.size());
+            }
+        }
+    }
+
+    @Test
+    void corruptSnapshotColumnsAreRejected(@TempDir Path tempDir) throws IOException {
+        Path csvFile = copy("company.csv", tempDir);
+        Path snapshotFile = SnapshotEmployeeCSVReader.snapshotPath(csvFile.toString());
+        new SnapshotEmployeeCSVReader(new EmployeeCSVReaderImpl()).readEmployeeStoreFromFile(csvFile.toString());
+        byte[] snapshot = Files.readAllBytes(snapshotFile);
+        int size = 11;
+        int managerIndexes = 48 + 8 * size;
+        int firstNames = 48 + 12 * size;
+        int childOffsets = 48 + 20 * size;
+        int children = 48 + 24 * size + 4;
+
+        // manager out of range, CEO given a manager, name code out of range, offsets out of order, wrong subordinate
+        int[][] corruptions = {{managerIndexes + 4, size}, {managerIndexes, 1}, {firstNames, 1000},
+                {childOffsets + 4, size + 1}, {children, 0}};
+        for (int[] corruption : corruptions) {
+            byte[] corrupt = snapshot.clone();
+            ByteBuffer.wrap(corrupt).order(ByteOrder.LITTLE_ENDIAN).putInt(corruption[0], corruption[1]);
+            Files.write(snapshotFile, corrupt);
+
+            assertThrows(IOException.class, () -> EmployeeStoreSnapshot.read(snapshotFile),
+                    corruption[1] + " at " + corruption[0]);
+            CountingReader counting = new CountingReader();
+            assertEquals(11, new SnapshotEmployeeCSVReader(counting).readEmployeeStoreFromFile(csvFile.toString()).size());
+            assertEquals(1, counting.reads.get());
+        }
+        assertEquals(11, EmployeeStoreSnapshot.read(snapshotFile).employees().size());
+    }
+
+    @Test
+    void invalidCsvFileDoesNotWriteSnapshot(@TempDir Path tempDir) throws IOException {
+        Path csvFile = copy("empty.csv", tempDir);
+        var reader = new SnapshotEmployeeCSVReader(new EmployeeCSVReaderImpl());
+
+        assertThrows(InvalidCsvDataException.class, () -> reader.readEmployeeStoreFromFile(csvFile.toString()));
+        assertFalse(Files.exists(SnapshotEmployeeCSVReader.snapshotPath(csvFile.toString())));
+    }
+
+    private static Path copy(String resource, Path tempDir) throws IOException {
+        return Files.copy(Path.of("src/test/resources", resource), tempDir.resolve(resource), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void assertSameStore(EmployeeStore expected, EmployeeStore actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.ceo(), actual.ceo());
+        for (int index = 0; index < expected.size(); index++) {
+            assertEquals(expected.id(index), actual.id(index));
+            assertEquals(expected.identityInfo(index), actual.identityInfo(index));
+            assertEquals(expected.salary(index), actual.salary(index));
+            assertEquals(expected.managerId(index), actual.managerId(index));
+            assertEquals(expected.managerIndex(index), actual.managerIndex(index));
+            assertEquals(index, actual.indexOf(expected.id(index)));
+            assertEquals(expected.subordinateCount(index), actual.subordinateCount(index));
+            for (int position = expected.firstSubordinate(index); position < expected.lastSubordinate(index); position++) {
+                assertEquals(expected.subordinate(position), actual.subordinate(position));
+            }
+        }
+    }
+
+    private static final class CountingReader implements EmployeeCSVReader {
+        private final EmployeeCSVReader delegate = new EmployeeCSVReaderImpl();
+        private final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public Map<Integer, Employee> readEmployeesDataFromFile(String csvFile) {
+            reads.incrementAndGet();
+            return delegate.readEmployeesDataFromFile(csvFile);
+        }
+
+        @Override
+        public EmployeeStore readEmployeeStoreFromFile(String csvFile) {
+            reads.incrementAndGet();
+            return delegate.readEmployeeStoreFromFile(csvFile);
+        }
+
+        @Override
+        public CsvReadResult readEmployeeStoreLeniently(String csvFile, int maxReportedErrors) {
+            reads.incrementAndGet();
+            return delegate.readEmployeeStoreLeniently(csvFile, maxReportedErrors);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package company.report;
+
+import org.company.analyzer.EmployeeAnalyzerImpl;
+import org.company.diff.Departure;
+import org.company.diff.Hire;
+import org.company.diff.ManagerMove;
+import org.company.diff.OrgChartDiff;
+import org.company.diff.SalaryChange;
+import org.company.finding.FindingChanges;
+import org.company.finding.Finding;
+import org.company.finding.OverpaidFinding;
+import org.company.finding.ReportingLineTooLongFinding;
+import org.company.finding.UnderpaidFinding;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.company.report.CountingFindingSink;
+import org.company.report.CsvFindingSink;
+import org.company.report.JsonLinesFindingSink;
+import org.company.report.OrgChartDiffWriter;
+import org.company.report.TextFindingSink;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+public class FindingSinkTest {
+
+    private static final UnderpaidFinding UNDERPAID = new UnderpaidFinding(124, "Martin", "Chekov", 45000, 90000.0);
+    private static final OverpaidFinding OVERPAID = new OverpaidFinding(311, "Anthony", "Brown", 100000, 75000.0);
+    private static final ReportingLineTooLongFinding REPORTING_LINE =
+            new ReportingLineTooLongFinding(313, "Brad", "Smith", 312, 5, 1);
+
+    private final StringWriter output = new StringWriter();
+    private final PrintWriter printWriter = new PrintWriter(output);
+
+    @Test
+    void analyzerProducesTypedFindings() {
+        var employees = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile("src/test/resources/company.csv");
+        List<Finding> findings = new ArrayList<>();
+
+        new EmployeeAnalyzerImpl(new PrintWriter(Writer.nullWriter())).analyzeEmployees(employees, findings::add);
+
+        assertEquals(8, findings.size());
+        assertEquals(new UnderpaidFinding(124, "Martin", "Chekov", 45000, 90000.0), findings.get(1));
+        assertEquals(new OverpaidFinding(312, "Denis", "How", 390000, 15000.0), findings.get(6));
+        ReportingLineTooLongFinding reportingLine = assertInstanceOf(ReportingLineTooLongFinding.class, findings.get(7));
+        assertEquals(313, reportingLine.employeeId());
+        assertEquals(312, reportingLine.managerId());
+        assertEquals(6, reportingLine.reportingLineDepth());
+        assertEquals(2, reportingLine.excess());
+    }
+
+    @Test
+    void textSinkMatchesReportFormat() {
+        var sink = new TextFindingSink(printWriter);
+        sink.accept(UNDERPAID);
+        sink.accept(OVERPAID);
+        sink.accept(REPORTING_LINE);
+        sink.accept(new ReportingLineTooLongFinding(314, "Anna", "Smith", 312, 5, 1));
+        sink.flush();
+
+        assertEquals("""
+                Employee id=124, Martin Chekov earns less than expected by 45000.0.
+                Employee id=311, Anthony Brown earns more than expected by 25000.0.
+                Find below Employees with reporting line more by 1
+                id=313, Brad Smith
+                id=314, Anna Smith""", output.toString().trim().replace(System.lineSeparator(), "\n"));
+    }
+
+    @Test
+    void csvSinkWritesHeaderAndOneRowPerFinding() {
+        var sink = new CsvFindingSink(printWriter);
+        sink.accept(UNDERPAID);
+        sink.accept(REPORTING_LINE);
+        sink.flush();
+
+        assertEquals("""
+                type,employeeId,firstName,lastName,salary,amount,managerId,reportingLineDepth,excess
+                UNDERPAID,124,Martin,Chekov,45000,45000.0,,,
+                REPORTING_LINE_TOO_LONG,313,Brad,Smith,,,312,5,1""", output.toString().trim().replace(System.lineSeparator(), "\n"));
+    }
+
+    @Test
+    void jsonLinesSinkWritesOneObjectPerLine() {
+        var sink = new JsonLinesFindingSink(printWriter);
+        sink.accept(OVERPAID);
+        sink.accept(REPORTING_LINE);
+        sink.flush();
+
+        assertEquals("""
+                {"type":"OVERPAID","employeeId":311,"firstName":"Anthony","lastName":"Brown","salary":100000,"amount":25000.0}
+                {"type":"REPORTING_LINE_TOO_LONG","employeeId":313,"firstName":"Brad","lastName":"Smith","managerId":312,"reportingLineDepth":5,"excess":1}""",
+                output.toString().trim().replace(System.lineSeparator(), "\n"));
+    }
+
+    @Test
+    void countingSinkCountsPerType() {
+        var sink = new CountingFindingSink(printWriter);
+        sink.accept(UNDERPAID);
+        sink.accept(UNDERPAID);
+        sink.accept(REPORTING_LINE);
+        sink.flush();
+
+        assertEquals(2, sink.underpaid());
+        assertEquals(0, sink.overpaid());
+        assertEquals(1, sink.reportingLineTooLong());
+        assertEquals(3, sink.total());
+        assertEquals("underpaid=2, overpaid=0, reportingLineTooLong=1", output.toString().trim());
+    }
+
+    @Test
+    void diffWriterWritesOneLinePerChangeThenTheFindingsDelta() {
+        OrgChartDiff diff = new OrgChartDiff(List.of(
+                new SalaryChange(125, "Bob", "Ronstad", 47000, 52000),
+                new Departure(305, "Brett", "Hardleaf", 34000, 300),
+                new ManagerMove(313, "Brad", "Smith", 312, null),
+                new Hire(400, "Zed", "New", 30000, 120)),
+                new FindingChanges(List.of(OVERPAID), List.of(UNDERPAID)));
+
+        new OrgChartDiffWriter(printWriter).write(diff);
+
+        assertEquals(String.join(System.lineSeparator(),
+                "Employee id=125, Bob Ronstad salary changed from 47000 to 52000.",
+                "Employee id=305, Brett Hardleaf left, last earning 34000.",
+                "Employee id=313, Brad Smith moved from id=312 to no manager.",
+                "Employee id=400, Zed New joined with salary 30000, reporting to id=120.",
+                "1 hires, 1 departures, 1 salary changes, 1 manager moves, 1 new findings, 1 resolved findings",
+                "- Employee id=124, Martin Chekov earns less than expected by 45000.0.",
+                "+ Employee id=311, Anthony Brown earns more than expected by 25000.0."), output.toString().trim());
+    }
+}
@@ -0,0 +1,150 @@
+package company.shard;
+
+import org.company.analyzer.EmployeeAnalyzerImpl;
+import org.company.analyzer.ThresholdPolicy;
+import org.company.finding.Finding;
+import org.company.generator.OrgChartGenerator;
+import org.company.metrics.PipelineMetrics;
+import org.company.model.EmployeeStore;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.company.shard.ShardCoordinator;
+import org.company.shard.ShardLauncher;
+import org.company.shard.ShardedAnalysis;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardCoordinatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void companyFileMatchesOneRunForEveryShardCount() throws IOException {
+        EmployeeStore employees = read("src/test/resources/company.csv");
+        List<Finding> expected = findings(employees, ThresholdPolicy.DEFAULT);
+
+        for (int shards = 1; shards <= 12; shards++) {
+            List<Finding> findings = new ArrayList<>();
+
+            ShardedAnalysis analysis = coordinator(shards, ShardLauncher.inProcess(), ThresholdPolicy.DEFAULT)
+                    .analyze(employees, findings::add);
+
+            assertEquals(expected, findings, "shards: " + shards);
+            assertEquals(8, analysis.findings());
+            assertTrue(analysis.shards() <= shards);
+        }
+    }
+
+    @Test
+    void generatedChartMatchesOneRunInOrder() throws IOException {
+        Path file = tempDir.resolve("generated.csv");
+        OrgChartGenerator.builder().headcount(30_000).seed(21).maxDepth(9)
+                .underpaidRate(0.1).overpaidRate(0.1).longReportingLineRate(0.1).build().generate(file);
+        EmployeeStore employees = read(file.toString());
+        ThresholdPolicy policy = new ThresholdPolicy(1.1, 1.4, 3);
+        List<Finding> findings = new ArrayList<>();
+
+        ShardedAnalysis analysis = coordinator(8, ShardLauncher.inProcess(), policy).analyze(employees, findings::add);
+
+        assertEquals(findings(employees, policy), findings);
+        assertEquals(8, analysis.shards());
+        assertTrue(analysis.largestShard() <= 2 * 30_000 / 8, "largest: " + analysis.largestShard());
+        assertTrue(analysis.spineEmployees() < 1_000, "spine: " + analysis.spineEmployees());
+        assertWorkFilesDeleted();
+    }
+
+    @Test
+    void structureWithoutNamesAndStreamedRowsMatchOneRun() throws IOException {
+        Path file = tempDir.resolve("generated.csv");
+        OrgChartGenerator.builder().headcount(20_000).seed(8).underpaidRate(0.1).overpaidRate(0.1)
+                .longReportingLineRate(0.1).build().generate(file);
+        EmployeeCSVReaderImpl reader = new EmployeeCSVReaderImpl();
+        EmployeeStore structure = reader.readEmployeeStructure(file.toString());
+        List<Finding> findings = new ArrayList<>();
+
+        ShardedAnalysis analysis = coordinator(6, ShardLauncher.inProcess(), ThresholdPolicy.DEFAULT)
+                .analyze(structure, handler -> reader.readRows(file.toString(), handler), findings::add);
+
+        assertEquals("", structure.firstName(structure.ceo()));
+        assertEquals(findings(read(file.toString()), ThresholdPolicy.DEFAULT), findings);
+        assertEquals(6, analysis.shards());
+        assertWorkFilesDeleted();
+    }
+
+    @Test
+    void rowsMissingFromTheStructureFailTheAnalysis() throws IOException {
+        EmployeeStore employees = read("src/test/resources/company.csv");
+
+        assertThrows(IOException.class, () -> coordinator(2, ShardLauncher.inProcess(), ThresholdPolicy.DEFAULT)
+                .analyze(employees, handler -> {
+                }, finding -> {
+                }));
+        assertWorkFilesDeleted();
+    }
+
+    @Test
+    void unreachableEmployeesAreLeftOut() throws IOException {
+        EmployeeStore employees = read("src/test/resources/bigCompany.csv");
+        List<Finding> findings = new ArrayList<>();
+
+        coordinator(5, ShardLauncher.inProcess(), ThresholdPolicy.DEFAULT).analyze(employees, findings::add);
+
+        assertEquals(findings(employees, ThresholdPolicy.DEFAULT), findings);
+    }
+
+    @Test
+    void workerProcessesProduceTheSameOutput() throws IOException {
+        Path file = tempDir.resolve("generated.csv");
+        OrgChartGenerator.builder().headcount(5_000).seed(4).underpaidRate(0.1).overpaidRate(0.1)
+                .longReportingLineRate(0.1).build().generate(file);
+        EmployeeStore employees = read(file.toString());
+        List<Finding> findings = new ArrayList<>();
+
+        ShardedAnalysis analysis = coordinator(3, ShardLauncher.processes(2, List.of("-Xmx64m")),
+                ThresholdPolicy.DEFAULT).analyze(employees, findings::add);
+
+        assertEquals(findings(employees, ThresholdPolicy.DEFAULT), findings);
+        assertEquals(3, analysis.shards());
+    }
+
+    @Test
+    void failingWorkerFailsTheAnalysis() throws IOException {
+        EmployeeStore employees = read("src/test/resources/company.csv");
+
+        assertThrows(IOException.class, () -> coordinator(2, shards -> {
+            throw new IOException("worker failed");
+        }, ThresholdPolicy.DEFAULT).analyze(employees, finding -> {
+        }));
+        assertWorkFilesDeleted();
+    }
+
+    private ShardCoordinator coordinator(int shards, ShardLauncher launcher, ThresholdPolicy policy)
+            throws IOException {
+        return new ShardCoordinator(shards, launcher, Files.createDirectories(tempDir.resolve("work")), policy);
+    }
+
+    private void assertWorkFilesDeleted() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir.resolve("work"))) {
+            assertEquals(List.of(), files.toList());
+        }
+    }
+
+    private static EmployeeStore read(String file) {
+        return new EmployeeCSVReaderImpl().readEmployeeStoreFromFile(file);
+    }
+
+    private static List<Finding> findings(EmployeeStore employees, ThresholdPolicy policy) {
+        List<Finding> findings = new ArrayList<>();
+        new EmployeeAnalyzerImpl(findings::add, 1, PipelineMetrics.disabled(), policy).analyzeEmployees(employees);
+        return findings;
+    }
+}
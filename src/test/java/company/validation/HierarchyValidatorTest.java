@@ -0,0 +1,97 @@
+package company.validation;
+
+import org.company.exception.InvalidCsvDataException;
+import org.company.model.EmployeeStore;
+import org.company.reader.EmployeeCSVReaderImpl;
+import org.company.validation.HierarchyIssue;
+import org.company.validation.HierarchyValidation;
+import org.company.validation.HierarchyValidationMode;
+import org.company.validation.HierarchyValidator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HierarchyValidatorTest {
+
+    @Test
+    void validHierarchyHasNoIssues() {
+        EmployeeStore employees = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile("src/test/resources/company.csv");
+
+        HierarchyValidation validation = new HierarchyValidator(HierarchyValidationMode.STRICT).check(employees);
+
+        assertTrue(validation.isValid());
+        assertSame(employees, validation.employees());
+        assertSame(employees, new HierarchyValidator(HierarchyValidationMode.STRICT).validate(employees));
+    }
+
+    @Test
+    void reportsEveryKindOfIssueInOnePass() {
+        EmployeeStore.Builder builder = EmployeeStore.builder();
+        builder.add(1, "Ceo", "Boss", 100000, false, 0);
+        builder.add(2, "Joe", "Doe", 50000, true, 1);
+        builder.add(3, "Self", "Managed", 50000, true, 3);
+        builder.add(4, "Lost", "Orphan", 50000, true, 99);
+        builder.add(5, "Other", "Root", 50000, false, 0);
+        builder.add(6, "Loop", "One", 50000, true, 7);
+        builder.add(7, "Loop", "Two", 50000, true, 8);
+        builder.add(8, "Loop", "Three", 50000, true, 6);
+        builder.add(9, "Below", "Loop", 50000, true, 7);
+        builder.add(10, "Below", "Orphan", 50000, true, 4);
+        builder.add(11, "Ann", "Doe", 50000, true, 2);
+
+        HierarchyValidation validation = new HierarchyValidator(HierarchyValidationMode.LENIENT).check(builder.build());
+
+        assertEquals(List.of(
+                new HierarchyIssue(HierarchyIssue.Type.SELF_MANAGED, 3, 3, List.of(3)),
+                new HierarchyIssue(HierarchyIssue.Type.MISSING_MANAGER, 4, 99, List.of(4)),
+                new HierarchyIssue(HierarchyIssue.Type.EXTRA_ROOT, 5, null, List.of(5)),
+                new HierarchyIssue(HierarchyIssue.Type.CYCLE, 6, 7, List.of(6, 7, 8))), validation.issues());
+        assertEquals(8, validation.quarantined());
+        assertEquals(3, validation.employees().size());
+        assertEquals(List.of(1, 2, 11), List.of(validation.employees().id(0), validation.employees().id(1),
+                validation.employees().id(2)));
+        assertEquals(0, validation.employees().ceo());
+    }
+
+    @Test
+    void lenientModeQuarantinesCyclesOfLargeFile() {
+        EmployeeStore employees = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile("src/test/resources/bigCompany.csv");
+
+        EmployeeStore valid = new HierarchyValidator(HierarchyValidationMode.LENIENT).validate(employees);
+        HierarchyValidation validation = new HierarchyValidator(HierarchyValidationMode.LENIENT).check(employees);
+
+        assertFalse(validation.isValid());
+        assertTrue(validation.issues().stream().allMatch(issue -> issue.type() == HierarchyIssue.Type.CYCLE));
+        assertEquals(1000 - valid.size(), validation.quarantined());
+        assertEquals(valid.size(), validation.employees().size());
+    }
+
+    @Test
+    void strictModeFailsOnInvalidHierarchy() {
+        EmployeeStore employees = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile("src/test/resources/bigCompany.csv");
+
+        var exception = assertThrows(InvalidCsvDataException.class,
+                () -> new HierarchyValidator(HierarchyValidationMode.STRICT).validate(employees));
+        assertTrue(exception.getMessage().startsWith("Invalid management hierarchy with "));
+    }
+
+    @Test
+    void offModeLeavesEmployeesUntouched() {
+        EmployeeStore employees = new EmployeeCSVReaderImpl().readEmployeeStoreFromFile("src/test/resources/bigCompany.csv");
+
+        assertSame(employees, new HierarchyValidator(HierarchyValidationMode.OFF).validate(employees));
+    }
+
+    @Test
+    void longChainIsValidatedWithoutRecursion() {
+        EmployeeStore.Builder builder = EmployeeStore.builder();
+        builder.add(0, "Ceo", "Boss", 100000, false, 0);
+        for (int id = 1; id < 1_000_000; id++) {
+            builder.add(id, "Joe", "Doe", 50000, true, id - 1);
+        }
+
+        assertTrue(new HierarchyValidator(HierarchyValidationMode.STRICT).check(builder.build()).isValid());
+    }
+}
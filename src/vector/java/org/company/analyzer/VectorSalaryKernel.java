@@ -0,0 +1,73 @@
+package org.company.analyzer;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernel on the incubating Vector API, built by the {@code vector} profile only.
+ * <p>
+ * Bands are checked over as many employees at once as a preferred double vector holds: sums, counts and
+ * salaries are converted to doubles, divided and compared lane by lane, and the comparison masks are stored
+ * straight into the bitmaps. Division, multiplication and conversions round like their scalar counterparts, so
+ * the results are identical.
+ */
+final class VectorSalaryKernel implements SalaryKernel {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    /**
+     * Whether the preferred shapes suit the kernel: half a double vector is a vector shape of its own, and the
+     * lanes of a double vector divide a bitmap word.
+     */
+    private static final boolean SUPPORTED = DOUBLES.vectorBitSize() >= 128 && 64 % DOUBLES.length() == 0;
+    /** Ints with as many lanes as {@link #DOUBLES}. */
+    private static final VectorSpecies<Integer> NARROW_INTS =
+            SUPPORTED ? VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2)) : null;
+
+    VectorSalaryKernel() {
+        if (!SUPPORTED) {
+            throw new IllegalStateException("Unsupported vector shape " + DOUBLES);
+        }
+    }
+
+    /**
+     * @return whether the preferred vector shapes of this CPU suit the kernel; checked before creating one
+     */
+    static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + DOUBLES.vectorBitSize();
+    }
+
+    @Override
+    public void checkBands(int[] salaries, long[] sums, int[] counts, double minCoefficient, double maxCoefficient,
+                           long[] underpaid, long[] overpaid) {
+        int lanes = DOUBLES.length();
+        int upper = DOUBLES.loopBound(salaries.length);
+        int i = 0;
+        for (; i < upper; i += lanes) {
+            DoubleVector salary = (DoubleVector) IntVector.fromArray(NARROW_INTS, salaries, i)
+                    .convertShape(VectorOperators.I2D, DOUBLES, 0);
+            DoubleVector count = (DoubleVector) IntVector.fromArray(NARROW_INTS, counts, i)
+                    .convertShape(VectorOperators.I2D, DOUBLES, 0);
+            DoubleVector sum = (DoubleVector) LongVector.fromArray(LONGS, sums, i)
+                    .convertShape(VectorOperators.L2D, DOUBLES, 0);
+            // 0 / 0 is NaN for employees without direct reports, and no comparison with NaN holds
+            DoubleVector averageSalary = sum.div(count);
+            VectorMask<Double> below = salary.compare(VectorOperators.LT, averageSalary.mul(minCoefficient));
+            VectorMask<Double> above = salary.compare(VectorOperators.GT, averageSalary.mul(maxCoefficient));
+            underpaid[i >>> 6] |= below.toLong() << i;
+            overpaid[i >>> 6] |= above.toLong() << i;
+        }
+        ScalarSalaryKernel.checkBands(salaries, sums, counts, minCoefficient, maxCoefficient, underpaid, overpaid,
+                i, salaries.length);
+    }
+}